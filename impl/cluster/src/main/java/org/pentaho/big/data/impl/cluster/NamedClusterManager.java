@@ -53,6 +53,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 public class NamedClusterManager implements NamedClusterService {
@@ -66,6 +67,7 @@ public class NamedClusterManager implements NamedClusterService {
   private LogChannel log = new LogChannel( this );
 
   private Map<String, Object> properties = new HashMap<>();
+  private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
   private static final String LOCALHOST = "localhost";
   private static final List<String> siteFileNames =
     Arrays.asList( "hdfs-site.xml", "core-site.xml", "mapred-site.xml", "yarn-site.xml",
@@ -132,9 +134,37 @@ public class NamedClusterManager implements NamedClusterService {
     this.clusterTemplate = clusterTemplate;
   }
 
+  /**
+   * Registers a listener that is called after a named cluster was created, updated or deleted through this manager,
+   * e.g. to drop cached cluster lookups.
+   *
+   * @param listener the listener to call
+   */
+  public void addChangeListener( Runnable listener ) {
+    changeListeners.add( listener );
+  }
+
+  public void removeChangeListener( Runnable listener ) {
+    changeListeners.remove( listener );
+  }
+
+  private void fireChanged() {
+    for ( Runnable listener : changeListeners ) {
+      try {
+        listener.run();
+      } catch ( RuntimeException e ) {
+        log.logError( "Error notifying a named cluster change listener", e );
+      }
+    }
+  }
+
   @Override
   public void create( NamedCluster namedCluster, IMetaStore metastore ) throws MetaStoreException {
-    getMetaStoreFactory( metastore ).saveElement( new NamedClusterImpl( namedCluster ) );
+    try {
+      getMetaStoreFactory( metastore ).saveElement( new NamedClusterImpl( namedCluster ) );
+    } finally {
+      fireChanged();
+    }
   }
 
   @Override
@@ -165,17 +195,25 @@ public class NamedClusterManager implements NamedClusterService {
   public void update( NamedCluster namedCluster, IMetaStore metastore ) throws MetaStoreException {
     MetaStoreFactory<NamedClusterImpl> factory = getMetaStoreFactory( metastore );
     List<NamedCluster> namedClusters = list( metastore );
-    for ( NamedCluster nc : namedClusters ) {
-      if ( namedCluster.getName().equals( nc.getName() ) ) {
-        factory.deleteElement( nc.getName() );
-        factory.saveElement( new NamedClusterImpl( namedCluster ) );
+    try {
+      for ( NamedCluster nc : namedClusters ) {
+        if ( namedCluster.getName().equals( nc.getName() ) ) {
+          factory.deleteElement( nc.getName() );
+          factory.saveElement( new NamedClusterImpl( namedCluster ) );
+        }
       }
+    } finally {
+      fireChanged();
     }
   }
 
   @Override
   public void delete( String clusterName, IMetaStore metastore ) throws MetaStoreException {
-    getMetaStoreFactory( metastore ).deleteElement( clusterName );
+    try {
+      getMetaStoreFactory( metastore ).deleteElement( clusterName );
+    } finally {
+      fireChanged();
+    }
   }
 
   @Override
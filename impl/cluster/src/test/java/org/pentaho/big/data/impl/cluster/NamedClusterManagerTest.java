@@ -147,6 +147,23 @@ public class NamedClusterManagerTest {
     verify( metaStoreFactory ).deleteElement( testName );
   }
 
+  @Test
+  public void testChangeListenersAreCalled() throws MetaStoreException {
+    Runnable listener = mock( Runnable.class );
+    namedClusterManager.addChangeListener( listener );
+    NamedClusterImpl namedCluster = new NamedClusterImpl();
+    namedCluster.setName( "testName" );
+
+    namedClusterManager.create( namedCluster, metaStore );
+    namedClusterManager.update( namedCluster, metaStore );
+    namedClusterManager.delete( "testName", metaStore );
+    verify( listener, times( 3 ) ).run();
+
+    namedClusterManager.removeChangeListener( listener );
+    namedClusterManager.delete( "testName", metaStore );
+    verify( listener, times( 3 ) ).run();
+  }
+
   @Test
   public void testList() throws MetaStoreException {
     NamedClusterImpl namedCluster = new NamedClusterImpl();
@@ -13,34 +13,50 @@
 
 package org.pentaho.big.data.impl.vfs.hdfs;
 
+import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.NameScope;
+import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileObject;
+import org.apache.commons.vfs2.util.RandomAccessMode;
 import org.pentaho.hadoop.shim.api.hdfs.HadoopFileStatus;
 import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystem;
 
 
+import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 
 public class HDFSFileObject extends AbstractFileObject  {
 
   private HadoopFileSystem hdfs;
+  private final HDFSFileStatusCache statusCache;
+  private final int readAheadDepth;
+  private final int readAheadChunkSize;
 
   public HDFSFileObject( final AbstractFileName name, final HDFSFileSystem fileSystem ) throws FileSystemException {
     super( name, fileSystem );
     hdfs = fileSystem.getHDFSFileSystem();
+    statusCache = fileSystem.getStatusCache();
+    readAheadDepth = fileSystem.getReadAheadDepth();
+    readAheadChunkSize = fileSystem.getReadAheadChunkSize();
+  }
+
+  private HadoopFileStatus getFileStatus() throws Exception {
+    return statusCache.getFileStatus( hdfs, getName().getPath() );
   }
 
   @Override
   protected long doGetContentSize() throws Exception {
-    return hdfs.getFileStatus( hdfs.getPath( getName().getPath() ) ).getLen();
+    return getFileStatus().getLen();
   }
 
   @Override
   protected OutputStream doGetOutputStream( boolean append ) throws Exception {
+    statusCache.invalidate( getName().getPath() );
     OutputStream out;
     if ( append ) {
       out = hdfs.append( hdfs.getPath( getName().getPath() ) );
@@ -50,14 +66,36 @@ public class HDFSFileObject extends AbstractFileObject  {
     return out;
   }
 
+  @Override
+  protected void endOutput() throws Exception {
+    // the size and modification time changed while the file was written
+    statusCache.invalidate( getName().getPath() );
+    super.endOutput();
+  }
+
   @Override
   protected InputStream doGetInputStream() throws Exception {
-    return hdfs.open( hdfs.getPath( getName().getPath() ) );
+    InputStream in = hdfs.open( hdfs.getPath( getName().getPath() ) );
+    if ( readAheadDepth > 0 ) {
+      return new HDFSReadAheadInputStream( in, readAheadChunkSize, readAheadDepth,
+        "HDFS read-ahead " + getName().getPath() );
+    }
+    return in;
   }
 
   @Override
   protected InputStream doGetInputStream( final int bufferSize ) throws Exception {
-    return this.doGetInputStream();
+    InputStream in = this.doGetInputStream();
+    if ( bufferSize > 0 && readAheadDepth <= 0 ) {
+      // read the HDFS stream in requests of the size asked for rather than in the small ones of the consumer
+      return new BufferedInputStream( in, bufferSize );
+    }
+    return in;
+  }
+
+  @Override
+  protected RandomAccessContent doGetRandomAccessContent( final RandomAccessMode mode ) throws Exception {
+    return new HDFSRandomAccessContent( hdfs, hdfs.getPath( getName().getPath() ), getFileStatus().getLen() );
   }
 
   @Override
@@ -67,7 +105,7 @@ public class HDFSFileObject extends AbstractFileObject  {
       throw new IllegalStateException( "No HDFS file system present" );
     }
     try {
-      status = hdfs.getFileStatus( hdfs.getPath( getName().getPath() ) );
+      status = getFileStatus();
     } catch ( Exception ex ) {
       // Ignore
     }
@@ -83,26 +121,37 @@ public class HDFSFileObject extends AbstractFileObject  {
 
   @Override
   public void doCreateFolder() throws Exception {
+    statusCache.invalidate( getName().getPath() );
     hdfs.mkdirs( hdfs.getPath( getName().getPath() ) );
   }
 
   @Override
   public void doDelete() throws Exception {
-    hdfs.delete( hdfs.getPath( getName().getPath() ), true );
+    try {
+      hdfs.delete( hdfs.getPath( getName().getPath() ), true );
+    } finally {
+      statusCache.invalidateTree( getName().getPath() );
+    }
   }
 
   @Override
   protected void doRename( FileObject newfile ) throws Exception {
-    hdfs.rename( hdfs.getPath( getName().getPath() ), hdfs.getPath( newfile.getName().getPath() ) );
+    try {
+      hdfs.rename( hdfs.getPath( getName().getPath() ), hdfs.getPath( newfile.getName().getPath() ) );
+    } finally {
+      statusCache.invalidateTree( getName().getPath() );
+      statusCache.invalidateTree( newfile.getName().getPath() );
+    }
   }
 
   @Override
   protected long doGetLastModifiedTime() throws Exception {
-    return hdfs.getFileStatus( hdfs.getPath( getName().getPath() ) ).getModificationTime();
+    return getFileStatus().getModificationTime();
   }
 
   @Override
   protected boolean doSetLastModifiedTime( long modtime ) throws Exception {
+    statusCache.invalidate( getName().getPath() );
     hdfs.setTimes( hdfs.getPath( getName().getPath() ), modtime, System.currentTimeMillis() );
     return true;
   }
@@ -117,4 +166,34 @@ public class HDFSFileObject extends AbstractFileObject  {
     return children;
   }
 
+  /**
+   * Lists the children with the statuses the listing returned, so that getting their type, size or modification time
+   * right after does not cost another RPC per child. The statuses are kept in the status cache, so without the cache
+   * this returns null and VFS lists the children by name.
+   */
+  @Override
+  protected FileObject[] doListChildrenResolved() throws Exception {
+    if ( !statusCache.isEnabled() ) {
+      return null;
+    }
+    HadoopFileStatus[] statusList = hdfs.listStatus( hdfs.getPath( getName().getPath() ) );
+    FileObject[] children = new FileObject[ statusList.length ];
+    for ( int i = 0; i < statusList.length; i++ ) {
+      FileName childName = resolveChildName( statusList[ i ].getPath().getName() );
+      statusCache.put( childName.getPath(), statusList[ i ] );
+      children[ i ] = getFileSystem().resolveFile( childName );
+    }
+    return children;
+  }
+
+  FileName resolveChildName( String name ) throws FileSystemException {
+    return getFileSystem().getFileSystemManager().resolveName( getName(), "./" + name, NameScope.CHILD );
+  }
+
+  @Override
+  public void refresh() throws FileSystemException {
+    statusCache.invalidate( getName().getPath() );
+    super.refresh();
+  }
+
 }
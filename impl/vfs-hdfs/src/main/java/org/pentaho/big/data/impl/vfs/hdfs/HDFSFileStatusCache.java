@@ -0,0 +1,161 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.impl.vfs.hdfs;
+
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileStatus;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystem;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches the status of the files of one HDFS file system for a short time. Checking whether a file exists, its size
+ * and its modification time then costs one NameNode RPC instead of three. Entries expire after the TTL, and the file
+ * objects of this provider invalidate them when they write, create, delete or rename a file. Changes made by other
+ * clients become visible once the TTL has passed. Missing files are not cached.
+ */
+public class HDFSFileStatusCache {
+
+  /** The default time statuses are cached for, in milliseconds */
+  public static final long DEFAULT_TTL_MILLIS = 2000L;
+
+  /** Beyond this number of entries the expired ones are removed, it is large enough for big directory listings */
+  static final int PURGE_THRESHOLD = 100000;
+
+  private static class Entry {
+    private final HadoopFileStatus status;
+    private final long expires;
+
+    Entry( HadoopFileStatus status, long expires ) {
+      this.status = status;
+      this.expires = expires;
+    }
+  }
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final long ttlMillis;
+  private final LongSupplier clock;
+
+  /**
+   * @param ttlMillis how long statuses are cached for, 0 or less to disable the cache
+   */
+  public HDFSFileStatusCache( long ttlMillis ) {
+    this( ttlMillis, System::currentTimeMillis );
+  }
+
+  HDFSFileStatusCache( long ttlMillis, LongSupplier clock ) {
+    this.ttlMillis = ttlMillis;
+    this.clock = clock;
+  }
+
+  /**
+   * @return true if statuses are cached
+   */
+  public boolean isEnabled() {
+    return ttlMillis > 0;
+  }
+
+  /**
+   * Get the status of a file, from the cache if it has been read recently.
+   *
+   * @param hdfs the file system to read the status from
+   * @param path the path of the file
+   * @return the status, or null if the file system returned none
+   * @throws Exception if the file system could not get the status
+   */
+  public HadoopFileStatus getFileStatus( HadoopFileSystem hdfs, String path ) throws Exception {
+    if ( !isEnabled() ) {
+      return hdfs.getFileStatus( hdfs.getPath( path ) );
+    }
+    Entry entry = entries.get( path );
+    if ( entry != null ) {
+      if ( clock.getAsLong() < entry.expires ) {
+        return entry.status;
+      }
+      entries.remove( path, entry );
+    }
+    HadoopFileStatus status = hdfs.getFileStatus( hdfs.getPath( path ) );
+    put( path, status );
+    return status;
+  }
+
+  /**
+   * Cache a status that was read by other means, such as a directory listing.
+   *
+   * @param path   the path of the file
+   * @param status the status, ignored if null
+   */
+  public void put( String path, HadoopFileStatus status ) {
+    if ( !isEnabled() || status == null ) {
+      return;
+    }
+    if ( entries.size() >= PURGE_THRESHOLD ) {
+      purgeExpired();
+    }
+    entries.put( path, new Entry( status, clock.getAsLong() + ttlMillis ) );
+  }
+
+  /**
+   * Forget the status of a file and of its parent folder, whose modification time changes with its children.
+   *
+   * @param path the path of the file
+   */
+  public void invalidate( String path ) {
+    entries.remove( path );
+    String parent = getParent( path );
+    if ( parent != null ) {
+      entries.remove( parent );
+    }
+  }
+
+  /**
+   * Forget the status of a file, of everything below it and of its parent folder.
+   *
+   * @param path the path of the file or folder
+   */
+  public void invalidateTree( String path ) {
+    invalidate( path );
+    String prefix = path.endsWith( "/" ) ? path : path + "/";
+    entries.keySet().removeIf( key -> key.startsWith( prefix ) );
+  }
+
+  /**
+   * Forget all statuses.
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  private void purgeExpired() {
+    long now = clock.getAsLong();
+    entries.values().removeIf( entry -> now >= entry.expires );
+    if ( entries.size() >= PURGE_THRESHOLD ) {
+      entries.clear();
+    }
+  }
+
+  private static String getParent( String path ) {
+    int end = path.endsWith( "/" ) ? path.length() - 1 : path.length();
+    int slash = path.lastIndexOf( '/', end - 1 );
+    if ( slash < 0 || end <= 0 ) {
+      return null;
+    }
+    return slash == 0 ? "/" : path.substring( 0, slash );
+  }
+}
@@ -21,17 +21,29 @@ import org.apache.commons.vfs2.FileSystemException;
 import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.provider.AbstractFileName;
 import org.apache.commons.vfs2.provider.AbstractFileSystem;
+import org.pentaho.big.data.impl.vfs.hdfs.nc.NamedClusterConfigBuilder;
 import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystem;
 
 import java.util.Collection;
+import java.util.concurrent.Semaphore;
 
 public class HDFSFileSystem extends AbstractFileSystem implements FileSystem {
   private final HadoopFileSystem hdfs;
+  private final HDFSFileStatusCache statusCache;
+  private final int readAheadDepth;
+  private final int readAheadChunkSize;
+  private final Semaphore listingPermits;
 
   public HDFSFileSystem( final FileName rootName, final FileSystemOptions fileSystemOptions,
                             HadoopFileSystem hdfs ) {
     super( rootName, null, fileSystemOptions );
     this.hdfs = hdfs;
+    NamedClusterConfigBuilder configBuilder = NamedClusterConfigBuilder.getInstance();
+    this.statusCache = new HDFSFileStatusCache( configBuilder.getStatusCacheTtl( fileSystemOptions ) );
+    this.readAheadDepth = configBuilder.getReadAheadDepth( fileSystemOptions );
+    this.readAheadChunkSize = configBuilder.getReadAheadChunkSize( fileSystemOptions );
+    this.listingPermits =
+      new Semaphore( Math.max( 1, configBuilder.getMaxConcurrentListings( fileSystemOptions ) ), true );
   }
 
   @Override
@@ -55,4 +67,33 @@ public class HDFSFileSystem extends AbstractFileSystem implements FileSystem {
   public HadoopFileSystem getHDFSFileSystem() throws FileSystemException {
     return hdfs;
   }
+
+  /**
+   * @return the cache of the file statuses of this file system, shared by all its file objects
+   */
+  public HDFSFileStatusCache getStatusCache() {
+    return statusCache;
+  }
+
+  /**
+   * @return how many chunks input streams read ahead on a background thread, 0 if they do not read ahead
+   */
+  public int getReadAheadDepth() {
+    return readAheadDepth;
+  }
+
+  /**
+   * @return the size in bytes of the chunks input streams read ahead
+   */
+  public int getReadAheadChunkSize() {
+    return readAheadChunkSize;
+  }
+
+  /**
+   * @return the permits to list a folder, shared by all the tree walks of this file system to limit the load they put
+   *         on its NameNode
+   */
+  public Semaphore getListingPermits() {
+    return listingPermits;
+  }
 }
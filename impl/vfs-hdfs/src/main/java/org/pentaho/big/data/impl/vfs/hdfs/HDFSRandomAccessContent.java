@@ -0,0 +1,230 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.impl.vfs.hdfs;
+
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.provider.AbstractRandomAccessStreamContent;
+import org.apache.commons.vfs2.util.RandomAccessMode;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystem;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystemPath;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Read-only random access to an HDFS file. Reads go to the position of the file pointer directly instead of streaming
+ * the file from its start, so reading the footer of a columnar file costs a couple of reads however big the file is.
+ * <p>
+ * The stream opened by the shim is a Hadoop FSDataInputStream, which reads at a position with its
+ * {@code read(long, byte[], int, int)} method. That method is looked up by reflection since this module does not
+ * depend on Hadoop. A stream without it is skipped forward to the position, and opened again to go back.
+ * <p>
+ * Small reads are served from a read-ahead window, so reading a file field by field does not cost an RPC per field.
+ */
+class HDFSRandomAccessContent extends AbstractRandomAccessStreamContent {
+
+  /** The default size of the read-ahead window */
+  static final int DEFAULT_READ_AHEAD = 64 * 1024;
+
+  private final HadoopFileSystem hdfs;
+  private final HadoopFileSystemPath path;
+  private final long length;
+  private final byte[] window;
+  private final byte[] single = new byte[ 1 ];
+  private long windowStart;
+  private int windowLength;
+  private long filePointer;
+
+  private InputStream in;
+  private Method positionalRead;
+  private boolean sequentialOnly;
+  private long streamPosition;
+  private DataInputStream dis;
+
+  HDFSRandomAccessContent( HadoopFileSystem hdfs, HadoopFileSystemPath path, long length ) {
+    this( hdfs, path, length, DEFAULT_READ_AHEAD );
+  }
+
+  HDFSRandomAccessContent( HadoopFileSystem hdfs, HadoopFileSystemPath path, long length, int readAhead ) {
+    super( RandomAccessMode.READ );
+    this.hdfs = hdfs;
+    this.path = path;
+    this.length = length;
+    this.window = new byte[ Math.max( 1, readAhead ) ];
+  }
+
+  @Override
+  public long getFilePointer() throws IOException {
+    return filePointer;
+  }
+
+  @Override
+  public void seek( long pos ) throws IOException {
+    if ( pos < 0 ) {
+      throw new FileSystemException( "vfs.provider/random-access-invalid-position.error", pos );
+    }
+    filePointer = pos;
+  }
+
+  @Override
+  public long length() throws IOException {
+    return length;
+  }
+
+  @Override
+  protected DataInputStream getDataInputStream() throws IOException {
+    if ( dis == null ) {
+      dis = new DataInputStream( new InputStream() {
+        @Override
+        public int read() throws IOException {
+          return read( single, 0, 1 ) <= 0 ? -1 : single[ 0 ] & 0xff;
+        }
+
+        @Override
+        public int read( byte[] b, int off, int len ) throws IOException {
+          return readAtFilePointer( b, off, len );
+        }
+
+        @Override
+        public long skip( long n ) throws IOException {
+          long skipped = Math.max( 0, Math.min( n, length - filePointer ) );
+          filePointer += skipped;
+          return skipped;
+        }
+
+        @Override
+        public int available() {
+          long inWindow = windowStart + windowLength - filePointer;
+          return filePointer >= windowStart && inWindow > 0 ? (int) inWindow : 0;
+        }
+      } );
+    }
+    return dis;
+  }
+
+  @Override
+  public void close() throws IOException {
+    dis = null;
+    windowLength = 0;
+    if ( in != null ) {
+      InputStream stream = in;
+      in = null;
+      stream.close();
+    }
+  }
+
+  private int readAtFilePointer( byte[] b, int off, int len ) throws IOException {
+    if ( len == 0 ) {
+      return 0;
+    }
+    if ( filePointer >= length ) {
+      return -1;
+    }
+    len = (int) Math.min( len, length - filePointer );
+    if ( filePointer < windowStart || filePointer >= windowStart + windowLength ) {
+      if ( len >= window.length ) {
+        // large reads gain nothing from the window
+        int read = readAt( filePointer, b, off, len );
+        if ( read > 0 ) {
+          filePointer += read;
+        }
+        return read;
+      }
+      fillWindow( filePointer );
+      if ( windowLength == 0 ) {
+        return -1;
+      }
+    }
+    int read = (int) Math.min( len, windowStart + windowLength - filePointer );
+    System.arraycopy( window, (int) ( filePointer - windowStart ), b, off, read );
+    filePointer += read;
+    return read;
+  }
+
+  private void fillWindow( long position ) throws IOException {
+    windowStart = position;
+    windowLength = 0;
+    int wanted = (int) Math.min( window.length, length - position );
+    while ( windowLength < wanted ) {
+      int read = readAt( position + windowLength, window, windowLength, wanted - windowLength );
+      if ( read < 0 ) {
+        break;
+      }
+      windowLength += read;
+    }
+  }
+
+  /**
+   * Read from a position of the file, with a positional read if the stream has one.
+   */
+  private int readAt( long position, byte[] b, int off, int len ) throws IOException {
+    InputStream stream = getStream();
+    if ( positionalRead != null ) {
+      try {
+        return (Integer) positionalRead.invoke( stream, position, b, off, len );
+      } catch ( InvocationTargetException e ) {
+        if ( e.getCause() instanceof IOException ) {
+          throw (IOException) e.getCause();
+        }
+        // the wrapped stream can not read at a position, read it sequentially instead
+        sequentialOnly = true;
+        positionalRead = null;
+      } catch ( IllegalAccessException e ) {
+        sequentialOnly = true;
+        positionalRead = null;
+      }
+    }
+    if ( position < streamPosition ) {
+      in = null;
+      stream.close();
+      stream = getStream();
+    }
+    while ( streamPosition < position ) {
+      long skipped = stream.skip( position - streamPosition );
+      if ( skipped <= 0 ) {
+        if ( stream.read() < 0 ) {
+          return -1;
+        }
+        skipped = 1;
+      }
+      streamPosition += skipped;
+    }
+    int read = stream.read( b, off, len );
+    if ( read > 0 ) {
+      streamPosition += read;
+    }
+    return read;
+  }
+
+  private InputStream getStream() throws IOException {
+    if ( in == null ) {
+      in = hdfs.open( path );
+      streamPosition = 0;
+      positionalRead = sequentialOnly ? null : findPositionalRead( in );
+    }
+    return in;
+  }
+
+  private static Method findPositionalRead( InputStream stream ) {
+    try {
+      Method method = stream.getClass().getMethod( "read", long.class, byte[].class, int.class, int.class );
+      return method.getReturnType() == int.class ? method : null;
+    } catch ( NoSuchMethodException | SecurityException e ) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,163 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.impl.vfs.hdfs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads a stream ahead of its consumer on a background thread. The next chunks of the stream are read while the
+ * consumer processes the current one, so the latency of reading from the data nodes overlaps with the processing
+ * instead of adding to it. At most {@code depth} chunks are held in memory besides the one being consumed.
+ * <p>
+ * A failure of the background read is rethrown by the read that reaches it. Closing the stream stops the background
+ * thread and closes the underlying stream.
+ */
+public class HDFSReadAheadInputStream extends InputStream {
+
+  /** The default size of the chunks read ahead */
+  public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+  private static final byte[] END = new byte[ 0 ];
+
+  private final InputStream in;
+  private final int chunkSize;
+  private final BlockingQueue<byte[]> chunks;
+  private final Thread reader;
+  private volatile IOException failure;
+  private volatile boolean closed;
+
+  private byte[] chunk;
+  private int chunkPos;
+  private final byte[] single = new byte[ 1 ];
+
+  /**
+   * Create the stream and start reading ahead.
+   *
+   * @param in         the stream to read ahead
+   * @param chunkSize  the size of the chunks to read
+   * @param depth      the number of chunks to read ahead
+   * @param threadName the name of the reading thread
+   */
+  public HDFSReadAheadInputStream( InputStream in, int chunkSize, int depth, String threadName ) {
+    this.in = in;
+    this.chunkSize = Math.max( 1, chunkSize );
+    this.chunks = new ArrayBlockingQueue<>( Math.max( 1, depth ) );
+    this.reader = new Thread( this::readAhead, threadName );
+    reader.setDaemon( true );
+    reader.start();
+  }
+
+  private void readAhead() {
+    try {
+      while ( !closed ) {
+        byte[] buffer = new byte[ chunkSize ];
+        int filled = 0;
+        while ( filled < chunkSize ) {
+          int read = in.read( buffer, filled, chunkSize - filled );
+          if ( read < 0 ) {
+            break;
+          }
+          filled += read;
+        }
+        if ( filled > 0 ) {
+          chunks.put( filled == chunkSize ? buffer : Arrays.copyOf( buffer, filled ) );
+        }
+        if ( filled < chunkSize ) {
+          break;
+        }
+      }
+    } catch ( InterruptedException e ) {
+      // closed while waiting for the consumer
+      return;
+    } catch ( IOException e ) {
+      if ( !closed ) {
+        failure = e;
+      }
+    } catch ( RuntimeException e ) {
+      if ( !closed ) {
+        failure = new IOException( e );
+      }
+    }
+    try {
+      chunks.put( END );
+    } catch ( InterruptedException e ) {
+      // closed while waiting for the consumer
+    }
+  }
+
+  /**
+   * @return the current chunk with bytes left in it, or END at the end of the stream
+   */
+  private byte[] current() throws IOException {
+    if ( closed ) {
+      throw new IOException( "Stream closed" );
+    }
+    while ( chunk == null || ( chunk != END && chunkPos >= chunk.length ) ) {
+      try {
+        chunk = chunks.take();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException( "Interrupted while waiting for the stream to be read" );
+      }
+      chunkPos = 0;
+    }
+    if ( chunk == END && failure != null ) {
+      throw failure;
+    }
+    return chunk;
+  }
+
+  @Override
+  public int read() throws IOException {
+    return read( single, 0, 1 ) <= 0 ? -1 : single[ 0 ] & 0xff;
+  }
+
+  @Override
+  public int read( byte[] b, int off, int len ) throws IOException {
+    if ( len == 0 ) {
+      return 0;
+    }
+    byte[] current = current();
+    if ( current == END ) {
+      return -1;
+    }
+    int read = Math.min( len, current.length - chunkPos );
+    System.arraycopy( current, chunkPos, b, off, read );
+    chunkPos += read;
+    return read;
+  }
+
+  @Override
+  public int available() {
+    byte[] current = chunk;
+    return current == null || current == END ? 0 : current.length - chunkPos;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    reader.interrupt();
+    chunks.clear();
+    chunk = null;
+    in.close();
+  }
+}
@@ -0,0 +1,322 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.impl.vfs.hdfs;
+
+import org.apache.commons.vfs2.FileSystemException;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileStatus;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystem;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystemPath;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Walks an HDFS folder tree, listing many folders at the same time instead of one RPC after the other. The folders
+ * are listed by a fork-join pool of a bounded size. The number of folders being listed at the same time is further
+ * limited by permits shared by all the walks of a file system, so that concurrent walks do not overload its NameNode.
+ * <p>
+ * The files and folders found are returned by an iterator while the walk goes on, in no particular order. The
+ * iterator holds a bounded number of them, and the listing threads wait while it is full, so memory stays bounded
+ * however many files the tree holds. A walk that is not read to its end has to be closed.
+ * <p>
+ * The number of folders waiting to be listed is bounded as well. A listing thread that finds a folder while too many
+ * are waiting lists it itself, which holds it back from finding more, instead of blocking until one of the waiting
+ * folders is taken: every listing thread could be blocked that way, leaving none to take them. The listing threads
+ * wait for listing permits and for room in the iterator through {@link ForkJoinPool#managedBlock}, so that the pool
+ * can start a few more threads while they wait.
+ */
+public class HDFSTreeWalker {
+
+  /** The default number of threads listing folders for one walk */
+  public static final int DEFAULT_PARALLELISM = 8;
+
+  /** The default number of folders that may be listed at the same time on one file system */
+  public static final int DEFAULT_MAX_CONCURRENT_LISTINGS = 8;
+
+  /** The default number of found files the iterator holds */
+  public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
+  /** The default number of folders that may wait to be listed in one walk */
+  public static final int DEFAULT_MAX_QUEUED_FOLDERS = 1000;
+
+  /** A depth that does not limit the walk */
+  public static final int UNLIMITED_DEPTH = Integer.MAX_VALUE;
+
+  private static final AtomicInteger WALK_NUMBER = new AtomicInteger();
+
+  private final HadoopFileSystem hdfs;
+  private final Semaphore listingPermits;
+  private final int parallelism;
+  private final int queueCapacity;
+  private final int maxQueuedFolders;
+
+  /**
+   * Create a walker with the default parallelism, sharing the listing permits of the file system.
+   *
+   * @param fileSystem the file system to walk
+   * @throws FileSystemException if the HDFS file system is not available
+   */
+  public HDFSTreeWalker( HDFSFileSystem fileSystem ) throws FileSystemException {
+    this( fileSystem.getHDFSFileSystem(), fileSystem.getListingPermits(), DEFAULT_PARALLELISM,
+      DEFAULT_QUEUE_CAPACITY );
+  }
+
+  /**
+   * @param hdfs           the file system to walk
+   * @param listingPermits the permits to list a folder, shared by the walks of the file system
+   * @param parallelism    the number of threads listing folders
+   * @param queueCapacity  the number of found files the iterator holds
+   */
+  public HDFSTreeWalker( HadoopFileSystem hdfs, Semaphore listingPermits, int parallelism, int queueCapacity ) {
+    this( hdfs, listingPermits, parallelism, queueCapacity, DEFAULT_MAX_QUEUED_FOLDERS );
+  }
+
+  /**
+   * @param hdfs             the file system to walk
+   * @param listingPermits   the permits to list a folder, shared by the walks of the file system
+   * @param parallelism      the number of threads listing folders
+   * @param queueCapacity    the number of found files the iterator holds
+   * @param maxQueuedFolders the number of folders that may wait to be listed
+   */
+  public HDFSTreeWalker( HadoopFileSystem hdfs, Semaphore listingPermits, int parallelism, int queueCapacity,
+                         int maxQueuedFolders ) {
+    this.hdfs = hdfs;
+    this.listingPermits = listingPermits;
+    this.parallelism = Math.max( 1, parallelism );
+    this.queueCapacity = Math.max( 1, queueCapacity );
+    this.maxQueuedFolders = Math.max( 1, maxQueuedFolders );
+  }
+
+  /**
+   * Start walking a folder tree.
+   *
+   * @param root     the folder to walk, it is not returned itself
+   * @param maxDepth the depth to walk to, 1 for the children of the root only
+   * @return the files and folders below the root
+   */
+  public Walk walk( HadoopFileSystemPath root, int maxDepth ) {
+    return new Walk( root, maxDepth );
+  }
+
+  /**
+   * The files and folders of a walk, found while it goes on. A failure of the walk is thrown by {@link #hasNext()}
+   * as an {@link UncheckedIOException}.
+   */
+  public class Walk implements Iterator<HadoopFileStatus>, Closeable {
+    private final Object end = new Object();
+    private final int maxDepth;
+    private final ForkJoinPool pool;
+    private final BlockingQueue<Object> found;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Semaphore queuedFolders;
+    private volatile IOException failure;
+    private volatile boolean stopped;
+    private HadoopFileStatus next;
+    private boolean done;
+
+    private Walk( HadoopFileSystemPath root, int maxDepth ) {
+      this.maxDepth = maxDepth;
+      this.found = new ArrayBlockingQueue<>( queueCapacity );
+      this.queuedFolders = new Semaphore( maxQueuedFolders );
+      String threadName = "HDFS tree walk " + WALK_NUMBER.incrementAndGet();
+      // threads blocked in managedBlock are made up for by at most as many again, past that they just block
+      this.pool = new ForkJoinPool( parallelism, forkJoinPool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread( forkJoinPool );
+        thread.setName( threadName + "-" + thread.getPoolIndex() );
+        return thread;
+      }, null, false, 0, 2 * parallelism, 1, forkJoinPool -> true, 60, TimeUnit.SECONDS );
+      if ( maxDepth > 0 ) {
+        submit( root, 1 );
+      } else {
+        done = true;
+        pool.shutdown();
+      }
+    }
+
+    private void submit( HadoopFileSystemPath folder, int depth ) {
+      pending.incrementAndGet();
+      if ( !queuedFolders.tryAcquire() ) {
+        // too many folders are waiting already
+        list( folder, depth );
+        return;
+      }
+      try {
+        pool.execute( () -> {
+          queuedFolders.release();
+          list( folder, depth );
+        } );
+      } catch ( RejectedExecutionException e ) {
+        // the walk has been closed
+        queuedFolders.release();
+        finish();
+      }
+    }
+
+    private void list( HadoopFileSystemPath folder, int depth ) {
+      try {
+        if ( !stopped ) {
+          for ( HadoopFileStatus child : listStatus( folder ) ) {
+            if ( stopped ) {
+              break;
+            }
+            // submit the folder before handing it out, so the walk can not look finished in between
+            if ( child.isDir() && depth < maxDepth ) {
+              submit( child.getPath(), depth + 1 );
+            }
+            put( child );
+          }
+        }
+      } catch ( InterruptedException e ) {
+        stopped = true;
+      } catch ( IOException e ) {
+        fail( e );
+      } catch ( RuntimeException e ) {
+        fail( new IOException( e ) );
+      } finally {
+        finish();
+      }
+    }
+
+    /**
+     * @return the number of folders waiting to be listed
+     */
+    int getQueuedFolders() {
+      return maxQueuedFolders - queuedFolders.availablePermits();
+    }
+
+    /**
+     * Count a folder as done, ending the walk after the last one.
+     */
+    private void finish() {
+      if ( pending.decrementAndGet() == 0 ) {
+        try {
+          put( end );
+        } catch ( InterruptedException e ) {
+          stopped = true;
+        }
+      }
+    }
+
+    private HadoopFileStatus[] listStatus( HadoopFileSystemPath folder ) throws IOException, InterruptedException {
+      ForkJoinPool.managedBlock( new ForkJoinPool.ManagedBlocker() {
+        private boolean acquired;
+
+        @Override
+        public boolean block() throws InterruptedException {
+          listingPermits.acquire();
+          acquired = true;
+          return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+          return acquired || ( acquired = listingPermits.tryAcquire() );
+        }
+      } );
+      try {
+        HadoopFileStatus[] children = hdfs.listStatus( folder );
+        return children == null ? new HadoopFileStatus[ 0 ] : children;
+      } finally {
+        listingPermits.release();
+      }
+    }
+
+    private void put( Object item ) throws InterruptedException {
+      ForkJoinPool.managedBlock( new ForkJoinPool.ManagedBlocker() {
+        private boolean done;
+
+        @Override
+        public boolean block() throws InterruptedException {
+          // give up once nobody reads the walk any more
+          done = found.offer( item, 100, TimeUnit.MILLISECONDS ) || stopped;
+          return done;
+        }
+
+        @Override
+        public boolean isReleasable() {
+          return done || ( done = found.offer( item ) ) || ( stopped && item != end );
+        }
+      } );
+    }
+
+    private void fail( IOException e ) {
+      if ( failure == null ) {
+        failure = e;
+      }
+      stopped = true;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if ( next != null ) {
+        return true;
+      }
+      if ( done ) {
+        return false;
+      }
+      Object item;
+      try {
+        item = found.take();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        close();
+        throw new UncheckedIOException( new InterruptedIOException( "Interrupted while walking the folder tree" ) );
+      }
+      if ( item == end ) {
+        done = true;
+        pool.shutdown();
+        if ( failure != null ) {
+          throw new UncheckedIOException( failure );
+        }
+        return false;
+      }
+      next = (HadoopFileStatus) item;
+      return true;
+    }
+
+    @Override
+    public HadoopFileStatus next() {
+      if ( !hasNext() ) {
+        throw new NoSuchElementException();
+      }
+      HadoopFileStatus result = next;
+      next = null;
+      return result;
+    }
+
+    /**
+     * Stop the walk.
+     */
+    @Override
+    public void close() {
+      stopped = true;
+      done = true;
+      next = null;
+      pool.shutdownNow();
+      found.clear();
+    }
+  }
+}
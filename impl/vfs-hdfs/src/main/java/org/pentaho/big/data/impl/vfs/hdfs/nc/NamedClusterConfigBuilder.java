@@ -16,7 +16,10 @@ package org.pentaho.big.data.impl.vfs.hdfs.nc;
 import org.apache.commons.vfs2.FileSystem;
 import org.apache.commons.vfs2.FileSystemConfigBuilder;
 import org.apache.commons.vfs2.FileSystemOptions;
+import org.pentaho.big.data.impl.vfs.hdfs.HDFSFileStatusCache;
 import org.pentaho.big.data.impl.vfs.hdfs.HDFSFileSystem;
+import org.pentaho.big.data.impl.vfs.hdfs.HDFSReadAheadInputStream;
+import org.pentaho.big.data.impl.vfs.hdfs.HDFSTreeWalker;
 import org.pentaho.di.core.vfs.configuration.KettleGenericFileSystemConfigBuilder;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterService;
@@ -30,6 +33,10 @@ public class NamedClusterConfigBuilder extends KettleGenericFileSystemConfigBuil
 
   private static final NamedClusterConfigBuilder BUILDER = new NamedClusterConfigBuilder();
   private static final String EMBEDDED_METASTORE_KEY_PROPERTY = "embeddedMetaStoreKey";
+  private static final String STATUS_CACHE_TTL_PROPERTY = "statusCacheTtl";
+  private static final String READ_AHEAD_DEPTH_PROPERTY = "readAheadDepth";
+  private static final String READ_AHEAD_CHUNK_SIZE_PROPERTY = "readAheadChunkSize";
+  private static final String MAX_CONCURRENT_LISTINGS_PROPERTY = "maxConcurrentListings";
   private final MetastoreLocator metastoreLocator;
   private final NamedClusterService namedClusterService;
 
@@ -78,4 +85,87 @@ public class NamedClusterConfigBuilder extends KettleGenericFileSystemConfigBuil
   public String getEmbeddedMetastoreKey( final FileSystemOptions opts ) {
     return (String) getParam( opts, EMBEDDED_METASTORE_KEY_PROPERTY );
   }
+
+  /**
+   * @param opts           the file system options
+   * @param statusCacheTtl how long file statuses are cached for in milliseconds, 0 to disable the cache
+   */
+  public void setStatusCacheTtl( final FileSystemOptions opts, final long statusCacheTtl ) {
+    setParam( opts, STATUS_CACHE_TTL_PROPERTY, statusCacheTtl );
+  }
+
+  /**
+   * @param opts the file system options, may be null
+   * @return how long file statuses are cached for in milliseconds, also settable with the vfs.hdfs.statusCacheTtl
+   *         variable
+   */
+  public long getStatusCacheTtl( final FileSystemOptions opts ) {
+    return getLongParam( opts, STATUS_CACHE_TTL_PROPERTY, HDFSFileStatusCache.DEFAULT_TTL_MILLIS );
+  }
+
+  /**
+   * @param opts           the file system options
+   * @param readAheadDepth how many chunks input streams read ahead on a background thread, 0 to not read ahead
+   */
+  public void setReadAheadDepth( final FileSystemOptions opts, final int readAheadDepth ) {
+    setParam( opts, READ_AHEAD_DEPTH_PROPERTY, readAheadDepth );
+  }
+
+  /**
+   * @param opts the file system options, may be null
+   * @return how many chunks input streams read ahead, 0 by default, also settable with the vfs.hdfs.readAheadDepth
+   *         variable
+   */
+  public int getReadAheadDepth( final FileSystemOptions opts ) {
+    return (int) getLongParam( opts, READ_AHEAD_DEPTH_PROPERTY, 0 );
+  }
+
+  /**
+   * @param opts               the file system options
+   * @param readAheadChunkSize the size in bytes of the chunks input streams read ahead
+   */
+  public void setReadAheadChunkSize( final FileSystemOptions opts, final int readAheadChunkSize ) {
+    setParam( opts, READ_AHEAD_CHUNK_SIZE_PROPERTY, readAheadChunkSize );
+  }
+
+  /**
+   * @param opts the file system options, may be null
+   * @return the size in bytes of the chunks input streams read ahead, also settable with the
+   *         vfs.hdfs.readAheadChunkSize variable
+   */
+  public int getReadAheadChunkSize( final FileSystemOptions opts ) {
+    return (int) getLongParam( opts, READ_AHEAD_CHUNK_SIZE_PROPERTY, HDFSReadAheadInputStream.DEFAULT_CHUNK_SIZE );
+  }
+
+  /**
+   * @param opts                  the file system options
+   * @param maxConcurrentListings how many folders may be listed at the same time by the tree walks of a file system
+   */
+  public void setMaxConcurrentListings( final FileSystemOptions opts, final int maxConcurrentListings ) {
+    setParam( opts, MAX_CONCURRENT_LISTINGS_PROPERTY, maxConcurrentListings );
+  }
+
+  /**
+   * @param opts the file system options, may be null
+   * @return how many folders may be listed at the same time by the tree walks of a file system, also settable with
+   *         the vfs.hdfs.maxConcurrentListings variable
+   */
+  public int getMaxConcurrentListings( final FileSystemOptions opts ) {
+    return (int) getLongParam( opts, MAX_CONCURRENT_LISTINGS_PROPERTY, HDFSTreeWalker.DEFAULT_MAX_CONCURRENT_LISTINGS );
+  }
+
+  private long getLongParam( final FileSystemOptions opts, final String name, final long defaultValue ) {
+    Object value = getParam( opts, name );
+    if ( value instanceof Number ) {
+      return ( (Number) value ).longValue();
+    }
+    if ( value != null ) {
+      try {
+        return Long.parseLong( value.toString().trim() );
+      } catch ( NumberFormatException e ) {
+        // fall back to the default
+      }
+    }
+    return defaultValue;
+  }
 }
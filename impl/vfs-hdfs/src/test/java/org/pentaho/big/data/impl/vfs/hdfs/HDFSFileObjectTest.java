@@ -16,23 +16,33 @@ package org.pentaho.big.data.impl.vfs.hdfs;
 import org.apache.commons.vfs2.FileName;
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileSystemOptions;
 import org.apache.commons.vfs2.FileType;
+import org.apache.commons.vfs2.RandomAccessContent;
 import org.apache.commons.vfs2.provider.AbstractFileName;
+import org.apache.commons.vfs2.util.RandomAccessMode;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.pentaho.big.data.impl.vfs.hdfs.nc.NamedClusterConfigBuilder;
 import org.pentaho.hadoop.shim.api.hdfs.HadoopFileStatus;
 import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystem;
 import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystemPath;
 
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.OutputStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -89,6 +99,43 @@ public class HDFSFileObjectTest {
     assertEquals( inputStream, hdfsFileObject.doGetInputStream() );
   }
 
+  @Test
+  public void testDoGetRandomAccessContent() throws Exception {
+    HadoopFileStatus hadoopFileStatus = mock( HadoopFileStatus.class );
+    when( hadoopFileSystem.getFileStatus( hadoopFileSystemPath ) ).thenReturn( hadoopFileStatus );
+    when( hadoopFileStatus.getLen() ).thenReturn( 4321L );
+    RandomAccessContent content = hdfsFileObject.doGetRandomAccessContent( RandomAccessMode.READ );
+    assertEquals( 4321L, content.length() );
+    assertEquals( 0L, content.getFilePointer() );
+    // the file is only opened on the first read
+    verify( hadoopFileSystem, never() ).open( hadoopFileSystemPath );
+  }
+
+  @Test
+  public void testDoGetInputStreamWithBufferSize() throws Exception {
+    InputStream inputStream = mock( InputStream.class );
+    when( hadoopFileSystem.open( hadoopFileSystemPath ) ).thenReturn( inputStream );
+    assertTrue( hdfsFileObject.doGetInputStream( 65536 ) instanceof BufferedInputStream );
+    assertEquals( inputStream, hdfsFileObject.doGetInputStream( 0 ) );
+  }
+
+  @Test
+  public void testDoGetInputStreamReadAhead() throws Exception {
+    FileSystemOptions opts = new FileSystemOptions();
+    NamedClusterConfigBuilder.getInstance().setReadAheadDepth( opts, 2 );
+    NamedClusterConfigBuilder.getInstance().setReadAheadChunkSize( opts, 4 );
+    hdfsFileObject = new HDFSFileObject( abstractFileName,
+      new HDFSFileSystem( mock( AbstractFileName.class ), opts, hadoopFileSystem ) );
+    when( hadoopFileSystem.open( hadoopFileSystemPath ) ).thenReturn( new ByteArrayInputStream( new byte[] { 1, 2 } ) );
+
+    try ( InputStream in = hdfsFileObject.doGetInputStream( 65536 ) ) {
+      assertTrue( in instanceof HDFSReadAheadInputStream );
+      assertEquals( 1, in.read() );
+      assertEquals( 2, in.read() );
+      assertEquals( -1, in.read() );
+    }
+  }
+
   @Test
   public void testDoGetTypeFile() throws Exception {
     HadoopFileStatus hadoopFileStatus = mock( HadoopFileStatus.class );
@@ -150,6 +197,63 @@ public class HDFSFileObjectTest {
     assertTrue( accessTime <= System.currentTimeMillis() );
   }
 
+  @Test
+  public void testStatusIsReadOnceForTypeSizeAndModificationTime() throws Exception {
+    HadoopFileStatus hadoopFileStatus = mock( HadoopFileStatus.class );
+    when( hadoopFileSystem.getFileStatus( hadoopFileSystemPath ) ).thenReturn( hadoopFileStatus );
+    when( hadoopFileStatus.getLen() ).thenReturn( 10L );
+    when( hadoopFileStatus.getModificationTime() ).thenReturn( 20L );
+
+    // a file browser checks the type, the size and the date of every entry
+    assertEquals( FileType.FILE, hdfsFileObject.doGetType() );
+    assertEquals( 10L, hdfsFileObject.doGetContentSize() );
+    assertEquals( 20L, hdfsFileObject.doGetLastModifiedTime() );
+    verify( hadoopFileSystem, times( 1 ) ).getFileStatus( hadoopFileSystemPath );
+  }
+
+  @Test
+  public void testStatusIsReadAgainAfterWrite() throws Exception {
+    HadoopFileStatus before = mock( HadoopFileStatus.class );
+    HadoopFileStatus after = mock( HadoopFileStatus.class );
+    when( before.getLen() ).thenReturn( 10L );
+    when( after.getLen() ).thenReturn( 30L );
+    when( hadoopFileSystem.getFileStatus( hadoopFileSystemPath ) ).thenReturn( before, after );
+
+    // a copy checks the target, writes it and checks its size
+    assertEquals( 10L, hdfsFileObject.doGetContentSize() );
+    hdfsFileObject.doGetOutputStream( false );
+    assertEquals( 30L, hdfsFileObject.doGetContentSize() );
+    assertEquals( 30L, hdfsFileObject.doGetContentSize() );
+    verify( hadoopFileSystem, times( 2 ) ).getFileStatus( hadoopFileSystemPath );
+  }
+
+  @Test
+  public void testStatusIsReadAgainAfterDelete() throws Exception {
+    HadoopFileStatus hadoopFileStatus = mock( HadoopFileStatus.class );
+    when( hadoopFileSystem.getFileStatus( hadoopFileSystemPath ) )
+      .thenReturn( hadoopFileStatus, (HadoopFileStatus) null );
+
+    assertEquals( FileType.FILE, hdfsFileObject.doGetType() );
+    hdfsFileObject.doDelete();
+    assertEquals( FileType.IMAGINARY, hdfsFileObject.doGetType() );
+    verify( hadoopFileSystem ).delete( hadoopFileSystemPath, true );
+  }
+
+  @Test
+  public void testStatusIsNotCachedWithZeroTtl() throws Exception {
+    FileSystemOptions opts = new FileSystemOptions();
+    NamedClusterConfigBuilder.getInstance().setStatusCacheTtl( opts, 0 );
+    hdfsFileSystem = new HDFSFileSystem( mock( AbstractFileName.class ), opts, hadoopFileSystem );
+    hdfsFileObject = new HDFSFileObject( abstractFileName, hdfsFileSystem );
+    HadoopFileStatus hadoopFileStatus = mock( HadoopFileStatus.class );
+    when( hadoopFileSystem.getFileStatus( hadoopFileSystemPath ) ).thenReturn( hadoopFileStatus );
+
+    hdfsFileObject.doGetType();
+    hdfsFileObject.doGetContentSize();
+    hdfsFileObject.doGetLastModifiedTime();
+    verify( hadoopFileSystem, times( 3 ) ).getFileStatus( hadoopFileSystemPath );
+  }
+
   @Test
   public void testDoListChildren() throws Exception {
     String childPathName = "fake-path-child";
@@ -162,6 +266,56 @@ public class HDFSFileObjectTest {
     testDoListChildrenInternal( childPathName );
   }
 
+  @Test
+  public void testDoListChildrenResolvedKeepsChildStatuses() throws Exception {
+    int count = 10000;
+    HadoopFileStatus[] hadoopFileStatuses = new HadoopFileStatus[ count ];
+    for ( int i = 0; i < count; i++ ) {
+      HadoopFileStatus hadoopFileStatus = mock( HadoopFileStatus.class );
+      HadoopFileSystemPath childPath = mock( HadoopFileSystemPath.class );
+      when( hadoopFileStatus.getPath() ).thenReturn( childPath );
+      when( hadoopFileStatus.getLen() ).thenReturn( (long) i );
+      when( childPath.getName() ).thenReturn( "child-" + i );
+      hadoopFileStatuses[ i ] = hadoopFileStatus;
+    }
+    when( hadoopFileSystem.listStatus( hadoopFileSystemPath ) ).thenReturn( hadoopFileStatuses );
+    hdfsFileSystem = new HDFSFileSystem( mock( AbstractFileName.class ), null, hadoopFileSystem ) {
+      @Override
+      public FileObject resolveFile( FileName name ) throws FileSystemException {
+        return new HDFSFileObject( (AbstractFileName) name, this );
+      }
+    };
+    hdfsFileObject = new HDFSFileObject( abstractFileName, hdfsFileSystem ) {
+      @Override
+      FileName resolveChildName( String name ) {
+        AbstractFileName childName = mock( AbstractFileName.class );
+        when( childName.getPath() ).thenReturn( "fake-path/" + name );
+        return childName;
+      }
+    };
+
+    FileObject[] children = hdfsFileObject.doListChildrenResolved();
+    assertEquals( count, children.length );
+    for ( int i = 0; i < count; i++ ) {
+      HDFSFileObject child = (HDFSFileObject) children[ i ];
+      assertEquals( FileType.FILE, child.doGetType() );
+      assertEquals( i, child.doGetContentSize() );
+    }
+    // one RPC for the whole directory instead of one more per child
+    verify( hadoopFileSystem, times( 1 ) ).listStatus( hadoopFileSystemPath );
+    verify( hadoopFileSystem, never() ).getFileStatus( any( HadoopFileSystemPath.class ) );
+  }
+
+  @Test
+  public void testDoListChildrenResolvedWithoutStatusCache() throws Exception {
+    FileSystemOptions opts = new FileSystemOptions();
+    NamedClusterConfigBuilder.getInstance().setStatusCacheTtl( opts, 0 );
+    hdfsFileObject = new HDFSFileObject( abstractFileName,
+      new HDFSFileSystem( mock( AbstractFileName.class ), opts, hadoopFileSystem ) );
+    assertNull( hdfsFileObject.doListChildrenResolved() );
+    verify( hadoopFileSystem, never() ).listStatus( any( HadoopFileSystemPath.class ) );
+  }
+
   private void testDoListChildrenInternal( String childPathName ) throws Exception {
     HadoopFileStatus hadoopFileStatus = mock( HadoopFileStatus.class );
     HadoopFileStatus[] hadoopFileStatuses = {
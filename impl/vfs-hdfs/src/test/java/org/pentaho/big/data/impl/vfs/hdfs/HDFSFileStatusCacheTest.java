@@ -0,0 +1,117 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.impl.vfs.hdfs;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileStatus;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystem;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystemPath;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HDFSFileStatusCacheTest {
+  private AtomicLong now;
+  private HadoopFileSystem hadoopFileSystem;
+  private HDFSFileStatusCache cache;
+
+  @Before
+  public void setup() throws Exception {
+    now = new AtomicLong( 1000L );
+    hadoopFileSystem = mock( HadoopFileSystem.class );
+    when( hadoopFileSystem.getPath( anyString() ) ).thenAnswer( invocation -> mock( HadoopFileSystemPath.class ) );
+    when( hadoopFileSystem.getFileStatus( any( HadoopFileSystemPath.class ) ) )
+      .thenAnswer( invocation -> mock( HadoopFileStatus.class ) );
+    cache = new HDFSFileStatusCache( 100L, now::get );
+  }
+
+  @Test
+  public void testStatusIsCachedUntilItExpires() throws Exception {
+    HadoopFileStatus status = cache.getFileStatus( hadoopFileSystem, "/a/b" );
+    now.addAndGet( 99L );
+    assertSame( status, cache.getFileStatus( hadoopFileSystem, "/a/b" ) );
+    verify( hadoopFileSystem, times( 1 ) ).getFileStatus( any( HadoopFileSystemPath.class ) );
+
+    now.addAndGet( 1L );
+    assertTrue( status != cache.getFileStatus( hadoopFileSystem, "/a/b" ) );
+    verify( hadoopFileSystem, times( 2 ) ).getFileStatus( any( HadoopFileSystemPath.class ) );
+  }
+
+  @Test
+  public void testMissingFilesAreNotCached() throws Exception {
+    when( hadoopFileSystem.getFileStatus( any( HadoopFileSystemPath.class ) ) ).thenReturn( null );
+    assertNull( cache.getFileStatus( hadoopFileSystem, "/missing" ) );
+    assertNull( cache.getFileStatus( hadoopFileSystem, "/missing" ) );
+    verify( hadoopFileSystem, times( 2 ) ).getFileStatus( any( HadoopFileSystemPath.class ) );
+    assertEquals( 0, cache.size() );
+  }
+
+  @Test
+  public void testInvalidateRemovesFileAndParent() throws Exception {
+    cache.getFileStatus( hadoopFileSystem, "/" );
+    cache.getFileStatus( hadoopFileSystem, "/a" );
+    cache.getFileStatus( hadoopFileSystem, "/a/b" );
+    cache.getFileStatus( hadoopFileSystem, "/a/c" );
+
+    cache.invalidate( "/a/b" );
+    assertEquals( 2, cache.size() );
+    cache.invalidate( "/a/c" );
+    cache.invalidate( "/a" );
+    assertEquals( 0, cache.size() );
+  }
+
+  @Test
+  public void testInvalidateTreeRemovesDescendants() throws Exception {
+    cache.getFileStatus( hadoopFileSystem, "/a/b" );
+    cache.getFileStatus( hadoopFileSystem, "/a/b/c" );
+    cache.getFileStatus( hadoopFileSystem, "/a/b/c/d" );
+    cache.getFileStatus( hadoopFileSystem, "/a/bc" );
+
+    cache.invalidateTree( "/a/b" );
+    assertEquals( 1, cache.size() );
+    cache.getFileStatus( hadoopFileSystem, "/a/bc" );
+    verify( hadoopFileSystem, times( 4 ) ).getFileStatus( any( HadoopFileSystemPath.class ) );
+  }
+
+  @Test
+  public void testExpiredEntriesArePurged() throws Exception {
+    HadoopFileStatus status = mock( HadoopFileStatus.class );
+    for ( int i = 0; i < HDFSFileStatusCache.PURGE_THRESHOLD; i++ ) {
+      cache.put( "/f" + i, status );
+    }
+    now.addAndGet( 100L );
+    cache.put( "/g", status );
+    assertEquals( 1, cache.size() );
+  }
+
+  @Test
+  public void testZeroTtlDisablesCache() throws Exception {
+    cache = new HDFSFileStatusCache( 0L, now::get );
+    cache.getFileStatus( hadoopFileSystem, "/a" );
+    cache.getFileStatus( hadoopFileSystem, "/a" );
+    verify( hadoopFileSystem, times( 2 ) ).getFileStatus( any( HadoopFileSystemPath.class ) );
+    assertEquals( 0, cache.size() );
+  }
+}
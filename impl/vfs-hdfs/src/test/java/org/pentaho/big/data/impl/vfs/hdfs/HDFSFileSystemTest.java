@@ -79,4 +79,10 @@ public class HDFSFileSystemTest {
   public void testGetHDFSFileSystem() throws FileSystemException {
     assertEquals( hadoopFileSystem, hdfsFileSystem.getHDFSFileSystem() );
   }
+
+  @Test
+  public void testGetListingPermits() {
+    assertEquals( HDFSTreeWalker.DEFAULT_MAX_CONCURRENT_LISTINGS,
+      hdfsFileSystem.getListingPermits().availablePermits() );
+  }
 }
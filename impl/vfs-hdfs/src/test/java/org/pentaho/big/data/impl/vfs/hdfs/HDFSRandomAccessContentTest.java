@@ -0,0 +1,209 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.impl.vfs.hdfs;
+
+import org.apache.commons.vfs2.FileSystemException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystem;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystemPath;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HDFSRandomAccessContentTest {
+
+  /**
+   * A local file stream with the positional read of Hadoop's FSDataInputStream.
+   */
+  public static class PositionalFileInputStream extends InputStream {
+    private final RandomAccessFile file;
+    private int positionalReads;
+
+    public PositionalFileInputStream( File file ) throws IOException {
+      this.file = new RandomAccessFile( file, "r" );
+    }
+
+    public int read( long position, byte[] buffer, int offset, int length ) throws IOException {
+      positionalReads++;
+      file.seek( position );
+      return file.read( buffer, offset, length );
+    }
+
+    @Override
+    public int read() throws IOException {
+      throw new IOException( "only positional reads are expected" );
+    }
+
+    @Override
+    public void close() throws IOException {
+      file.close();
+    }
+  }
+
+  /**
+   * A stream whose wrapped stream can not read at a position, like an FSDataInputStream over a plain stream.
+   */
+  public static class UnsupportedPositionalInputStream extends FileInputStream {
+    public UnsupportedPositionalInputStream( File file ) throws IOException {
+      super( file );
+    }
+
+    public int read( long position, byte[] buffer, int offset, int length ) {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File file;
+  private byte[] data;
+  private HadoopFileSystem hadoopFileSystem;
+  private HadoopFileSystemPath path;
+  private PositionalFileInputStream positionalStream;
+  private int opens;
+
+  @Before
+  public void setup() throws Exception {
+    data = new byte[ 1024 * 1024 ];
+    new Random( 42 ).nextBytes( data );
+    file = temporaryFolder.newFile( "data.bin" );
+    Files.write( file.toPath(), data );
+    hadoopFileSystem = mock( HadoopFileSystem.class );
+    path = mock( HadoopFileSystemPath.class );
+    when( hadoopFileSystem.open( path ) ).thenAnswer( invocation -> {
+      opens++;
+      positionalStream = new PositionalFileInputStream( file );
+      return positionalStream;
+    } );
+  }
+
+  @Test
+  public void testParquetFooterRead() throws Exception {
+    // a Parquet file ends with the footer, its length as a little endian int and the magic bytes
+    byte[] footer = Arrays.copyOfRange( data, 1000, 1000 + 3000 );
+    ByteBuffer tail = ByteBuffer.allocate( footer.length + 8 ).order( ByteOrder.LITTLE_ENDIAN );
+    tail.put( footer ).putInt( footer.length ).put( "PAR1".getBytes( "US-ASCII" ) );
+    System.arraycopy( tail.array(), 0, data, data.length - tail.capacity(), tail.capacity() );
+    Files.write( file.toPath(), data );
+
+    HDFSRandomAccessContent content = new HDFSRandomAccessContent( hadoopFileSystem, path, data.length, 1024 );
+    content.seek( content.length() - 8 );
+    byte[] end = new byte[ 8 ];
+    content.readFully( end );
+    ByteBuffer endBuffer = ByteBuffer.wrap( end ).order( ByteOrder.LITTLE_ENDIAN );
+    int footerLength = endBuffer.getInt();
+    assertEquals( "PAR1", new String( end, 4, 4, "US-ASCII" ) );
+    assertEquals( footer.length, footerLength );
+
+    content.seek( content.length() - 8 - footerLength );
+    byte[] readFooter = new byte[ footerLength ];
+    content.readFully( readFooter );
+    assertArrayEquals( footer, readFooter );
+    content.close();
+
+    // one read for the tail and one for the footer, none for the megabyte in front of them
+    assertEquals( 1, opens );
+    assertEquals( 2, positionalStream.positionalReads );
+  }
+
+  @Test
+  public void testRandomRanges() throws Exception {
+    checkRandomRanges( new HDFSRandomAccessContent( hadoopFileSystem, path, data.length, 4096 ) );
+    assertEquals( 1, opens );
+  }
+
+  @Test
+  public void testRandomRangesOnSequentialStream() throws Exception {
+    when( hadoopFileSystem.open( path ) ).thenAnswer( invocation -> {
+      opens++;
+      return new FileInputStream( file );
+    } );
+    checkRandomRanges( new HDFSRandomAccessContent( hadoopFileSystem, path, data.length, 4096 ) );
+    // going back means opening the file again
+    assertTrue( opens > 1 );
+  }
+
+  @Test
+  public void testRandomRangesWhenPositionalReadIsUnsupported() throws Exception {
+    when( hadoopFileSystem.open( path ) ).thenAnswer( invocation -> new UnsupportedPositionalInputStream( file ) );
+    checkRandomRanges( new HDFSRandomAccessContent( hadoopFileSystem, path, data.length, 4096 ) );
+  }
+
+  @Test
+  public void testSmallReadsAreServedFromTheWindow() throws Exception {
+    HDFSRandomAccessContent content = new HDFSRandomAccessContent( hadoopFileSystem, path, data.length, 4096 );
+    ByteBuffer expected = ByteBuffer.wrap( data );
+    for ( int i = 0; i < 1024; i++ ) {
+      assertEquals( expected.getInt( i * 4 ), content.readInt() );
+    }
+    assertEquals( 4096, content.getFilePointer() );
+    assertEquals( 1, positionalStream.positionalReads );
+    content.close();
+  }
+
+  @Test
+  public void testReadAtEnd() throws Exception {
+    HDFSRandomAccessContent content = new HDFSRandomAccessContent( hadoopFileSystem, path, data.length );
+    content.seek( data.length - 1 );
+    assertEquals( data[ data.length - 1 ] & 0xff, content.getInputStream().read() );
+    assertEquals( -1, content.getInputStream().read() );
+    content.seek( data.length - 2 );
+    try {
+      content.readFully( new byte[ 4 ] );
+      fail( "expected the end of the file" );
+    } catch ( EOFException e ) {
+      // expected
+    }
+    content.close();
+  }
+
+  @Test( expected = FileSystemException.class )
+  public void testSeekToNegativePosition() throws Exception {
+    new HDFSRandomAccessContent( hadoopFileSystem, path, data.length ).seek( -1 );
+  }
+
+  private void checkRandomRanges( HDFSRandomAccessContent content ) throws IOException {
+    Random random = new Random( 7 );
+    for ( int i = 0; i < 500; i++ ) {
+      int length = random.nextInt( 3 ) == 0 ? random.nextInt( 20000 ) : random.nextInt( 100 );
+      int position = random.nextInt( data.length - length );
+      content.seek( position );
+      byte[] read = new byte[ length ];
+      content.readFully( read );
+      assertArrayEquals( Arrays.copyOfRange( data, position, position + length ), read );
+      assertEquals( position + length, content.getFilePointer() );
+    }
+    content.close();
+  }
+}
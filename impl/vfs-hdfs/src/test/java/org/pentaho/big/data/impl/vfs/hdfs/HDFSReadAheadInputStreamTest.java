@@ -0,0 +1,161 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.impl.vfs.hdfs;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HDFSReadAheadInputStreamTest {
+
+  /**
+   * Counts the bytes read from it and fails after a limit.
+   */
+  private static class CountingInputStream extends ByteArrayInputStream {
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final long failAfter;
+
+    CountingInputStream( byte[] data, long failAfter ) {
+      super( data );
+      this.failAfter = failAfter;
+    }
+
+    @Override
+    public synchronized int read( byte[] b, int off, int len ) {
+      if ( bytesRead.get() >= failAfter ) {
+        throw new IllegalStateException( "data node went away" );
+      }
+      int read = super.read( b, off, (int) Math.min( len, failAfter - bytesRead.get() ) );
+      if ( read > 0 ) {
+        bytesRead.addAndGet( read );
+      }
+      return read;
+    }
+
+    @Override
+    public void close() {
+      closed.set( true );
+    }
+  }
+
+  private static byte[] data( int length ) {
+    byte[] data = new byte[ length ];
+    new Random( 42 ).nextBytes( data );
+    return data;
+  }
+
+  @Test
+  public void testContentIsReadInOrder() throws Exception {
+    byte[] data = data( 1024 * 1024 + 17 );
+    Random random = new Random( 7 );
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try ( InputStream in = new HDFSReadAheadInputStream( new ByteArrayInputStream( data ), 4096, 4, "test" ) ) {
+      byte[] buffer = new byte[ 10000 ];
+      int read;
+      while ( ( read = in.read( buffer, 0, 1 + random.nextInt( buffer.length ) ) ) >= 0 ) {
+        out.write( buffer, 0, read );
+      }
+      assertEquals( -1, in.read() );
+    }
+    assertArrayEquals( data, out.toByteArray() );
+  }
+
+  @Test
+  public void testSingleBytes() throws Exception {
+    byte[] data = data( 100 );
+    try ( InputStream in = new HDFSReadAheadInputStream( new ByteArrayInputStream( data ), 7, 2, "test" ) ) {
+      for ( byte b : data ) {
+        assertEquals( b & 0xff, in.read() );
+      }
+      assertEquals( -1, in.read() );
+    }
+  }
+
+  @Test
+  public void testEmptyStream() throws Exception {
+    try ( InputStream in = new HDFSReadAheadInputStream( new ByteArrayInputStream( new byte[ 0 ] ), 16, 2, "test" ) ) {
+      assertEquals( -1, in.read( new byte[ 8 ], 0, 8 ) );
+      assertEquals( 0, in.available() );
+    }
+  }
+
+  @Test
+  public void testReadsAheadOfTheConsumerWithinTheDepth() throws Exception {
+    int chunkSize = 1024;
+    int depth = 3;
+    CountingInputStream counting = new CountingInputStream( data( 100 * chunkSize ), Long.MAX_VALUE );
+    try ( InputStream in = new HDFSReadAheadInputStream( counting, chunkSize, depth, "test" ) ) {
+      in.read();
+      // the chunks after the one being consumed are read while the consumer does nothing
+      long deadline = System.currentTimeMillis() + 10000;
+      while ( counting.bytesRead.get() < ( depth + 1 ) * chunkSize && System.currentTimeMillis() < deadline ) {
+        Thread.sleep( 10 );
+      }
+      assertTrue( counting.bytesRead.get() >= ( depth + 1 ) * chunkSize );
+      assertEquals( chunkSize - 1, in.available() );
+
+      // but no more than fit in the queue, plus the one waiting to be put into it
+      Thread.sleep( 100 );
+      assertTrue( counting.bytesRead.get() <= ( depth + 2 ) * chunkSize );
+    }
+    assertTrue( counting.closed.get() );
+  }
+
+  @Test
+  public void testFailureIsRethrownAfterTheDataReadBeforeIt() throws Exception {
+    byte[] data = data( 10000 );
+    CountingInputStream counting = new CountingInputStream( data, 5000 );
+    try ( InputStream in = new HDFSReadAheadInputStream( counting, 1000, 2, "test" ) ) {
+      byte[] read = new byte[ 5000 ];
+      int filled = 0;
+      while ( filled < read.length ) {
+        filled += in.read( read, filled, read.length - filled );
+      }
+      for ( int i = 0; i < read.length; i++ ) {
+        assertEquals( data[ i ], read[ i ] );
+      }
+      in.read();
+      fail( "expected the failure of the underlying stream" );
+    } catch ( IOException e ) {
+      assertEquals( "data node went away", e.getCause().getMessage() );
+    }
+  }
+
+  @Test
+  public void testClosedStreamCanNotBeRead() throws Exception {
+    CountingInputStream counting = new CountingInputStream( data( 100000 ), Long.MAX_VALUE );
+    InputStream in = new HDFSReadAheadInputStream( counting, 1000, 2, "test" );
+    in.read();
+    in.close();
+    assertTrue( counting.closed.get() );
+    try {
+      in.read();
+      fail( "expected the stream to be closed" );
+    } catch ( IOException e ) {
+      // expected
+    }
+  }
+}
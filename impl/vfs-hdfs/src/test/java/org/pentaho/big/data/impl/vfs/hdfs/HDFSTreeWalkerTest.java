@@ -0,0 +1,202 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.impl.vfs.hdfs;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileStatus;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystem;
+import org.pentaho.hadoop.shim.api.hdfs.HadoopFileSystemPath;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HDFSTreeWalkerTest {
+  private static final int FOLDERS_PER_FOLDER = 4;
+  private static final int FILES_PER_FOLDER = 10;
+  private static final int DEPTH = 4;
+
+  private HadoopFileSystem hadoopFileSystem;
+  private HadoopFileSystemPath root;
+  private Map<HadoopFileSystemPath, HadoopFileStatus[]> folders;
+  private Set<String> allPaths;
+  private AtomicInteger listings;
+  private AtomicInteger concurrentListings;
+  private AtomicInteger maxConcurrentListings;
+  private AtomicInteger maxQueuedFolders;
+  private volatile long listingMillis;
+  private volatile HDFSTreeWalker.Walk currentWalk;
+
+  @Before
+  public void setup() throws Exception {
+    folders = new HashMap<>();
+    allPaths = new HashSet<>();
+    listings = new AtomicInteger();
+    concurrentListings = new AtomicInteger();
+    maxConcurrentListings = new AtomicInteger();
+    maxQueuedFolders = new AtomicInteger();
+    root = path( "/root" );
+    createFolder( root, "/root", 1 );
+
+    hadoopFileSystem = mock( HadoopFileSystem.class );
+    when( hadoopFileSystem.listStatus( any( HadoopFileSystemPath.class ) ) ).thenAnswer( invocation -> {
+      listings.incrementAndGet();
+      int concurrent = concurrentListings.incrementAndGet();
+      maxConcurrentListings.accumulateAndGet( concurrent, Math::max );
+      HDFSTreeWalker.Walk walk = currentWalk;
+      if ( walk != null ) {
+        maxQueuedFolders.accumulateAndGet( walk.getQueuedFolders(), Math::max );
+      }
+      try {
+        if ( listingMillis > 0 ) {
+          Thread.sleep( listingMillis );
+        }
+        return folders.get( invocation.getArgument( 0 ) );
+      } finally {
+        concurrentListings.decrementAndGet();
+      }
+    } );
+  }
+
+  private HadoopFileSystemPath path( String name ) {
+    HadoopFileSystemPath path = mock( HadoopFileSystemPath.class );
+    when( path.toString() ).thenReturn( name );
+    return path;
+  }
+
+  private HadoopFileStatus status( HadoopFileSystemPath path, boolean folder ) {
+    HadoopFileStatus status = mock( HadoopFileStatus.class );
+    when( status.getPath() ).thenReturn( path );
+    when( status.isDir() ).thenReturn( folder );
+    return status;
+  }
+
+  private void createFolder( HadoopFileSystemPath folder, String name, int depth ) {
+    List<HadoopFileStatus> children = new ArrayList<>();
+    for ( int i = 0; i < FILES_PER_FOLDER; i++ ) {
+      String childName = name + "/file" + i;
+      children.add( status( path( childName ), false ) );
+      allPaths.add( childName );
+    }
+    if ( depth < DEPTH ) {
+      for ( int i = 0; i < FOLDERS_PER_FOLDER; i++ ) {
+        String childName = name + "/folder" + i;
+        HadoopFileSystemPath child = path( childName );
+        children.add( status( child, true ) );
+        allPaths.add( childName );
+        createFolder( child, childName, depth + 1 );
+      }
+    }
+    folders.put( folder, children.toArray( new HadoopFileStatus[ 0 ] ) );
+  }
+
+  private Set<String> walk( HDFSTreeWalker.Walk walk ) {
+    Set<String> found = new HashSet<>();
+    while ( walk.hasNext() ) {
+      assertTrue( "found twice", found.add( walk.next().getPath().toString() ) );
+    }
+    return found;
+  }
+
+  @Test
+  public void testWalkFindsEveryFileOnce() {
+    HDFSTreeWalker walker = new HDFSTreeWalker( hadoopFileSystem, new Semaphore( 4 ), 4, 100 );
+    assertEquals( allPaths, walk( walker.walk( root, HDFSTreeWalker.UNLIMITED_DEPTH ) ) );
+    assertEquals( folders.size(), listings.get() );
+  }
+
+  @Test
+  public void testWalkStopsAtMaxDepth() {
+    HDFSTreeWalker walker = new HDFSTreeWalker( hadoopFileSystem, new Semaphore( 4 ), 4, 100 );
+    Set<String> found = walk( walker.walk( root, 2 ) );
+    assertEquals( ( FILES_PER_FOLDER + FOLDERS_PER_FOLDER ) * ( 1 + FOLDERS_PER_FOLDER ), found.size() );
+    assertEquals( 1 + FOLDERS_PER_FOLDER, listings.get() );
+
+    assertFalse( walker.walk( root, 0 ).hasNext() );
+  }
+
+  @Test
+  public void testFoldersAreListedInParallelWithinTheLimit() {
+    listingMillis = 20;
+    HDFSTreeWalker walker = new HDFSTreeWalker( hadoopFileSystem, new Semaphore( 3 ), 8, 100 );
+    assertEquals( allPaths, walk( walker.walk( root, HDFSTreeWalker.UNLIMITED_DEPTH ) ) );
+    assertTrue( maxConcurrentListings.get() > 1 );
+    assertTrue( maxConcurrentListings.get() <= 3 );
+  }
+
+  @Test
+  public void testQueuedFoldersAreBounded() {
+    listingMillis = 5;
+    HDFSTreeWalker walker = new HDFSTreeWalker( hadoopFileSystem, new Semaphore( 4 ), 4, 100, 2 );
+    currentWalk = walker.walk( root, HDFSTreeWalker.UNLIMITED_DEPTH );
+    assertEquals( allPaths, walk( currentWalk ) );
+    assertEquals( folders.size(), listings.get() );
+    assertTrue( maxQueuedFolders.get() <= 2 );
+  }
+
+  @Test
+  public void testWalkWithOneQueuedFolderFindsEveryFileOnce() {
+    HDFSTreeWalker walker = new HDFSTreeWalker( hadoopFileSystem, new Semaphore( 1 ), 8, 10, 1 );
+    assertEquals( allPaths, walk( walker.walk( root, HDFSTreeWalker.UNLIMITED_DEPTH ) ) );
+    assertEquals( folders.size(), listings.get() );
+  }
+
+  @Test
+  public void testWalkWaitsForItsReader() throws Exception {
+    HDFSTreeWalker walker = new HDFSTreeWalker( hadoopFileSystem, new Semaphore( 4 ), 4, 10 );
+    try ( HDFSTreeWalker.Walk walk = walker.walk( root, HDFSTreeWalker.UNLIMITED_DEPTH ) ) {
+      assertTrue( walk.hasNext() );
+      Thread.sleep( 200 );
+      // the listing threads are waiting for room in the queue instead of listing the whole tree
+      assertTrue( listings.get() < folders.size() );
+    }
+  }
+
+  @Test
+  public void testFailureIsThrownByTheIterator() throws Exception {
+    when( hadoopFileSystem.listStatus( any( HadoopFileSystemPath.class ) ) ).thenThrow( new IOException( "denied" ) );
+    HDFSTreeWalker walker = new HDFSTreeWalker( hadoopFileSystem, new Semaphore( 4 ), 4, 100 );
+    try {
+      walk( walker.walk( root, HDFSTreeWalker.UNLIMITED_DEPTH ) );
+      fail( "expected the listing to fail" );
+    } catch ( UncheckedIOException e ) {
+      assertEquals( "denied", e.getCause().getMessage() );
+    }
+  }
+
+  @Test
+  public void testClosedWalkHasNoMoreFiles() {
+    HDFSTreeWalker walker = new HDFSTreeWalker( hadoopFileSystem, new Semaphore( 4 ), 4, 10 );
+    HDFSTreeWalker.Walk walk = walker.walk( root, HDFSTreeWalker.UNLIMITED_DEPTH );
+    assertTrue( walk.hasNext() );
+    walk.close();
+    assertFalse( walk.hasNext() );
+  }
+}
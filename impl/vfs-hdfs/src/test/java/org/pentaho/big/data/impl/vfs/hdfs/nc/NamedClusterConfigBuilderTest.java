@@ -14,8 +14,11 @@
 package org.pentaho.big.data.impl.vfs.hdfs.nc;
 
 import org.apache.commons.vfs2.FileSystemConfigBuilder;
+import org.apache.commons.vfs2.FileSystemOptions;
 import org.junit.Before;
 import org.junit.Test;
+import org.pentaho.big.data.impl.vfs.hdfs.HDFSFileStatusCache;
+import org.pentaho.big.data.impl.vfs.hdfs.HDFSTreeWalker;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterService;
 import org.pentaho.metastore.api.IMetaStore;
@@ -24,6 +27,7 @@ import org.pentaho.metastore.locator.api.MetastoreLocator;
 
 import java.util.Arrays;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
@@ -90,4 +94,23 @@ public class NamedClusterConfigBuilderTest {
     verify( namedClusterService, never() ).create( eq( namedCluster ), eq( metastore ) );
   }
 
+  @Test
+  public void testStatusCacheTtl() {
+    NamedClusterConfigBuilder builder = new NamedClusterConfigBuilder( metastoreLocator, namedClusterService );
+    FileSystemOptions opts = new FileSystemOptions();
+    assertEquals( HDFSFileStatusCache.DEFAULT_TTL_MILLIS, builder.getStatusCacheTtl( null ) );
+    assertEquals( HDFSFileStatusCache.DEFAULT_TTL_MILLIS, builder.getStatusCacheTtl( opts ) );
+    builder.setStatusCacheTtl( opts, 0 );
+    assertEquals( 0, builder.getStatusCacheTtl( opts ) );
+  }
+
+  @Test
+  public void testMaxConcurrentListings() {
+    NamedClusterConfigBuilder builder = new NamedClusterConfigBuilder( metastoreLocator, namedClusterService );
+    FileSystemOptions opts = new FileSystemOptions();
+    assertEquals( HDFSTreeWalker.DEFAULT_MAX_CONCURRENT_LISTINGS, builder.getMaxConcurrentListings( opts ) );
+    builder.setMaxConcurrentListings( opts, 3 );
+    assertEquals( 3, builder.getMaxConcurrentListings( opts ) );
+  }
+
 }
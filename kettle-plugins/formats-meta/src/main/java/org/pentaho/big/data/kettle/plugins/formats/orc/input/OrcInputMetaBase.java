@@ -24,6 +24,7 @@ import org.pentaho.di.core.exception.KettleFileException;
 import org.pentaho.di.core.exception.KettlePluginException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.exception.KettleXMLException;
+import org.pentaho.di.core.injection.Injection;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaBase;
@@ -54,12 +55,24 @@ import java.util.List;
 public abstract class OrcInputMetaBase extends
     BaseFileInputMeta<BaseFileInputAdditionalField, FormatInputFile, OrcInputField> implements ResolvableResource {
 
+  /** Should step copies divide the input files among themselves instead of each reading all of them? */
+  @Injection( name = "DISTRIBUTE_SPLITS" )
+  boolean distributeSplits = false;
+
   public OrcInputMetaBase() {
     additionalOutputFields = new BaseFileInputAdditionalField();
     inputFiles = new FormatInputFile();
     inputFields = new OrcInputField[ 0 ];
   }
 
+  public boolean isDistributeSplits() {
+    return distributeSplits;
+  }
+
+  public void setDistributeSplits( boolean distributeSplits ) {
+    this.distributeSplits = distributeSplits;
+  }
+
   public String getFilename() {
     if ( inputFiles != null && inputFiles.fileName != null
         && inputFiles.fileName.length > 0 ) {
@@ -91,6 +104,7 @@ public abstract class OrcInputMetaBase extends
     StringBuilder retval = new StringBuilder( 1500 );
 
     retval.append( "    " ).append( XMLHandler.addTagValue( "passing_through_fields", inputFiles.passingThruFields ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "distribute_splits", distributeSplits ) );
     retval.append( "    <file>" ).append( Const.CR );
     //we need the equals by size arrays for inputFiles.fileName[i], inputFiles.fileMask[i], inputFiles.fileRequired[i], inputFiles.includeSubFolders[i]
     //to prevent the ArrayIndexOutOfBoundsException
@@ -140,6 +154,7 @@ public abstract class OrcInputMetaBase extends
     throws KettleException {
     try {
       rep.saveStepAttribute( id_transformation, id_step, "passing_through_fields", inputFiles.passingThruFields );
+      rep.saveStepAttribute( id_transformation, id_step, "distribute_splits", distributeSplits );
       if ( !( inputFiles.fileName.length == 1 && inputFiles.fileName[0].equalsIgnoreCase( "" ) ) ) {
         for ( int i = 0; i < inputFiles.fileName.length; i++ ) {
           rep.saveStepAttribute( id_transformation, id_step, i, "environment", inputFiles.environment[i] );
@@ -184,6 +199,7 @@ public abstract class OrcInputMetaBase extends
             : XMLHandler.getTagValue( stepnode, "passing_through_fields" );
     allocateFiles( nrfiles );
     inputFiles.passingThruFields = ValueMetaBase.convertStringToBoolean( passThroughFields );
+    distributeSplits = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "distribute_splits" ) );
     for ( int i = 0; i < nrfiles; i++ ) {
       Node envnode = XMLHandler.getSubNodeByNr( filenode, "environment", i );
       Node filenamenode = XMLHandler.getSubNodeByNr( filenode, "name", i );
@@ -228,6 +244,7 @@ public abstract class OrcInputMetaBase extends
       allocateFiles( nrfiles );
 
       inputFiles.passingThruFields = rep.getStepAttributeBoolean( id_step, "passing_through_fields" );
+      distributeSplits = rep.getStepAttributeBoolean( id_step, "distribute_splits" );
       for ( int i = 0; i < nrfiles; i++ ) {
         inputFiles.environment[i] = rep.getStepAttributeString( id_step, i, "environment" );
         inputFiles.fileName[i] = rep.getStepAttributeString( id_step, i, "file_name" );
@@ -85,6 +85,21 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
   @Injection( name = "OVERRIDE_OUTPUT" )
   protected boolean overrideOutput;
 
+  @Injection( name = "OPTIONS_ASYNC_WRITE" )
+  protected boolean asyncWrite = false;
+
+  @Injection( name = "OPTIONS_ASYNC_BUFFER_SIZE" )
+  protected int asyncBufferSize = 0;
+
+  @Injection( name = "OPTIONS_ROWS_PER_FILE" )
+  protected int rowsPerFile = 0;
+
+  @Injection( name = "OPTIONS_PARTITION_FIELD" )
+  protected String partitionField;
+
+  @Injection( name = "OPTIONS_MAX_OPEN_FILES" )
+  protected int maxOpenFiles = 0;
+
   @Override
   public void setDefault() {
     // TODO Auto-generated method stub
@@ -126,6 +141,55 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
     this.stripeSize = stripeSize;
   }
 
+  public boolean isAsyncWrite() {
+    return asyncWrite;
+  }
+
+  public void setAsyncWrite( boolean asyncWrite ) {
+    this.asyncWrite = asyncWrite;
+  }
+
+  /**
+   * @return the number of rows buffered for the encoder thread when writing asynchronously, 0 for the default
+   */
+  public int getAsyncBufferSize() {
+    return asyncBufferSize;
+  }
+
+  public void setAsyncBufferSize( int asyncBufferSize ) {
+    this.asyncBufferSize = asyncBufferSize;
+  }
+
+  /**
+   * @return the number of rows after which a new file is started, 0 to write a single file
+   */
+  public int getRowsPerFile() {
+    return rowsPerFile;
+  }
+
+  public void setRowsPerFile( int rowsPerFile ) {
+    this.rowsPerFile = rowsPerFile;
+  }
+
+  public String getPartitionField() {
+    return partitionField;
+  }
+
+  public void setPartitionField( String partitionField ) {
+    this.partitionField = partitionField;
+  }
+
+  /**
+   * @return the number of files kept open at the same time when writing partitions, 0 for the default
+   */
+  public int getMaxOpenFiles() {
+    return maxOpenFiles;
+  }
+
+  public void setMaxOpenFiles( int maxOpenFiles ) {
+    this.maxOpenFiles = maxOpenFiles;
+  }
+
   public int getCompressSize() {
     return compressSize;
   }
@@ -199,6 +263,11 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
       dateTimeFormat = XMLHandler.getTagValue( stepnode, FieldNames.DATE_FORMAT );
       dateInFileName = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, FieldNames.DATE_IN_FILE_NAME ) );
       timeInFileName = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, FieldNames.TIME_IN_FILE_NAME ) );
+      asyncWrite = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, FieldNames.ASYNC_WRITE ) );
+      asyncBufferSize = Const.toInt( XMLHandler.getTagValue( stepnode, FieldNames.ASYNC_BUFFER_SIZE ), 0 );
+      rowsPerFile = Const.toInt( XMLHandler.getTagValue( stepnode, FieldNames.ROWS_PER_FILE ), 0 );
+      partitionField = XMLHandler.getTagValue( stepnode, FieldNames.PARTITION_FIELD );
+      maxOpenFiles = Const.toInt( XMLHandler.getTagValue( stepnode, FieldNames.MAX_OPEN_FILES ), 0 );
 
     } catch ( Exception e ) {
       throw new KettleXMLException( "Unable to load step info from XML", e );
@@ -220,6 +289,11 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
     retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.DATE_FORMAT, dateTimeFormat ) );
     retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.DATE_IN_FILE_NAME, dateInFileName ) );
     retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.TIME_IN_FILE_NAME, timeInFileName ) );
+    retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.ASYNC_WRITE, asyncWrite ) );
+    retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.ASYNC_BUFFER_SIZE, asyncBufferSize ) );
+    retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.ROWS_PER_FILE, rowsPerFile ) );
+    retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.PARTITION_FIELD, partitionField ) );
+    retval.append( INDENT ).append( XMLHandler.addTagValue( FieldNames.MAX_OPEN_FILES, maxOpenFiles ) );
 
     retval.append( "    <fields>" ).append( Const.CR );
     for ( int i = 0; i < outputFields.size(); i++ ) {
@@ -255,6 +329,11 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
       dateTimeFormat = rep.getStepAttributeString( id_step, FieldNames.DATE_FORMAT );
       dateInFileName = rep.getStepAttributeBoolean( id_step, FieldNames.DATE_IN_FILE_NAME );
       timeInFileName = rep.getStepAttributeBoolean( id_step, FieldNames.TIME_IN_FILE_NAME );
+      asyncWrite = rep.getStepAttributeBoolean( id_step, FieldNames.ASYNC_WRITE );
+      asyncBufferSize = Math.toIntExact( rep.getStepAttributeInteger( id_step, FieldNames.ASYNC_BUFFER_SIZE ) );
+      rowsPerFile = Math.toIntExact( rep.getStepAttributeInteger( id_step, FieldNames.ROWS_PER_FILE ) );
+      partitionField = rep.getStepAttributeString( id_step, FieldNames.PARTITION_FIELD );
+      maxOpenFiles = Math.toIntExact( rep.getStepAttributeInteger( id_step, FieldNames.MAX_OPEN_FILES ) );
 
       // using the "type" column to get the number of field rows because "type" is guaranteed not to be null.
       int nrfields = rep.countNrStepAttributes( id_step, "type" );
@@ -293,6 +372,11 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
       rep.saveStepAttribute( id_transformation, id_step, FieldNames.DATE_FORMAT, dateTimeFormat );
       rep.saveStepAttribute( id_transformation, id_step, FieldNames.DATE_IN_FILE_NAME, dateInFileName );
       rep.saveStepAttribute( id_transformation, id_step, FieldNames.TIME_IN_FILE_NAME, timeInFileName );
+      rep.saveStepAttribute( id_transformation, id_step, FieldNames.ASYNC_WRITE, asyncWrite );
+      rep.saveStepAttribute( id_transformation, id_step, FieldNames.ASYNC_BUFFER_SIZE, asyncBufferSize );
+      rep.saveStepAttribute( id_transformation, id_step, FieldNames.ROWS_PER_FILE, rowsPerFile );
+      rep.saveStepAttribute( id_transformation, id_step, FieldNames.PARTITION_FIELD, partitionField );
+      rep.saveStepAttribute( id_transformation, id_step, FieldNames.MAX_OPEN_FILES, maxOpenFiles );
 
       for ( int i = 0; i < outputFields.size(); i++ ) {
         OrcOutputField field = outputFields.get( i );
@@ -430,5 +514,10 @@ public abstract class OrcOutputMetaBase extends BaseStepMeta implements StepMeta
     public static final String TIME_IN_FILE_NAME = "timeInFileName";
     public static final String DATE_FORMAT = "dateTimeFormat";
     public static final String STRIPE_SIZE = "stripeSize";
+    public static final String ASYNC_WRITE = "asyncWrite";
+    public static final String ASYNC_BUFFER_SIZE = "asyncBufferSize";
+    public static final String ROWS_PER_FILE = "rowsPerFile";
+    public static final String PARTITION_FIELD = "partitionField";
+    public static final String MAX_OPEN_FILES = "maxOpenFiles";
   }
 }
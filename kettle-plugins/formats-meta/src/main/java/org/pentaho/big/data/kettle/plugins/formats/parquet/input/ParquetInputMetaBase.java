@@ -28,6 +28,7 @@ import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaBase;
 import org.pentaho.di.core.row.value.ValueMetaFactory;
+import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.variables.VariableSpace;
 import org.pentaho.di.core.vfs.AliasedFileObject;
 import org.pentaho.di.core.vfs.KettleVFS;
@@ -58,6 +59,14 @@ public abstract class ParquetInputMetaBase extends
   @Injection( name = "IGNORE_EMPTY_FOLDER" )
   boolean ignoreEmptyFolder = false;
 
+  /** Split size in MB; empty means the step default is used */
+  @Injection( name = "SPLIT_SIZE" )
+  String splitSize;
+
+  /** Should step copies divide the splits among themselves instead of each reading all of them? */
+  @Injection( name = "DISTRIBUTE_SPLITS" )
+  boolean distributeSplits = false;
+
   public ParquetInputMetaBase() {
     additionalOutputFields = new BaseFileInputAdditionalField();
     inputFiles = new FormatInputFile();
@@ -72,6 +81,37 @@ public abstract class ParquetInputMetaBase extends
     this.ignoreEmptyFolder = ignoreEmptyFolder;
   }
 
+  public String getSplitSize() {
+    return splitSize;
+  }
+
+  public void setSplitSize( String splitSize ) {
+    this.splitSize = splitSize;
+  }
+
+  /**
+   * @return the split size in bytes, or 0 if it is not defined or can't be parsed
+   */
+  public long getSplitSize( VariableSpace vspace ) {
+    String replaced = vspace != null ? vspace.environmentSubstitute( splitSize ) : splitSize;
+    if ( !Utils.isEmpty( replaced ) ) {
+      try {
+        return Long.parseLong( replaced.trim() ) * 1024 * 1024;
+      } catch ( NumberFormatException e ) {
+        // ignored
+      }
+    }
+    return 0;
+  }
+
+  public boolean isDistributeSplits() {
+    return distributeSplits;
+  }
+
+  public void setDistributeSplits( boolean distributeSplits ) {
+    this.distributeSplits = distributeSplits;
+  }
+
   public String getFilename() {
     if ( inputFiles != null && inputFiles.fileName != null && inputFiles.fileName.length > 0 ) {
       return inputFiles.fileName[0];
@@ -115,6 +155,8 @@ public abstract class ParquetInputMetaBase extends
 
     retval.append( "    " ).append( XMLHandler.addTagValue( "passing_through_fields", inputFiles.passingThruFields ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "ignore_empty_folder", ignoreEmptyFolder ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "split_size", splitSize ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "distribute_splits", distributeSplits ) );
     retval.append( "    <file>" ).append( Const.CR );
     //we need the equals by size arrays for inputFiles.fileName[i], inputFiles.fileMask[i], inputFiles.fileRequired[i], inputFiles.includeSubFolders[i]
     //to prevent the ArrayIndexOutOfBoundsException
@@ -165,6 +207,8 @@ public abstract class ParquetInputMetaBase extends
     throws KettleException {
     try {
       rep.saveStepAttribute( id_transformation, id_step, "ignore_empty_folder", ignoreEmptyFolder );
+      rep.saveStepAttribute( id_transformation, id_step, "split_size", splitSize );
+      rep.saveStepAttribute( id_transformation, id_step, "distribute_splits", distributeSplits );
       rep.saveStepAttribute( id_transformation, id_step, "passing_through_fields", inputFiles.passingThruFields );
       if ( !( inputFiles.fileName.length == 1 && inputFiles.fileName[0].equalsIgnoreCase( "" ) ) ) {
         for ( int i = 0; i < inputFiles.fileName.length; i++ ) {
@@ -212,6 +256,8 @@ public abstract class ParquetInputMetaBase extends
     allocateFiles( nrfiles );
     inputFiles.passingThruFields = ValueMetaBase.convertStringToBoolean( passThroughFields );
     ignoreEmptyFolder = ValueMetaBase.convertStringToBoolean( skipIfNoFile );
+    splitSize = XMLHandler.getTagValue( stepnode, "split_size" );
+    distributeSplits = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "distribute_splits" ) );
     for ( int i = 0; i < nrfiles; i++ ) {
       Node envnode = XMLHandler.getSubNodeByNr( filenode, "environment", i );
       Node filenamenode = XMLHandler.getSubNodeByNr( filenode, "name", i );
@@ -258,6 +304,8 @@ public abstract class ParquetInputMetaBase extends
 
       inputFiles.passingThruFields = rep.getStepAttributeBoolean( id_step, "passing_through_fields" );
       ignoreEmptyFolder = rep.getStepAttributeBoolean( id_step, "ignore_empty_folder" );
+      splitSize = rep.getStepAttributeString( id_step, "split_size" );
+      distributeSplits = rep.getStepAttributeBoolean( id_step, "distribute_splits" );
       for ( int i = 0; i < nrfiles; i++ ) {
         inputFiles.environment[ i ] = rep.getStepAttributeString( id_step, i, "environment" );
         inputFiles.fileName[ i ] = rep.getStepAttributeString( id_step, i, "file_name" );
@@ -68,6 +68,16 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
   public String dictPageSize;
   @Injection( name = "OVERRIDE_OUTPUT" )
   public boolean overrideOutput;
+  @Injection( name = "ASYNC_WRITE" )
+  public boolean asyncWrite;
+  @Injection( name = "ASYNC_BUFFER_SIZE" )
+  public String asyncBufferSize;
+  @Injection( name = "ROWS_PER_FILE" )
+  public String rowsPerFile;
+  @Injection( name = "PARTITION_FIELD" )
+  public String partitionField;
+  @Injection( name = "MAX_OPEN_FILES" )
+  public String maxOpenFiles;
 
   /** Flag: add the date in the filename */
   @Injection( name = "INC_DATE_IN_FILENAME" )
@@ -113,6 +123,22 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
     this.enableDictionary = enableDictionary;
   }
 
+  public boolean isAsyncWrite() {
+    return asyncWrite;
+  }
+
+  public void setAsyncWrite( boolean asyncWrite ) {
+    this.asyncWrite = asyncWrite;
+  }
+
+  public String getPartitionField() {
+    return partitionField;
+  }
+
+  public void setPartitionField( String partitionField ) {
+    this.partitionField = partitionField;
+  }
+
   public boolean isOverrideOutput() {
     return overrideOutput;
   }
@@ -176,6 +202,11 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
       rowGroupSize = XMLHandler.getTagValue( stepnode, "rowGroupSize" );
       dataPageSize = XMLHandler.getTagValue( stepnode, "dataPageSize" );
       dictPageSize = XMLHandler.getTagValue( stepnode, "dictPageSize" );
+      asyncWrite = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "asyncWrite" ) );
+      asyncBufferSize = XMLHandler.getTagValue( stepnode, "asyncBufferSize" );
+      rowsPerFile = XMLHandler.getTagValue( stepnode, "rowsPerFile" );
+      partitionField = XMLHandler.getTagValue( stepnode, "partitionField" );
+      maxOpenFiles = XMLHandler.getTagValue( stepnode, "maxOpenFiles" );
       extension = XMLHandler.getTagValue( stepnode, "extension" );
       dateInFilename = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "dateInFilename" ) );
       timeInFilename = "Y".equalsIgnoreCase( ( XMLHandler.getTagValue( stepnode, "timeInFilename" ) ) );
@@ -219,6 +250,11 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
     retval.append( "    " ).append( XMLHandler.addTagValue( "dictPageSize", dictPageSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "rowGroupSize", rowGroupSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "dataPageSize", dataPageSize ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "asyncWrite", asyncWrite ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "asyncBufferSize", asyncBufferSize ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "rowsPerFile", rowsPerFile ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "partitionField", partitionField ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "maxOpenFiles", maxOpenFiles ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "extension", extension ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "dateInFilename", dateInFilename ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "timeInFilename", timeInFilename ) );
@@ -273,6 +309,11 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
       dictPageSize = rep.getStepAttributeString( id_step, "dictPageSize" );
       rowGroupSize = rep.getStepAttributeString( id_step, "rowGroupSize" );
       dataPageSize = rep.getStepAttributeString( id_step, "dataPageSize" );
+      asyncWrite = rep.getStepAttributeBoolean( id_step, "asyncWrite" );
+      asyncBufferSize = rep.getStepAttributeString( id_step, "asyncBufferSize" );
+      rowsPerFile = rep.getStepAttributeString( id_step, "rowsPerFile" );
+      partitionField = rep.getStepAttributeString( id_step, "partitionField" );
+      maxOpenFiles = rep.getStepAttributeString( id_step, "maxOpenFiles" );
       extension = rep.getStepAttributeString( id_step, "extension" );
       dateInFilename = rep.getStepAttributeBoolean( id_step, "dateInFilename" );
       timeInFilename = rep.getStepAttributeBoolean( id_step, "timeInFilename" );
@@ -312,6 +353,11 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
       rep.saveStepAttribute( id_transformation, id_step, "dictPageSize", dictPageSize );
       rep.saveStepAttribute( id_transformation, id_step, "rowGroupSize", rowGroupSize );
       rep.saveStepAttribute( id_transformation, id_step, "dataPageSize", dataPageSize );
+      rep.saveStepAttribute( id_transformation, id_step, "asyncWrite", asyncWrite );
+      rep.saveStepAttribute( id_transformation, id_step, "asyncBufferSize", asyncBufferSize );
+      rep.saveStepAttribute( id_transformation, id_step, "rowsPerFile", rowsPerFile );
+      rep.saveStepAttribute( id_transformation, id_step, "partitionField", partitionField );
+      rep.saveStepAttribute( id_transformation, id_step, "maxOpenFiles", maxOpenFiles );
       rep.saveStepAttribute( id_transformation, id_step, "extension", extension );
       rep.saveStepAttribute( id_transformation, id_step, "dateInFilename", dateInFilename );
       rep.saveStepAttribute( id_transformation, id_step, "timeInFilename", timeInFilename );
@@ -427,6 +473,51 @@ public abstract class ParquetOutputMetaBase extends BaseStepMeta implements Step
     this.dataPageSize = dataPageSize;
   }
 
+  /**
+   * @return the number of rows buffered for the encoder thread when writing asynchronously, 0 for the default
+   */
+  public int getAsyncBufferSize( VariableSpace vspace ) {
+    return parseReplace( asyncBufferSize, vspace, s -> Integer.parseInt( s ), 0 );
+  }
+
+  public String getAsyncBufferSize() {
+    return asyncBufferSize;
+  }
+
+  public void setAsyncBufferSize( String asyncBufferSize ) {
+    this.asyncBufferSize = asyncBufferSize;
+  }
+
+  /**
+   * @return the number of rows after which a new file is started, 0 to write a single file
+   */
+  public long getRowsPerFile( VariableSpace vspace ) {
+    return parseReplace( rowsPerFile, vspace, s -> Long.parseLong( s ), 0L );
+  }
+
+  public String getRowsPerFile() {
+    return rowsPerFile;
+  }
+
+  public void setRowsPerFile( String rowsPerFile ) {
+    this.rowsPerFile = rowsPerFile;
+  }
+
+  /**
+   * @return the number of files kept open at the same time when writing partitions, 0 for the default
+   */
+  public int getMaxOpenFiles( VariableSpace vspace ) {
+    return parseReplace( maxOpenFiles, vspace, s -> Integer.parseInt( s ), 0 );
+  }
+
+  public String getMaxOpenFiles() {
+    return maxOpenFiles;
+  }
+
+  public void setMaxOpenFiles( String maxOpenFiles ) {
+    this.maxOpenFiles = maxOpenFiles;
+  }
+
   public int getDictPageSize( VariableSpace vspace ) {
     return parseReplace( dictPageSize, vspace, s -> Integer.parseInt( s ), 0 );
   }
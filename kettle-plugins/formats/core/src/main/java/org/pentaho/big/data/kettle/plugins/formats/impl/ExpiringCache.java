@@ -0,0 +1,97 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.big.data.kettle.plugins.formats.impl;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * A small thread safe cache whose entries expire a fixed time after they were loaded. When it is full the least
+ * recently used entry is dropped. Null values are not cached, so something that is missing is looked up again the next
+ * time, e.g. after it has been created.
+ */
+public class ExpiringCache<K, V> {
+
+  @FunctionalInterface
+  public interface Loader<V, E extends Exception> {
+    V load() throws E;
+  }
+
+  private static class Entry<V> {
+    private final V value;
+    private final long expires;
+
+    private Entry( V value, long expires ) {
+      this.value = value;
+      this.expires = expires;
+    }
+  }
+
+  private final int maxSize;
+  private final long ttlMillis;
+  private final LongSupplier clock;
+  // access ordered, so the first entry is the least recently used one
+  private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>( 16, 0.75f, true );
+  // bumped by clear, so a value loaded before the cache was cleared isn't put back into it
+  private long generation;
+
+  public ExpiringCache( int maxSize, long ttlMillis ) {
+    this( maxSize, ttlMillis, System::currentTimeMillis );
+  }
+
+  ExpiringCache( int maxSize, long ttlMillis, LongSupplier clock ) {
+    this.maxSize = maxSize;
+    this.ttlMillis = ttlMillis;
+    this.clock = clock;
+  }
+
+  /**
+   * Returns the cached value of the key, or loads and caches it when it is missing or expired. The loader runs outside
+   * of the cache lock, so a slow load doesn't hold up lookups of other keys.
+   */
+  public <E extends Exception> V get( K key, Loader<V, E> loader ) throws E {
+    long now = clock.getAsLong();
+    long loadGeneration;
+    synchronized ( this ) {
+      Entry<V> entry = entries.get( key );
+      if ( entry != null && entry.expires > now ) {
+        return entry.value;
+      }
+      loadGeneration = generation;
+    }
+    V value = loader.load();
+    synchronized ( this ) {
+      if ( value == null || loadGeneration != generation ) {
+        entries.remove( key );
+        return value;
+      }
+      entries.put( key, new Entry<>( value, now + ttlMillis ) );
+      if ( entries.size() > maxSize ) {
+        Iterator<K> leastRecentlyUsed = entries.keySet().iterator();
+        leastRecentlyUsed.next();
+        leastRecentlyUsed.remove();
+      }
+    }
+    return value;
+  }
+
+  public synchronized void clear() {
+    generation++;
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+}
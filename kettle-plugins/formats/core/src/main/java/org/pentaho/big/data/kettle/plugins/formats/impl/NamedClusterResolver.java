@@ -12,24 +12,33 @@
 package org.pentaho.big.data.kettle.plugins.formats.impl;
 
 import org.pentaho.big.data.api.services.BigDataServicesHelper;
+import org.pentaho.big.data.impl.cluster.NamedClusterManager;
 import org.pentaho.di.core.logging.LogChannel;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.service.PluginServiceLoader;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterService;
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
+import org.pentaho.metastore.api.IMetaStore;
 import org.pentaho.metastore.locator.api.MetastoreLocator;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public class NamedClusterResolver {
+  static final int CACHE_SIZE = 100;
+  static final long CACHE_TTL_MILLIS = 30 * 1000L;
 
   private final NamedClusterServiceLocator namedClusterServiceLocator;
   private final NamedClusterService namedClusterService;
   private MetastoreLocator metaStoreService;
+  // clusters are looked up in the metastore for every format step and every dialog refresh
+  private final ExpiringCache<List<Object>, NamedCluster> namedClusters =
+    new ExpiringCache<>( CACHE_SIZE, CACHE_TTL_MILLIS );
   private static NamedClusterResolver namedClusterResolver = null;
 
   private NamedClusterResolver() {
@@ -41,6 +50,7 @@ public class NamedClusterResolver {
                                 NamedClusterService namedClusterService ) {
     this.namedClusterServiceLocator = namedClusterServiceLocator;
     this.namedClusterService = namedClusterService;
+    NamedClusterManager.getInstance().addChangeListener( this::clearCache );
   }
 
   public static synchronized NamedClusterResolver getInstance() {
@@ -68,30 +78,53 @@ public class NamedClusterResolver {
     return resolveNamedCluster( fileName, null );
   }
 
+  /**
+   * Finds the named cluster a file lives on, by cluster name for hc:// URIs and by host name otherwise. Clusters that
+   * were found are cached for {@link #CACHE_TTL_MILLIS}, per default metastore. The cache is cleared when a cluster is
+   * created, updated or deleted through the {@link NamedClusterManager}, so only changes made by other processes wait
+   * for the entry to expire. Clusters that were not found are looked up again every time.
+   */
   public NamedCluster resolveNamedCluster( String fileName, String embeddedMetastoreKey ) {
-    NamedCluster namedCluster = null;
     Optional<URI> uri = fileUri( fileName );
+    if ( !uri.isPresent() ) {
+      return null;
+    }
+    MetastoreLocator metastoreLocator = getMetastoreLocator();
+    if ( metastoreLocator == null ) {
+      // nothing is cached until the metastore is available
+      return null;
+    }
+    String scheme = uri.get().getScheme();
+    String hostName = uri.get().getHost();
+    boolean byName = "hc".equals( scheme );
+    IMetaStore metastore =
+      byName ? metastoreLocator.getMetastore() : metastoreLocator.getMetastore( embeddedMetastoreKey );
+    List<Object> key = Arrays.asList( byName, hostName, embeddedMetastoreKey, metastore );
+    return namedClusters.get( key,
+      () -> lookupNamedCluster( metastoreLocator, metastore, byName, hostName, embeddedMetastoreKey ) );
+  }
 
-    if ( uri.isPresent() ) {
-      String scheme = uri.get().getScheme();
-      String hostName = uri.get().getHost();
-      MetastoreLocator metastoreLocator = getMetastoreLocator();
+  /**
+   * Drops every cached cluster lookup, e.g. after the cluster definitions in the metastore changed.
+   */
+  public void clearCache() {
+    namedClusters.clear();
+  }
 
-      if ( metastoreLocator != null ) {
-        if ( scheme != null && scheme.equals( "hc" ) ) {
-          namedCluster = namedClusterService.getNamedClusterByName( hostName, metastoreLocator.getMetastore() );
-          if ( namedCluster == null && embeddedMetastoreKey != null ) {
-            namedCluster = namedClusterService
-              .getNamedClusterByName( hostName, metastoreLocator.getExplicitMetastore( embeddedMetastoreKey ) );
-          }
-        } else {
-          namedCluster
-            = namedClusterService.getNamedClusterByHost( hostName, metastoreLocator.getMetastore( embeddedMetastoreKey ) );
-          if ( namedCluster == null && embeddedMetastoreKey != null ) {
-            namedCluster = namedClusterService
-              .getNamedClusterByHost( hostName, metastoreLocator.getExplicitMetastore( embeddedMetastoreKey ) );
-          }
-        }
+  private NamedCluster lookupNamedCluster( MetastoreLocator metastoreLocator, IMetaStore metastore, boolean byName,
+                                           String hostName, String embeddedMetastoreKey ) {
+    NamedCluster namedCluster;
+    if ( byName ) {
+      namedCluster = namedClusterService.getNamedClusterByName( hostName, metastore );
+      if ( namedCluster == null && embeddedMetastoreKey != null ) {
+        namedCluster = namedClusterService
+          .getNamedClusterByName( hostName, metastoreLocator.getExplicitMetastore( embeddedMetastoreKey ) );
+      }
+    } else {
+      namedCluster = namedClusterService.getNamedClusterByHost( hostName, metastore );
+      if ( namedCluster == null && embeddedMetastoreKey != null ) {
+        namedCluster = namedClusterService
+          .getNamedClusterByHost( hostName, metastoreLocator.getExplicitMetastore( embeddedMetastoreKey ) );
       }
     }
     return namedCluster;
@@ -0,0 +1,38 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.input;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Divides units of input work (splits, files) among the copies of an input step. Every copy computes the same list,
+ * so taking each element whose index modulo the copy count matches the copy's number lets the copies share the work
+ * without any coordination between them.
+ */
+public class InputSplitAssigner {
+
+  private InputSplitAssigner() {
+  }
+
+  public static <T> List<T> assign( List<T> splits, int stepNr, int stepCount ) {
+    if ( stepCount <= 1 ) {
+      return splits;
+    }
+    List<T> assigned = new ArrayList<>();
+    for ( int i = stepNr; i < splits.size(); i += stepCount ) {
+      assigned.add( splits.get( i ) );
+    }
+    return assigned;
+  }
+}
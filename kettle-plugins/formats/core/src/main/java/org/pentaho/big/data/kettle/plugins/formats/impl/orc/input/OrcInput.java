@@ -13,7 +13,11 @@
 
 package org.pentaho.big.data.kettle.plugins.formats.impl.orc.input;
 
+import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.vfs2.FileObject;
+import org.apache.commons.vfs2.FileSystemException;
+import org.apache.commons.vfs2.FileType;
+import org.pentaho.big.data.kettle.plugins.formats.impl.input.InputSplitAssigner;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
 import org.pentaho.hadoop.shim.api.cluster.ClusterInitializationException;
@@ -35,11 +39,15 @@ import org.pentaho.hadoop.shim.api.format.FormatService;
 import org.pentaho.hadoop.shim.api.format.IOrcInputField;
 import org.pentaho.hadoop.shim.api.format.IPentahoOrcInputFormat;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 public class OrcInput extends BaseFileInputStep<OrcInputMeta, OrcInputData> {
   public static final long SPLIT_SIZE = 128L * 1024L * 1024L;
+  public static final int ROWS_PER_BATCH = 1000;
 
   public OrcInput( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
                    Trans trans ) {
@@ -51,32 +59,35 @@ public class OrcInput extends BaseFileInputStep<OrcInputMeta, OrcInputData> {
     meta = (OrcInputMeta) smi;
     data = (OrcInputData) sdi;
     try {
-      if ( data.input == null || data.reader == null || data.rowIterator == null ) {
-        FormatService formatService = getFormatService();
-        if ( meta.inputFiles == null || meta.getFilename() == null || meta.getFilename().length() == 0 ) {
-          throw new KettleException( "No input files defined" );
-        }
-        data.input = formatService.createInputFormat( IPentahoOrcInputFormat.class, getNamedCluster() );
-
-        String inputFileName = getKettleVFSFileName( getTransMeta().getBowl(),
-          meta.getParentStepMeta().getParentTransMeta().environmentSubstitute( meta.getFilename() ) );
+      if ( data.files == null ) {
+        initFiles();
+      }
 
-        data.input.setInputFile( inputFileName );
-        data.input.setSchema( createSchemaFromMeta( meta ) );
-        data.reader = data.input.createRecordReader( null );
-        data.rowIterator = data.reader.iterator();
+      if ( data.reader == null ) {
+        if ( data.currentFile >= data.files.size() ) {
+          setOutputDone();
+          return false;
+        }
+        openReader();
       }
-      if ( data.rowIterator.hasNext() ) {
+
+      // hand over a batch of rows per call rather than going through the step loop for every row
+      for ( int i = 0; i < ROWS_PER_BATCH && !isStopped(); i++ ) {
+        if ( !data.rowIterator.hasNext() ) {
+          data.reader.close();
+          data.reader = null;
+          data.input = null;
+          logDebug( "Close file {0}", data.files.get( data.currentFile ) );
+          data.currentFile++;
+          return true;
+        }
         RowMetaAndData row = data.rowIterator.next();
-        putRow( row.getRowMeta(), row.getData() );
-        return true;
-      } else {
-        data.reader.close();
-        data.reader = null;
-        data.input = null;
-        setOutputDone();
-        return false;
+        if ( data.outputRowMeta == null ) {
+          data.outputRowMeta = row.getRowMeta();
+        }
+        putRow( data.outputRowMeta, row.getData() );
       }
+      return true;
     } catch ( KettleException ex ) {
       throw ex;
     } catch ( Exception ex ) {
@@ -84,6 +95,69 @@ public class OrcInput extends BaseFileInputStep<OrcInputMeta, OrcInputData> {
     }
   }
 
+  void initFiles() throws Exception {
+    if ( meta.inputFiles == null || meta.getFilename() == null || meta.getFilename().length() == 0 ) {
+      throw new KettleException( "No input files defined" );
+    }
+    String inputFileName = meta.getParentStepMeta().getParentTransMeta().environmentSubstitute( meta.getFilename() );
+    data.files = listInputFiles( getTransMeta().getBowl(), inputFileName );
+    logDebug( "Input file count: {0}", data.files.size() );
+    if ( meta.isDistributeSplits() ) {
+      data.files =
+        InputSplitAssigner.assign( data.files, getUniqueStepNrAcrossSlaves(), getUniqueStepCountAcrossSlaves() );
+      logDebug( "Files assigned to this copy: {0}", data.files.size() );
+    }
+    data.currentFile = 0;
+  }
+
+  void openReader() throws Exception {
+    String inputFileName = data.files.get( data.currentFile );
+    logDebug( "Open file {0}", inputFileName );
+    data.input = getFormatService().createInputFormat( IPentahoOrcInputFormat.class, getNamedCluster() );
+    data.input.setInputFile( inputFileName );
+    data.input.setSchema( createSchemaFromMeta( meta ) );
+    data.reader = data.input.createRecordReader( null );
+    data.rowIterator = data.reader.iterator();
+    data.outputRowMeta = null;
+  }
+
+  /**
+   * Expands the input path into the ORC files to read. A folder yields the files directly inside it and a wildcard in
+   * the last path segment (e.g. <code>/data/part-*.orc</code>) yields the matching files of the parent folder. Hidden
+   * files and the ones starting with an underscore (like <code>_SUCCESS</code>) are skipped, as Hadoop does.
+   */
+  static List<String> listInputFiles( Bowl bowl, String path ) throws KettleFileException, FileSystemException {
+    String location = path;
+    String pattern = null;
+    int lastSlash = path.lastIndexOf( '/' );
+    if ( lastSlash >= 0 && isWildcard( path.substring( lastSlash + 1 ) ) ) {
+      location = path.substring( 0, lastSlash );
+      pattern = path.substring( lastSlash + 1 );
+    }
+
+    FileObject fileObject = KettleVFS.getInstance( bowl ).getFileObject( location );
+    if ( pattern == null && fileObject.getType() != FileType.FOLDER ) {
+      return Collections.singletonList( getKettleVFSFileName( bowl, path ) );
+    }
+
+    FileObject[] children = fileObject.getChildren();
+    Arrays.sort( children, Comparator.comparing( ( FileObject child ) -> child.getName().getBaseName() ) );
+    List<String> files = new ArrayList<>();
+    for ( FileObject child : children ) {
+      String name = child.getName().getBaseName();
+      if ( child.getType() == FileType.FILE && !name.startsWith( "." ) && !name.startsWith( "_" )
+        && ( pattern == null || FilenameUtils.wildcardMatch( name, pattern ) ) ) {
+        files.add( AliasedFileObject.isAliasedFile( child )
+          ? ( (AliasedFileObject) child ).getOriginalURIString() : child.getName().getURI() );
+      }
+    }
+    return files;
+  }
+
+  private static boolean isWildcard( String name ) {
+    return name.indexOf( '*' ) >= 0 || name.indexOf( '?' ) >= 0;
+  }
+
   private NamedCluster getNamedCluster() {
     return meta.getNamedClusterResolver().resolveNamedCluster( environmentSubstitute( meta.getFilename() ) );
   }
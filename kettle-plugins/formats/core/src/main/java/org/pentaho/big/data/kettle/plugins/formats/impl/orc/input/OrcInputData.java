@@ -14,6 +14,7 @@
 package org.pentaho.big.data.kettle.plugins.formats.impl.orc.input;
 
 import java.util.Iterator;
+import java.util.List;
 
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -22,6 +23,8 @@ import org.pentaho.hadoop.shim.api.format.IPentahoInputFormat.IPentahoRecordRead
 import org.pentaho.hadoop.shim.api.format.IPentahoOrcInputFormat;
 
 public class OrcInputData extends BaseFileInputStepData {
+  List<String> files;
+  int currentFile;
   IPentahoOrcInputFormat input;
   IPentahoRecordReader reader;
   Iterator<RowMetaAndData> rowIterator;
@@ -14,15 +14,19 @@
 package org.pentaho.big.data.kettle.plugins.formats.impl.orc.output;
 
 
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.AsyncRecordWriter;
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.OutputFileSet;
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.OutputFileWriter;
 import org.pentaho.big.data.kettle.plugins.formats.impl.output.PvfsFileAliaser;
+import org.pentaho.big.data.kettle.plugins.formats.orc.output.OrcOutputField;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.cluster.ClusterInitializationException;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
-import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaFactory;
+import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.BaseStep;
@@ -33,7 +37,7 @@ import org.pentaho.di.trans.step.StepMetaInterface;
 import org.pentaho.hadoop.shim.api.format.FormatService;
 import org.pentaho.hadoop.shim.api.format.IPentahoOrcOutputFormat;
 
-import java.io.IOException;
+import java.util.List;
 
 public class OrcOutput extends BaseStep implements StepInterface {
 
@@ -41,8 +45,6 @@ public class OrcOutput extends BaseStep implements StepInterface {
 
   private OrcOutputData data;
 
-  private PvfsFileAliaser pvfsFileAliaser;
-
   public OrcOutput( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
                     Trans trans ) {
     super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
@@ -55,45 +57,40 @@ public class OrcOutput extends BaseStep implements StepInterface {
       meta = (OrcOutputMeta) smi;
       data = (OrcOutputData) sdi;
 
-      if ( data.output == null ) {
+      if ( data.files == null ) {
         init();
       }
 
       Object[] currentRow = getRow();
       if ( currentRow != null ) {
-        //create new outputMeta
-        RowMetaInterface outputRMI = new RowMeta();
+        if ( data.outputFieldIndexes == null ) {
+          compileOutputFields();
+        }
         //create data equals with output fileds
-        Object[] outputData = new Object[ meta.getOutputFields().size() ];
-        for ( int i = 0; i < meta.getOutputFields().size(); i++ ) {
-          int inputRowIndex = getInputRowMeta().indexOfValue( meta.getOutputFields().get( i ).getPentahoFieldName() );
-          if ( inputRowIndex == -1 ) {
-            throw new KettleException( "Field name [" + meta.getOutputFields().get( i ).getPentahoFieldName()
-              + " ] couldn't be found in the input stream!" );
-          } else {
-            ValueMetaInterface vmi = ValueMetaFactory.cloneValueMeta( getInputRowMeta().getValueMeta( inputRowIndex ) );
-            //add output value meta according output fields
-            outputRMI.addValueMeta( i, vmi );
-            //add output data according output fields
-            outputData[ i ] = currentRow[ inputRowIndex ];
-          }
+        Object[] outputData = new Object[ data.outputFieldIndexes.length ];
+        for ( int i = 0; i < data.outputFieldIndexes.length; i++ ) {
+          outputData[ i ] = currentRow[ data.outputFieldIndexes[ i ] ];
         }
-        RowMetaAndData row = new RowMetaAndData( outputRMI, outputData );
-        data.writer.write( row );
-        putRow( row.getRowMeta(), row.getData() );
+        OutputFileWriter file = data.files.getFile( getPartition( currentRow ) );
+        if ( meta.isAsyncWrite() ) {
+          // the row is encoded later on another thread, so it can't share the holder or the array sent downstream
+          file.write( new RowMetaAndData( data.outputRowMeta, outputData.clone() ) );
+        } else {
+          data.outputRow.setData( outputData );
+          file.write( data.outputRow );
+        }
+        putRow( data.outputRowMeta, outputData );
         return true;
       } else {
         // no more input to be expected...
         closeWriter();
-        pvfsFileAliaser.copyFileToFinalDestination();
-        pvfsFileAliaser.deleteTempFileAndFolder();
         setOutputDone();
         return false;
       }
     } catch ( IllegalStateException e ) {
       getLogChannel().logError( e.getMessage() );
       setErrors( 1 );
-      pvfsFileAliaser.deleteTempFileAndFolder();
+      discardOutput();
       setOutputDone();
       return false;
     } catch ( KettleException ex ) {
@@ -116,41 +113,113 @@ public class OrcOutput extends BaseStep implements StepInterface {
       throw new KettleException( "No output files defined" );
     }
 
-    data.output = formatService.createOutputFormat( IPentahoOrcOutputFormat.class, getNamedCluster() );
+    // the partition field is looked up in the first row
+    data.partitionField = environmentSubstitute( meta.getPartitionField() );
+    data.partitionFieldIndex = -1;
+    boolean partitioned = !Utils.isEmpty( data.partitionField );
 
     String outputFileName = environmentSubstitute( meta.constructOutputFilename() );
-    pvfsFileAliaser = new PvfsFileAliaser( getTransMeta().getBowl(), outputFileName, getTransMeta(), data.output,
-      meta.isOverrideOutput(), getLogChannel() );
-
-    data.output.setOutputFile( pvfsFileAliaser.generateAlias(), meta.isOverrideOutput() );
-    data.output.setFields( meta.getOutputFields() );
+    data.files = new OutputFileSet( outputFileName, meta.getRowsPerFile(), partitioned, meta.getMaxOpenFiles(),
+      fileName -> openFile( formatService, fileName ) );
+    if ( !partitioned ) {
+      // a single file, or the first part, is created even when there are no rows
+      data.files.getFile( null );
+    }
+  }
 
-    IPentahoOrcOutputFormat.COMPRESSION compression;
+  private OutputFileWriter openFile( FormatService formatService, String fileName ) throws Exception {
+    IPentahoOrcOutputFormat output = formatService.createOutputFormat( IPentahoOrcOutputFormat.class,
+      getNamedCluster() );
+    PvfsFileAliaser pvfsFileAliaser = new PvfsFileAliaser( getTransMeta().getBowl(), fileName, getTransMeta(), output,
+      meta.isOverrideOutput(), getLogChannel() );
     try {
-      compression = IPentahoOrcOutputFormat.COMPRESSION.valueOf( meta.getCompressionType().toUpperCase() );
-    } catch ( Exception ex ) {
-      compression = IPentahoOrcOutputFormat.COMPRESSION.NONE;
+      output.setOutputFile( pvfsFileAliaser.generateAlias(), meta.isOverrideOutput() );
+      output.setFields( meta.getOutputFields() );
+
+      IPentahoOrcOutputFormat.COMPRESSION compression;
+      try {
+        compression = IPentahoOrcOutputFormat.COMPRESSION.valueOf( meta.getCompressionType().toUpperCase() );
+      } catch ( Exception ex ) {
+        compression = IPentahoOrcOutputFormat.COMPRESSION.NONE;
+      }
+      output.setCompression( compression );
+      if ( compression != IPentahoOrcOutputFormat.COMPRESSION.NONE ) {
+        output.setCompressSize( meta.getCompressSize() );
+      }
+      output.setRowIndexStride( meta.getRowsBetweenEntries() );
+      output.setStripeSize( meta.getStripeSize() );
+
+      IPentahoOrcOutputFormat.IPentahoRecordWriter writer = output.createRecordWriter();
+      AsyncRecordWriter asyncWriter = null;
+      if ( meta.isAsyncWrite() ) {
+        asyncWriter = new AsyncRecordWriter( writer, meta.getAsyncBufferSize(), getStepname() + " encoder" );
+      }
+      return new OutputFileWriter( fileName, pvfsFileAliaser, writer, asyncWriter, getLogChannel() );
+    } catch ( Exception e ) {
+      pvfsFileAliaser.deleteTempFileAndFolder();
+      throw e;
     }
-    data.output.setCompression( compression );
-    if ( compression != IPentahoOrcOutputFormat.COMPRESSION.NONE ) {
-      data.output.setCompressSize( meta.getCompressSize() );
+  }
+
+  /**
+   * Resolves the input index and value meta of every output field once, so rows only need to be copied by index.
+   */
+  void compileOutputFields() throws KettleException {
+    RowMetaInterface inputRowMeta = getInputRowMeta();
+    List<OrcOutputField> outputFields = meta.getOutputFields();
+    data.outputFieldIndexes = new int[ outputFields.size() ];
+    data.outputRowMeta = new RowMeta();
+    for ( int i = 0; i < outputFields.size(); i++ ) {
+      int inputRowIndex = inputRowMeta.indexOfValue( outputFields.get( i ).getPentahoFieldName() );
+      if ( inputRowIndex == -1 ) {
+        data.outputFieldIndexes = null;
+        throw new KettleException( "Field name [" + outputFields.get( i ).getPentahoFieldName()
+          + " ] couldn't be found in the input stream!" );
+      }
+      data.outputFieldIndexes[ i ] = inputRowIndex;
+      //add output value meta according output fields
+      data.outputRowMeta.addValueMeta( ValueMetaFactory.cloneValueMeta( inputRowMeta.getValueMeta( inputRowIndex ) ) );
     }
-    data.output.setRowIndexStride( meta.getRowsBetweenEntries() );
-    data.output.setStripeSize( meta.getStripeSize() );
-    data.writer = data.output.createRecordWriter();
+    // a synchronous writer consumes the row before write returns, so one holder can be reused for every row
+    data.outputRow = new RowMetaAndData( data.outputRowMeta );
   }
 
   private NamedCluster getNamedCluster() {
     return meta.getNamedClusterResolver().resolveNamedCluster( environmentSubstitute( meta.getFilename() ) );
   }
 
+  private String getPartition( Object[] row ) throws KettleException {
+    if ( Utils.isEmpty( data.partitionField ) ) {
+      return null;
+    }
+    if ( data.partitionFieldIndex < 0 ) {
+      data.partitionFieldIndex = getInputRowMeta().indexOfValue( data.partitionField );
+      if ( data.partitionFieldIndex < 0 ) {
+        throw new KettleException( "Partition field [" + data.partitionField
+          + "] couldn't be found in the input stream!" );
+      }
+    }
+    String value = getInputRowMeta().getString( row, data.partitionFieldIndex );
+    return OutputFileSet.partitionName( data.partitionField, value );
+  }
+
+  /**
+   * Closes every open output file and moves it to its final destination.
+   */
   public void closeWriter() throws KettleException {
-    try {
-      data.writer.close();
-    } catch ( IOException e ) {
-      throw new KettleException( e );
+    if ( data.files != null ) {
+      OutputFileSet files = data.files;
+      data.files = null;
+      files.close();
+      logDetailed( "Wrote " + files.getFilesWritten() + " file(s)" );
+    }
+  }
+
+  private void discardOutput() {
+    if ( data.files != null ) {
+      data.files.discard();
+      data.files = null;
     }
-    data.output = null;
   }
 
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
@@ -158,4 +227,12 @@ public class OrcOutput extends BaseStep implements StepInterface {
     data = (OrcOutputData) sdi;
     return super.init( smi, sdi );
   }
+
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    data = (OrcOutputData) sdi;
+    // files still open here did not reach the end of the input, only processRow publishes complete files
+    discardOutput();
+    super.dispose( smi, sdi );
+  }
 }
@@ -12,13 +12,18 @@
 
 package org.pentaho.big.data.kettle.plugins.formats.impl.orc.output;
 
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.OutputFileSet;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
-import org.pentaho.hadoop.shim.api.format.IPentahoOrcOutputFormat;
-import org.pentaho.hadoop.shim.api.format.IPentahoOutputFormat.IPentahoRecordWriter;
 
 public class OrcOutputData extends BaseStepData implements StepDataInterface {
 
-  public IPentahoOrcOutputFormat output;
-  public IPentahoRecordWriter writer;
+  public OutputFileSet files;
+  public int[] outputFieldIndexes;
+  public RowMetaInterface outputRowMeta;
+  public RowMetaAndData outputRow;
+  public int partitionFieldIndex = -1;
+  public String partitionField;
 }
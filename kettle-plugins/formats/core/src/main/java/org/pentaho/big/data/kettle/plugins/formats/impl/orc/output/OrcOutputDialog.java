@@ -69,7 +69,7 @@ public class OrcOutputDialog extends BaseOrcStepDialog<OrcOutputMeta> implements
   private static final Class<?> PKG = OrcOutputMeta.class;
 
   private static final int SHELL_WIDTH = 698;
-  private static final int SHELL_HEIGHT = 554;
+  private static final int SHELL_HEIGHT = 654;
 
   private ComboVar wCompression;
   private TextVar wStripeSize;
@@ -81,6 +81,11 @@ public class OrcOutputDialog extends BaseOrcStepDialog<OrcOutputMeta> implements
   private Button wOverwriteExistingFile;
   private Button wSpecifyDateTimeFormat;
   private ComboVar wDateTimeFormat;
+  private TextVar wRowsPerFile;
+  private TextVar wMaxOpenFiles;
+  private ComboVar wPartitionField;
+  private Button wAsyncWrite;
+  private TextVar wAsyncBufferSize;
   private int startingRowsBetweenEntries = OrcOutputMeta.DEFAULT_ROWS_BETWEEN_ENTRIES;
 
   private TableView wOutputFields;
@@ -260,6 +265,34 @@ public class OrcOutputDialog extends BaseOrcStepDialog<OrcOutputMeta> implements
     setIntegerOnly( wCompressSize );
     wCompressSize.addModifyListener( lsMod );
 
+    wLabel = createLabel( wGrid, "OrcOutputDialog.Options.RowsPerFile" );
+    formData = new FormData();
+    formData.top = new FormAttachment( wCompressSize, 10 );
+    wLabel.setLayoutData( formData );
+
+    wRowsPerFile = new TextVar( transMeta, wGrid, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wRowsPerFile );
+    formData = new FormData();
+    formData.top = new FormAttachment( wLabel, 5 );
+    formData.width = FIELD_SMALL + VAR_EXTRA_WIDTH;
+    wRowsPerFile.setLayoutData( formData );
+    setIntegerOnly( wRowsPerFile );
+    wRowsPerFile.addModifyListener( lsMod );
+
+    wLabel = createLabel( wGrid, "OrcOutputDialog.Options.MaxOpenFiles" );
+    formData = new FormData();
+    formData.top = new FormAttachment( wRowsPerFile, 10 );
+    wLabel.setLayoutData( formData );
+
+    wMaxOpenFiles = new TextVar( transMeta, wGrid, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wMaxOpenFiles );
+    formData = new FormData();
+    formData.top = new FormAttachment( wLabel, 5 );
+    formData.width = FIELD_SMALL + VAR_EXTRA_WIDTH;
+    wMaxOpenFiles.setLayoutData( formData );
+    setIntegerOnly( wMaxOpenFiles );
+    wMaxOpenFiles.addModifyListener( lsMod );
+
     wInlineIndexes = new Button( wGrid, SWT.CHECK );
     props.setLook( wInlineIndexes );
     wInlineIndexes.setText( BaseMessages.getString( PKG, "OrcOutputDialog.Options.InlineIndexes" ) );
@@ -376,6 +409,63 @@ public class OrcOutputDialog extends BaseOrcStepDialog<OrcOutputMeta> implements
     formData.top = new FormAttachment( wSpecifyDateTimeFormat, 5 );
     formData.left = new FormAttachment( wCompressSize, 70 );
     wDateTimeFormat.setLayoutData( formData );
+
+    wLabel = createLabel( wGrid, "OrcOutputDialog.Options.PartitionField" );
+    formData = new FormData();
+    formData.top = new FormAttachment( wDateTimeFormat, 10 );
+    formData.left = new FormAttachment( wCompressSize, 50 );
+    wLabel.setLayoutData( formData );
+
+    wPartitionField = createComboVar( wGrid, getPreviousFieldNames() );
+    props.setLook( wPartitionField );
+    formData = new FormData();
+    formData.top = new FormAttachment( wLabel, 5 );
+    formData.left = new FormAttachment( wCompressSize, 50 );
+    formData.width = FIELD_SMALL + VAR_EXTRA_WIDTH;
+    wPartitionField.setLayoutData( formData );
+
+    wAsyncWrite = new Button( wGrid, SWT.CHECK );
+    props.setLook( wAsyncWrite );
+    wAsyncWrite.setText( BaseMessages.getString( PKG, "OrcOutputDialog.Options.AsyncWrite" ) );
+    formData = new FormData();
+    formData.top = new FormAttachment( wPartitionField, 10 );
+    formData.left = new FormAttachment( wCompressSize, 50 );
+    wAsyncWrite.setLayoutData( formData );
+    wAsyncWrite.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent e ) {
+        meta.setChanged();
+        wAsyncBufferSize.setEnabled( wAsyncWrite.getSelection() );
+      }
+    } );
+
+    wLabel = createLabel( wGrid, "OrcOutputDialog.Options.AsyncBufferSize" );
+    formData = new FormData();
+    formData.top = new FormAttachment( wAsyncWrite, 10 );
+    formData.left = new FormAttachment( wCompressSize, 70 );
+    wLabel.setLayoutData( formData );
+
+    wAsyncBufferSize = new TextVar( transMeta, wGrid, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wAsyncBufferSize );
+    formData = new FormData();
+    formData.top = new FormAttachment( wLabel, 5 );
+    formData.left = new FormAttachment( wCompressSize, 70 );
+    formData.width = FIELD_SMALL + VAR_EXTRA_WIDTH;
+    wAsyncBufferSize.setLayoutData( formData );
+    setIntegerOnly( wAsyncBufferSize );
+    wAsyncBufferSize.addModifyListener( lsMod );
+  }
+
+  private String[] getPreviousFieldNames() {
+    try {
+      RowMetaInterface r = transMeta.getPrevStepFields( stepname );
+      if ( r != null ) {
+        return r.getFieldNames();
+      }
+    } catch ( KettleException ke ) {
+      // the partition field can still be typed in
+    }
+    return new String[ 0 ];
   }
 
   protected ComboVar createComboVar( Composite container, String[] options ) {
@@ -465,6 +555,12 @@ public class OrcOutputDialog extends BaseOrcStepDialog<OrcOutputMeta> implements
       wDateTimeFormat.setText( "" );
     }
 
+    wRowsPerFile.setText( meta.getRowsPerFile() > 0 ? Integer.toString( meta.getRowsPerFile() ) : "" );
+    wMaxOpenFiles.setText( meta.getMaxOpenFiles() > 0 ? Integer.toString( meta.getMaxOpenFiles() ) : "" );
+    wPartitionField.setText( coalesce( meta.getPartitionField() ) );
+    wAsyncWrite.setSelection( meta.isAsyncWrite() );
+    wAsyncBufferSize.setText( meta.getAsyncBufferSize() > 0 ? Integer.toString( meta.getAsyncBufferSize() ) : "" );
+    wAsyncBufferSize.setEnabled( meta.isAsyncWrite() );
   }
 
   // ui -> meta
@@ -479,6 +575,13 @@ public class OrcOutputDialog extends BaseOrcStepDialog<OrcOutputMeta> implements
     meta.setStripeSize( stripeSize );
     int rowsBetweenEntries = ( wRowsBetweenEntries.getText().length() > 0 ) ? Integer.parseInt( wRowsBetweenEntries.getText() ) : 0;
     meta.setRowsBetweenEntries( rowsBetweenEntries );
+    meta.setRowsPerFile( ( wRowsPerFile.getText().length() > 0 ) ? Integer.parseInt( wRowsPerFile.getText() ) : 0 );
+    meta.setMaxOpenFiles( ( wMaxOpenFiles.getText().length() > 0 ) ? Integer.parseInt( wMaxOpenFiles.getText() ) : 0 );
+    meta.setPartitionField( Utils.isEmpty( wPartitionField.getText() ) ? null : wPartitionField.getText() );
+    meta.setAsyncWrite( wAsyncWrite.getSelection() );
+    int asyncBufferSize =
+      ( wAsyncBufferSize.getText().length() > 0 ) ? Integer.parseInt( wAsyncBufferSize.getText() ) : 0;
+    meta.setAsyncBufferSize( asyncBufferSize );
     if ( wSpecifyDateTimeFormat.getSelection() ) {
       meta.setTimeInFileName( false );
       meta.setDateInFileName( false );
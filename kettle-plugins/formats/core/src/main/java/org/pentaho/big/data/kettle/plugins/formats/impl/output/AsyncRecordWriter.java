@@ -0,0 +1,177 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.output;
+
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.hadoop.shim.api.format.IPentahoOutputFormat.IPentahoRecordWriter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands rows over to a dedicated encoder thread through a bounded buffer, so the step thread doesn't wait while the
+ * format encodes and compresses. A failure of the encoder thread is reported back on the next {@link #write} or on
+ * {@link #close}, which also drains the buffer and closes the wrapped writer. {@link #abort} throws the queued rows
+ * away instead.
+ */
+public class AsyncRecordWriter {
+  public static final int DEFAULT_BUFFER_SIZE = 10000;
+
+  private static final long POLL_MILLIS = 100;
+  private static final RowMetaAndData END_OF_ROWS = new RowMetaAndData();
+
+  private final IPentahoRecordWriter writer;
+  private final BlockingQueue<RowMetaAndData> buffer;
+  private final Thread encoder;
+  private volatile Throwable failure;
+  private boolean closed;
+
+  // only updated by the step thread
+  private long rowsWritten;
+  private long bufferFullCount;
+  private long bufferFullNanos;
+
+  public AsyncRecordWriter( IPentahoRecordWriter writer, int bufferSize, String name ) {
+    this.writer = writer;
+    this.buffer = new ArrayBlockingQueue<>( bufferSize > 0 ? bufferSize : DEFAULT_BUFFER_SIZE );
+    this.encoder = new Thread( this::encode, name );
+    this.encoder.setDaemon( true );
+    this.encoder.start();
+  }
+
+  /**
+   * Queues the row for writing, waiting while the buffer is full. The row must not be modified afterwards.
+   */
+  public void write( RowMetaAndData row ) throws KettleException {
+    checkFailure();
+    if ( !buffer.offer( row ) ) {
+      long start = System.nanoTime();
+      enqueue( row );
+      bufferFullCount++;
+      bufferFullNanos += System.nanoTime() - start;
+    }
+    rowsWritten++;
+  }
+
+  /**
+   * Waits until every queued row is written, then closes the wrapped writer. Calling it again does nothing.
+   */
+  public void close() throws KettleException {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    try {
+      enqueue( END_OF_ROWS );
+      encoder.join();
+    } catch ( KettleException e ) {
+      // the encoder failed, it is reported below
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      encoder.interrupt();
+      fail( e );
+    } finally {
+      try {
+        writer.close();
+      } catch ( IOException e ) {
+        fail( e );
+      }
+    }
+    checkFailure();
+  }
+
+  /**
+   * Drops the queued rows, stops the encoder and closes the wrapped writer, ignoring any failure. Meant for output that
+   * is thrown away, so it doesn't wait for the encoder to work through the buffer. Calling it again, or after
+   * {@link #close}, does nothing.
+   */
+  public void abort() {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    buffer.clear();
+    encoder.interrupt();
+    try {
+      // the wrapped writer is not thread safe, let the encoder finish the row it is on before closing it
+      encoder.join();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    } finally {
+      try {
+        writer.close();
+      } catch ( IOException e ) {
+        // the output is thrown away anyway
+      }
+    }
+  }
+
+  public long getRowsWritten() {
+    return rowsWritten;
+  }
+
+  /**
+   * @return how many times the step thread had to wait for room in the buffer
+   */
+  public long getBufferFullCount() {
+    return bufferFullCount;
+  }
+
+  /**
+   * @return the total time, in nanoseconds, the step thread spent waiting for room in the buffer
+   */
+  public long getBufferFullNanos() {
+    return bufferFullNanos;
+  }
+
+  private void enqueue( RowMetaAndData row ) throws KettleException {
+    try {
+      while ( !buffer.offer( row, POLL_MILLIS, TimeUnit.MILLISECONDS ) ) {
+        checkFailure();
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( e );
+    }
+  }
+
+  private void encode() {
+    try {
+      RowMetaAndData row = buffer.take();
+      while ( row != END_OF_ROWS ) {
+        writer.write( row );
+        row = buffer.take();
+      }
+    } catch ( Throwable t ) {
+      fail( t );
+      // nothing will take the queued rows anymore, free the room the step thread may be waiting for
+      buffer.clear();
+    }
+  }
+
+  private synchronized void fail( Throwable t ) {
+    if ( failure == null ) {
+      failure = t;
+    }
+  }
+
+  private void checkFailure() throws KettleException {
+    Throwable t = failure;
+    if ( t != null ) {
+      throw t instanceof KettleException ? (KettleException) t : new KettleException( t );
+    }
+  }
+}
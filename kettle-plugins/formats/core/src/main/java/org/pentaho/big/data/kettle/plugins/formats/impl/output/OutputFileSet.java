@@ -0,0 +1,180 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.output;
+
+import org.pentaho.di.core.exception.KettleException;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The files an output step writes to. Without rollover or partitioning this is the single configured file. Otherwise a
+ * new numbered file ({@code name-part-00000.ext}, {@code name-part-00001.ext}, ...) is started every {@code rowsPerFile}
+ * rows, and each partition gets its own Hive style {@code field=value} folder next to the configured file. At most
+ * {@code maxOpenFiles} files are open at a time, the least recently used one is closed to make room, and a partition
+ * that shows up again after its file was closed continues in a new numbered file.
+ */
+public class OutputFileSet {
+  public static final int DEFAULT_MAX_OPEN_FILES = 10;
+  static final String HIVE_DEFAULT_PARTITION = "__HIVE_DEFAULT_PARTITION__";
+
+  private static final String NOT_PARTITIONED = "";
+  private static final String ESCAPED_CHARS = "\"#%'*/:=?\\{[]^<>|";
+
+  @FunctionalInterface
+  public interface FileOpener {
+    OutputFileWriter open( String fileName ) throws Exception;
+  }
+
+  private final String fileName;
+  private final long rowsPerFile;
+  private final boolean partitioned;
+  private final int maxOpenFiles;
+  private final FileOpener opener;
+
+  // access ordered, so the first entry is the least recently used file
+  private final LinkedHashMap<String, OutputFileWriter> openFiles = new LinkedHashMap<>( 16, 0.75f, true );
+  private final Map<String, Integer> nextPart = new HashMap<>();
+  private int filesWritten;
+
+  /**
+   * @param fileName     the configured output file name
+   * @param rowsPerFile  the number of rows after which a new file is started, 0 to never roll over
+   * @param partitioned  whether rows are spread over partition folders
+   * @param maxOpenFiles the number of files kept open at the same time, 0 for the default
+   * @param opener       creates the writer of a file
+   */
+  public OutputFileSet( String fileName, long rowsPerFile, boolean partitioned, int maxOpenFiles,
+                        FileOpener opener ) {
+    this.fileName = fileName;
+    this.rowsPerFile = Math.max( rowsPerFile, 0 );
+    this.partitioned = partitioned;
+    this.maxOpenFiles = maxOpenFiles > 0 ? maxOpenFiles : DEFAULT_MAX_OPEN_FILES;
+    this.opener = opener;
+  }
+
+  /**
+   * Returns the file the next row goes to, opening a new one when needed.
+   *
+   * @param partition the partition folder name of the row, see {@link #partitionName}, ignored when not partitioned
+   */
+  public OutputFileWriter getFile( String partition ) throws KettleException {
+    String key = partitioned ? partition : NOT_PARTITIONED;
+    OutputFileWriter file = openFiles.get( key );
+    if ( file != null && rowsPerFile > 0 && file.getRowsWritten() >= rowsPerFile ) {
+      openFiles.remove( key );
+      file.close();
+      file = null;
+    }
+    if ( file == null ) {
+      if ( openFiles.size() >= maxOpenFiles ) {
+        Iterator<OutputFileWriter> leastRecentlyUsed = openFiles.values().iterator();
+        OutputFileWriter evicted = leastRecentlyUsed.next();
+        leastRecentlyUsed.remove();
+        evicted.close();
+      }
+      int part = nextPart.merge( key, 1, Integer::sum ) - 1;
+      try {
+        file = opener.open( getFileName( partitioned ? key : null, part ) );
+      } catch ( KettleException | RuntimeException e ) {
+        throw e;
+      } catch ( Exception e ) {
+        throw new KettleException( e );
+      }
+      openFiles.put( key, file );
+      filesWritten++;
+    }
+    return file;
+  }
+
+  /**
+   * Closes every open file. All files are closed even if one of them fails, the first failure is thrown.
+   */
+  public void close() throws KettleException {
+    KettleException failure = null;
+    for ( OutputFileWriter file : openFiles.values() ) {
+      try {
+        file.close();
+      } catch ( KettleException e ) {
+        if ( failure == null ) {
+          failure = e;
+        }
+      }
+    }
+    openFiles.clear();
+    if ( failure != null ) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Closes every open file without copying it to its final destination, dropping the rows still buffered for the
+   * encoders.
+   */
+  public void discard() {
+    for ( OutputFileWriter file : openFiles.values() ) {
+      file.discard();
+    }
+    openFiles.clear();
+  }
+
+  public int getFilesWritten() {
+    return filesWritten;
+  }
+
+  int getOpenFileCount() {
+    return openFiles.size();
+  }
+
+  String getFileName( String partition, int part ) {
+    if ( rowsPerFile == 0 && !partitioned ) {
+      return fileName;
+    }
+    int nameStart = Math.max( fileName.lastIndexOf( '/' ), fileName.lastIndexOf( '\\' ) ) + 1;
+    String folder = fileName.substring( 0, nameStart );
+    String name = fileName.substring( nameStart );
+    int extensionStart = name.lastIndexOf( '.' );
+    if ( extensionStart < 0 ) {
+      extensionStart = name.length();
+    }
+    StringBuilder result = new StringBuilder( folder );
+    if ( partition != null ) {
+      result.append( partition ).append( '/' );
+    }
+    return result.append( name, 0, extensionStart ).append( String.format( "-part-%05d", part ) )
+      .append( name.substring( extensionStart ) ).toString();
+  }
+
+  /**
+   * Builds the Hive style folder name of a partition, escaping the characters Hive escapes in partition values.
+   *
+   * @param value the partition value as a string, null or empty for the default partition
+   */
+  public static String partitionName( String field, String value ) {
+    if ( value == null || value.isEmpty() ) {
+      return field + "=" + HIVE_DEFAULT_PARTITION;
+    }
+    StringBuilder result = new StringBuilder( field ).append( '=' );
+    for ( int i = 0; i < value.length(); i++ ) {
+      char c = value.charAt( i );
+      if ( c < ' ' || c == 0x7F || ESCAPED_CHARS.indexOf( c ) >= 0 ) {
+        result.append( '%' ).append( String.format( "%02X", (int) c ) );
+      } else {
+        result.append( c );
+      }
+    }
+    return result.toString();
+  }
+}
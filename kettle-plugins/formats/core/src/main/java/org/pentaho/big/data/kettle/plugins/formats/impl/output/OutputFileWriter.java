@@ -0,0 +1,126 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.output;
+
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.hadoop.shim.api.format.IPentahoOutputFormat.IPentahoRecordWriter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One file written by an output step: the record writer of the file, optionally fed by an {@link AsyncRecordWriter},
+ * and the {@link PvfsFileAliaser} that copies the file to its final destination once it is closed.
+ */
+public class OutputFileWriter {
+  private final String fileName;
+  private final PvfsFileAliaser pvfsFileAliaser;
+  private final IPentahoRecordWriter writer;
+  private final AsyncRecordWriter asyncWriter;
+  private final LogChannelInterface log;
+  private long rowsWritten;
+  private boolean closed;
+
+  /**
+   * @param asyncWriter the async writer wrapping {@code writer}, or null to write synchronously
+   */
+  public OutputFileWriter( String fileName, PvfsFileAliaser pvfsFileAliaser, IPentahoRecordWriter writer,
+                           AsyncRecordWriter asyncWriter, LogChannelInterface log ) {
+    this.fileName = fileName;
+    this.pvfsFileAliaser = pvfsFileAliaser;
+    this.writer = writer;
+    this.asyncWriter = asyncWriter;
+    this.log = log;
+  }
+
+  public void write( RowMetaAndData row ) throws KettleException {
+    if ( asyncWriter != null ) {
+      asyncWriter.write( row );
+    } else {
+      try {
+        writer.write( row );
+      } catch ( Exception e ) {
+        throw new KettleException( e );
+      }
+    }
+    rowsWritten++;
+  }
+
+  /**
+   * Closes the writer and copies the file to its final destination. The temporary file is deleted even if either
+   * fails.
+   */
+  public void close() throws KettleException {
+    if ( closed ) {
+      return;
+    }
+    try {
+      closeWriter();
+      pvfsFileAliaser.copyFileToFinalDestination();
+    } catch ( KettleException e ) {
+      throw e;
+    } catch ( Exception e ) {
+      throw new KettleException( e );
+    } finally {
+      pvfsFileAliaser.deleteTempFileAndFolder();
+    }
+    log.logDetailed( "Wrote " + rowsWritten + " rows to " + fileName );
+  }
+
+  /**
+   * Closes the writer without waiting for the rows still buffered for the encoder, ignoring any failure, and deletes
+   * the temporary file if there is one.
+   */
+  public void discard() {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    if ( asyncWriter != null ) {
+      asyncWriter.abort();
+    } else {
+      try {
+        writer.close();
+      } catch ( Exception e ) {
+        // the file is thrown away anyway
+      }
+    }
+    pvfsFileAliaser.deleteTempFileAndFolder();
+  }
+
+  public String getFileName() {
+    return fileName;
+  }
+
+  public long getRowsWritten() {
+    return rowsWritten;
+  }
+
+  private void closeWriter() throws KettleException {
+    closed = true;
+    if ( asyncWriter != null ) {
+      // the async writer closes the wrapped writer as well
+      asyncWriter.close();
+      log.logDetailed( "Waited " + asyncWriter.getBufferFullCount() + " times for a total of "
+        + TimeUnit.NANOSECONDS.toMillis( asyncWriter.getBufferFullNanos() ) + " ms on a full write buffer for "
+        + fileName );
+    } else {
+      try {
+        writer.close();
+      } catch ( Exception e ) {
+        throw new KettleException( e );
+      }
+    }
+  }
+}
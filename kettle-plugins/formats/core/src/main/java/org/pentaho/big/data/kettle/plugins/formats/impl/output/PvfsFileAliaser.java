@@ -34,6 +34,8 @@ import java.nio.file.FileAlreadyExistsException;
  * supoorted for the output content.
  */
 public class PvfsFileAliaser {
+  static final int COPY_BUFFER_SIZE = 1024 * 1024;
+
   private String finalFilePath;
 
   private String temporaryFilePath;
@@ -84,10 +86,12 @@ public class PvfsFileAliaser {
     if ( aliasingIsActive() ) {
       FileObject srcFile = ikettleVFS.getFileObject( temporaryFilePath, variableSpace );
       FileObject destFile = ikettleVFS.getFileObject( finalFilePath, variableSpace );
+      long bytesCopied;
       try ( InputStream in = KettleVFS.getInputStream( srcFile );
             OutputStream out = ikettleVFS.getOutputStream( destFile, false ) ) {
-        IOUtils.copy( in, out );
+        bytesCopied = IOUtils.copyLarge( in, out, new byte[ COPY_BUFFER_SIZE ] );
       }
+      log.logDetailed( "Copied " + bytesCopied + " bytes from " + temporaryFilePath + " to " + finalFilePath );
     }
   }
 
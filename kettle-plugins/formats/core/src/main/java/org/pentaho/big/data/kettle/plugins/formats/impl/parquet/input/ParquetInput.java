@@ -14,6 +14,8 @@
 package org.pentaho.big.data.kettle.plugins.formats.impl.parquet.input;
 
 import org.apache.commons.vfs2.FileObject;
+import org.pentaho.big.data.kettle.plugins.formats.impl.ExpiringCache;
+import org.pentaho.big.data.kettle.plugins.formats.impl.input.InputSplitAssigner;
 import org.pentaho.big.data.kettle.plugins.formats.parquet.input.ParquetInputField;
 import org.pentaho.big.data.kettle.plugins.formats.parquet.input.ParquetInputMetaBase;
 import org.pentaho.di.core.bowl.Bowl;
@@ -45,6 +47,11 @@ import java.util.stream.Collectors;
 
 public class ParquetInput extends BaseFileInputStep<ParquetInputMeta, ParquetInputData> {
   public static final long SPLIT_SIZE = 128 * 1024 * 1024L;
+  public static final int ROWS_PER_BATCH = 1000;
+
+  // every copy of every Parquet Input step reads the footer of its first file on init
+  static final ExpiringCache<String, List<? extends IParquetInputField>> SCHEMA_CACHE =
+    new ExpiringCache<>( 100, 60 * 1000L );
 
   public ParquetInput( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
                        Trans trans ) {
@@ -63,6 +70,32 @@ public class ParquetInput extends BaseFileInputStep<ParquetInputMeta, ParquetInp
     return in.readSchema( path );
   }
 
+  /**
+   * Same as {@link #retrieveSchema}, but reuses the schema read shortly before from the same version of the file, as
+   * told by its modification time.
+   */
+  static List<? extends IParquetInputField> retrieveCachedSchema(
+    Bowl bowl, NamedClusterServiceLocator namedClusterServiceLocator, NamedCluster namedCluster, String path )
+    throws Exception {
+    long lastModified = getLastModifiedTime( bowl, path );
+    if ( lastModified <= 0 ) {
+      return retrieveSchema( bowl, namedClusterServiceLocator, namedCluster, path );
+    }
+    String key = ( namedCluster != null ? namedCluster.getName() : "" ) + "|" + path + "|" + lastModified;
+    return new ArrayList<>(
+      SCHEMA_CACHE.get( key, () -> retrieveSchema( bowl, namedClusterServiceLocator, namedCluster, path ) ) );
+  }
+
+  private static long getLastModifiedTime( Bowl bowl, String path ) {
+    try {
+      FileObject file = KettleVFS.getInstance( bowl ).getFileObject( path );
+      return file.exists() ? file.getContent().getLastModifiedTime() : 0;
+    } catch ( Exception e ) {
+      // not cached then
+      return 0;
+    }
+  }
+
   public static List<IParquetInputField> createSchemaFromMeta( ParquetInputMetaBase meta ) {
     List<IParquetInputField> fields = new ArrayList<>();
     for ( ParquetInputField f : meta.getInputFields() ) {
@@ -89,17 +122,22 @@ public class ParquetInput extends BaseFileInputStep<ParquetInputMeta, ParquetInp
         openReader( data );
       }
 
-      if ( data.rowIterator.hasNext() ) {
+      // hand over a batch of rows per call rather than going through the step loop for every row
+      for ( int i = 0; i < ROWS_PER_BATCH && !isStopped(); i++ ) {
+        if ( !data.rowIterator.hasNext() ) {
+          data.reader.close();
+          data.reader = null;
+          logDebug( "Close split {0}", data.currentSplit );
+          data.currentSplit++;
+          return true;
+        }
         RowMetaAndData row = data.rowIterator.next();
-        putRow( row.getRowMeta(), row.getData() );
-        return true;
-      } else {
-        data.reader.close();
-        data.reader = null;
-        logDebug( "Close split {0}", data.currentSplit );
-        data.currentSplit++;
-        return true;
+        if ( data.outputRowMeta == null ) {
+          data.outputRowMeta = row.getRowMeta();
+        }
+        putRow( data.outputRowMeta, row.getData() );
       }
+      return true;
     } catch ( NoSuchFileException ex ) {
       throw new KettleException( "No input file" );
     } catch ( KettleException ex ) {
@@ -134,8 +172,9 @@ public class ParquetInput extends BaseFileInputStep<ParquetInputMeta, ParquetInp
     // formatType to the formatType retrieved from the schema.
     List<? extends IParquetInputField>
       actualFileFields =
-      ParquetInput.retrieveSchema( getTransMeta().getBowl(),
-        meta.getNamedClusterResolver().getNamedClusterServiceLocator(), getNamedCluster(), resolvedInputFileNames[ 0 ] );
+      ParquetInput.retrieveCachedSchema( getTransMeta().getBowl(),
+        meta.getNamedClusterResolver().getNamedClusterServiceLocator(), getNamedCluster(),
+        resolvedInputFileNames[ 0 ] );
 
     if ( meta.isIgnoreEmptyFolder() && ( actualFileFields.isEmpty() ) ) {
       data.splits = new ArrayList<>();
@@ -161,10 +200,16 @@ public class ParquetInput extends BaseFileInputStep<ParquetInputMeta, ParquetInp
       } else if ( resolvedInputFileNames != null && resolvedInputFileNames.length > 1 ) {
         data.input.setInputFiles( resolvedInputFileNames );
       }
-      data.input.setSplitSize( SPLIT_SIZE );
+      long splitSize = meta.getSplitSize( this );
+      data.input.setSplitSize( splitSize > 0 ? splitSize : SPLIT_SIZE );
 
       data.splits = data.input.getSplits();
       logDebug( "Input split count: {0}", data.splits.size() );
+      if ( meta.isDistributeSplits() ) {
+        data.splits =
+          InputSplitAssigner.assign( data.splits, getUniqueStepNrAcrossSlaves(), getUniqueStepCountAcrossSlaves() );
+        logDebug( "Splits assigned to this copy: {0}", data.splits.size() );
+      }
     }
     data.currentSplit = 0;
   }
@@ -178,6 +223,7 @@ public class ParquetInput extends BaseFileInputStep<ParquetInputMeta, ParquetInp
     IPentahoInputSplit sp = data.splits.get( data.currentSplit );
     data.reader = data.input.createRecordReader( sp );
     data.rowIterator = data.reader.iterator();
+    data.outputRowMeta = null;
   }
 
   @Override protected boolean init() {
@@ -13,6 +13,9 @@
 
 package org.pentaho.big.data.kettle.plugins.formats.impl.parquet.output;
 
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.AsyncRecordWriter;
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.OutputFileSet;
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.OutputFileWriter;
 import org.pentaho.big.data.kettle.plugins.formats.impl.output.PvfsFileAliaser;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.cluster.ClusterInitializationException;
@@ -20,6 +23,7 @@ import org.pentaho.big.data.kettle.plugins.formats.parquet.output.ParquetOutputM
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.BaseStep;
@@ -30,7 +34,7 @@ import org.pentaho.di.trans.step.StepMetaInterface;
 import org.pentaho.hadoop.shim.api.format.FormatService;
 import org.pentaho.hadoop.shim.api.format.IPentahoParquetOutputFormat;
 
-import java.io.IOException;
+import java.util.Arrays;
 
 public class ParquetOutput extends BaseStep implements StepInterface {
 
@@ -38,8 +42,6 @@ public class ParquetOutput extends BaseStep implements StepInterface {
 
   private ParquetOutputData data;
 
-  private PvfsFileAliaser pvfsFileAliaser;
-
   public ParquetOutput( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
                         Trans trans ) {
     super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
@@ -48,29 +50,32 @@ public class ParquetOutput extends BaseStep implements StepInterface {
   @Override
   public synchronized boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
     try {
-      if ( data.output == null ) {
+      if ( data.files == null ) {
         init( getInputRowMeta() );
       }
 
       Object[] currentRow = getRow();
       if ( currentRow != null ) {
         RowMetaAndData row = new RowMetaAndData( getInputRowMeta(), currentRow );
-        data.writer.write( row );
+        OutputFileWriter file = data.files.getFile( getPartition( currentRow ) );
+        if ( meta.isAsyncWrite() ) {
+          // the row is encoded later on another thread, while later steps may already reuse the array sent downstream
+          file.write( new RowMetaAndData( getInputRowMeta(), Arrays.copyOf( currentRow, getInputRowMeta().size() ) ) );
+        } else {
+          file.write( row );
+        }
         incrementLinesOutput();
         putRow( row.getRowMeta(), row.getData() ); // in case we want it to go further or DET...
         return true;
       } else {
         // no more input to be expected...
         closeWriter();
-        pvfsFileAliaser.copyFileToFinalDestination();
-        pvfsFileAliaser.deleteTempFileAndFolder();
         setOutputDone();
         return false;
       }
     } catch ( KettleException ex ) {
       try {
-        closeWriter();
-        pvfsFileAliaser.deleteTempFileAndFolder();
+        discardOutput();
       } catch ( Exception ex2 ) {
         // Do nothing
       }
@@ -78,13 +83,12 @@ public class ParquetOutput extends BaseStep implements StepInterface {
     } catch ( IllegalStateException e ) {
       getLogChannel().logError( e.getMessage() );
       setErrors( 1 );
-      pvfsFileAliaser.deleteTempFileAndFolder();
+      discardOutput();
       setOutputDone();
       return false;
     } catch ( Exception ex ) {
       try {
-        closeWriter();
-        pvfsFileAliaser.deleteTempFileAndFolder();
+        discardOutput();
       } catch ( Exception ex2 ) {
         // Do nothing
       }
@@ -104,51 +108,100 @@ public class ParquetOutput extends BaseStep implements StepInterface {
       throw new KettleException( "No output files defined" );
     }
 
-    data.output = formatService.createOutputFormat( IPentahoParquetOutputFormat.class, getNamedCluster() );
+    // the partition field is looked up in the first row
+    data.partitionField = environmentSubstitute( meta.getPartitionField() );
+    data.partitionFieldIndex = -1;
+    boolean partitioned = !Utils.isEmpty( data.partitionField );
 
     String outputFileName = environmentSubstitute( meta.constructOutputFilename() );
-    pvfsFileAliaser = new PvfsFileAliaser( getTransMeta().getBowl(), outputFileName, getTransMeta(), data.output,
-      meta.overrideOutput, getLogChannel() );
-    data.output.setOutputFile( pvfsFileAliaser.generateAlias(), meta.overrideOutput );
-    data.output.setFields( meta.getOutputFields() );
+    data.files = new OutputFileSet( outputFileName, meta.getRowsPerFile( variables ), partitioned,
+      meta.getMaxOpenFiles( variables ), fileName -> openFile( formatService, fileName ) );
+    if ( !partitioned ) {
+      // a single file, or the first part, is created even when there are no rows
+      data.files.getFile( null );
+    }
+  }
 
-    IPentahoParquetOutputFormat.COMPRESSION compression;
+  private OutputFileWriter openFile( FormatService formatService, String fileName ) throws Exception {
+    IPentahoParquetOutputFormat output =
+      formatService.createOutputFormat( IPentahoParquetOutputFormat.class, getNamedCluster() );
+    PvfsFileAliaser pvfsFileAliaser = new PvfsFileAliaser( getTransMeta().getBowl(), fileName, getTransMeta(), output,
+      meta.overrideOutput, getLogChannel() );
     try {
-      compression =
-        IPentahoParquetOutputFormat.COMPRESSION.valueOf( meta.getCompressionType( variables ).name().toUpperCase() );
-    } catch ( Exception ex ) {
-      compression = IPentahoParquetOutputFormat.COMPRESSION.UNCOMPRESSED;
-    }
-    data.output.setCompression( compression );
-    data.output
-      .setVersion(
-        ParquetOutputMetaBase.ParquetVersion.PARQUET_1.equals( meta.getParquetVersion( variables ) )
-          ? IPentahoParquetOutputFormat.VERSION.VERSION_1_0 : IPentahoParquetOutputFormat.VERSION.VERSION_2_0 );
-    if ( meta.getRowGroupSize( variables ) > 0 ) {
-      data.output.setRowGroupSize( meta.getRowGroupSize( variables ) * 1024 * 1024 );
+      output.setOutputFile( pvfsFileAliaser.generateAlias(), meta.overrideOutput );
+      output.setFields( meta.getOutputFields() );
+
+      IPentahoParquetOutputFormat.COMPRESSION compression;
+      try {
+        compression =
+          IPentahoParquetOutputFormat.COMPRESSION.valueOf( meta.getCompressionType( variables ).name().toUpperCase() );
+      } catch ( Exception ex ) {
+        compression = IPentahoParquetOutputFormat.COMPRESSION.UNCOMPRESSED;
+      }
+      output.setCompression( compression );
+      output
+        .setVersion(
+          ParquetOutputMetaBase.ParquetVersion.PARQUET_1.equals( meta.getParquetVersion( variables ) )
+            ? IPentahoParquetOutputFormat.VERSION.VERSION_1_0 : IPentahoParquetOutputFormat.VERSION.VERSION_2_0 );
+      if ( meta.getRowGroupSize( variables ) > 0 ) {
+        output.setRowGroupSize( meta.getRowGroupSize( variables ) * 1024 * 1024 );
+      }
+      if ( meta.getDataPageSize( variables ) > 0 ) {
+        output.setDataPageSize( meta.getDataPageSize( variables ) * 1024 );
+      }
+      output.enableDictionary( meta.enableDictionary );
+      if ( meta.getDictPageSize( variables ) > 0 ) {
+        output.setDictionaryPageSize( meta.getDictPageSize( variables ) * 1024 );
+      }
+
+      IPentahoParquetOutputFormat.IPentahoRecordWriter writer = output.createRecordWriter();
+      AsyncRecordWriter asyncWriter = null;
+      if ( meta.isAsyncWrite() ) {
+        asyncWriter = new AsyncRecordWriter( writer, meta.getAsyncBufferSize( variables ), getStepname() + " encoder" );
+      }
+      return new OutputFileWriter( fileName, pvfsFileAliaser, writer, asyncWriter, getLogChannel() );
+    } catch ( Exception e ) {
+      pvfsFileAliaser.deleteTempFileAndFolder();
+      throw e;
     }
-    if ( meta.getDataPageSize( variables ) > 0 ) {
-      data.output.setDataPageSize( meta.getDataPageSize( variables ) * 1024 );
+  }
+
+  private String getPartition( Object[] row ) throws KettleException {
+    if ( Utils.isEmpty( data.partitionField ) ) {
+      return null;
     }
-    data.output.enableDictionary( meta.enableDictionary );
-    if ( meta.getDictPageSize( variables ) > 0 ) {
-      data.output.setDictionaryPageSize( meta.getDictPageSize( variables ) * 1024 );
+    if ( data.partitionFieldIndex < 0 ) {
+      data.partitionFieldIndex = getInputRowMeta().indexOfValue( data.partitionField );
+      if ( data.partitionFieldIndex < 0 ) {
+        throw new KettleException( "Partition field [" + data.partitionField
+          + "] couldn't be found in the input stream!" );
+      }
     }
-
-    data.writer = data.output.createRecordWriter();
+    String value = getInputRowMeta().getString( row, data.partitionFieldIndex );
+    return OutputFileSet.partitionName( data.partitionField, value );
   }
 
   private NamedCluster getNamedCluster() {
     return meta.getNamedClusterResolver().resolveNamedCluster( environmentSubstitute( meta.getFilename() ) );
   }
 
+  /**
+   * Closes every open output file and moves it to its final destination.
+   */
   public void closeWriter() throws KettleException {
-    try {
-      data.writer.close();
-    } catch ( IOException e ) {
-      throw new KettleException( e );
+    if ( data.files != null ) {
+      OutputFileSet files = data.files;
+      data.files = null;
+      files.close();
+      logDetailed( "Wrote " + files.getFilesWritten() + " file(s)" );
+    }
+  }
+
+  private void discardOutput() {
+    if ( data.files != null ) {
+      data.files.discard();
+      data.files = null;
     }
-    data.output = null;
   }
 
   @Override
@@ -166,4 +219,12 @@ public class ParquetOutput extends BaseStep implements StepInterface {
     }
     return true;
   }
+
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    data = (ParquetOutputData) sdi;
+    // files still open here did not reach the end of the input, only processRow publishes complete files
+    discardOutput();
+    super.dispose( smi, sdi );
+  }
 }
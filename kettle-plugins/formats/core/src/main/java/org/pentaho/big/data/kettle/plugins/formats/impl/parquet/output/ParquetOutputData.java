@@ -12,13 +12,13 @@
 
 package org.pentaho.big.data.kettle.plugins.formats.impl.parquet.output;
 
+import org.pentaho.big.data.kettle.plugins.formats.impl.output.OutputFileSet;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
-import org.pentaho.hadoop.shim.api.format.IPentahoOutputFormat.IPentahoRecordWriter;
-import org.pentaho.hadoop.shim.api.format.IPentahoParquetOutputFormat;
 
 public class ParquetOutputData extends BaseStepData implements StepDataInterface {
 
-  public IPentahoParquetOutputFormat output;
-  public IPentahoRecordWriter writer;
+  public OutputFileSet files;
+  public int partitionFieldIndex = -1;
+  public String partitionField;
 }
@@ -86,7 +86,7 @@ public class ParquetOutputDialog extends BaseParquetStepDialog<ParquetOutputMeta
     ParquetSpec.DataType.UTF8
   };
   private static final int SHELL_WIDTH = 698;
-  private static final int SHELL_HEIGHT = 620;
+  private static final int SHELL_HEIGHT = 720;
   private TableView wOutputFields;
   private Button wOverwriteExistingFile;
   private ComboVar wCompression;
@@ -101,6 +101,12 @@ public class ParquetOutputDialog extends BaseParquetStepDialog<ParquetOutputMeta
   private Button wIncludeTimeInFilename;
   private Button wSpecifyDateTimeFormat;
   private ComboVar wDateTimeFormat;
+  private TextVar wRowsPerFile;
+  private TextVar wMaxOpenFiles;
+  private ComboVar wPartitionField;
+  private Button wAsyncWrite;
+  private Label lAsyncBufferSize;
+  private TextVar wAsyncBufferSize;
 
 
   public ParquetOutputDialog( Shell parent, Object parquetOutputMeta, TransMeta transMeta, String sname ) {
@@ -351,6 +357,22 @@ public class ParquetOutputDialog extends BaseParquetStepDialog<ParquetOutputMeta
     setIntegerOnly( wDictPageSize );
     wDictPageSize.addModifyListener( lsMod );
 
+    Label lRowsPerFile = createLabel( wComp, "ParquetOutputDialog.Options.RowsPerFile", props );
+    new FD( lRowsPerFile ).left( 0, 0 ).top( wDictPageSize, FIELDS_SEP ).apply();
+    wRowsPerFile = new TextVar( transMeta, wComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    new FD( wRowsPerFile ).left( 0, 0 ).top( lRowsPerFile, FIELD_LABEL_SEP )
+      .width( PARQUET_OUTPUT_FIELD_TINY + VAR_EXTRA_WIDTH ).apply();
+    setIntegerOnly( wRowsPerFile );
+    wRowsPerFile.addModifyListener( lsMod );
+
+    Label lMaxOpenFiles = createLabel( wComp, "ParquetOutputDialog.Options.MaxOpenFiles", props );
+    new FD( lMaxOpenFiles ).left( 0, 0 ).top( wRowsPerFile, FIELDS_SEP ).apply();
+    wMaxOpenFiles = new TextVar( transMeta, wComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    new FD( wMaxOpenFiles ).left( 0, 0 ).top( lMaxOpenFiles, FIELD_LABEL_SEP )
+      .width( PARQUET_OUTPUT_FIELD_TINY + VAR_EXTRA_WIDTH ).apply();
+    setIntegerOnly( wMaxOpenFiles );
+    wMaxOpenFiles.addModifyListener( lsMod );
+
     Control leftRef = wCompression;
     // 2nd column
     Label lExtension = new Label( wComp, SWT.NONE );
@@ -410,7 +432,43 @@ public class ParquetOutputDialog extends BaseParquetStepDialog<ParquetOutputMeta
       .width( 200 ).apply();
     wDateTimeFormat.addModifyListener( lsMod );
 
+    Label lPartitionField = createLabel( wComp, "ParquetOutputDialog.Options.PartitionField", props );
+    new FD( lPartitionField ).left( leftRef, COLUMNS_SEP ).top( wDateTimeFormat, FIELDS_SEP ).apply();
+    wPartitionField = createComboVar( transMeta, lsMod, wComp, getPreviousFieldNames() );
+    new FD( wPartitionField ).left( leftRef, COLUMNS_SEP ).top( lPartitionField, FIELD_LABEL_SEP )
+      .width( 200 ).apply();
+
+    wAsyncWrite = new Button( wComp, SWT.CHECK );
+    wAsyncWrite.setText( BaseMessages.getString( PKG, "ParquetOutputDialog.Options.AsyncWrite" ) );
+    props.setLook( wAsyncWrite );
+    new FD( wAsyncWrite ).left( leftRef, COLUMNS_SEP ).top( wPartitionField, FIELDS_SEP ).apply();
+    wAsyncWrite.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent e ) {
+        meta.setChanged();
+        actualizeAsyncWriteControls();
+      }
+    } );
+
+    lAsyncBufferSize = createLabel( wComp, "ParquetOutputDialog.Options.AsyncBufferSize", props );
+    new FD( lAsyncBufferSize ).left( leftRef, COLUMNS_SEP + OFFSET ).top( wAsyncWrite, FIELD_LABEL_SEP ).apply();
+    wAsyncBufferSize = new TextVar( transMeta, wComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    new FD( wAsyncBufferSize ).left( leftRef, COLUMNS_SEP + OFFSET ).top( lAsyncBufferSize, FIELD_LABEL_SEP )
+      .width( PARQUET_OUTPUT_FIELD_TINY + VAR_EXTRA_WIDTH - OFFSET ).apply();
+    setIntegerOnly( wAsyncBufferSize );
+    wAsyncBufferSize.addModifyListener( lsMod );
+  }
 
+  private String[] getPreviousFieldNames() {
+    try {
+      RowMetaInterface r = transMeta.getPrevStepFields( stepname );
+      if ( r != null ) {
+        return r.getFieldNames();
+      }
+    } catch ( KettleException ke ) {
+      // the partition field can still be typed in
+    }
+    return new String[ 0 ];
   }
 
   void actualizeDictionaryPageSizeControl() {
@@ -419,6 +477,12 @@ public class ParquetOutputDialog extends BaseParquetStepDialog<ParquetOutputMeta
     wDictPageSize.setEnabled( dictionaryEncoding );
   }
 
+  void actualizeAsyncWriteControls() {
+    boolean asyncWrite = wAsyncWrite.getSelection();
+    lAsyncBufferSize.setEnabled( asyncWrite );
+    wAsyncBufferSize.setEnabled( asyncWrite );
+  }
+
   void actualizeDateTimeControls() {
     boolean allowedToIncludeDateTime = !wSpecifyDateTimeFormat.getSelection();
     wIncludeDateInFilename.setEnabled( allowedToIncludeDateTime );
@@ -454,6 +518,11 @@ public class ParquetOutputDialog extends BaseParquetStepDialog<ParquetOutputMeta
     wExtension.setText( coalesce( meta.getExtension() ) );
     wIncludeDateInFilename.setSelection( meta.isDateInFilename() );
     wIncludeTimeInFilename.setSelection( meta.isTimeInFilename() );
+    wRowsPerFile.setText( coalesce( meta.getRowsPerFile() ) );
+    wMaxOpenFiles.setText( coalesce( meta.getMaxOpenFiles() ) );
+    wPartitionField.setText( coalesce( meta.getPartitionField() ) );
+    wAsyncWrite.setSelection( meta.isAsyncWrite() );
+    wAsyncBufferSize.setText( coalesce( meta.getAsyncBufferSize() ) );
 
     String dateTimeFormat = coalesce( meta.getDateTimeFormat() );
     if ( !dateTimeFormat.isEmpty() ) {
@@ -465,6 +534,7 @@ public class ParquetOutputDialog extends BaseParquetStepDialog<ParquetOutputMeta
     }
 
     actualizeDictionaryPageSizeControl();
+    actualizeAsyncWriteControls();
     actualizeDateTimeControls();
   }
 
@@ -485,6 +555,11 @@ public class ParquetOutputDialog extends BaseParquetStepDialog<ParquetOutputMeta
     meta.setRowGroupSize( wRowSize.getText() );
     meta.setDataPageSize( wPageSize.getText() );
     meta.setExtension( wExtension.getText() );
+    meta.setRowsPerFile( wRowsPerFile.getText() );
+    meta.setMaxOpenFiles( wMaxOpenFiles.getText() );
+    meta.setPartitionField( Utils.isEmpty( wPartitionField.getText() ) ? null : wPartitionField.getText() );
+    meta.setAsyncWrite( wAsyncWrite.getSelection() );
+    meta.setAsyncBufferSize( wAsyncBufferSize.getText() );
     if ( wSpecifyDateTimeFormat.getSelection() ) {
       meta.setDateTimeFormat( wDateTimeFormat.getText() );
       meta.setDateInFilename( false );
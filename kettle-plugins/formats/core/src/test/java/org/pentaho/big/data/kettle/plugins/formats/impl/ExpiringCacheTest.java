@@ -0,0 +1,102 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.big.data.kettle.plugins.formats.impl;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ExpiringCacheTest {
+
+  private final AtomicLong now = new AtomicLong( 1000 );
+  private final AtomicInteger loads = new AtomicInteger();
+  private final ExpiringCache<String, String> cache = new ExpiringCache<>( 2, 100, now::get );
+
+  private String load( String value ) {
+    loads.incrementAndGet();
+    return value;
+  }
+
+  @Test
+  public void testReturnsCachedValueUntilItExpires() {
+    assertEquals( "a", cache.get( "a", () -> load( "a" ) ) );
+    now.addAndGet( 99 );
+    assertEquals( "a", cache.get( "a", () -> load( "changed" ) ) );
+    assertEquals( 1, loads.get() );
+
+    now.addAndGet( 1 );
+    assertEquals( "changed", cache.get( "a", () -> load( "changed" ) ) );
+    assertEquals( 2, loads.get() );
+  }
+
+  @Test
+  public void testDoesNotCacheNullValues() {
+    assertNull( cache.get( "a", () -> load( null ) ) );
+    assertNull( cache.get( "a", () -> load( null ) ) );
+    assertEquals( 2, loads.get() );
+    assertEquals( 0, cache.size() );
+
+    // something created after a miss is found right away
+    assertEquals( "a", cache.get( "a", () -> load( "a" ) ) );
+    assertEquals( 3, loads.get() );
+  }
+
+  @Test
+  public void testValueLoadedWhileClearingIsNotCached() {
+    assertEquals( "a", cache.get( "a", () -> {
+      cache.clear();
+      return load( "a" );
+    } ) );
+    assertEquals( 0, cache.size() );
+  }
+
+  @Test
+  public void testDropsLeastRecentlyUsedEntry() {
+    cache.get( "a", () -> load( "a" ) );
+    cache.get( "b", () -> load( "b" ) );
+    cache.get( "a", () -> load( "a" ) );
+    cache.get( "c", () -> load( "c" ) );
+    assertEquals( 2, cache.size() );
+    assertEquals( 3, loads.get() );
+
+    // b was dropped, a wasn't
+    cache.get( "a", () -> load( "a" ) );
+    assertEquals( 3, loads.get() );
+    cache.get( "b", () -> load( "b" ) );
+    assertEquals( 4, loads.get() );
+  }
+
+  @Test
+  public void testClear() {
+    cache.get( "a", () -> load( "a" ) );
+    cache.clear();
+    assertEquals( 0, cache.size() );
+    cache.get( "a", () -> load( "a" ) );
+    assertEquals( 2, loads.get() );
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void testLoadFailureIsNotCached() {
+    try {
+      cache.get( "a", () -> {
+        throw new IllegalStateException();
+      } );
+    } finally {
+      assertEquals( 0, cache.size() );
+    }
+  }
+}
@@ -37,12 +37,14 @@ import static org.mockito.Mockito.when;
 import static org.mockito.internal.verification.VerificationModeFactory.times;
 
 import org.mockito.junit.MockitoJUnitRunner;
+import org.pentaho.big.data.impl.cluster.NamedClusterManager;
 import org.pentaho.di.core.logging.KettleLogStore;
 import org.pentaho.di.core.logging.KettleLoggingEventListener;
 import org.pentaho.di.core.service.PluginServiceLoader;
 import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterService;
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
+import org.pentaho.metastore.api.IMetaStore;
 import org.pentaho.metastore.locator.api.MetastoreLocator;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -150,4 +152,72 @@ public class NamedClusterResolverTest {
     assertEquals( namedCluster, cluster );
   }
 
+  @Test
+  public void testNamedClusterLookupsAreCached() {
+    Collection<MetastoreLocator> metastoreLocatorCollection = new ArrayList<>();
+    metastoreLocatorCollection.add( metaStoreService );
+
+    pluginServiceLoaderMockedStatic.when( () -> PluginServiceLoader.loadServices( MetastoreLocator.class ) )
+      .thenReturn( metastoreLocatorCollection );
+
+    assertEquals( namedCluster, namedClusterResolver.resolveNamedCluster( "hc://testhc/path" ) );
+    assertEquals( namedCluster, namedClusterResolver.resolveNamedCluster( "hc://testhc/other/path" ) );
+    verify( namedClusterService, times( 1 ) ).getNamedClusterByName( "testhc", null );
+
+    namedClusterResolver.clearCache();
+    namedClusterResolver.resolveNamedCluster( "hc://testhc/path" );
+    verify( namedClusterService, times( 2 ) ).getNamedClusterByName( "testhc", null );
+  }
+
+  @Test
+  public void testMissingNamedClusterIsNotCached() {
+    Collection<MetastoreLocator> metastoreLocatorCollection = new ArrayList<>();
+    metastoreLocatorCollection.add( metaStoreService );
+
+    pluginServiceLoaderMockedStatic.when( () -> PluginServiceLoader.loadServices( MetastoreLocator.class ) )
+      .thenReturn( metastoreLocatorCollection );
+
+    assertNull( namedClusterResolver.resolveNamedCluster( "hc://newhc/path" ) );
+    // the cluster is created, e.g. in Spoon
+    when( namedClusterService.getNamedClusterByName( "newhc", null ) ).thenReturn( namedCluster );
+    assertEquals( namedCluster, namedClusterResolver.resolveNamedCluster( "hc://newhc/path" ) );
+    verify( namedClusterService, times( 2 ) ).getNamedClusterByName( "newhc", null );
+  }
+
+  @Test
+  public void testNamedClusterLookupsArePerMetastore() {
+    Collection<MetastoreLocator> metastoreLocatorCollection = new ArrayList<>();
+    metastoreLocatorCollection.add( metaStoreService );
+
+    pluginServiceLoaderMockedStatic.when( () -> PluginServiceLoader.loadServices( MetastoreLocator.class ) )
+      .thenReturn( metastoreLocatorCollection );
+
+    assertEquals( namedCluster, namedClusterResolver.resolveNamedCluster( "hc://testhc/path" ) );
+    // another repository is connected, with its own metastore
+    IMetaStore repositoryMetastore = Mockito.mock( IMetaStore.class );
+    when( metaStoreService.getMetastore() ).thenReturn( repositoryMetastore );
+    assertNull( namedClusterResolver.resolveNamedCluster( "hc://testhc/path" ) );
+    verify( namedClusterService ).getNamedClusterByName( "testhc", repositoryMetastore );
+  }
+
+  @Test
+  public void testNamedClusterChangesClearTheCache() throws Exception {
+    Collection<MetastoreLocator> metastoreLocatorCollection = new ArrayList<>();
+    metastoreLocatorCollection.add( metaStoreService );
+
+    pluginServiceLoaderMockedStatic.when( () -> PluginServiceLoader.loadServices( MetastoreLocator.class ) )
+      .thenReturn( metastoreLocatorCollection );
+
+    namedClusterResolver.resolveNamedCluster( "hc://testhc/path" );
+    NamedClusterManager namedClusterManager = NamedClusterManager.getInstance();
+    IMetaStore metastore = Mockito.mock( IMetaStore.class );
+    try {
+      namedClusterManager.delete( "testhc", metastore );
+    } catch ( Exception e ) {
+      // the mocked metastore can't delete anything, the listeners are called anyway
+    }
+    namedClusterResolver.resolveNamedCluster( "hc://testhc/path" );
+    verify( namedClusterService, times( 2 ) ).getNamedClusterByName( "testhc", null );
+  }
+
 }
@@ -0,0 +1,56 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.input;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InputSplitAssignerTest {
+
+  @Test
+  public void testAssignCoversAllSplitsOnce() {
+    List<Integer> splits = new ArrayList<>();
+    for ( int i = 0; i < 10; i++ ) {
+      splits.add( i );
+    }
+
+    List<Integer> all = new ArrayList<>();
+    for ( int copy = 0; copy < 4; copy++ ) {
+      List<Integer> assigned = InputSplitAssigner.assign( splits, copy, 4 );
+      assertEquals( copy < 2 ? 3 : 2, assigned.size() );
+      assertEquals( Integer.valueOf( copy ), assigned.get( 0 ) );
+      all.addAll( assigned );
+    }
+    assertEquals( splits.size(), all.size() );
+    assertTrue( all.containsAll( splits ) );
+  }
+
+  @Test
+  public void testAssignSingleCopy() {
+    List<String> splits = Arrays.asList( "a", "b" );
+    assertEquals( splits, InputSplitAssigner.assign( splits, 0, 1 ) );
+  }
+
+  @Test
+  public void testAssignMoreCopiesThanSplits() {
+    List<String> splits = Arrays.asList( "a", "b" );
+    assertEquals( Arrays.asList( "b" ), InputSplitAssigner.assign( splits, 1, 3 ) );
+    assertTrue( InputSplitAssigner.assign( splits, 2, 3 ).isEmpty() );
+  }
+}
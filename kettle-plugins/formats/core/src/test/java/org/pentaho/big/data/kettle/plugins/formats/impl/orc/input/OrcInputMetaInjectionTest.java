@@ -44,6 +44,7 @@ public class OrcInputMetaInjectionTest extends BaseMetadataInjectionTest<OrcInpu
     check( "FIELD_PATH", () -> meta.getInputFields()[ 0 ].getFormatFieldName() );
     check( "FIELD_NAME", () -> meta.getInputFields()[ 0 ].getName() );
     checkPdiTypes( "FIELD_TYPE", () -> meta.getInputFields()[ 0 ].getType() );
+    check( "DISTRIBUTE_SPLITS", () -> meta.isDistributeSplits() );
   }
 
 }
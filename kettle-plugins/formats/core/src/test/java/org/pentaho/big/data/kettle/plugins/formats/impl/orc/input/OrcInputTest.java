@@ -13,7 +13,9 @@
 package org.pentaho.big.data.kettle.plugins.formats.impl.orc.input;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
@@ -44,6 +46,7 @@ import org.pentaho.hadoop.shim.api.format.FormatService;
 import org.pentaho.hadoop.shim.api.format.IPentahoOrcInputFormat;
 import org.pentaho.metastore.locator.api.MetastoreLocator;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -51,11 +54,14 @@ import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -68,6 +74,9 @@ public class OrcInputTest {
   private static final String PASS_FIELD_NAME = "passFieldName";
   private static final String FILENAME = "orcFile";
 
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   @Mock
   private StepMeta mockStepMeta;
   @Mock
@@ -172,8 +181,9 @@ public class OrcInputTest {
       }
     } while ( result );
 
-    // 1 file, 2 rows.
-    assertEquals( 2, rowsProcessed );
+    // 1 file, 2 rows. Both rows are handed over in one batch, which also closes the file; the next processRow call
+    // returns false
+    assertEquals( 1, rowsProcessed );
     verify( mockRowHandler, times( 2 ) ).putRow( rowMetaCaptor.capture(), dataCaptor.capture() );
     List<RowMeta> rowMeta = rowMetaCaptor.getAllValues();
     List<Object[]> dataCaptured = dataCaptor.getAllValues();
@@ -183,6 +193,57 @@ public class OrcInputTest {
     }
   }
 
+  @Test
+  public void testListInputFilesOfFolder() throws Exception {
+    File folder = temporaryFolder.newFolder( "orc" );
+    for ( String name : new String[] { "b.orc", "a.orc", "c.txt", "_SUCCESS", ".a.orc.crc" } ) {
+      new File( folder, name ).createNewFile();
+    }
+    new File( folder, "sub" ).mkdir();
+
+    List<String> files = OrcInput.listInputFiles( DefaultBowl.getInstance(), folder.getAbsolutePath() );
+
+    assertEquals( 3, files.size() );
+    assertTrue( files.get( 0 ).endsWith( "/orc/a.orc" ) );
+    assertTrue( files.get( 1 ).endsWith( "/orc/b.orc" ) );
+    assertTrue( files.get( 2 ).endsWith( "/orc/c.txt" ) );
+  }
+
+  @Test
+  public void testListInputFilesWithWildcard() throws Exception {
+    File folder = temporaryFolder.newFolder( "orc" );
+    for ( String name : new String[] { "part-1.orc", "part-0.orc", "other.orc", "part-2.txt" } ) {
+      new File( folder, name ).createNewFile();
+    }
+
+    List<String> files =
+      OrcInput.listInputFiles( DefaultBowl.getInstance(), folder.getAbsolutePath() + "/part-*.orc" );
+
+    assertEquals( 2, files.size() );
+    assertTrue( files.get( 0 ).endsWith( "/orc/part-0.orc" ) );
+    assertTrue( files.get( 1 ).endsWith( "/orc/part-1.orc" ) );
+  }
+
+  @Test
+  public void testListInputFilesOfSingleFile() throws Exception {
+    File file = temporaryFolder.newFile( "single.orc" );
+
+    List<String> files = OrcInput.listInputFiles( DefaultBowl.getInstance(), file.getAbsolutePath() );
+
+    assertEquals( Arrays.asList( file.getAbsolutePath() ), files );
+  }
+
+  @Test
+  public void testProcessRowDistributedFiles() throws Exception {
+    orcInputMeta.setDistributeSplits( true );
+    doReturn( 1 ).when( orcInput ).getUniqueStepNrAcrossSlaves();
+    doReturn( 2 ).when( orcInput ).getUniqueStepCountAcrossSlaves();
+
+    // the only file belongs to copy 0, so this copy has nothing to read
+    assertFalse( orcInput.processRow( orcInputMeta, orcInputData ) );
+    verify( mockRowHandler, never() ).putRow( any(), any() );
+  }
+
   @Test
   public void testInit() {
     assertEquals( true, orcInput.init() );
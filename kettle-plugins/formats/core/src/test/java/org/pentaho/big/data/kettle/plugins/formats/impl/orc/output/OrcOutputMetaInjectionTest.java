@@ -51,6 +51,11 @@ public class OrcOutputMetaInjectionTest  extends BaseMetadataInjectionTest<OrcOu
     check( "OPTIONS_STRIPE_SIZE", () -> meta.getStripeSize() );
     check( "OPTIONS_TIME_IN_FILE_NAME", () -> meta.isTimeInFileName() );
     check( "OVERRIDE_OUTPUT", () -> meta.isOverrideOutput() );
+    check( "OPTIONS_ASYNC_WRITE", () -> meta.isAsyncWrite() );
+    check( "OPTIONS_ASYNC_BUFFER_SIZE", () -> meta.getAsyncBufferSize() );
+    check( "OPTIONS_ROWS_PER_FILE", () -> meta.getRowsPerFile() );
+    check( "OPTIONS_PARTITION_FIELD", () -> meta.getPartitionField() );
+    check( "OPTIONS_MAX_OPEN_FILES", () -> meta.getMaxOpenFiles() );
 
     check( "FIELD_DECIMAL_PRECISION", () -> meta.getOutputFields().get( 0 ).getPrecision() );
     check( "FIELD_DECIMAL_SCALE", () -> meta.getOutputFields().get( 0 ).getScale() );
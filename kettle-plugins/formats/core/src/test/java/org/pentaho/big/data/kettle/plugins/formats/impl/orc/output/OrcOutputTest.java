@@ -53,6 +53,7 @@ import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
@@ -182,6 +183,34 @@ public class OrcOutputTest {
     }
   }
 
+  @Test
+  public void testProcessRowResolvesFieldsOnce() throws Exception {
+    RowMeta inputRowMeta = spy( dataInputRowMeta );
+    orcOutput.setInputRowMeta( inputRowMeta );
+    ArgumentCaptor<RowMeta> rowMetaCaptor = ArgumentCaptor.forClass( RowMeta.class );
+
+    while ( orcOutput.processRow( orcOutputMeta, orcOutputData ) ) {
+      // write all the rows
+    }
+
+    verify( inputRowMeta, times( 1 ) ).indexOfValue( "StringName" );
+    verify( mockPentahoOrcRecordWriter, times( 3 ) ).write( any( RowMetaAndData.class ) );
+    verify( mockRowHandler, times( 3 ) ).putRow( rowMetaCaptor.capture(), any() );
+    List<RowMeta> rowMetaCaptured = rowMetaCaptor.getAllValues();
+    assertSame( rowMetaCaptured.get( 0 ), rowMetaCaptured.get( 2 ) );
+  }
+
+  @Test
+  public void testProcessRowMissingField() throws Exception {
+    orcOutput.setInputRowMeta( new RowMeta() );
+    try {
+      orcOutput.processRow( orcOutputMeta, orcOutputData );
+      fail( "No Kettle Exception thrown" );
+    } catch ( KettleException kex ) {
+      assertTrue( kex.getMessage().contains( "StringName" ) );
+    }
+  }
+
   @Test
   public void testProcessRowIllegalState() throws Exception {
     doThrow( new IllegalStateException( "IllegalStateExceptionMessage" ) ).when( mockPentahoOrcOutputFormat )
@@ -282,4 +311,18 @@ public class OrcOutputTest {
     assertTrue( outputFile.exists() );
     outputFile.delete();
   }
+
+  @Test
+  public void testDisposeBeforeEndOfInputDiscardsOutput() throws Exception {
+    String aliasPath = Files.createTempDirectory( "testDisposeBeforeEndOfInput" ) + File.separator + "dummyFile";
+    new File( aliasPath ).createNewFile();
+    when( mockPentahoOrcOutputFormat.generateAlias( anyString() ) ).thenReturn( aliasPath );
+
+    assertTrue( orcOutput.processRow( orcOutputMeta, orcOutputData ) );
+    // the transformation is stopped before the end of the input
+    orcOutput.dispose( orcOutputMeta, orcOutputData );
+
+    assertFalse( new File( aliasPath ).exists() );
+    assertFalse( new File( OUTPUT_FILE_NAME ).exists() );
+  }
 }
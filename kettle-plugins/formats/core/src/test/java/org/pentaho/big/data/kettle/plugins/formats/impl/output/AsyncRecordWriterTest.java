@@ -0,0 +1,154 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.output;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.hadoop.shim.api.format.IPentahoOutputFormat.IPentahoRecordWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class AsyncRecordWriterTest {
+
+  @Test
+  public void testWritesRowsInOrderAndClosesWriter() throws Exception {
+    IPentahoRecordWriter writer = mock( IPentahoRecordWriter.class );
+    AsyncRecordWriter asyncWriter = new AsyncRecordWriter( writer, 4, "test encoder" );
+    List<RowMetaAndData> rows = new ArrayList<>();
+    for ( int i = 0; i < 100; i++ ) {
+      RowMetaAndData row = new RowMetaAndData();
+      rows.add( row );
+      asyncWriter.write( row );
+    }
+    asyncWriter.close();
+
+    ArgumentCaptor<RowMetaAndData> written = ArgumentCaptor.forClass( RowMetaAndData.class );
+    verify( writer, times( 100 ) ).write( written.capture() );
+    assertEquals( rows, written.getAllValues() );
+    verify( writer ).close();
+    assertEquals( 100, asyncWriter.getRowsWritten() );
+
+    asyncWriter.close();
+    verify( writer ).close();
+  }
+
+  @Test
+  public void testWaitsWhenBufferIsFull() throws Exception {
+    IPentahoRecordWriter writer = mock( IPentahoRecordWriter.class );
+    CountDownLatch release = new CountDownLatch( 1 );
+    doAnswer( invocation -> {
+      release.await();
+      return null;
+    } ).when( writer ).write( any() );
+    AsyncRecordWriter asyncWriter = new AsyncRecordWriter( writer, 1, "test encoder" );
+    Thread releaser = new Thread( () -> {
+      try {
+        Thread.sleep( 200 );
+      } catch ( InterruptedException e ) {
+        // ignored
+      }
+      release.countDown();
+    } );
+    releaser.start();
+    for ( int i = 0; i < 3; i++ ) {
+      asyncWriter.write( new RowMetaAndData() );
+    }
+    asyncWriter.close();
+
+    verify( writer, times( 3 ) ).write( any() );
+    assertTrue( asyncWriter.getBufferFullCount() > 0 );
+    assertTrue( asyncWriter.getBufferFullNanos() > 0 );
+  }
+
+  @Test
+  public void testAbortDropsQueuedRows() throws Exception {
+    IPentahoRecordWriter writer = mock( IPentahoRecordWriter.class );
+    CountDownLatch writing = new CountDownLatch( 1 );
+    CountDownLatch release = new CountDownLatch( 1 );
+    doAnswer( invocation -> {
+      writing.countDown();
+      // only the interrupt from abort gets the encoder past this
+      release.await();
+      return null;
+    } ).when( writer ).write( any() );
+    AsyncRecordWriter asyncWriter = new AsyncRecordWriter( writer, 10, "test encoder" );
+    for ( int i = 0; i < 5; i++ ) {
+      asyncWriter.write( new RowMetaAndData() );
+    }
+    writing.await();
+    asyncWriter.abort();
+
+    verify( writer, times( 1 ) ).write( any() );
+    verify( writer ).close();
+
+    asyncWriter.abort();
+    asyncWriter.close();
+    verify( writer ).close();
+  }
+
+  @Test
+  public void testEncoderFailureIsReported() throws Exception {
+    IPentahoRecordWriter writer = mock( IPentahoRecordWriter.class );
+    RuntimeException failure = new RuntimeException( "encoding failed" );
+    doThrow( failure ).when( writer ).write( any() );
+    AsyncRecordWriter asyncWriter = new AsyncRecordWriter( writer, 1, "test encoder" );
+    try {
+      for ( int i = 0; i < 1000; i++ ) {
+        asyncWriter.write( new RowMetaAndData() );
+        Thread.sleep( 1 );
+      }
+      fail( "the encoder failure should have been reported on write" );
+    } catch ( KettleException e ) {
+      assertSame( failure, e.getCause() );
+    }
+    try {
+      asyncWriter.close();
+      fail( "the encoder failure should have been reported on close" );
+    } catch ( KettleException e ) {
+      assertSame( failure, e.getCause() );
+    }
+    verify( writer ).close();
+  }
+
+  @Test
+  public void testCloseFailureIsReported() throws Exception {
+    IPentahoRecordWriter writer = mock( IPentahoRecordWriter.class );
+    IOException failure = new IOException( "close failed" );
+    doThrow( failure ).when( writer ).close();
+    AsyncRecordWriter asyncWriter = new AsyncRecordWriter( writer, 1, "test encoder" );
+    asyncWriter.write( new RowMetaAndData() );
+    try {
+      asyncWriter.close();
+      fail( "the close failure should have been reported" );
+    } catch ( KettleException e ) {
+      assertSame( failure, e.getCause() );
+    }
+    verify( writer ).write( any() );
+  }
+}
@@ -0,0 +1,169 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.big.data.kettle.plugins.formats.impl.output;
+
+import org.junit.Test;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.hadoop.shim.api.format.IPentahoOutputFormat.IPentahoRecordWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class OutputFileSetTest {
+
+  private final Map<String, PvfsFileAliaser> aliasers = new LinkedHashMap<>();
+
+  private OutputFileWriter open( String fileName ) {
+    PvfsFileAliaser aliaser = mock( PvfsFileAliaser.class );
+    aliasers.put( fileName, aliaser );
+    return new OutputFileWriter( fileName, aliaser, mock( IPentahoRecordWriter.class ), null,
+      mock( LogChannelInterface.class ) );
+  }
+
+  private void write( OutputFileSet files, String partition, int rows ) throws KettleException {
+    for ( int i = 0; i < rows; i++ ) {
+      files.getFile( partition ).write( new RowMetaAndData() );
+    }
+  }
+
+  @Test
+  public void testSingleFileKeepsConfiguredName() throws Exception {
+    OutputFileSet files = new OutputFileSet( "/out/sales.parquet", 0, false, 0, this::open );
+    write( files, null, 5 );
+    files.close();
+
+    assertEquals( Arrays.asList( "/out/sales.parquet" ), new ArrayList<>( aliasers.keySet() ) );
+    verify( aliasers.get( "/out/sales.parquet" ) ).copyFileToFinalDestination();
+  }
+
+  @Test
+  public void testRollsOverAfterRowsPerFile() throws Exception {
+    OutputFileSet files = new OutputFileSet( "/out/sales.parquet", 2, false, 0, this::open );
+    write( files, null, 2 );
+    assertEquals( 1, files.getFilesWritten() );
+    write( files, null, 1 );
+    assertEquals( 2, files.getFilesWritten() );
+    verify( aliasers.get( "/out/sales-part-00000.parquet" ) ).copyFileToFinalDestination();
+    write( files, null, 2 );
+    files.close();
+
+    assertEquals( Arrays.asList( "/out/sales-part-00000.parquet", "/out/sales-part-00001.parquet",
+      "/out/sales-part-00002.parquet" ), new ArrayList<>( aliasers.keySet() ) );
+    for ( PvfsFileAliaser aliaser : aliasers.values() ) {
+      verify( aliaser ).copyFileToFinalDestination();
+    }
+  }
+
+  @Test
+  public void testPartitionsGoToHiveStyleFolders() throws Exception {
+    OutputFileSet files = new OutputFileSet( "hdfs://host:8020/out/sales.orc", 0, true, 0, this::open );
+    write( files, "region=EU", 2 );
+    write( files, "region=US", 1 );
+    write( files, "region=EU", 1 );
+    assertEquals( 2, files.getOpenFileCount() );
+    files.close();
+
+    assertEquals( Arrays.asList( "hdfs://host:8020/out/region=EU/sales-part-00000.orc",
+      "hdfs://host:8020/out/region=US/sales-part-00000.orc" ), new ArrayList<>( aliasers.keySet() ) );
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsedFile() throws Exception {
+    OutputFileSet files = new OutputFileSet( "/out/sales", 0, true, 2, this::open );
+    write( files, "p=a", 1 );
+    write( files, "p=b", 1 );
+    write( files, "p=a", 1 );
+    // b is the least recently used file now
+    write( files, "p=c", 1 );
+    assertEquals( 2, files.getOpenFileCount() );
+    verify( aliasers.get( "/out/p=b/sales-part-00000" ) ).copyFileToFinalDestination();
+    verify( aliasers.get( "/out/p=a/sales-part-00000" ), never() ).copyFileToFinalDestination();
+
+    // b comes back in a new file
+    write( files, "p=b", 1 );
+    verify( aliasers.get( "/out/p=a/sales-part-00000" ) ).copyFileToFinalDestination();
+    files.close();
+
+    assertEquals( Arrays.asList( "/out/p=a/sales-part-00000", "/out/p=b/sales-part-00000", "/out/p=c/sales-part-00000",
+      "/out/p=b/sales-part-00001" ), new ArrayList<>( aliasers.keySet() ) );
+    assertEquals( 4, files.getFilesWritten() );
+  }
+
+  @Test
+  public void testDiscardDeletesTemporaryFiles() throws Exception {
+    OutputFileSet files = new OutputFileSet( "/out/sales.parquet", 0, true, 0, this::open );
+    write( files, "p=a", 1 );
+    write( files, "p=b", 1 );
+    files.discard();
+
+    for ( PvfsFileAliaser aliaser : aliasers.values() ) {
+      verify( aliaser, never() ).copyFileToFinalDestination();
+      verify( aliaser ).deleteTempFileAndFolder();
+    }
+    assertEquals( 0, files.getOpenFileCount() );
+  }
+
+  @Test
+  public void testTemporaryFileIsDeletedWhenTheWriterFailsToClose() throws Exception {
+    IPentahoRecordWriter writer = mock( IPentahoRecordWriter.class );
+    doThrow( new IOException( "disk full" ) ).when( writer ).close();
+    PvfsFileAliaser aliaser = mock( PvfsFileAliaser.class );
+    OutputFileWriter file = new OutputFileWriter( "/out/sales.parquet", aliaser, writer, null,
+      mock( LogChannelInterface.class ) );
+    file.write( new RowMetaAndData() );
+    try {
+      file.close();
+      fail( "the close failure should have been rethrown" );
+    } catch ( KettleException e ) {
+      assertEquals( "disk full", e.getCause().getMessage() );
+    }
+    verify( aliaser, never() ).copyFileToFinalDestination();
+    verify( aliaser ).deleteTempFileAndFolder();
+  }
+
+  @Test
+  public void testOpenFailureIsRethrown() {
+    IllegalStateException failure = new IllegalStateException( "no output" );
+    OutputFileSet files = new OutputFileSet( "/out/sales.parquet", 0, false, 0, fileName -> {
+      throw failure;
+    } );
+    try {
+      files.getFile( null );
+      fail( "the open failure should have been rethrown" );
+    } catch ( Exception e ) {
+      assertSame( failure, e );
+    }
+  }
+
+  @Test
+  public void testPartitionName() {
+    assertEquals( "region=EU", OutputFileSet.partitionName( "region", "EU" ) );
+    assertEquals( "path=a%2Fb%3Dc%25", OutputFileSet.partitionName( "path", "a/b=c%" ) );
+    assertEquals( "region=" + OutputFileSet.HIVE_DEFAULT_PARTITION, OutputFileSet.partitionName( "region", null ) );
+    assertEquals( "region=" + OutputFileSet.HIVE_DEFAULT_PARTITION, OutputFileSet.partitionName( "region", "" ) );
+  }
+}
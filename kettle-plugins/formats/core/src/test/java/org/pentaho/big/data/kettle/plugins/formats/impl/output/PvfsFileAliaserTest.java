@@ -12,6 +12,8 @@
 
 package org.pentaho.big.data.kettle.plugins.formats.impl.output;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.vfs2.FileObject;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -21,9 +23,12 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.pentaho.di.core.bowl.DefaultBowl;
 import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.hadoop.shim.api.format.IPvfsAliasGenerator;
 
 import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 
 import static org.junit.Assert.assertEquals;
@@ -75,6 +80,24 @@ public class PvfsFileAliaserTest {
     assertFalse( new File( new File( temporaryPath ).getParent() ).exists() );
   }
 
+  @Test
+  public void testCopyFileToFinalDestinationCopiesAcrossFileSystems() throws Exception {
+    Files.write( new File( temporaryPath ).toPath(), "content".getBytes( StandardCharsets.UTF_8 ) );
+    String ramPath = "ram:///" + TEMP_DIR_PREFIX + "/finalFile";
+    pvfsFileAliaser = new PvfsFileAliaser( DefaultBowl.getInstance(), ramPath, variableSpace, aliasGenerator, true,
+      log );
+    pvfsFileAliaser.generateAlias();
+    pvfsFileAliaser.copyFileToFinalDestination();
+    FileObject ramFile = KettleVFS.getInstance( DefaultBowl.getInstance() ).getFileObject( ramPath );
+    try ( InputStream in = ramFile.getContent().getInputStream() ) {
+      assertEquals( "content", IOUtils.toString( in, StandardCharsets.UTF_8 ) );
+    }
+    assertTrue( new File( temporaryPath ).exists() );
+    pvfsFileAliaser.deleteTempFileAndFolder();
+    assertFalse( new File( temporaryPath ).exists() );
+    ramFile.delete();
+  }
+
   @Test
   public void testGenerateWithInactiveAlias() throws Exception {
     when( aliasGenerator.generateAlias( anyString() ) ).thenReturn( null );
@@ -52,6 +52,18 @@ public class ParquetInputMetaInjectionTest extends BaseMetadataInjectionTest<Par
       }
     } );
 
+    check( "SPLIT_SIZE", new StringGetter() {
+      public String get() {
+        return meta.getSplitSize();
+      }
+    } );
+
+    check( "DISTRIBUTE_SPLITS", new BooleanGetter() {
+      public boolean get() {
+        return meta.isDistributeSplits();
+      }
+    } );
+
 
     String[] typeNames = ValueMetaBase.getAllTypes();
     checkStringToInt( "FIELD_TYPE", new IntGetter() {
@@ -44,6 +44,7 @@ import org.pentaho.hadoop.shim.api.format.IPentahoInputFormat;
 import org.pentaho.hadoop.shim.api.format.IPentahoParquetInputFormat;
 import org.pentaho.metastore.locator.api.MetastoreLocator;
 
+import java.io.File;
 import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -52,11 +53,14 @@ import java.util.Iterator;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -152,6 +156,23 @@ public class ParquetInputTest {
     }
   }
 
+  @Test
+  public void testRetrieveCachedSchemaRereadsChangedFile() throws Exception {
+    File file = File.createTempFile( "ParquetInputTest", ".parquet" );
+    file.deleteOnExit();
+    String path = file.toURI().toString();
+    doReturn( new ArrayList<>() ).when( mockPentahoParquetInputFormat ).readSchema( path );
+    ParquetInput.SCHEMA_CACHE.clear();
+
+    ParquetInput.retrieveCachedSchema( DefaultBowl.getInstance(), mockNamedClusterServiceLocator, null, path );
+    ParquetInput.retrieveCachedSchema( DefaultBowl.getInstance(), mockNamedClusterServiceLocator, null, path );
+    verify( mockPentahoParquetInputFormat, times( 1 ) ).readSchema( path );
+
+    assertTrue( file.setLastModified( file.lastModified() - 10000 ) );
+    ParquetInput.retrieveCachedSchema( DefaultBowl.getInstance(), mockNamedClusterServiceLocator, null, path );
+    verify( mockPentahoParquetInputFormat, times( 2 ) ).readSchema( path );
+  }
+
   private Object[] returnNextInputRow() {
     Object[] result = null;
     if ( currentParquetInputRow < inputRows.length ) {
@@ -175,8 +196,9 @@ public class ParquetInputTest {
       }
     } while ( result );
 
-    // 1 file, 2 rows. The third run is to increase the split count, which will return false on the next processRow call
-    assertEquals( 3, rowsProcessed );
+    // 1 file, 2 rows. Both rows are handed over in one batch, which also closes the split; the next processRow call
+    // returns false
+    assertEquals( 1, rowsProcessed );
     verify( mockRowHandler, times( 2 ) ).putRow( rowMetaCaptor.capture(), dataCaptor.capture() );
     List<RowMeta> rowMeta = rowMetaCaptor.getAllValues();
     List<Object[]> dataCaptured = dataCaptor.getAllValues();
@@ -186,6 +208,35 @@ public class ParquetInputTest {
     }
   }
 
+  @Test
+  public void testProcessRowHandsOverRowsInBatches() throws Exception {
+    List<RowMetaAndData> rows = new ArrayList<>();
+    for ( int i = 0; i < ParquetInput.ROWS_PER_BATCH + 10; i++ ) {
+      rows.add( parquetRows[ i % 2 ].clone() );
+    }
+    when( mockPentahoParquetRecordReader.iterator() ).thenReturn( rows.iterator() );
+
+    assertTrue( parquetInput.processRow( parquetInputMeta, parquetInputData ) );
+    verify( mockRowHandler, times( ParquetInput.ROWS_PER_BATCH ) ).putRow( any(), any() );
+
+    assertTrue( parquetInput.processRow( parquetInputMeta, parquetInputData ) );
+    assertFalse( parquetInput.processRow( parquetInputMeta, parquetInputData ) );
+    verify( mockRowHandler, times( ParquetInput.ROWS_PER_BATCH + 10 ) ).putRow( any(), any() );
+  }
+
+  @Test
+  public void testProcessRowDistributedSplits() throws Exception {
+    parquetInputMeta.setDistributeSplits( true );
+    parquetInputMeta.setSplitSize( "256" );
+    doReturn( 1 ).when( parquetInput ).getUniqueStepNrAcrossSlaves();
+    doReturn( 2 ).when( parquetInput ).getUniqueStepCountAcrossSlaves();
+
+    // the only split belongs to copy 0, so this copy has nothing to read
+    assertFalse( parquetInput.processRow( parquetInputMeta, parquetInputData ) );
+    verify( mockPentahoParquetInputFormat ).setSplitSize( 256L * 1024 * 1024 );
+    verify( mockRowHandler, never() ).putRow( any(), any() );
+  }
+
   @Test
   public void testInit() {
     assertEquals( true, parquetInput.init() );
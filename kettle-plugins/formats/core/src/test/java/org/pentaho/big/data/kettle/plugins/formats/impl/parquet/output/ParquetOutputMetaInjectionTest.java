@@ -65,6 +65,31 @@ public class ParquetOutputMetaInjectionTest extends BaseMetadataInjectionTest<Pa
         return meta.isOverrideOutput();
       }
     } );
+    check( "ASYNC_WRITE", new BooleanGetter() {
+      public boolean get() {
+        return meta.isAsyncWrite();
+      }
+    } );
+    check( "ASYNC_BUFFER_SIZE", new StringGetter() {
+      public String get() {
+        return meta.getAsyncBufferSize();
+      }
+    } );
+    check( "ROWS_PER_FILE", new StringGetter() {
+      public String get() {
+        return meta.getRowsPerFile();
+      }
+    } );
+    check( "PARTITION_FIELD", new StringGetter() {
+      public String get() {
+        return meta.getPartitionField();
+      }
+    } );
+    check( "MAX_OPEN_FILES", new StringGetter() {
+      public String get() {
+        return meta.getMaxOpenFiles();
+      }
+    } );
     check( "INC_DATE_IN_FILENAME", new BooleanGetter() {
       public boolean get() {
         return meta.isDateInFilename();
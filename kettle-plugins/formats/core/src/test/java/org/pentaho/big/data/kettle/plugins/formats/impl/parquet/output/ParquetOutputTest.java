@@ -192,6 +192,39 @@ public class ParquetOutputTest {
     }
   }
 
+  @Test
+  public void testProcessRowRollsOverFiles() throws Exception {
+    parquetOutputMeta.setRowsPerFile( "2" );
+    ArgumentCaptor<String> fileNameCaptor = ArgumentCaptor.forClass( String.class );
+
+    while ( parquetOutput.processRow( parquetOutputMeta, parquetOutputData ) ) {
+      // write all the rows
+    }
+
+    verify( mockPentahoParquetOutputFormat, times( 2 ) ).setOutputFile( fileNameCaptor.capture(), anyBoolean() );
+    assertTrue( fileNameCaptor.getAllValues().get( 0 ).startsWith( OUTPUT_FILE_NAME + "-part-00000" ) );
+    assertTrue( fileNameCaptor.getAllValues().get( 1 ).startsWith( OUTPUT_FILE_NAME + "-part-00001" ) );
+    verify( mockPentahoParquetRecordWriter, times( 3 ) ).write( any( RowMetaAndData.class ) );
+    verify( mockPentahoParquetRecordWriter, times( 2 ) ).close();
+  }
+
+  @Test
+  public void testProcessRowPartitionedFiles() throws Exception {
+    parquetOutputMeta.setPartitionField( "StringName" );
+    ArgumentCaptor<String> fileNameCaptor = ArgumentCaptor.forClass( String.class );
+
+    while ( parquetOutput.processRow( parquetOutputMeta, parquetOutputData ) ) {
+      // write all the rows
+    }
+
+    verify( mockPentahoParquetOutputFormat, times( 3 ) ).setOutputFile( fileNameCaptor.capture(), anyBoolean() );
+    for ( int i = 0; i < 3; i++ ) {
+      assertTrue( fileNameCaptor.getAllValues().get( i )
+        .startsWith( "StringName=string" + ( i + 1 ) + "/" + OUTPUT_FILE_NAME + "-part-00000" ) );
+    }
+    verify( mockPentahoParquetRecordWriter, times( 3 ) ).close();
+  }
+
   @Test
   public void initShouldPassEmbeddedMetastoreKey() {
     ParquetOutputMeta stepMetaInterface = mock( ParquetOutputMeta.class );
@@ -307,4 +340,18 @@ public class ParquetOutputTest {
     assertTrue( outputFile.exists() );
     outputFile.delete();
   }
+
+  @Test
+  public void testDisposeBeforeEndOfInputDiscardsOutput() throws Exception {
+    String aliasPath = Files.createTempDirectory( "testDisposeBeforeEndOfInput" ) + File.separator + "dummyFile";
+    new File( aliasPath ).createNewFile();
+    when( mockPentahoParquetOutputFormat.generateAlias( anyString() ) ).thenReturn( aliasPath );
+
+    assertTrue( parquetOutput.processRow( parquetOutputMeta, parquetOutputData ) );
+    // the transformation is stopped before the end of the input
+    parquetOutput.dispose( parquetOutputMeta, parquetOutputData );
+
+    assertFalse( new File( aliasPath ).exists() );
+    assertFalse( new File( OUTPUT_FILE_NAME ).exists() );
+  }
 }
@@ -20,7 +20,9 @@ import java.util.Map;
 
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.HBaseRowToKettleTuple;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.KeySalter;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingAdmin;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingCache;
 import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
 import org.pentaho.hadoop.shim.api.hbase.HBaseConnection;
 import org.pentaho.hadoop.shim.api.hbase.HBaseService;
@@ -60,6 +62,9 @@ public class HBaseInput extends BaseStep implements StepInterface {
   private HBaseService hBaseService;
   private HBaseTable m_hbAdminTable;
   private ResultScanner resultScanner;
+  private volatile HBaseScanPrefetcher<Result> scanPrefetcher;
+  private volatile SaltedScanMerger<Result> saltedScan;
+  private volatile List<ResultScanner> saltedScanners;
   private HBaseValueMetaInterfaceFactory hBaseValueMetaInterfaceFactory;
 
   public HBaseInput( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
@@ -91,6 +96,9 @@ public class HBaseInput extends BaseStep implements StepInterface {
    */
   protected HBaseRowToKettleTuple m_tupleHandler;
 
+  /** The number of buckets the row keys are salted into, 0 or 1 if they are not salted */
+  protected int m_saltBuckets;
+
   @Override
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
 
@@ -118,7 +126,8 @@ public class HBaseInput extends BaseStep implements StepInterface {
             "HBaseInput.Error.UnableToObtainConnection" ), ex );
       }
       try {
-        m_mappingAdmin = new MappingAdmin( m_hbAdmin );
+        m_mappingAdmin = new MappingAdmin( m_hbAdmin, MappingCache.connectionKey( hBaseService,
+          environmentSubstitute( m_meta.getCoreConfigURL() ), environmentSubstitute( m_meta.getDefaultConfigURL() ) ) );
       } catch ( Exception ex ) {
         throw new KettleException( BaseMessages.getString( HBaseInputMeta.PKG,
             "HBaseInput.Error.UnableToCreateAMappingAdminConnection" ), ex );
@@ -179,8 +188,16 @@ public class HBaseInput extends BaseStep implements StepInterface {
       }
       m_columnsMappedByAlias = m_tableMapping.getMappedColumns();
 
+      m_saltBuckets = Const.toInt( environmentSubstitute( m_meta.getSaltBuckets() ), 0 );
+      try {
+        KeySalter.checkBuckets( m_saltBuckets );
+      } catch ( IllegalArgumentException ex ) {
+        throw new KettleException( ex.getMessage(), ex );
+      }
+
       if ( m_tableMapping.isTupleMapping() ) {
         m_tupleHandler = new HBaseRowToKettleTuple( m_bytesUtil );
+        m_tupleHandler.setSaltBuckets( m_saltBuckets );
       }
 
       // conversion mask to use for user specified key values in range scan.
@@ -213,23 +230,26 @@ public class HBaseInput extends BaseStep implements StepInterface {
             "HBaseInput.Error.UnableToSetSourceTableForScan" ), ex );
       }
 
-      ResultScannerBuilder scannerBuilder = m_hbAdminTable
-        .createScannerBuilder( m_tableMapping, dateOrNumberConversionMaskForKey, m_meta.getKeyStartValue(),
-          m_meta.getKeyStopValue(), m_meta.getScannerCacheSize(), log, this );
-
-      // LIMIT THE SCAN TO JUST THE COLUMNS IN THE MAPPING
-      // User-selected output columns?
-      if ( m_userOutputColumns != null && m_userOutputColumns.size() > 0 && !m_tableMapping.isTupleMapping() ) {
-        HBaseInputData.setScanColumns( scannerBuilder, m_userOutputColumns, m_tableMapping );
-      }
-
-      // set any filters
-      if ( m_meta.getColumnFilters() != null && m_meta.getColumnFilters().size() > 0 ) {
-        HBaseInputData.setScanFilters( scannerBuilder, m_meta.getColumnFilters(), m_meta.getMatchAnyFilter(),
-          m_columnsMappedByAlias, this );
+      ResultScannerBuilder scannerBuilder = null;
+      if ( !isKeyRangeSplit() && !KeySalter.isSalted( m_saltBuckets ) ) {
+        // a plain scan leaves the key range and the scanner cache to the shim
+        scannerBuilder = m_hbAdminTable
+          .createScannerBuilder( m_tableMapping, dateOrNumberConversionMaskForKey, m_meta.getKeyStartValue(),
+            m_meta.getKeyStopValue(), m_meta.getScannerCacheSize(), log, this );
+        configureScan( scannerBuilder );
+      } else {
+        // the split and salted scans need the encoded key range to compute their own ranges from
+        byte[][] keyRange = getKeyRange( dateOrNumberConversionMaskForKey );
+        if ( keyRange != null && KeySalter.isSalted( m_saltBuckets ) ) {
+          if ( !isStopped() ) {
+            saltedScan = createSaltedScan( keyRange[ 0 ], keyRange[ 1 ] );
+          }
+        } else if ( keyRange != null ) {
+          scannerBuilder = createScannerBuilder( keyRange[ 0 ], keyRange[ 1 ] );
+        }
       }
 
-      if ( !isStopped() ) {
+      if ( !isStopped() && scannerBuilder != null ) {
         try {
           resultScanner = scannerBuilder.build();
         } catch ( Exception e ) {
@@ -237,6 +257,15 @@ public class HBaseInput extends BaseStep implements StepInterface {
               "HBaseInput.Error.UnableToExecuteSourceTableScan" ), e );
         }
 
+        if ( m_meta.getPrefetchScan() ) {
+          int queueDepth = getPrefetchQueueDepth();
+          logBasic( BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInput.Message.PrefetchingScan", queueDepth ) );
+          scanPrefetcher = new HBaseScanPrefetcher<>( resultScanner::next, queueDepth,
+            getStepname() + " scan prefetch" );
+        }
+      }
+
+      if ( resultScanner != null || saltedScan != null ) {
         // set up the output fields (using the mapping)
         m_data.setOutputRowMeta( new RowMeta() );
         m_meta.getFields( getTransMeta().getBowl(), m_data.getOutputRowMeta(), getStepname(), null, null, this,
@@ -245,15 +274,23 @@ public class HBaseInput extends BaseStep implements StepInterface {
     }
 
     Result next = null;
-    if ( !isStopped() ) {
+    if ( !isStopped() && saltedScan != null ) {
+      try {
+        next = saltedScan.next();
+      } catch ( Exception e ) {
+        throw new KettleException( e.getMessage(), e );
+      }
+    } else if ( !isStopped() && resultScanner != null ) {
       try {
-        next = resultScanner.next();
+        next = scanPrefetcher != null ? scanPrefetcher.next() : resultScanner.next();
       } catch ( Exception e ) {
         throw new KettleException( e.getMessage(), e );
       }
     }
 
     if ( next == null ) {
+      closeScanPrefetcher();
+      closeSaltedScan();
       try {
         m_hbAdminTable.close();
         m_hbAdmin.close();
@@ -275,14 +312,193 @@ public class HBaseInput extends BaseStep implements StepInterface {
       }
       return true;
     } else {
+      if ( m_data.getProjection() == null ) {
+        m_data.setProjection( HBaseInputData.compileProjection( m_userOutputColumns, m_columnsMappedByAlias,
+          m_tableMapping, m_data.getOutputRowMeta() ),
+          HBaseInputData.getOutputRowSize( m_userOutputColumns, m_tableMapping ) );
+      }
       Object[] outRowData =
-          HBaseInputData.getOutputRow( next, m_userOutputColumns, m_columnsMappedByAlias, m_tableMapping, m_data
-              .getOutputRowMeta() );
+          HBaseInputData.getOutputRow( next, m_data.getProjection(), m_tableMapping, m_data.getOutputRowSize(),
+            m_saltBuckets );
       putRow( m_data.getOutputRowMeta(), outRowData );
       return true;
     }
   }
 
+  private void closeScanPrefetcher() {
+    if ( scanPrefetcher == null ) {
+      return;
+    }
+    HBaseScanPrefetcher<Result> prefetcher = scanPrefetcher;
+    scanPrefetcher = null;
+    prefetcher.close();
+    logBasic( BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInput.Message.PrefetchStats",
+      prefetcher.getResultsRead(), prefetcher.getWaitMillis() ) );
+  }
+
+  private void closeSaltedScan() {
+    if ( saltedScan == null ) {
+      return;
+    }
+    SaltedScanMerger<Result> merger = saltedScan;
+    saltedScan = null;
+    merger.close();
+    closeSaltedScanners();
+    logBasic( BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInput.Message.SaltedScanStats", m_saltBuckets,
+      merger.getResultsRead(), merger.getWaitMillis() ) );
+  }
+
+  /**
+   * Close the scanners of the salt buckets, releasing their leases on the region servers. The merger reading them must
+   * have been closed first.
+   */
+  private void closeSaltedScanners() {
+    List<ResultScanner> scanners = saltedScanners;
+    saltedScanners = null;
+    closeScanners( scanners );
+  }
+
+  private void closeScanners( List<ResultScanner> scanners ) {
+    if ( scanners == null ) {
+      return;
+    }
+    for ( ResultScanner scanner : scanners ) {
+      try {
+        scanner.close();
+      } catch ( Exception e ) {
+        logError( BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInput.Error.ProblemClosingScanner",
+          e.getMessage() ) );
+      }
+    }
+  }
+
+  private int getPrefetchQueueDepth() {
+    return Const.toInt( environmentSubstitute( m_meta.getPrefetchQueueDepth() ),
+      HBaseScanPrefetcher.DEFAULT_QUEUE_DEPTH );
+  }
+
+  /**
+   * Limit a scan to the user-selected columns and apply the column filters.
+   */
+  private void configureScan( ResultScannerBuilder scannerBuilder ) throws KettleException {
+    // LIMIT THE SCAN TO JUST THE COLUMNS IN THE MAPPING
+    // User-selected output columns?
+    if ( m_userOutputColumns != null && m_userOutputColumns.size() > 0 && !m_tableMapping.isTupleMapping() ) {
+      HBaseInputData.setScanColumns( scannerBuilder, m_userOutputColumns, m_tableMapping );
+    }
+
+    // set any filters
+    if ( m_meta.getColumnFilters() != null && m_meta.getColumnFilters().size() > 0 ) {
+      HBaseInputData.setScanFilters( scannerBuilder, m_meta.getColumnFilters(), m_meta.getMatchAnyFilter(),
+        m_columnsMappedByAlias, this );
+    }
+  }
+
+  /**
+   * @return true if the key range is split across the copies of the step
+   */
+  private boolean isKeyRangeSplit() {
+    return m_meta.getSplitKeyRangeAcrossCopies() && getUniqueStepCountAcrossSlaves() > 1;
+  }
+
+  /**
+   * Encode the configured key range and, when it is split across the copies of the step, take this copy's share of it.
+   *
+   * @param dateOrNumberConversionMaskForKey the conversion mask for the key, may be null
+   * @return the {start, stop} keys to scan, empty meaning unbounded, or null if this copy's share is empty
+   * @throws KettleException if the key range bounds can not be parsed
+   */
+  private byte[][] getKeyRange( String dateOrNumberConversionMaskForKey ) throws KettleException {
+    byte[] lower = HBaseInputData.encodeKeyBound( m_bytesUtil, m_tableMapping.getKeyType(),
+      environmentSubstitute( m_meta.getKeyStartValue() ), dateOrNumberConversionMaskForKey, true );
+    byte[] upper = HBaseInputData.encodeKeyBound( m_bytesUtil, m_tableMapping.getKeyType(),
+      environmentSubstitute( m_meta.getKeyStopValue() ), dateOrNumberConversionMaskForKey, false );
+    lower = lower == null ? new byte[ 0 ] : lower;
+    upper = upper == null ? new byte[ 0 ] : upper;
+    if ( !isKeyRangeSplit() ) {
+      return new byte[][] { lower, upper };
+    }
+
+    int part = getUniqueStepNrAcrossSlaves();
+    int parts = getUniqueStepCountAcrossSlaves();
+    if ( ( lower.length == 0 || upper.length == 0 ) && part == 0 ) {
+      // the open end is split over every possible byte value, which keys such as text only use a few of
+      logBasic( BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInput.Warning.UnboundedKeyRangeSplit", parts ) );
+    }
+    byte[][] range = KeyRangeSplitter.getRange( lower, upper, part, parts );
+    if ( range == null ) {
+      logBasic( BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInput.Message.EmptyKeyRangeSplit", part + 1,
+        parts ) );
+      return null;
+    }
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInput.Message.ScanningKeyRangeSplit", part + 1,
+        parts ) );
+    }
+    return range;
+  }
+
+  /**
+   * Build a scanner over a key range, limited to the user-selected columns and with the column filters applied.
+   *
+   * @param start the inclusive start key, empty for the start of the table
+   * @param stop  the exclusive stop key, empty for the end of the table
+   * @return the scanner builder
+   * @throws KettleException if the scan can not be configured
+   */
+  private ResultScannerBuilder createScannerBuilder( byte[] start, byte[] stop ) throws KettleException {
+    ResultScannerBuilder scannerBuilder;
+    try {
+      scannerBuilder = m_hbAdminTable.createScannerBuilder( start.length == 0 ? null : start,
+        stop.length == 0 ? null : stop );
+      int cacheSize = Const.toInt( environmentSubstitute( m_meta.getScannerCacheSize() ), 0 );
+      if ( cacheSize > 0 ) {
+        scannerBuilder.setCaching( cacheSize );
+      }
+    } catch ( Exception ex ) {
+      throw new KettleException( BaseMessages.getString( HBaseInputMeta.PKG,
+        "HBaseInput.Error.UnableToConfigureSourceTableScan" ), ex );
+    }
+    configureScan( scannerBuilder );
+    return scannerBuilder;
+  }
+
+  /**
+   * Scan a key range in every salt bucket in parallel.
+   *
+   * @param lower the inclusive lower bound of the unsalted key range, empty for the start of the table
+   * @param upper the exclusive upper bound of the unsalted key range, empty for the end of the table
+   * @return the merged scan
+   * @throws KettleException if a scan can not be started
+   */
+  private SaltedScanMerger<Result> createSaltedScan( byte[] lower, byte[] upper ) throws KettleException {
+    logBasic( BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInput.Message.ScanningSaltBuckets", m_saltBuckets ) );
+    List<ResultScanner> scanners = new ArrayList<>( m_saltBuckets );
+    List<HBaseScanPrefetcher.Source<Result>> buckets = new ArrayList<>( m_saltBuckets );
+    try {
+      for ( int bucket = 0; bucket < m_saltBuckets; bucket++ ) {
+        byte[][] bucketRange = KeySalter.getBucketRange( bucket, lower, upper );
+        ResultScannerBuilder scannerBuilder = createScannerBuilder( bucketRange[ 0 ], bucketRange[ 1 ] );
+        ResultScanner bucketScanner;
+        try {
+          bucketScanner = scannerBuilder.build();
+        } catch ( Exception e ) {
+          throw new KettleException( BaseMessages.getString( HBaseInputMeta.PKG,
+            "HBaseInput.Error.UnableToExecuteSourceTableScan" ), e );
+        }
+        scanners.add( bucketScanner );
+        buckets.add( bucketScanner::next );
+      }
+    } catch ( KettleException e ) {
+      // release the scans of the buckets started before the failure
+      closeScanners( scanners );
+      throw e;
+    }
+    saltedScanners = scanners;
+    // the read ahead is shared out over the buckets
+    return new SaltedScanMerger<>( buckets, Result::getRow, getPrefetchQueueDepth(), getStepname() + " salt bucket" );
+  }
+
   @Override
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     if ( super.init( smi, sdi ) ) {
@@ -303,6 +519,23 @@ public class HBaseInput extends BaseStep implements StepInterface {
     return false;
   }
 
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    // only set when processRow did not get to the end of the scan
+    HBaseScanPrefetcher<Result> prefetcher = scanPrefetcher;
+    if ( prefetcher != null ) {
+      scanPrefetcher = null;
+      prefetcher.close();
+    }
+    SaltedScanMerger<Result> merger = saltedScan;
+    if ( merger != null ) {
+      saltedScan = null;
+      merger.close();
+    }
+    closeSaltedScanners();
+    super.dispose( smi, sdi );
+  }
+
   public static int getKettleTypeByKeyType( Mapping.KeyType keyType ) {
     if ( keyType == null ) {
       return ValueMetaInterface.TYPE_NONE;
@@ -337,6 +570,17 @@ public class HBaseInput extends BaseStep implements StepInterface {
     }
     super.setStopped( stopped );
 
+    // stop reading ahead before the connection the scanner uses goes away
+    HBaseScanPrefetcher<Result> prefetcher = scanPrefetcher;
+    if ( stopped && prefetcher != null ) {
+      prefetcher.close();
+    }
+    SaltedScanMerger<Result> merger = saltedScan;
+    if ( stopped && merger != null ) {
+      merger.close();
+      closeSaltedScanners();
+    }
+
     if ( stopped && m_hbAdmin != null ) {
       logBasic( BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInput.ClosingConnection" ) );
       try {
@@ -14,6 +14,8 @@
 package org.pentaho.big.data.kettle.plugins.hbase.input;
 
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.HBaseRowToKettleTuple;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.KeySalter;
+import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
 import org.pentaho.hadoop.shim.api.hbase.HBaseService;
 import org.pentaho.hadoop.shim.api.hbase.mapping.ColumnFilter;
 import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
@@ -31,10 +33,12 @@ import org.pentaho.di.trans.step.StepDataInterface;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 /**
  * Class providing an input step for reading data from an HBase table according to meta data mapping info stored in a
@@ -50,6 +54,62 @@ public class HBaseInputData extends BaseStepData implements StepDataInterface {
   /** The output data format */
   protected RowMetaInterface m_outputRowMeta;
 
+  /** The columns to decode from each result, resolved against the output row format once */
+  protected ProjectedColumn[] m_projection;
+
+  /** The number of values in an output row */
+  protected int m_outputRowSize;
+
+  /**
+   * A column of the result that goes into the output row, with the output field lookup and the binary column name
+   * check already done. The key is represented by a projected column without a column family.
+   */
+  public static class ProjectedColumn {
+    private final int outputIndex;
+    private final HBaseValueMetaInterface columnMeta;
+    private final String columnFamily;
+    private final String columnName;
+    private final boolean binaryColName;
+
+    ProjectedColumn( int outputIndex ) {
+      this.outputIndex = outputIndex;
+      this.columnMeta = null;
+      this.columnFamily = null;
+      this.columnName = null;
+      this.binaryColName = false;
+    }
+
+    ProjectedColumn( int outputIndex, HBaseValueMetaInterface columnMeta ) {
+      this.outputIndex = outputIndex;
+      this.columnMeta = columnMeta;
+      this.columnFamily = columnMeta.getColumnFamily();
+      String name = columnMeta.getColumnName();
+      // assume hex encoded column name
+      this.binaryColName = name.startsWith( "@@@binary@@@" );
+      this.columnName = binaryColName ? name.replace( "@@@binary@@@", "" ) : name;
+    }
+
+    public boolean isKey() {
+      return columnMeta == null;
+    }
+
+    public int getOutputIndex() {
+      return outputIndex;
+    }
+
+    public String getColumnFamily() {
+      return columnFamily;
+    }
+
+    public String getColumnName() {
+      return columnName;
+    }
+
+    public boolean isBinaryColName() {
+      return binaryColName;
+    }
+  }
+
   /**
    * Get the output row format
    * 
@@ -69,6 +129,27 @@ public class HBaseInputData extends BaseStepData implements StepDataInterface {
     m_outputRowMeta = rmi;
   }
 
+  public ProjectedColumn[] getProjection() {
+    return m_projection;
+  }
+
+  public int getOutputRowSize() {
+    return m_outputRowSize;
+  }
+
+  /**
+   * Set the columns to decode from each result
+   *
+   * @param projection
+   *          the projection, see {@link #compileProjection}
+   * @param outputRowSize
+   *          the number of values in an output row, see {@link #getOutputRowSize(List, Mapping)}
+   */
+  public void setProjection( ProjectedColumn[] projection, int outputRowSize ) {
+    m_projection = projection;
+    m_outputRowSize = outputRowSize;
+  }
+
   /**
    * Utility method to covert a string to a URL object.
    * 
@@ -93,6 +174,55 @@ public class HBaseInputData extends BaseStepData implements StepDataInterface {
     return result;
   }
 
+  /**
+   * Encode a user-supplied key range bound. Apart from string and binary keys the value may be suffixed with
+   * "@conversionMask" to override the mask given for the key in the user-selected output fields. The scans that split
+   * or salt the key range encode their bounds here, a plain scan leaves its bounds to the shim.
+   * 
+   * @param bytesUtil
+   *          the byte conversion utility
+   * @param keyType
+   *          the type of the key in the mapping
+   * @param keyValue
+   *          the (already variable substituted) bound
+   * @param conversionMask
+   *          the date or number conversion mask for the key, may be null
+   * @param lowerBound
+   *          true if this is the lower bound of the range
+   * @return the encoded key or null if the bound is not set
+   * @throws KettleException
+   *           if the bound can not be parsed
+   */
+  public static byte[] encodeKeyBound( ByteConversionUtil bytesUtil, Mapping.KeyType keyType, String keyValue,
+                                       String conversionMask, boolean lowerBound ) throws KettleException {
+    if ( Const.isEmpty( keyValue ) ) {
+      return null;
+    }
+    try {
+      if ( keyType == Mapping.KeyType.STRING || keyType == Mapping.KeyType.BINARY ) {
+        return bytesUtil.encodeKeyValue( keyValue, keyType );
+      }
+      String value = keyValue;
+      String mask = conversionMask;
+      String[] parts = keyValue.split( "@" );
+      if ( parts.length == 2 ) {
+        value = parts[ 0 ];
+        mask = parts[ 1 ];
+      }
+      if ( Const.isEmpty( mask ) ) {
+        return bytesUtil.encodeKeyValue( value, keyType );
+      }
+      if ( keyType == Mapping.KeyType.DATE || keyType == Mapping.KeyType.UNSIGNED_DATE ) {
+        return bytesUtil.encodeKeyValue( new SimpleDateFormat( mask ).parse( value ), keyType );
+      }
+      return bytesUtil.encodeKeyValue( new DecimalFormat( mask ).parse( value ), keyType );
+    } catch ( Exception ex ) {
+      throw new KettleException( BaseMessages.getString( HBaseInputMeta.PKG, lowerBound
+        ? "HBaseInput.Error.UnableToParseLowerBoundKeyValue" : "HBaseInput.Error.UnableToParseUpperBoundKeyValue",
+        keyValue ), ex );
+    }
+  }
+
   /**
    * Set the specific columns to be returned by the scan.
    * 
@@ -208,10 +338,9 @@ public class HBaseInputData extends BaseStepData implements StepDataInterface {
   }
 
   /**
-   * Convert/decode the current hbase row into a kettle row
+   * Resolves the columns to decode against the output row format once, so that decoding a row does not need any
+   * lookups by name.
    * 
-   * @param result
-   *          the result to use
    * @param userOutputColumns
    *          user-specified subset of columns (if any) from the mapping
    * @param columnsMappedByAlias
@@ -220,108 +349,140 @@ public class HBaseInputData extends BaseStepData implements StepDataInterface {
    *          the mapping to use
    * @param outputRowMeta
    *          the outgoing row meta
-   * @return a kettle row
+   * @return the columns to decode, in the order they are read from the result
    * @throws KettleException
-   *           if a problem occurs
+   *           if a column is not part of the output row format
    */
-  public static Object[] getOutputRow( Result result, List<HBaseValueMetaInterface> userOutputColumns,
-      Map<String, HBaseValueMetaInterface> columnsMappedByAlias, Mapping tableMapping, RowMetaInterface outputRowMeta ) throws KettleException {
-
-    int size = ( userOutputColumns != null && userOutputColumns.size() > 0 ) ? userOutputColumns.size()
-      : tableMapping.numMappedColumns() + 1; // + 1 for the key
-
-    Object[] outputRowData = RowDataUtil.allocateRowData( size );
+  public static ProjectedColumn[] compileProjection( List<HBaseValueMetaInterface> userOutputColumns,
+      Map<String, HBaseValueMetaInterface> columnsMappedByAlias, Mapping tableMapping, RowMetaInterface outputRowMeta )
+    throws KettleException {
+    List<ProjectedColumn> projection = new ArrayList<>();
 
     // User-selected output columns?
     if ( userOutputColumns != null && userOutputColumns.size() > 0 ) {
       for ( HBaseValueMetaInterface currentCol : userOutputColumns ) {
         if ( currentCol.isKey() ) {
-          byte[] rawKey = null;
-          try {
-            rawKey = result.getRow();
-          } catch ( Exception e ) {
-            throw new KettleException( e );
-          }
-          Object decodedKey = tableMapping.decodeKeyValue( rawKey );
-          int keyIndex = outputRowMeta.indexOfValue( currentCol.getAlias() );
-          outputRowData[keyIndex] = decodedKey;
+          projection.add( new ProjectedColumn( outputRowMeta.indexOfValue( currentCol.getAlias() ) ) );
         } else {
-          String colFamilyName = currentCol.getColumnFamily();
-          String qualifier = currentCol.getColumnName();
-
-          boolean binaryColName = false;
-          if ( qualifier.startsWith( "@@@binary@@@" ) ) {
-            qualifier = qualifier.replace( "@@@binary@@@", "" );
-            // assume hex encoded
-            binaryColName = true;
-          }
-
-          byte[] kv = null;
-          try {
-            kv = result.getValue( colFamilyName, qualifier, binaryColName );
-          } catch ( Exception e ) {
-            throw new KettleException( e );
-          }
-
-          int outputIndex = outputRowMeta.indexOfValue( currentCol.getAlias() );
-          if ( outputIndex < 0 ) {
-            throw new KettleException( BaseMessages.getString( HBaseInputMeta.PKG,
-                "HBaseInput.Error.ColumnNotDefinedInOutput", currentCol.getAlias() ) );
-          }
-
-          Object decodedVal = currentCol.decodeColumnValue( ( kv == null ) ? null : kv );
-
-          outputRowData[outputIndex] = decodedVal;
+          projection.add( new ProjectedColumn( getOutputIndex( outputRowMeta, currentCol.getAlias() ), currentCol ) );
         }
       }
     } else {
       // do the key first
-      byte[] rawKey = null;
-      try {
-        rawKey = result.getRow();
-      } catch ( Exception e ) {
-        throw new KettleException( e );
+      projection.add( new ProjectedColumn( outputRowMeta.indexOfValue( tableMapping.getKeyName() ) ) );
+
+      for ( Map.Entry<String, HBaseValueMetaInterface> entry : columnsMappedByAlias.entrySet() ) {
+        if ( entry.getValue().isKey() ) {
+          // skip key as it has already been processed
+          // and is not in the scan's columns
+          continue;
+        }
+        projection.add( new ProjectedColumn( getOutputIndex( outputRowMeta, entry.getKey() ), entry.getValue() ) );
       }
+    }
 
-      Object decodedKey = tableMapping.decodeKeyValue( rawKey );
-      int keyIndex = outputRowMeta.indexOfValue( tableMapping.getKeyName() );
-      outputRowData[keyIndex] = decodedKey;
+    return projection.toArray( new ProjectedColumn[ 0 ] );
+  }
 
-      Set<String> aliasSet = columnsMappedByAlias.keySet();
+  /**
+   * @param userOutputColumns
+   *          user-specified subset of columns (if any) from the mapping
+   * @param tableMapping
+   *          the mapping to use
+   * @return the number of values in an output row
+   */
+  public static int getOutputRowSize( List<HBaseValueMetaInterface> userOutputColumns, Mapping tableMapping ) {
+    return ( userOutputColumns != null && userOutputColumns.size() > 0 ) ? userOutputColumns.size()
+      : tableMapping.numMappedColumns() + 1; // + 1 for the key
+  }
 
-      for ( String name : aliasSet ) {
-        HBaseValueMetaInterface currentCol = columnsMappedByAlias.get( name );
-        String colFamilyName = currentCol.getColumnFamily();
-        String qualifier = currentCol.getColumnName();
-        if ( currentCol.isKey() ) {
-          // skip key as it has already been processed 
-          // and is not in the scan's columns 
-          continue;
-        }
+  private static int getOutputIndex( RowMetaInterface outputRowMeta, String alias ) throws KettleException {
+    int outputIndex = outputRowMeta.indexOfValue( alias );
+    if ( outputIndex < 0 ) {
+      throw new KettleException( BaseMessages.getString( HBaseInputMeta.PKG,
+          "HBaseInput.Error.ColumnNotDefinedInOutput", alias ) );
+    }
+    return outputIndex;
+  }
 
-        boolean binaryColName = false;
-        if ( qualifier.startsWith( "@@@binary@@@" ) ) {
-          qualifier = qualifier.replace( "@@@binary@@@", "" );
-          // assume hex encoded
-          binaryColName = true;
-        }
+  /**
+   * Convert/decode the current hbase row into a kettle row
+   * 
+   * @param result
+   *          the result to use
+   * @param userOutputColumns
+   *          user-specified subset of columns (if any) from the mapping
+   * @param columnsMappedByAlias
+   *          columns in the mapping keyed by alias
+   * @param tableMapping
+   *          the mapping to use
+   * @param outputRowMeta
+   *          the outgoing row meta
+   * @return a kettle row
+   * @throws KettleException
+   *           if a problem occurs
+   */
+  public static Object[] getOutputRow( Result result, List<HBaseValueMetaInterface> userOutputColumns,
+      Map<String, HBaseValueMetaInterface> columnsMappedByAlias, Mapping tableMapping, RowMetaInterface outputRowMeta ) throws KettleException {
+    return getOutputRow( result,
+      compileProjection( userOutputColumns, columnsMappedByAlias, tableMapping, outputRowMeta ), tableMapping,
+      getOutputRowSize( userOutputColumns, tableMapping ) );
+  }
 
+  /**
+   * Convert/decode the current hbase row into a kettle row
+   * 
+   * @param result
+   *          the result to use
+   * @param projection
+   *          the columns to decode, see {@link #compileProjection}
+   * @param tableMapping
+   *          the mapping to use
+   * @param outputRowSize
+   *          the number of values in an output row
+   * @return a kettle row
+   * @throws KettleException
+   *           if a problem occurs
+   */
+  public static Object[] getOutputRow( Result result, ProjectedColumn[] projection, Mapping tableMapping,
+      int outputRowSize ) throws KettleException {
+    return getOutputRow( result, projection, tableMapping, outputRowSize, 0 );
+  }
+
+  /**
+   * Convert/decode the current hbase row, whose key may be salted, into a kettle row
+   * 
+   * @param saltBuckets
+   *          the number of buckets the row keys are salted into, 0 or 1 if they are not salted
+   * @see #getOutputRow(Result, ProjectedColumn[], Mapping, int)
+   */
+  public static Object[] getOutputRow( Result result, ProjectedColumn[] projection, Mapping tableMapping,
+      int outputRowSize, int saltBuckets ) throws KettleException {
+    Object[] outputRowData = RowDataUtil.allocateRowData( outputRowSize );
+
+    Object decodedKey = null;
+    boolean keyDecoded = false;
+    for ( ProjectedColumn currentCol : projection ) {
+      if ( currentCol.isKey() ) {
+        if ( !keyDecoded ) {
+          byte[] rawKey = null;
+          try {
+            rawKey = result.getRow();
+          } catch ( Exception e ) {
+            throw new KettleException( e );
+          }
+          decodedKey = tableMapping.decodeKeyValue( KeySalter.unsalt( rawKey, saltBuckets ) );
+          keyDecoded = true;
+        }
+        outputRowData[currentCol.outputIndex] = decodedKey;
+      } else {
         byte[] kv = null;
         try {
-          kv = result.getValue( colFamilyName, qualifier, binaryColName );
+          kv = result.getValue( currentCol.columnFamily, currentCol.columnName, currentCol.binaryColName );
         } catch ( Exception e ) {
           throw new KettleException( e );
         }
-
-        int outputIndex = outputRowMeta.indexOfValue( name );
-        if ( outputIndex < 0 ) {
-          throw new KettleException( BaseMessages.getString( HBaseInputMeta.PKG,
-              "HBaseInput.Error.ColumnNotDefinedInOutput", name ) );
-        }
-
-        Object decodedVal = currentCol.decodeColumnValue( ( kv == null ) ? null : kv );
-
-        outputRowData[outputIndex] = decodedVal;
+        outputRowData[currentCol.outputIndex] = currentCol.columnMeta.decodeColumnValue( kv );
       }
     }
 
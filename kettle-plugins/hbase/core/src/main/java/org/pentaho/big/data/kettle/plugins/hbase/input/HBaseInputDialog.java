@@ -50,6 +50,7 @@ import org.pentaho.hadoop.shim.api.cluster.ClusterInitializationException;
 import org.pentaho.big.data.kettle.plugins.hbase.ServiceStatus;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.ConfigurationProducer;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingAdmin;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingCache;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingEditor;
 import org.pentaho.big.data.plugins.common.ui.NamedClusterWidgetImpl;
 import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
@@ -132,6 +133,9 @@ public class HBaseInputDialog extends BaseStepDialog implements StepDialogInterf
   /** Store the mapping information in the step's meta data */
   private Button m_storeMappingInStepMetaData;
 
+  // Salt buckets line
+  private TextVar m_saltBucketsText;
+
   // Key start line
   private TextVar m_keyStartText;
 
@@ -501,6 +505,29 @@ public class HBaseInputDialog extends BaseStepDialog implements StepDialogInterf
     fd.top = new FormAttachment( m_mappingNamesCombo, margin );
     m_storeMappingInStepMetaData.setLayoutData( fd );
 
+    // salt buckets, which have to match the ones the table was written with
+    Label saltBucketsLab = new Label( wConfigComp, SWT.RIGHT );
+    saltBucketsLab.setText( BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInputDialog.SaltBuckets.Label" ) );
+    saltBucketsLab.setToolTipText(
+      BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInputDialog.SaltBuckets.TipText" ) );
+    props.setLook( saltBucketsLab );
+    fd = new FormData();
+    fd.left = new FormAttachment( 0, 0 );
+    fd.top = new FormAttachment( m_storeMappingInStepMetaData, margin );
+    fd.right = new FormAttachment( middle, -margin );
+    saltBucketsLab.setLayoutData( fd );
+
+    m_saltBucketsText = new TextVar( transMeta, wConfigComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    m_saltBucketsText.setToolTipText(
+      BaseMessages.getString( HBaseInputMeta.PKG, "HBaseInputDialog.SaltBuckets.TipText" ) );
+    m_saltBucketsText.addModifyListener( lsMod );
+    props.setLook( m_saltBucketsText );
+    fd = new FormData();
+    fd.right = new FormAttachment( 100, 0 );
+    fd.left = new FormAttachment( middle, 0 );
+    fd.top = new FormAttachment( m_storeMappingInStepMetaData, margin );
+    m_saltBucketsText.setLayoutData( fd );
+
     // keystart
     Label keyStartLab = new Label( wConfigComp, SWT.RIGHT );
     keyStartLab.setText( Messages.getString( "HBaseInputDialog.KeyStart.Label" ) );
@@ -508,7 +535,7 @@ public class HBaseInputDialog extends BaseStepDialog implements StepDialogInterf
     props.setLook( keyStartLab );
     fd = new FormData();
     fd.left = new FormAttachment( 0, 0 );
-    fd.top = new FormAttachment( m_storeMappingInStepMetaData, margin );
+    fd.top = new FormAttachment( m_saltBucketsText, margin );
     fd.right = new FormAttachment( middle, -margin );
     keyStartLab.setLayoutData( fd );
 
@@ -519,7 +546,7 @@ public class HBaseInputDialog extends BaseStepDialog implements StepDialogInterf
     fd = new FormData();
     fd.right = new FormAttachment( 100, 0 );
     fd.left = new FormAttachment( middle, 0 );
-    fd.top = new FormAttachment( m_storeMappingInStepMetaData, margin );
+    fd.top = new FormAttachment( m_saltBucketsText, margin );
     m_keyStartText.setLayoutData( fd );
 
     // keystop
@@ -1012,6 +1039,7 @@ public class HBaseInputDialog extends BaseStepDialog implements StepDialogInterf
     m_currentMeta.setKeyStartValue( m_keyStartText.getText() );
     m_currentMeta.setKeyStopValue( m_keyStopText.getText() );
     m_currentMeta.setScannerCacheSize( m_scanCacheText.getText() );
+    m_currentMeta.setSaltBuckets( m_saltBucketsText.getText() );
     m_currentMeta.setMatchAnyFilter( m_matchAnyBut.getSelection() );
 
     int numNonEmpty = m_fieldsView.nrNonEmpty();
@@ -1103,7 +1131,7 @@ public class HBaseInputDialog extends BaseStepDialog implements StepDialogInterf
         HBaseConnection connection = null;
         try {
           connection = getHBaseConnection();
-          MappingAdmin admin = new MappingAdmin( connection );
+          MappingAdmin admin = new MappingAdmin( connection, getConnectionKey() );
           Mapping current =
             admin.getMapping( transMeta.environmentSubstitute( m_mappedTableNamesCombo.getText() ), transMeta
               .environmentSubstitute( m_mappingNamesCombo.getText() ) );
@@ -1185,6 +1213,10 @@ public class HBaseInputDialog extends BaseStepDialog implements StepDialogInterf
       m_scanCacheText.setText( m_currentMeta.getScannerCacheSize() );
     }
 
+    if ( !Const.isEmpty( m_currentMeta.getSaltBuckets() ) ) {
+      m_saltBucketsText.setText( m_currentMeta.getSaltBuckets() );
+    }
+
     m_matchAnyBut.setSelection( m_currentMeta.getMatchAnyFilter() );
     m_matchAllBut.setSelection( !m_currentMeta.getMatchAnyFilter() );
 
@@ -1230,6 +1262,11 @@ public class HBaseInputDialog extends BaseStepDialog implements StepDialogInterf
     return namedClusterServiceLocator.getService( nc, HBaseService.class );
   }
 
+  @Override public Object getConnectionKey() throws ClusterInitializationException {
+    return MappingCache.connectionKey( getHBaseService(), transMeta.environmentSubstitute( m_coreConfigText.getText() ),
+      transMeta.environmentSubstitute( m_defaultConfigText.getText() ) );
+  }
+
   public HBaseConnection getHBaseConnection() throws IOException, ClusterInitializationException {
     HBaseConnection conf = null;
 
@@ -1289,7 +1326,7 @@ public class HBaseInputDialog extends BaseStepDialog implements StepDialogInterf
           if ( displayFieldsMappingFromHBase && readFieldsFromMapping ) {
             connection = getHBaseConnection();
             if ( displayFieldsMappingFromHBase ) {
-              admin = new MappingAdmin( connection );
+              admin = new MappingAdmin( connection, getConnectionKey() );
             }
             current =
               admin.getMapping( transMeta.environmentSubstitute( m_mappedTableNamesCombo.getText() ), transMeta
@@ -1489,7 +1526,7 @@ public class HBaseInputDialog extends BaseStepDialog implements StepDialogInterf
     try {
       shell.setCursor( busy );
       connection = getHBaseConnection();
-      MappingAdmin admin = new MappingAdmin( connection );
+      MappingAdmin admin = new MappingAdmin( connection, getConnectionKey() );
       Set<String> tableNames = admin.getMappedTables( parseNamespaceFromTableName( null ) );
 
       m_mappedTableNamesCombo.removeAll();
@@ -1522,7 +1559,7 @@ public class HBaseInputDialog extends BaseStepDialog implements StepDialogInterf
       HBaseConnection connection = null;
       try {
         connection = getHBaseConnection();
-        MappingAdmin admin = new MappingAdmin( connection );
+        MappingAdmin admin = new MappingAdmin( connection, getConnectionKey() );
 
         List<String> mappingNames = admin.getMappingNames( transMeta.environmentSubstitute( m_mappedTableNamesCombo.getText().trim() ) );
 
@@ -22,6 +22,7 @@ import org.pentaho.big.data.kettle.plugins.hbase.MappingDefinition;
 import org.pentaho.big.data.kettle.plugins.hbase.NamedClusterLoadSaveUtil;
 import org.pentaho.big.data.kettle.plugins.hbase.ServiceStatus;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingAdmin;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingCache;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingUtils;
 import org.pentaho.big.data.kettle.plugins.hbase.meta.AELHBaseMappingImpl;
 import org.pentaho.big.data.kettle.plugins.hbase.meta.AELHBaseValueMetaImpl;
@@ -172,6 +173,31 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
   @Injection( name = "MATCH_ANY_FILTER" )
   protected boolean m_matchAnyFilter;
 
+  /**
+   * If true, then the key range is split between the copies of this step so that each copy scans its own part of the
+   * table, otherwise every copy scans the whole key range
+   */
+  @Injection( name = "SPLIT_KEY_RANGE_ACROSS_COPIES" )
+  protected boolean m_splitKeyRangeAcrossCopies;
+
+  /**
+   * If true, then the scanner is read on a background thread while the step converts the results it already has
+   */
+  @Injection( name = "PREFETCH_SCAN" )
+  protected boolean m_prefetchScan;
+
+  /**
+   * The number of results that may be read ahead when prefetching (empty - HBaseScanPrefetcher.DEFAULT_QUEUE_DEPTH)
+   */
+  @Injection( name = "PREFETCH_QUEUE_DEPTH" )
+  protected String m_prefetchQueueDepth;
+
+  /**
+   * The number of buckets the row keys of the table are salted into (empty, 0 or 1 - keys are not salted)
+   */
+  @Injection( name = "SALT_BUCKETS" )
+  protected String m_saltBuckets;
+
   /**
    * The mapping to use if we are not loading one dynamically at runtime from HBase itself
    */
@@ -330,6 +356,78 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
     return m_matchAnyFilter;
   }
 
+  /**
+   * Set whether the key range should be split between the copies of this step.
+   *
+   * @param split true if each copy of the step should scan its own part of the key range.
+   */
+  public void setSplitKeyRangeAcrossCopies( boolean split ) {
+    m_splitKeyRangeAcrossCopies = split;
+  }
+
+  /**
+   * Get whether the key range should be split between the copies of this step.
+   *
+   * @return true if each copy of the step should scan its own part of the key range.
+   */
+  public boolean getSplitKeyRangeAcrossCopies() {
+    return m_splitKeyRangeAcrossCopies;
+  }
+
+  /**
+   * Set whether the scanner should be read on a background thread.
+   *
+   * @param prefetch true if results should be read ahead while the step converts the ones it already has.
+   */
+  public void setPrefetchScan( boolean prefetch ) {
+    m_prefetchScan = prefetch;
+  }
+
+  /**
+   * Get whether the scanner should be read on a background thread.
+   *
+   * @return true if results should be read ahead while the step converts the ones it already has.
+   */
+  public boolean getPrefetchScan() {
+    return m_prefetchScan;
+  }
+
+  /**
+   * Set the number of results that may be read ahead when prefetching.
+   *
+   * @param depth the number of results
+   */
+  public void setPrefetchQueueDepth( String depth ) {
+    m_prefetchQueueDepth = depth;
+  }
+
+  /**
+   * Get the number of results that may be read ahead when prefetching.
+   *
+   * @return the number of results
+   */
+  public String getPrefetchQueueDepth() {
+    return m_prefetchQueueDepth;
+  }
+
+  /**
+   * Set the number of buckets the row keys of the table are salted into.
+   *
+   * @param buckets the number of buckets, empty, 0 or 1 if keys are not salted
+   */
+  public void setSaltBuckets( String buckets ) {
+    m_saltBuckets = buckets;
+  }
+
+  /**
+   * Get the number of buckets the row keys of the table are salted into.
+   *
+   * @return the number of buckets
+   */
+  public String getSaltBuckets() {
+    return m_saltBuckets;
+  }
+
   /**
    * Set the starting value (inclusive) of the key for range scans
    *
@@ -432,6 +530,10 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
     m_sourceMappingName = null;
     m_keyStart = null;
     m_keyStop = null;
+    m_splitKeyRangeAcrossCopies = false;
+    m_prefetchScan = false;
+    m_prefetchQueueDepth = null;
+    m_saltBuckets = null;
     namedCluster = namedClusterService.getClusterTemplate();
   }
 
@@ -630,6 +732,15 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
     }
 
     retval.append( "\n    " ).append( XMLHandler.addTagValue( "match_any_filter", m_matchAnyFilter ) );
+    retval.append( "\n    " ).append( XMLHandler.addTagValue( "split_key_range_across_copies",
+      m_splitKeyRangeAcrossCopies ) );
+    retval.append( "\n    " ).append( XMLHandler.addTagValue( "prefetch_scan", m_prefetchScan ) );
+    if ( !Const.isEmpty( m_prefetchQueueDepth ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( "prefetch_queue_depth", m_prefetchQueueDepth ) );
+    }
+    if ( !Const.isEmpty( m_saltBuckets ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( "salt_buckets", m_saltBuckets ) );
+    }
 
     if ( m_mapping != null ) {
       retval.append( m_mapping.getXML() );
@@ -668,6 +779,11 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
     if ( !Const.isEmpty( m ) ) {
       m_matchAnyFilter = m.equalsIgnoreCase( "Y" );
     }
+    m_splitKeyRangeAcrossCopies =
+      "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "split_key_range_across_copies" ) );
+    m_prefetchScan = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "prefetch_scan" ) );
+    m_prefetchQueueDepth = XMLHandler.getTagValue( stepnode, "prefetch_queue_depth" );
+    m_saltBuckets = XMLHandler.getTagValue( stepnode, "salt_buckets" );
 
     if ( hBaseService != null ) {
       HBaseValueMetaInterfaceFactory valueMetaInterfaceFactory = hBaseService.getHBaseValueMetaInterfaceFactory();
@@ -784,6 +900,15 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
     }
 
     rep.saveStepAttribute( id_transformation, id_step, 0, "match_any_filter", m_matchAnyFilter );
+    rep.saveStepAttribute( id_transformation, id_step, 0, "split_key_range_across_copies",
+      m_splitKeyRangeAcrossCopies );
+    rep.saveStepAttribute( id_transformation, id_step, 0, "prefetch_scan", m_prefetchScan );
+    if ( !Const.isEmpty( m_prefetchQueueDepth ) ) {
+      rep.saveStepAttribute( id_transformation, id_step, 0, "prefetch_queue_depth", m_prefetchQueueDepth );
+    }
+    if ( !Const.isEmpty( m_saltBuckets ) ) {
+      rep.saveStepAttribute( id_transformation, id_step, 0, "salt_buckets", m_saltBuckets );
+    }
 
     if ( m_mapping != null ) {
       m_mapping.saveRep( rep, id_transformation, id_step );
@@ -814,6 +939,10 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
     m_keyStart = rep.getStepAttributeString( id_step, 0, "key_start" );
     m_keyStop = rep.getStepAttributeString( id_step, 0, "key_stop" );
     m_matchAnyFilter = rep.getStepAttributeBoolean( id_step, 0, "match_any_filter" );
+    m_splitKeyRangeAcrossCopies = rep.getStepAttributeBoolean( id_step, 0, "split_key_range_across_copies" );
+    m_prefetchScan = rep.getStepAttributeBoolean( id_step, 0, "prefetch_scan" );
+    m_prefetchQueueDepth = rep.getStepAttributeString( id_step, 0, "prefetch_queue_depth" );
+    m_saltBuckets = rep.getStepAttributeString( id_step, 0, "salt_buckets" );
     m_scannerCacheSize = rep.getStepAttributeString( id_step, 0, "scanner_cache_size" );
 
     if ( hBaseService != null ) {
@@ -917,7 +1046,7 @@ public class HBaseInputMeta extends BaseStepMeta implements StepMetaInterface {
             logBasic( m );
           }
 
-          mappingAdmin = new MappingAdmin( conf );
+          mappingAdmin = new MappingAdmin( conf, MappingCache.connectionKey( hBaseService, coreConf, defaultConf ) );
 
           m_cachedMapping = mappingAdmin.getMapping( space.environmentSubstitute( m_sourceTableName ),
             space.environmentSubstitute( m_sourceMappingName ) );
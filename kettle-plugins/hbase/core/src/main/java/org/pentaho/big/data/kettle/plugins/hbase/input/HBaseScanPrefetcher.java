@@ -0,0 +1,158 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.input;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads ahead of HBase Input on a background thread, so that the scanner's next round trip is in flight while the step
+ * thread is decoding the results it already has. Results are handed over through a bounded queue; the reading thread
+ * blocks once the queue is full.
+ * <p>
+ * A failure of the scanner is rethrown to the step thread once it has consumed everything read before the failure.
+ * {@link #close()} stops the reading thread and wakes up a step thread waiting for results.
+ *
+ * @param <T> the type of the results
+ */
+class HBaseScanPrefetcher<T> implements Closeable {
+
+  public static final int DEFAULT_QUEUE_DEPTH = 1000;
+
+  /** How long close waits for the reading thread to finish */
+  static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+  private static final Object END_OF_RESULTS = new Object();
+
+  /**
+   * Where the results come from, typically the scanner's next method.
+   */
+  @FunctionalInterface
+  interface Source<T> {
+    /**
+     * @return the next result or null if there are no more
+     */
+    T next() throws Exception;
+  }
+
+  private final Source<T> source;
+  private final BlockingQueue<Object> queue;
+  private final Thread reader;
+  private volatile boolean closed;
+  private volatile Exception failure;
+  private boolean finished;
+  private long resultsRead;
+  private long waitNanos;
+
+  /**
+   * Create the prefetcher and start reading.
+   *
+   * @param source     the results to read
+   * @param queueDepth the number of results that may be read ahead
+   * @param threadName the name of the reading thread
+   */
+  HBaseScanPrefetcher( Source<T> source, int queueDepth, String threadName ) {
+    this.source = source;
+    this.queue = new ArrayBlockingQueue<>( Math.max( 1, queueDepth ) );
+    this.reader = new Thread( this::read, threadName );
+    reader.setDaemon( true );
+    reader.start();
+  }
+
+  private void read() {
+    try {
+      T result;
+      while ( !closed && ( result = source.next() ) != null ) {
+        queue.put( result );
+      }
+    } catch ( InterruptedException e ) {
+      // closed while waiting for room in the queue
+      return;
+    } catch ( Exception e ) {
+      if ( !closed ) {
+        failure = e;
+      }
+    }
+    try {
+      queue.put( END_OF_RESULTS );
+    } catch ( InterruptedException e ) {
+      // closed while waiting for room in the queue
+    }
+  }
+
+  /**
+   * Get the next result, waiting for the reading thread if it has not been read yet.
+   *
+   * @return the next result or null if there are no more or the prefetcher has been closed
+   * @throws Exception the failure of the scanner, once all results read before it have been returned
+   */
+  @SuppressWarnings( "unchecked" )
+  T next() throws Exception {
+    if ( finished ) {
+      return null;
+    }
+    Object next = queue.poll();
+    if ( next == null ) {
+      long start = System.nanoTime();
+      while ( next == null && !closed ) {
+        next = queue.poll( 100, TimeUnit.MILLISECONDS );
+      }
+      waitNanos += System.nanoTime() - start;
+    }
+    if ( next == null || next == END_OF_RESULTS || closed ) {
+      finished = true;
+      if ( failure != null && !closed ) {
+        throw failure;
+      }
+      return null;
+    }
+    resultsRead++;
+    return (T) next;
+  }
+
+  /**
+   * @return the number of results returned by {@link #next()}
+   */
+  long getResultsRead() {
+    return resultsRead;
+  }
+
+  /**
+   * @return how long {@link #next()} has waited for the reading thread in total, in milliseconds
+   */
+  long getWaitMillis() {
+    return TimeUnit.NANOSECONDS.toMillis( waitNanos );
+  }
+
+  /**
+   * Stop reading ahead and drop whatever has been read. Does not close the source.
+   */
+  @Override
+  public void close() {
+    if ( closed ) {
+      return;
+    }
+    closed = true;
+    reader.interrupt();
+    queue.clear();
+    try {
+      reader.join( CLOSE_TIMEOUT_MILLIS );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+    queue.clear();
+  }
+}
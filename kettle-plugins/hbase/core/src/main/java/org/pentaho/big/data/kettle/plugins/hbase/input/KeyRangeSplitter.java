@@ -0,0 +1,121 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.input;
+
+import java.math.BigInteger;
+
+/**
+ * Splits a row key range into contiguous, non-overlapping sub-ranges so that several copies of a step can each scan
+ * their own part of a table. Boundaries are interpolated evenly over the encoded key space between the lower and upper
+ * bound, so a table that was pre-split with uniform split points gets roughly one sub-range per region group.
+ * <p>
+ * Empty (or null) bounds mean "unbounded", as they do for an HBase scan. An unbounded range is split evenly over every
+ * possible byte value, so keys that only use a few of them, such as text, end up in one or two sub-ranges.
+ */
+public class KeyRangeSplitter {
+
+  private static final byte[] UNBOUNDED = new byte[ 0 ];
+
+  private KeyRangeSplitter() {
+  }
+
+  /**
+   * Compute the boundaries of the sub-ranges. The first boundary is always the lower bound and the last one is always
+   * the upper bound, so sub-range i is [boundaries[i], boundaries[i + 1]).
+   *
+   * @param lower the inclusive lower bound of the key range, or null/empty for the start of the table
+   * @param upper the exclusive upper bound of the key range, or null/empty for the end of the table
+   * @param parts the number of sub-ranges
+   * @return parts + 1 boundaries
+   */
+  public static byte[][] split( byte[] lower, byte[] upper, int parts ) {
+    if ( parts < 1 ) {
+      throw new IllegalArgumentException( "The number of parts must be positive: " + parts );
+    }
+    lower = lower == null ? UNBOUNDED : lower;
+    upper = upper == null ? UNBOUNDED : upper;
+
+    byte[][] boundaries = new byte[ parts + 1 ][];
+    boundaries[ 0 ] = lower;
+    boundaries[ parts ] = upper;
+
+    // one extra byte of precision so that short or equal-length bounds still leave room for split points
+    int length = Math.max( lower.length, upper.length ) + 1;
+    BigInteger start = new BigInteger( 1, pad( lower, length ) );
+    BigInteger end = upper.length == 0 ? BigInteger.ONE.shiftLeft( 8 * length ) : new BigInteger( 1, pad( upper,
+      length ) );
+    BigInteger width = end.subtract( start );
+
+    for ( int i = 1; i < parts; i++ ) {
+      if ( width.signum() <= 0 ) {
+        boundaries[ i ] = upper;
+      } else {
+        BigInteger point = start.add( width.multiply( BigInteger.valueOf( i ) ).divide( BigInteger.valueOf( parts ) ) );
+        boundaries[ i ] = toBytes( point, length );
+      }
+    }
+    return boundaries;
+  }
+
+  /**
+   * Get one sub-range of the key range.
+   *
+   * @param lower the inclusive lower bound of the key range, or null/empty for the start of the table
+   * @param upper the exclusive upper bound of the key range, or null/empty for the end of the table
+   * @param part  the zero-based index of the sub-range
+   * @param parts the number of sub-ranges
+   * @return the {start, stop} keys of the sub-range (empty meaning unbounded), or null if the sub-range can not contain
+   * any rows
+   */
+  public static byte[][] getRange( byte[] lower, byte[] upper, int part, int parts ) {
+    if ( part < 0 || part >= parts ) {
+      throw new IllegalArgumentException( "Part " + part + " is not in the range [0, " + parts + ")" );
+    }
+    byte[][] boundaries = split( lower, upper, parts );
+    byte[] start = boundaries[ part ];
+    byte[] stop = boundaries[ part + 1 ];
+    if ( stop.length > 0 && compare( start, stop ) >= 0 ) {
+      return null;
+    }
+    return new byte[][] { start, stop };
+  }
+
+  /**
+   * Compare two row keys the way HBase does, as unsigned bytes in lexicographical order.
+   */
+  static int compare( byte[] left, byte[] right ) {
+    int length = Math.min( left.length, right.length );
+    for ( int i = 0; i < length; i++ ) {
+      int diff = ( left[ i ] & 0xff ) - ( right[ i ] & 0xff );
+      if ( diff != 0 ) {
+        return diff;
+      }
+    }
+    return left.length - right.length;
+  }
+
+  private static byte[] pad( byte[] key, int length ) {
+    byte[] padded = new byte[ length ];
+    System.arraycopy( key, 0, padded, 0, key.length );
+    return padded;
+  }
+
+  private static byte[] toBytes( BigInteger value, int length ) {
+    byte[] raw = value.toByteArray();
+    byte[] result = new byte[ length ];
+    int copy = Math.min( raw.length, length );
+    System.arraycopy( raw, raw.length - copy, result, length - copy, copy );
+    return result;
+  }
+}
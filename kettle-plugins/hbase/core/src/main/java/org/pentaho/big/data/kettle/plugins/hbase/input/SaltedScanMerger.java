@@ -0,0 +1,160 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.input;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Reads a table whose row keys are salted (see {@link org.pentaho.big.data.kettle.plugins.hbase.mapping.KeySalter})
+ * with one scan per salt bucket. Every bucket is read on its own background thread by a {@link HBaseScanPrefetcher},
+ * so all the buckets are queried in parallel, and the results are merged back into the order of the unsalted keys.
+ * Each bucket is sorted by key already, so the merge only has to compare the current result of every bucket. The
+ * results read ahead are shared out over the buckets, so salting into more buckets does not hold more of them.
+ *
+ * @param <T> the type of the results
+ */
+class SaltedScanMerger<T> implements HBaseScanPrefetcher.Source<T>, Closeable {
+
+  /**
+   * Gets the salted row key of a result.
+   */
+  @FunctionalInterface
+  interface KeyExtractor<T> {
+    byte[] getKey( T result ) throws Exception;
+  }
+
+  private static class Head<T> {
+    private final int bucket;
+    private final T result;
+    private final byte[] key;
+
+    Head( int bucket, T result, byte[] key ) {
+      this.bucket = bucket;
+      this.result = result;
+      this.key = key;
+    }
+  }
+
+  private final List<HBaseScanPrefetcher<T>> buckets;
+  private final KeyExtractor<T> keyExtractor;
+  private final PriorityQueue<Head<T>> heads;
+  private final int bucketQueueDepth;
+  private boolean started;
+
+  /**
+   * Create the merger and start reading all the buckets.
+   *
+   * @param sources      the scan of every bucket, each in key order
+   * @param keyExtractor gets the salted row key of a result
+   * @param queueDepth   the number of results that may be read ahead over all the buckets, at least one per bucket
+   * @param threadName   the name of the reading threads, followed by the bucket
+   */
+  SaltedScanMerger( List<HBaseScanPrefetcher.Source<T>> sources, KeyExtractor<T> keyExtractor, int queueDepth,
+                    String threadName ) {
+    this.keyExtractor = keyExtractor;
+    this.heads = new PriorityQueue<>( Math.max( 1, sources.size() ), ( left, right ) -> {
+      int diff = compareUnsalted( left.key, right.key );
+      return diff != 0 ? diff : left.bucket - right.bucket;
+    } );
+    this.bucketQueueDepth = Math.max( 1, queueDepth / Math.max( 1, sources.size() ) );
+    this.buckets = new ArrayList<>( sources.size() );
+    for ( int i = 0; i < sources.size(); i++ ) {
+      buckets.add( new HBaseScanPrefetcher<>( sources.get( i ), bucketQueueDepth, threadName + " " + i ) );
+    }
+  }
+
+  /**
+   * @return the result with the lowest unsalted key over all the buckets, or null if all of them are exhausted
+   * @throws Exception if the scan of a bucket failed
+   */
+  @Override
+  public T next() throws Exception {
+    if ( !started ) {
+      started = true;
+      for ( int i = 0; i < buckets.size(); i++ ) {
+        advance( i );
+      }
+    }
+    Head<T> head = heads.poll();
+    if ( head == null ) {
+      return null;
+    }
+    advance( head.bucket );
+    return head.result;
+  }
+
+  private void advance( int bucket ) throws Exception {
+    T result = buckets.get( bucket ).next();
+    if ( result != null ) {
+      heads.add( new Head<>( bucket, result, keyExtractor.getKey( result ) ) );
+    }
+  }
+
+  /**
+   * @return the number of results that may be read ahead in every bucket
+   */
+  int getBucketQueueDepth() {
+    return bucketQueueDepth;
+  }
+
+  /**
+   * @return the number of results read from all the buckets so far
+   */
+  long getResultsRead() {
+    long read = 0;
+    for ( HBaseScanPrefetcher<T> bucket : buckets ) {
+      read += bucket.getResultsRead();
+    }
+    return read;
+  }
+
+  /**
+   * @return how long the step thread waited for results, summed over the buckets
+   */
+  long getWaitMillis() {
+    long wait = 0;
+    for ( HBaseScanPrefetcher<T> bucket : buckets ) {
+      wait += bucket.getWaitMillis();
+    }
+    return wait;
+  }
+
+  /**
+   * Stop reading all the buckets.
+   */
+  @Override
+  public void close() {
+    for ( HBaseScanPrefetcher<T> bucket : buckets ) {
+      bucket.close();
+    }
+    heads.clear();
+  }
+
+  /**
+   * Compare two salted row keys by the keys without their salt byte, as unsigned bytes in lexicographical order.
+   */
+  static int compareUnsalted( byte[] left, byte[] right ) {
+    int length = Math.min( left.length, right.length );
+    for ( int i = 1; i < length; i++ ) {
+      int diff = ( left[ i ] & 0xff ) - ( right[ i ] & 0xff );
+      if ( diff != 0 ) {
+        return diff;
+      }
+    }
+    return left.length - right.length;
+  }
+}
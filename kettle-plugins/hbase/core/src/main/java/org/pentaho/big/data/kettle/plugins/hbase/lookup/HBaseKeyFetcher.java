@@ -0,0 +1,194 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.lookup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.pentaho.hadoop.shim.api.hbase.Result;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTable;
+import org.pentaho.hadoop.shim.api.hbase.table.ResultScanner;
+import org.pentaho.hadoop.shim.api.hbase.table.ResultScannerBuilder;
+
+/**
+ * Reads a batch of rows by key for the HBase Lookup step. The HBase shim has no multi-get, so every key is read with a
+ * single row scan, the same way {@link org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingAdmin} reads a
+ * mapping. The keys of a batch are sorted and split into contiguous parts, one per table handle, and the parts are
+ * read in parallel so that the round trips of a batch overlap.
+ */
+class HBaseKeyFetcher {
+
+  public static final int DEFAULT_THREADS = 4;
+
+  /**
+   * A column to read.
+   */
+  static class Column {
+    private final String family;
+    private final String qualifier;
+    private final boolean binaryQualifier;
+
+    Column( String family, String qualifier, boolean binaryQualifier ) {
+      this.family = family;
+      this.qualifier = qualifier;
+      this.binaryQualifier = binaryQualifier;
+    }
+
+    String getFamily() {
+      return family;
+    }
+
+    String getQualifier() {
+      return qualifier;
+    }
+
+    boolean isBinaryQualifier() {
+      return binaryQualifier;
+    }
+  }
+
+  private final List<HBaseTable> tables;
+  private final List<Column> columns;
+  private final ExecutorService executor;
+  private final AtomicLong reads = new AtomicLong();
+
+  /**
+   * @param tables  a table handle per thread, reads are spread over all of them
+   * @param columns the columns to read
+   */
+  HBaseKeyFetcher( List<HBaseTable> tables, List<Column> columns ) {
+    this.tables = tables;
+    this.columns = columns;
+    this.executor = tables.size() > 1 ? Executors.newFixedThreadPool( tables.size(), runnable -> {
+      Thread thread = new Thread( runnable, "HBase lookup" );
+      thread.setDaemon( true );
+      return thread;
+    } ) : null;
+  }
+
+  /**
+   * Read rows by key.
+   *
+   * @param keys the encoded row keys, without duplicates
+   * @return the rows that exist, by key
+   * @throws Exception if a read fails
+   */
+  Map<ByteBuffer, Result> fetch( Collection<byte[]> keys ) throws Exception {
+    Map<ByteBuffer, Result> results = new HashMap<>();
+    if ( keys.isEmpty() ) {
+      return results;
+    }
+    byte[][] sorted = keys.toArray( new byte[ keys.size() ][] );
+    Arrays.sort( sorted, HBaseKeyFetcher::compare );
+
+    int parts = Math.min( tables.size(), sorted.length );
+    if ( executor == null || parts == 1 ) {
+      read( tables.get( 0 ), sorted, 0, sorted.length, results );
+      return results;
+    }
+
+    List<Future<Map<ByteBuffer, Result>>> futures = new ArrayList<>( parts );
+    for ( int i = 0; i < parts; i++ ) {
+      HBaseTable table = tables.get( i );
+      int from = (int) ( (long) sorted.length * i / parts );
+      int to = (int) ( (long) sorted.length * ( i + 1 ) / parts );
+      futures.add( executor.submit( () -> {
+        Map<ByteBuffer, Result> part = new HashMap<>();
+        read( table, sorted, from, to, part );
+        return part;
+      } ) );
+    }
+    Exception failure = null;
+    for ( Future<Map<ByteBuffer, Result>> future : futures ) {
+      try {
+        results.putAll( future.get() );
+      } catch ( ExecutionException e ) {
+        if ( failure == null ) {
+          failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+      }
+    }
+    if ( failure != null ) {
+      throw failure;
+    }
+    return results;
+  }
+
+  private void read( HBaseTable table, byte[][] keys, int from, int to, Map<ByteBuffer, Result> results )
+    throws Exception {
+    for ( int i = from; i < to; i++ ) {
+      byte[] key = keys[ i ];
+      ResultScannerBuilder scannerBuilder = table.createScannerBuilder( key, key );
+      scannerBuilder.setCaching( 1 );
+      for ( Column column : columns ) {
+        scannerBuilder.addColumnToScan( column.getFamily(), column.getQualifier(), column.isBinaryQualifier() );
+      }
+      try ( ResultScanner resultScanner = scannerBuilder.build() ) {
+        Result result = resultScanner.next();
+        if ( result != null && Arrays.equals( key, result.getRow() ) ) {
+          results.put( ByteBuffer.wrap( key ), result );
+        }
+      }
+      reads.incrementAndGet();
+    }
+  }
+
+  /**
+   * @return the number of rows read from HBase so far
+   */
+  long getReads() {
+    return reads.get();
+  }
+
+  /**
+   * Stop the threads and close the table handles.
+   */
+  void close() {
+    if ( executor != null ) {
+      executor.shutdownNow();
+    }
+    for ( HBaseTable table : tables ) {
+      try {
+        table.close();
+      } catch ( IOException e ) {
+        // Ignore
+      }
+    }
+  }
+
+  /**
+   * Compare two row keys the way HBase does, as unsigned bytes in lexicographical order.
+   */
+  static int compare( byte[] left, byte[] right ) {
+    int length = Math.min( left.length, right.length );
+    for ( int i = 0; i < length; i++ ) {
+      int diff = ( left[ i ] & 0xff ) - ( right[ i ] & 0xff );
+      if ( diff != 0 ) {
+        return diff;
+      }
+    }
+    return left.length - right.length;
+  }
+}
@@ -0,0 +1,342 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.lookup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.KeySalter;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowDataUtil;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.BaseStep;
+import org.pentaho.di.trans.step.StepDataInterface;
+import org.pentaho.di.trans.step.StepInterface;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
+import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
+import org.pentaho.hadoop.shim.api.hbase.HBaseConnection;
+import org.pentaho.hadoop.shim.api.hbase.HBaseService;
+import org.pentaho.hadoop.shim.api.hbase.Result;
+import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
+import org.pentaho.hadoop.shim.api.hbase.meta.HBaseValueMetaInterface;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTable;
+
+/**
+ * Step that enriches incoming rows with the columns of an HBase table, read by the value of an incoming key field and
+ * decoded according to a mapping. Rows are collected into batches; the distinct keys of a batch that are not in the
+ * cache are read together and the rows are passed on in the order they arrived. Rows whose key does not exist get
+ * null values.
+ */
+public class HBaseLookup extends BaseStep implements StepInterface {
+
+  private static final Class<?> PKG = HBaseLookupMeta.PKG;
+
+  private final NamedClusterServiceLocator namedClusterServiceLocator;
+
+  protected HBaseLookupMeta m_meta;
+  protected HBaseLookupData m_data;
+
+  /** Connection to HBase */
+  protected HBaseConnection m_hbAdmin;
+
+  /** Byte utilities */
+  protected ByteConversionUtil m_bytesUtil;
+
+  /** The mapping of the table to look up in */
+  protected Mapping m_tableMapping;
+
+  /** The columns of the mapping, in output order */
+  protected HBaseValueMetaInterface[] m_columns;
+
+  /** Family and qualifier of each column, in output order */
+  protected HBaseKeyFetcher.Column[] m_fetchColumns;
+
+  /** Index of the incoming key value */
+  protected int m_keyInIndex = -1;
+
+  /** The value meta of the incoming key value */
+  protected ValueMetaInterface m_keyInMeta;
+
+  /** The number of buckets the row keys are salted into, 0 or 1 if they are not salted */
+  protected int m_saltBuckets;
+
+  private HBaseKeyFetcher keyFetcher;
+  private HBaseLookupCache cache;
+  private int batchSize;
+  private final List<Object[]> batch = new ArrayList<>();
+  private long batches;
+  private long rowsLookedUp;
+
+  public HBaseLookup( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
+                      Trans trans, NamedClusterServiceLocator namedClusterServiceLocator ) {
+    super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
+    this.namedClusterServiceLocator = namedClusterServiceLocator;
+  }
+
+  @Override
+  public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
+
+    Object[] r = getRow();
+
+    if ( r == null ) {
+      if ( !first ) {
+        lookupBatch();
+        logBasic( BaseMessages.getString( PKG, "HBaseLookup.Message.LookupStats", rowsLookedUp, batches,
+          keyFetcher.getReads() ) );
+        if ( cache != null ) {
+          logBasic( BaseMessages.getString( PKG, "HBaseLookup.Message.CacheStats", cache.getHits(),
+            cache.getNegativeHits(), cache.getMisses(), String.format( "%.1f", cache.getHitRate() ) ) );
+        }
+        closeConnection();
+      }
+      setOutputDone();
+      return false;
+    }
+
+    if ( first ) {
+      first = false;
+      m_meta = (HBaseLookupMeta) smi;
+      m_data = (HBaseLookupData) sdi;
+      initLookup();
+    }
+
+    batch.add( r );
+    if ( batch.size() >= batchSize ) {
+      lookupBatch();
+    }
+
+    if ( checkFeedback( getLinesRead() ) ) {
+      logBasic( "Linenr " + getLinesRead() );
+    }
+
+    return true;
+  }
+
+  private void initLookup() throws KettleException {
+    m_tableMapping = m_meta.getMapping();
+    if ( m_tableMapping == null || StringUtils.isEmpty( m_tableMapping.getTableName() ) ) {
+      throw new KettleException( BaseMessages.getString( PKG, "HBaseLookup.Error.NoMappingInfo" ) );
+    }
+    if ( m_tableMapping.isTupleMapping() ) {
+      throw new KettleException( BaseMessages.getString( PKG, "HBaseLookup.Error.TupleMappingNotSupported" ) );
+    }
+
+    String inKey = environmentSubstitute( m_meta.getIncomingKeyField() );
+    m_keyInIndex = getInputRowMeta().indexOfValue( inKey );
+    if ( m_keyInIndex < 0 ) {
+      throw new KettleException( BaseMessages.getString( PKG, "HBaseLookup.Error.UnableToFindKeyField", inKey ) );
+    }
+    m_keyInMeta = getInputRowMeta().getValueMeta( m_keyInIndex );
+
+    m_saltBuckets = Const.toInt( environmentSubstitute( m_meta.getSaltBuckets() ), 0 );
+    try {
+      KeySalter.checkBuckets( m_saltBuckets );
+    } catch ( IllegalArgumentException ex ) {
+      throw new KettleException( ex.getMessage(), ex );
+    }
+
+    List<HBaseValueMetaInterface> columns = new ArrayList<>();
+    List<HBaseKeyFetcher.Column> fetchColumns = new ArrayList<>();
+    for ( HBaseValueMetaInterface column : m_tableMapping.getMappedColumns().values() ) {
+      if ( column.isKey() ) {
+        continue;
+      }
+      columns.add( column );
+      String qualifier = column.getColumnName();
+      // assume hex encoded column name
+      boolean binaryQualifier = qualifier.startsWith( "@@@binary@@@" );
+      fetchColumns.add( new HBaseKeyFetcher.Column( column.getColumnFamily(),
+        binaryQualifier ? qualifier.replace( "@@@binary@@@", "" ) : qualifier, binaryQualifier ) );
+    }
+    m_columns = columns.toArray( new HBaseValueMetaInterface[ 0 ] );
+    m_fetchColumns = fetchColumns.toArray( new HBaseKeyFetcher.Column[ 0 ] );
+
+    m_data.setOutputRowMeta( getInputRowMeta().clone() );
+    m_meta.getFields( getTransMeta().getBowl(), m_data.getOutputRowMeta(), getStepname(), null, null, this );
+
+    batchSize = Math.max( 1, Const.toInt( environmentSubstitute( m_meta.getBatchSize() ),
+      HBaseLookupMeta.DEFAULT_BATCH_SIZE ) );
+    int threads = Math.max( 1, Const.toInt( environmentSubstitute( m_meta.getLookupThreads() ),
+      HBaseKeyFetcher.DEFAULT_THREADS ) );
+    int cacheSize = Const.toInt( environmentSubstitute( m_meta.getCacheSize() ), 0 );
+    if ( cacheSize > 0 ) {
+      cache = new HBaseLookupCache( cacheSize, m_meta.getCacheMissingKeys() );
+    }
+
+    String tableName = m_tableMapping.getTableName();
+    List<HBaseTable> tables = new ArrayList<>( threads );
+    try {
+      HBaseService hBaseService =
+        namedClusterServiceLocator.getService( m_meta.getNamedCluster(), HBaseService.class );
+      m_hbAdmin = hBaseService.getHBaseConnection( this, null, null, log );
+      m_bytesUtil = hBaseService.getByteConversionUtil();
+
+      HBaseTable table = m_hbAdmin.getTable( tableName );
+      tables.add( table );
+      if ( !table.exists() ) {
+        throw new KettleException( BaseMessages.getString( PKG, "HBaseLookup.Error.TableDoesNotExist", tableName ) );
+      }
+      // a table handle per thread, the connection itself is shared
+      for ( int i = 1; i < threads; i++ ) {
+        tables.add( m_hbAdmin.getTable( tableName ) );
+      }
+    } catch ( Exception ex ) {
+      for ( HBaseTable table : tables ) {
+        try {
+          table.close();
+        } catch ( IOException e ) {
+          // Ignore
+        }
+      }
+      throw ex instanceof KettleException ? (KettleException) ex : new KettleException( BaseMessages.getString( PKG,
+        "HBaseLookup.Error.UnableToConnect", ex.getMessage() ), ex );
+    }
+    keyFetcher = new HBaseKeyFetcher( tables, fetchColumns );
+
+    logBasic( BaseMessages.getString( PKG, "HBaseLookup.Message.LookingUp", tableName, batchSize, threads ) );
+  }
+
+  /**
+   * Look up the keys of the current batch and pass its rows on.
+   */
+  private void lookupBatch() throws KettleException {
+    if ( batch.isEmpty() ) {
+      return;
+    }
+
+    // encode the keys, and collect the distinct ones that have to be read
+    ByteBuffer[] keys = new ByteBuffer[ batch.size() ];
+    Object[][] values = new Object[ batch.size() ][];
+    Map<ByteBuffer, byte[]> toRead = new LinkedHashMap<>();
+    for ( int i = 0; i < batch.size(); i++ ) {
+      Object keyValue = batch.get( i )[ m_keyInIndex ];
+      if ( m_keyInMeta.isNull( keyValue ) ) {
+        continue;
+      }
+      byte[] encodedKey;
+      try {
+        // the same salt as HBase Output, so the key is looked up where it was written
+        encodedKey = KeySalter.salt( m_bytesUtil.encodeKeyValue( keyValue, m_keyInMeta, m_tableMapping.getKeyType() ),
+          m_saltBuckets );
+      } catch ( Exception ex ) {
+        throw new KettleException( BaseMessages.getString( PKG, "HBaseLookup.Error.UnableToEncodeKey",
+          m_keyInMeta.getString( keyValue ) ), ex );
+      }
+      keys[ i ] = ByteBuffer.wrap( encodedKey );
+      if ( cache != null ) {
+        values[ i ] = cache.get( keys[ i ] );
+      }
+      if ( values[ i ] == null ) {
+        toRead.put( keys[ i ], encodedKey );
+      }
+    }
+
+    Map<ByteBuffer, Object[]> read = new LinkedHashMap<>();
+    if ( !toRead.isEmpty() ) {
+      Map<ByteBuffer, Result> results;
+      try {
+        results = keyFetcher.fetch( toRead.values() );
+      } catch ( Exception ex ) {
+        throw new KettleException( BaseMessages.getString( PKG, "HBaseLookup.Error.ProblemReadingRows",
+          ex.getMessage() ), ex );
+      }
+      for ( ByteBuffer key : toRead.keySet() ) {
+        Result result = results.get( key );
+        Object[] decoded = result == null ? null : decodeColumns( result );
+        read.put( key, decoded );
+        if ( cache != null ) {
+          cache.put( key, decoded );
+        }
+      }
+    }
+
+    // pass the rows on in the order they arrived
+    int inputSize = getInputRowMeta().size();
+    for ( int i = 0; i < batch.size(); i++ ) {
+      Object[] columnValues = values[ i ];
+      if ( columnValues == null && keys[ i ] != null ) {
+        columnValues = read.get( keys[ i ] );
+      }
+      Object[] outputRow = RowDataUtil.resizeArray( batch.get( i ), m_data.getOutputRowMeta().size() );
+      if ( columnValues != null && columnValues != HBaseLookupCache.NOT_FOUND ) {
+        System.arraycopy( columnValues, 0, outputRow, inputSize, columnValues.length );
+      }
+      putRow( m_data.getOutputRowMeta(), outputRow );
+    }
+    rowsLookedUp += batch.size();
+    batches++;
+    batch.clear();
+  }
+
+  private Object[] decodeColumns( Result result ) throws KettleException {
+    Object[] decoded = new Object[ m_columns.length ];
+    for ( int i = 0; i < m_columns.length; i++ ) {
+      byte[] kv;
+      try {
+        HBaseKeyFetcher.Column column = m_fetchColumns[ i ];
+        kv = result.getValue( column.getFamily(), column.getQualifier(), column.isBinaryQualifier() );
+      } catch ( Exception ex ) {
+        throw new KettleException( BaseMessages.getString( PKG, "HBaseLookup.Error.UnableToGetColumnValue" ), ex );
+      }
+      decoded[ i ] = m_columns[ i ].decodeColumnValue( kv );
+    }
+    return decoded;
+  }
+
+  private void closeConnection() {
+    if ( keyFetcher != null ) {
+      keyFetcher.close();
+      keyFetcher = null;
+    }
+    if ( m_hbAdmin != null ) {
+      try {
+        m_hbAdmin.close();
+      } catch ( Exception ex ) {
+        logError( BaseMessages.getString( PKG, "HBaseLookup.Error.ProblemClosingConnection", ex.getMessage() ), ex );
+      }
+      m_hbAdmin = null;
+    }
+  }
+
+  @Override
+  public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
+    if ( super.init( smi, sdi ) ) {
+      HBaseLookupMeta meta = (HBaseLookupMeta) smi;
+      try {
+        meta.applyInjection();
+        return true;
+      } catch ( KettleException e ) {
+        logError( "Error while injecting properties", e );
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    closeConnection();
+    super.dispose( smi, sdi );
+  }
+}
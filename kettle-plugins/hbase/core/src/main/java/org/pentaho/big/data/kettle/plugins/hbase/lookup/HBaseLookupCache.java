@@ -0,0 +1,106 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.lookup;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of decoded lookup results keyed by encoded row key. Keys that were looked up and not found
+ * can be remembered as well (negative caching), so that a stream with many unmatched keys does not go to HBase for
+ * each of them again. Only used by the step thread.
+ */
+class HBaseLookupCache {
+
+  /** Returned by {@link #get(ByteBuffer)} for a key that is known not to exist */
+  static final Object[] NOT_FOUND = new Object[ 0 ];
+
+  private final boolean cacheMissingKeys;
+  private final LinkedHashMap<ByteBuffer, Object[]> entries;
+  private long hits;
+  private long negativeHits;
+  private long misses;
+
+  /**
+   * @param maxEntries       the number of keys to keep, found or not
+   * @param cacheMissingKeys true to remember keys that were not found
+   */
+  HBaseLookupCache( final int maxEntries, boolean cacheMissingKeys ) {
+    this.cacheMissingKeys = cacheMissingKeys;
+    // access ordered, so the eldest entry is the least recently used one
+    this.entries = new LinkedHashMap<ByteBuffer, Object[]>( 16, 0.75f, true ) {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<ByteBuffer, Object[]> eldest ) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Look a key up.
+   *
+   * @param key the encoded row key
+   * @return the decoded values, {@link #NOT_FOUND} if the key is known not to exist or null if the key is not cached
+   */
+  Object[] get( ByteBuffer key ) {
+    Object[] values = entries.get( key );
+    if ( values == null ) {
+      misses++;
+    } else if ( values == NOT_FOUND ) {
+      negativeHits++;
+    } else {
+      hits++;
+    }
+    return values;
+  }
+
+  /**
+   * Remember the result of looking a key up.
+   *
+   * @param key    the encoded row key
+   * @param values the decoded values, null if the key does not exist
+   */
+  void put( ByteBuffer key, Object[] values ) {
+    if ( values != null ) {
+      entries.put( key, values );
+    } else if ( cacheMissingKeys ) {
+      entries.put( key, NOT_FOUND );
+    }
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  long getHits() {
+    return hits;
+  }
+
+  long getNegativeHits() {
+    return negativeHits;
+  }
+
+  long getMisses() {
+    return misses;
+  }
+
+  /**
+   * @return the percentage of lookups answered from the cache, found or not
+   */
+  double getHitRate() {
+    long lookups = hits + negativeHits + misses;
+    return lookups == 0 ? 0 : 100.0 * ( hits + negativeHits ) / lookups;
+  }
+}
@@ -0,0 +1,46 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.lookup;
+
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.trans.step.BaseStepData;
+import org.pentaho.di.trans.step.StepDataInterface;
+
+/**
+ * Data class for the HBase lookup step
+ */
+public class HBaseLookupData extends BaseStepData implements StepDataInterface {
+
+  /** The output data format */
+  protected RowMetaInterface m_outputRowMeta;
+
+  /**
+   * Get the output row format
+   *
+   * @return the output row format
+   */
+  public RowMetaInterface getOutputRowMeta() {
+    return m_outputRowMeta;
+  }
+
+  /**
+   * Set the output row format
+   *
+   * @param rmi
+   *          the output row format
+   */
+  public void setOutputRowMeta( RowMetaInterface rmi ) {
+    m_outputRowMeta = rmi;
+  }
+}
@@ -0,0 +1,459 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.lookup;
+
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.CCombo;
+import org.eclipse.swt.custom.CTabFolder;
+import org.eclipse.swt.custom.CTabItem;
+import org.eclipse.swt.events.ModifyEvent;
+import org.eclipse.swt.events.ModifyListener;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.events.ShellAdapter;
+import org.eclipse.swt.events.ShellEvent;
+import org.eclipse.swt.layout.FormAttachment;
+import org.eclipse.swt.layout.FormData;
+import org.eclipse.swt.layout.FormLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+import org.pentaho.di.core.annotations.PluginDialog;
+import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
+import org.pentaho.hadoop.shim.api.cluster.NamedClusterService;
+import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingEditor;
+import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.Props;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.BaseStepMeta;
+import org.pentaho.di.trans.step.StepDialogInterface;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.ui.core.gui.GUIResource;
+import org.pentaho.di.ui.core.widget.TextVar;
+import org.pentaho.di.ui.trans.step.BaseStepDialog;
+import org.pentaho.runtime.test.RuntimeTester;
+import org.pentaho.runtime.test.action.RuntimeTestActionService;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UI dialog for the HBase lookup step
+ */
+@PluginDialog( id = "HBaseLookup", image = "HB.svg", pluginType = PluginDialog.PluginType.JOBENTRY )
+public class HBaseLookupDialog extends BaseStepDialog implements StepDialogInterface {
+
+  private static final Class<?> PKG = HBaseLookupMeta.PKG;
+
+  /** various UI bits and pieces for the dialog */
+  private Label m_stepnameLabel;
+  private Text m_stepnameText;
+
+  // The tabs of the dialog
+  private CTabFolder m_wTabFolder;
+  private CTabItem m_wConfigTab;
+  private CTabItem m_editorTab;
+
+  private CCombo m_incomingKeyCombo;
+  private TextVar m_saltBucketsText;
+  private TextVar m_batchSizeText;
+  private TextVar m_lookupThreadsText;
+  private TextVar m_cacheSizeText;
+  private Button m_cacheMissingKeysBut;
+
+  // mapping editor composite
+  private MappingEditor m_mappingEditor;
+
+  private final HBaseLookupMeta m_currentMeta;
+  private final HBaseLookupMeta m_originalMeta;
+  private final NamedClusterService namedClusterService;
+  private final RuntimeTestActionService runtimeTestActionService;
+  private final RuntimeTester runtimeTester;
+  private final NamedClusterServiceLocator namedClusterServiceLocator;
+
+  public HBaseLookupDialog( Shell parent, Object in, TransMeta tr, String name,
+                                NamedClusterService namedClusterService,
+                                RuntimeTestActionService runtimeTestActionService, RuntimeTester runtimeTester,
+                                NamedClusterServiceLocator namedClusterServiceLocator ) {
+
+    super( parent, (BaseStepMeta) in, tr, name );
+    this.namedClusterService = namedClusterService;
+    this.runtimeTestActionService = runtimeTestActionService;
+    this.runtimeTester = runtimeTester;
+    this.namedClusterServiceLocator = namedClusterServiceLocator;
+
+    m_currentMeta = (HBaseLookupMeta) in;
+    m_originalMeta = (HBaseLookupMeta) m_currentMeta.clone();
+
+  }
+
+  public String open() {
+
+    Shell parent = getParent();
+    Display display = parent.getDisplay();
+
+    shell = new Shell( parent, SWT.DIALOG_TRIM | SWT.RESIZE | SWT.MIN | SWT.MAX );
+
+    props.setLook( shell );
+    setShellImage( shell, m_currentMeta );
+
+    // used to listen to a text field (m_wStepname)
+    ModifyListener lsMod = new ModifyListener() {
+      public void modifyText( ModifyEvent e ) {
+        m_currentMeta.setChanged();
+      }
+    };
+
+    changed = m_currentMeta.hasChanged();
+
+    FormLayout formLayout = new FormLayout();
+    formLayout.marginWidth = Const.FORM_MARGIN;
+    formLayout.marginHeight = Const.FORM_MARGIN;
+
+    shell.setLayout( formLayout );
+    shell.setText( BaseMessages.getString( PKG, "HBaseLookupDialog.Shell.Title" ) );
+
+    int middle = props.getMiddlePct();
+    int margin = Const.MARGIN;
+
+    // Stepname line
+    m_stepnameLabel = new Label( shell, SWT.RIGHT );
+    m_stepnameLabel.setText( BaseMessages.getString( PKG, "HBaseLookupDialog.StepName.Label" ) );
+    props.setLook( m_stepnameLabel );
+
+    FormData fd = new FormData();
+    fd.left = new FormAttachment( 0, 0 );
+    fd.right = new FormAttachment( middle, -margin );
+    fd.top = new FormAttachment( 0, margin );
+    m_stepnameLabel.setLayoutData( fd );
+    m_stepnameText = new Text( shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    m_stepnameText.setText( stepname );
+    props.setLook( m_stepnameText );
+    m_stepnameText.addModifyListener( lsMod );
+
+    // format the text field
+    fd = new FormData();
+    fd.left = new FormAttachment( middle, 0 );
+    fd.top = new FormAttachment( 0, margin );
+    fd.right = new FormAttachment( 100, 0 );
+    m_stepnameText.setLayoutData( fd );
+
+    m_wTabFolder = new CTabFolder( shell, SWT.BORDER );
+    props.setLook( m_wTabFolder, Props.WIDGET_STYLE_TAB );
+    m_wTabFolder.setSimple( false );
+
+    // Start of the config tab
+    m_wConfigTab = new CTabItem( m_wTabFolder, SWT.NONE );
+    m_wConfigTab.setText( BaseMessages.getString( PKG, "HBaseLookupDialog.ConfigTab.TabTitle" ) );
+
+    Composite wConfigComp = new Composite( m_wTabFolder, SWT.NONE );
+    props.setLook( wConfigComp );
+
+    FormLayout configLayout = new FormLayout();
+    configLayout.marginWidth = 3;
+    configLayout.marginHeight = 3;
+    wConfigComp.setLayout( configLayout );
+
+    // incoming key field line
+    Label inKeyLab = new Label( wConfigComp, SWT.RIGHT );
+    inKeyLab.setText( BaseMessages.getString( PKG, "HBaseLookupDialog.KeyField.Label" ) );
+    props.setLook( inKeyLab );
+    fd = new FormData();
+    fd.left = new FormAttachment( 0, 0 );
+    fd.top = new FormAttachment( 0, margin );
+    fd.right = new FormAttachment( middle, -margin );
+    inKeyLab.setLayoutData( fd );
+
+    m_incomingKeyCombo = new CCombo( wConfigComp, SWT.BORDER );
+    props.setLook( m_incomingKeyCombo );
+    fd = new FormData();
+    fd.left = new FormAttachment( middle, 0 );
+    fd.top = new FormAttachment( 0, margin );
+    fd.right = new FormAttachment( 100, 0 );
+    m_incomingKeyCombo.setLayoutData( fd );
+
+    m_incomingKeyCombo.addModifyListener( new ModifyListener() {
+      public void modifyText( ModifyEvent e ) {
+        m_currentMeta.setChanged();
+        m_incomingKeyCombo.setToolTipText( transMeta.environmentSubstitute( m_incomingKeyCombo.getText() ) );
+      }
+    } );
+
+    // salt buckets line
+    m_saltBucketsText = addTextVar( wConfigComp, m_incomingKeyCombo, "HBaseLookupDialog.SaltBuckets", lsMod );
+
+    // batch size line
+    m_batchSizeText = addTextVar( wConfigComp, m_saltBucketsText, "HBaseLookupDialog.BatchSize", lsMod );
+
+    // lookup threads line
+    m_lookupThreadsText = addTextVar( wConfigComp, m_batchSizeText, "HBaseLookupDialog.LookupThreads", lsMod );
+
+    // cache size line
+    m_cacheSizeText = addTextVar( wConfigComp, m_lookupThreadsText, "HBaseLookupDialog.CacheSize", lsMod );
+
+    // cache missing keys line
+    Label cacheMissingLab = new Label( wConfigComp, SWT.RIGHT );
+    cacheMissingLab.setText( BaseMessages.getString( PKG, "HBaseLookupDialog.CacheMissingKeys.Label" ) );
+    cacheMissingLab.setToolTipText( BaseMessages.getString( PKG, "HBaseLookupDialog.CacheMissingKeys.TipText" ) );
+    props.setLook( cacheMissingLab );
+    fd = new FormData();
+    fd.left = new FormAttachment( 0, 0 );
+    fd.top = new FormAttachment( m_cacheSizeText, margin );
+    fd.right = new FormAttachment( middle, -margin );
+    cacheMissingLab.setLayoutData( fd );
+
+    m_cacheMissingKeysBut = new Button( wConfigComp, SWT.CHECK );
+    m_cacheMissingKeysBut.setToolTipText( BaseMessages.getString( PKG, "HBaseLookupDialog.CacheMissingKeys.TipText" ) );
+    props.setLook( m_cacheMissingKeysBut );
+    fd = new FormData();
+    fd.left = new FormAttachment( middle, 0 );
+    fd.top = new FormAttachment( m_cacheSizeText, margin );
+    m_cacheMissingKeysBut.setLayoutData( fd );
+    m_cacheMissingKeysBut.addSelectionListener( new SelectionAdapter() {
+      @Override
+      public void widgetSelected( SelectionEvent e ) {
+        m_currentMeta.setChanged();
+      }
+    } );
+
+    populateFieldsCombo();
+
+    wConfigComp.layout();
+    m_wConfigTab.setControl( wConfigComp );
+
+    // --- mapping editor tab
+    m_editorTab = new CTabItem( m_wTabFolder, SWT.NONE );
+    m_editorTab.setText( BaseMessages.getString( PKG, "HBaseLookupDialog.MappingEditorTab.TabTitle" ) );
+
+    m_mappingEditor =
+        new MappingEditor( shell, m_wTabFolder, null, null, SWT.FULL_SELECTION | SWT.MULTI, false, props, transMeta,
+          namedClusterService, runtimeTestActionService, runtimeTester, namedClusterServiceLocator );
+
+    fd = new FormData();
+    fd.top = new FormAttachment( 0, 0 );
+    fd.left = new FormAttachment( 0, 0 );
+    fd.bottom = new FormAttachment( 100, -margin * 2 );
+    fd.right = new FormAttachment( 100, 0 );
+    m_mappingEditor.setLayoutData( fd );
+
+    m_mappingEditor.layout();
+    m_editorTab.setControl( m_mappingEditor );
+
+    fd = new FormData();
+    fd.left = new FormAttachment( 0, 0 );
+    fd.top = new FormAttachment( m_stepnameText, margin );
+    fd.right = new FormAttachment( 100, 0 );
+    fd.bottom = new FormAttachment( 100, -50 );
+    m_wTabFolder.setLayoutData( fd );
+
+    // Buttons inherited from BaseStepDialog
+    wOK = new Button( shell, SWT.PUSH );
+    wOK.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
+
+    wCancel = new Button( shell, SWT.PUSH );
+    wCancel.setText( BaseMessages.getString( PKG, "System.Button.Cancel" ) );
+
+    setButtonPositions( new Button[] { wOK, wCancel }, margin, m_wTabFolder );
+
+    // Add listeners
+    lsCancel = new Listener() {
+      public void handleEvent( Event e ) {
+        cancel();
+      }
+    };
+
+    lsOK = new Listener() {
+      public void handleEvent( Event e ) {
+        ok();
+      }
+    };
+
+    wCancel.addListener( SWT.Selection, lsCancel );
+    wOK.addListener( SWT.Selection, lsOK );
+
+    lsDef = new SelectionAdapter() {
+      @Override
+      public void widgetDefaultSelected( SelectionEvent e ) {
+        ok();
+      }
+    };
+
+    m_stepnameText.addSelectionListener( lsDef );
+
+    // Detect X or ALT-F4 or something that kills this window...
+    shell.addShellListener( new ShellAdapter() {
+      @Override
+      public void shellClosed( ShellEvent e ) {
+        cancel();
+      }
+    } );
+
+    m_wTabFolder.setSelection( 0 );
+    setSize();
+
+    getData();
+
+    shell.open();
+    while ( !shell.isDisposed() ) {
+      if ( !display.readAndDispatch() ) {
+        display.sleep();
+      }
+    }
+
+    return stepname;
+  }
+
+  protected void cancel() {
+    stepname = null;
+    m_currentMeta.setChanged( changed );
+
+    dispose();
+  }
+
+  protected void ok() {
+    if ( Const.isEmpty( m_stepnameText.getText() ) ) {
+      return;
+    }
+
+    stepname = m_stepnameText.getText();
+
+    m_currentMeta.setIncomingKeyField( m_incomingKeyCombo.getText() );
+    m_currentMeta.setSaltBuckets( m_saltBucketsText.getText() );
+    m_currentMeta.setBatchSize( m_batchSizeText.getText() );
+    m_currentMeta.setLookupThreads( m_lookupThreadsText.getText() );
+    m_currentMeta.setCacheSize( m_cacheSizeText.getText() );
+    m_currentMeta.setCacheMissingKeys( m_cacheMissingKeysBut.getSelection() );
+    List<String> problems = new ArrayList<String>();
+    Mapping mapping = m_mappingEditor.getMapping( false, problems, false );
+    if ( problems.size() > 0 ) {
+      StringBuffer p = new StringBuffer();
+      for ( String s : problems ) {
+        p.append( s ).append( "\n" );
+      }
+      MessageDialog md =
+          new MessageDialog( shell,
+              BaseMessages.getString( PKG, "HBaseLookupDialog.Error.IssuesWithMapping.Title" ), null, BaseMessages
+                  .getString( PKG, "HBaseLookupDialog.Error.IssuesWithMapping" )
+                  + ":\n\n" + p.toString(), MessageDialog.WARNING, new String[] {
+                      BaseMessages.getString( PKG, "HBaseLookupDialog.Error.IssuesWithMapping.ButtonOK" ),
+                      BaseMessages.getString( PKG, "HBaseLookupDialog.Error.IssuesWithMapping.ButtonCancel" ) }, 0 );
+      MessageDialog.setDefaultImage( GUIResource.getInstance().getImageSpoon() );
+      int idx = md.open() & 0xFF;
+      if ( idx == 1 || idx == 255 /* 255 = escape pressed */ ) {
+        return; // Cancel
+      }
+    }
+    if ( mapping != null ) {
+      m_currentMeta.setMapping( mapping );
+    }
+    NamedCluster selectedNamedCluster = m_mappingEditor.getSelectedNamedCluster();
+    if ( selectedNamedCluster != null ) {
+      m_currentMeta.setNamedCluster( selectedNamedCluster );
+    }
+
+    if ( !m_originalMeta.equals( m_currentMeta ) ) {
+      m_currentMeta.setChanged();
+      changed = m_currentMeta.hasChanged();
+    }
+
+    dispose();
+  }
+
+  protected void getData() {
+    if ( !Const.isEmpty( m_currentMeta.getIncomingKeyField() ) ) {
+      m_incomingKeyCombo.setText( m_currentMeta.getIncomingKeyField() );
+    }
+
+    if ( !Const.isEmpty( m_currentMeta.getSaltBuckets() ) ) {
+      m_saltBucketsText.setText( m_currentMeta.getSaltBuckets() );
+    }
+    if ( !Const.isEmpty( m_currentMeta.getBatchSize() ) ) {
+      m_batchSizeText.setText( m_currentMeta.getBatchSize() );
+    }
+    if ( !Const.isEmpty( m_currentMeta.getLookupThreads() ) ) {
+      m_lookupThreadsText.setText( m_currentMeta.getLookupThreads() );
+    }
+    if ( !Const.isEmpty( m_currentMeta.getCacheSize() ) ) {
+      m_cacheSizeText.setText( m_currentMeta.getCacheSize() );
+    }
+    m_cacheMissingKeysBut.setSelection( m_currentMeta.getCacheMissingKeys() );
+
+    m_mappingEditor.setSelectedNamedCluster( m_currentMeta.getNamedCluster().getName() );
+    if ( m_currentMeta.getMapping() != null ) {
+      m_mappingEditor.setMapping( m_currentMeta.getMapping() );
+    }
+  }
+
+  private TextVar addTextVar( Composite parent, Control above, String key, ModifyListener lsMod ) {
+    int middle = props.getMiddlePct();
+    int margin = Const.MARGIN;
+
+    Label label = new Label( parent, SWT.RIGHT );
+    label.setText( BaseMessages.getString( PKG, key + ".Label" ) );
+    label.setToolTipText( BaseMessages.getString( PKG, key + ".TipText" ) );
+    props.setLook( label );
+    FormData fd = new FormData();
+    fd.left = new FormAttachment( 0, 0 );
+    fd.top = new FormAttachment( above, margin );
+    fd.right = new FormAttachment( middle, -margin );
+    label.setLayoutData( fd );
+
+    TextVar text = new TextVar( transMeta, parent, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( text );
+    text.addModifyListener( lsMod );
+    fd = new FormData();
+    fd.left = new FormAttachment( middle, 0 );
+    fd.top = new FormAttachment( above, margin );
+    fd.right = new FormAttachment( 100, 0 );
+    text.setLayoutData( fd );
+    return text;
+  }
+
+  private void populateFieldsCombo() {
+    StepMeta stepMeta = transMeta.findStep( stepname );
+    String currentKey = m_incomingKeyCombo.getText();
+
+    if ( stepMeta != null ) {
+      try {
+        RowMetaInterface rowMeta = transMeta.getPrevStepFields( stepMeta );
+        if ( rowMeta != null && rowMeta.size() > 0 ) {
+          m_incomingKeyCombo.removeAll();
+          for ( int i = 0; i < rowMeta.size(); i++ ) {
+            m_incomingKeyCombo.add( rowMeta.getValueMeta( i ).getName() );
+          }
+
+          if ( !Const.isEmpty( currentKey ) ) {
+            m_incomingKeyCombo.setText( currentKey );
+          }
+        }
+      } catch ( KettleException ex ) {
+        if ( log.isError() ) {
+          log.logError( "Error populating fields", ex );
+        }
+      }
+    }
+  }
+}
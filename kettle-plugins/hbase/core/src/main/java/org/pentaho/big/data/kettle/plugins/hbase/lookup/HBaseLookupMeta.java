@@ -0,0 +1,422 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.lookup;
+
+import org.apache.commons.lang.StringUtils;
+import org.eclipse.swt.widgets.Shell;
+import org.pentaho.big.data.api.services.BigDataServicesHelper;
+import org.pentaho.big.data.kettle.plugins.hbase.MappingDefinition;
+import org.pentaho.big.data.kettle.plugins.hbase.NamedClusterLoadSaveUtil;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingUtils;
+import org.pentaho.di.core.CheckResult;
+import org.pentaho.di.core.CheckResultInterface;
+import org.pentaho.di.core.annotations.Step;
+import org.pentaho.di.core.bowl.Bowl;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.exception.KettleXMLException;
+import org.pentaho.di.core.injection.Injection;
+import org.pentaho.di.core.injection.InjectionDeep;
+import org.pentaho.di.core.injection.InjectionSupported;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.service.PluginServiceLoader;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.xml.XMLHandler;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.metastore.MetaStoreConst;
+import org.pentaho.di.repository.ObjectId;
+import org.pentaho.di.repository.Repository;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.BaseStepMeta;
+import org.pentaho.di.trans.step.StepDataInterface;
+import org.pentaho.di.trans.step.StepDialogInterface;
+import org.pentaho.di.trans.step.StepInterface;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.hadoop.shim.api.cluster.ClusterInitializationException;
+import org.pentaho.hadoop.shim.api.cluster.NamedCluster;
+import org.pentaho.hadoop.shim.api.cluster.NamedClusterService;
+import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
+import org.pentaho.hadoop.shim.api.hbase.HBaseService;
+import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
+import org.pentaho.hadoop.shim.api.hbase.meta.HBaseValueMetaInterface;
+import org.pentaho.metastore.api.IMetaStore;
+import org.pentaho.metastore.locator.api.MetastoreLocator;
+import org.pentaho.runtime.test.RuntimeTester;
+import org.pentaho.runtime.test.action.RuntimeTestActionService;
+import org.pentaho.runtime.test.action.impl.RuntimeTestActionServiceImpl;
+import org.pentaho.runtime.test.impl.RuntimeTesterImpl;
+import org.w3c.dom.Node;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.pentaho.di.core.CheckResult.TYPE_RESULT_ERROR;
+import static org.pentaho.di.core.CheckResult.TYPE_RESULT_OK;
+import static org.pentaho.di.core.CheckResult.TYPE_RESULT_WARNING;
+
+/**
+ * Meta class for the HBase lookup step. Incoming rows are enriched with the columns of the mapping, read from the
+ * mapped table by the value of an incoming key field.
+ */
+@Step( id = "HBaseLookup", image = "HB.svg", name = "HBaseLookup.Name",
+    description = "HBaseLookup.Description",
+    categoryDescription = "i18n:org.pentaho.di.trans.step:BaseStep.Category.BigData",
+    i18nPackageName = "org.pentaho.di.trans.steps.hbaselookup" )
+@InjectionSupported( localizationPrefix = "HBaseLookup.Injection.", groups = { "MAPPING" } )
+public class HBaseLookupMeta extends BaseStepMeta implements StepMetaInterface {
+
+  protected static final Class<?> PKG = HBaseLookupMeta.class;
+
+  public static final String INCOMING_KEY_FIELD = "incoming_key_field";
+  public static final String BATCH_SIZE = "batch_size";
+  public static final String LOOKUP_THREADS = "lookup_threads";
+  public static final String CACHE_SIZE = "cache_size";
+  public static final String CACHE_MISSING_KEYS = "cache_missing_keys";
+  public static final String SALT_BUCKETS = "salt_buckets";
+
+  public static final int DEFAULT_BATCH_SIZE = 100;
+
+  protected NamedCluster namedCluster;
+
+  /** The incoming field that contains the value of the key to look up */
+  @Injection( name = "KEY_FIELD" )
+  protected String mIncomingKeyField = "";
+
+  /** The number of incoming rows whose keys are looked up together (empty - DEFAULT_BATCH_SIZE) */
+  @Injection( name = "BATCH_SIZE" )
+  protected String mBatchSize;
+
+  /** The number of threads the keys of a batch are read on (empty - HBaseKeyFetcher.DEFAULT_THREADS) */
+  @Injection( name = "LOOKUP_THREADS" )
+  protected String mLookupThreads;
+
+  /** The number of looked up keys to cache (empty or 0 - no cache) */
+  @Injection( name = "CACHE_SIZE" )
+  protected String mCacheSize;
+
+  /** If true then keys that were not found are cached as well */
+  @Injection( name = "CACHE_MISSING_KEYS" )
+  protected boolean mCacheMissingKeys;
+
+  /** The number of buckets the row keys of the table are salted into (empty, 0 or 1 - keys are not salted) */
+  @Injection( name = "SALT_BUCKETS" )
+  protected String mSaltBuckets;
+
+  /** The mapping of the table to look up in */
+  protected Mapping mMapping;
+
+  @InjectionDeep
+  protected MappingDefinition mappingDefinition;
+
+  private MetastoreLocator metaStoreService;
+  private final NamedClusterServiceLocator namedClusterServiceLocator;
+  private final NamedClusterService namedClusterService;
+  private final RuntimeTestActionService runtimeTestActionService;
+  private final RuntimeTester runtimeTester;
+
+  private final NamedClusterLoadSaveUtil namedClusterLoadSaveUtil;
+
+  public HBaseLookupMeta() {
+    this( BigDataServicesHelper.getNamedClusterServiceLocator(), BigDataServicesHelper.getNamedClusterService(),
+      RuntimeTestActionServiceImpl.getInstance(), RuntimeTesterImpl.getInstance() );
+  }
+
+  public HBaseLookupMeta( NamedClusterServiceLocator namedClusterServiceLocator,
+                          NamedClusterService namedClusterService,
+                          RuntimeTestActionService runtimeTestActionService, RuntimeTester runtimeTester ) {
+    this.namedClusterServiceLocator = namedClusterServiceLocator;
+    this.namedClusterService = namedClusterService;
+    this.runtimeTestActionService = runtimeTestActionService;
+    this.runtimeTester = runtimeTester;
+    this.namedClusterLoadSaveUtil = new NamedClusterLoadSaveUtil();
+  }
+
+  public synchronized MetastoreLocator getMetastoreLocator() {
+    if ( this.metaStoreService == null ) {
+      try {
+        Collection<MetastoreLocator> metastoreLocators = PluginServiceLoader.loadServices( MetastoreLocator.class );
+        this.metaStoreService = metastoreLocators.stream().findFirst().get();
+      } catch ( Exception e ) {
+        logError( "Error getting MetastoreLocator", e );
+      }
+    }
+    return this.metaStoreService;
+  }
+
+  public void setNamedCluster( NamedCluster namedCluster ) {
+    this.namedCluster = namedCluster;
+  }
+
+  public NamedCluster getNamedCluster() {
+    return namedCluster;
+  }
+
+  public void setIncomingKeyField( String inKey ) {
+    mIncomingKeyField = inKey;
+  }
+
+  public String getIncomingKeyField() {
+    return mIncomingKeyField;
+  }
+
+  public void setBatchSize( String size ) {
+    mBatchSize = size;
+  }
+
+  public String getBatchSize() {
+    return mBatchSize;
+  }
+
+  public void setLookupThreads( String threads ) {
+    mLookupThreads = threads;
+  }
+
+  public String getLookupThreads() {
+    return mLookupThreads;
+  }
+
+  public void setCacheSize( String size ) {
+    mCacheSize = size;
+  }
+
+  public String getCacheSize() {
+    return mCacheSize;
+  }
+
+  public void setCacheMissingKeys( boolean cache ) {
+    mCacheMissingKeys = cache;
+  }
+
+  public boolean getCacheMissingKeys() {
+    return mCacheMissingKeys;
+  }
+
+  public void setSaltBuckets( String buckets ) {
+    mSaltBuckets = buckets;
+  }
+
+  public String getSaltBuckets() {
+    return mSaltBuckets;
+  }
+
+  public void setMapping( Mapping m ) {
+    mMapping = m;
+  }
+
+  public Mapping getMapping() {
+    return mMapping;
+  }
+
+  public MappingDefinition getMappingDefinition() {
+    return mappingDefinition;
+  }
+
+  public void setMappingDefinition( MappingDefinition mappingDefinition ) {
+    this.mappingDefinition = mappingDefinition;
+  }
+
+  public void setDefault() {
+    mIncomingKeyField = "";
+    mBatchSize = null;
+    mLookupThreads = null;
+    mCacheSize = null;
+    mCacheMissingKeys = false;
+    mSaltBuckets = null;
+    namedCluster = namedClusterService.getClusterTemplate();
+  }
+
+  @Override
+  public void getFields( Bowl bowl, RowMetaInterface rowMeta, String origin, RowMetaInterface[] info, StepMeta nextStep,
+      VariableSpace space ) throws KettleStepException {
+
+    // the incoming fields are passed on, followed by the columns of the mapping
+    if ( mMapping != null ) {
+      Map<String, HBaseValueMetaInterface> mappedColumnsByAlias = mMapping.getMappedColumns();
+      for ( HBaseValueMetaInterface columnMeta : mappedColumnsByAlias.values() ) {
+        if ( !columnMeta.isKey() ) {
+          columnMeta.setOrigin( origin );
+          rowMeta.addValueMeta( columnMeta );
+        }
+      }
+    }
+  }
+
+  public void check( List<CheckResultInterface> remarks, TransMeta transMeta, StepMeta stepMeta, RowMetaInterface prev,
+      String[] input, String[] output, RowMetaInterface info ) {
+
+    CheckResult cr;
+
+    if ( ( prev == null ) || ( prev.size() == 0 ) ) {
+      cr = new CheckResult( TYPE_RESULT_WARNING, "Not receiving any fields from previous steps!", stepMeta );
+      remarks.add( cr );
+    } else if ( prev.indexOfValue( mIncomingKeyField ) < 0 ) {
+      cr = new CheckResult( TYPE_RESULT_ERROR, BaseMessages.getString( PKG,
+        "HBaseLookup.Error.UnableToFindKeyField", mIncomingKeyField ), stepMeta );
+      remarks.add( cr );
+    } else {
+      cr = new CheckResult( TYPE_RESULT_OK, "Step is connected to previous one, receiving " + prev.size()
+        + " fields", stepMeta );
+      remarks.add( cr );
+    }
+
+    if ( mMapping == null ) {
+      cr = new CheckResult( TYPE_RESULT_ERROR, BaseMessages.getString( PKG, "HBaseLookup.Error.NoMappingInfo" ),
+        stepMeta );
+      remarks.add( cr );
+    }
+  }
+
+  void applyInjection() throws KettleException {
+    if ( namedCluster == null ) {
+      throw new KettleException( "Named cluster was not initialized!" );
+    }
+    try {
+      HBaseService hBaseService = namedClusterServiceLocator.getService( this.namedCluster, HBaseService.class );
+      if ( mappingDefinition != null ) {
+        mMapping = MappingUtils.getMapping( mappingDefinition, hBaseService );
+      }
+    } catch ( ClusterInitializationException e ) {
+      throw new KettleException( e );
+    }
+  }
+
+  public StepInterface getStep( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr,
+      TransMeta transMeta, Trans trans ) {
+
+    return new HBaseLookup( stepMeta, stepDataInterface, copyNr, transMeta, trans, namedClusterServiceLocator );
+  }
+
+  public StepDataInterface getStepData() {
+    return new HBaseLookupData();
+  }
+
+  @Override
+  public String getXML() {
+    try {
+      applyInjection();
+    } catch ( KettleException e ) {
+      log.logError( "Error occurred while injecting metadata. Transformation meta could be incorrect!", e );
+    }
+    StringBuilder retval = new StringBuilder();
+
+    if ( StringUtils.isNotEmpty( mIncomingKeyField ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( INCOMING_KEY_FIELD, mIncomingKeyField ) );
+    }
+    if ( StringUtils.isNotEmpty( mBatchSize ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( BATCH_SIZE, mBatchSize ) );
+    }
+    if ( StringUtils.isNotEmpty( mLookupThreads ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( LOOKUP_THREADS, mLookupThreads ) );
+    }
+    if ( StringUtils.isNotEmpty( mCacheSize ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( CACHE_SIZE, mCacheSize ) );
+    }
+    retval.append( "\n    " ).append( XMLHandler.addTagValue( CACHE_MISSING_KEYS, mCacheMissingKeys ) );
+    if ( StringUtils.isNotEmpty( mSaltBuckets ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( SALT_BUCKETS, mSaltBuckets ) );
+    }
+
+    namedClusterLoadSaveUtil.getXml( retval, namedClusterService, namedCluster,
+      MetaStoreConst.getDefaultMetastore(), log );
+    if ( mMapping != null ) {
+      retval.append( mMapping.getXML() );
+    }
+
+    return retval.toString();
+  }
+
+  public void loadXML( Node stepnode, List<DatabaseMeta> databases, IMetaStore metaStore ) throws KettleXMLException {
+    if ( metaStore == null ) {
+      metaStore = getMetastoreLocator().getMetastore();
+    }
+
+    mIncomingKeyField = XMLHandler.getTagValue( stepnode, INCOMING_KEY_FIELD );
+    mBatchSize = XMLHandler.getTagValue( stepnode, BATCH_SIZE );
+    mLookupThreads = XMLHandler.getTagValue( stepnode, LOOKUP_THREADS );
+    mCacheSize = XMLHandler.getTagValue( stepnode, CACHE_SIZE );
+    mCacheMissingKeys = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, CACHE_MISSING_KEYS ) );
+    mSaltBuckets = XMLHandler.getTagValue( stepnode, SALT_BUCKETS );
+    this.namedCluster =
+        namedClusterLoadSaveUtil.loadClusterConfig( namedClusterService, null, repository, metaStore, stepnode, log );
+    try {
+      HBaseService hbaseService = namedClusterServiceLocator.getService( this.namedCluster, HBaseService.class );
+      mMapping = ( hbaseService == null ? null : hbaseService.getMappingFactory().createMapping() );
+    } catch ( ClusterInitializationException e ) {
+      throw new KettleXMLException( e );
+    }
+    if ( mMapping != null && !mMapping.loadXML( stepnode ) ) {
+      mMapping = null;
+    }
+  }
+
+  public void readRep( Repository rep, IMetaStore metaStore, ObjectId idStep, List<DatabaseMeta> databases )
+    throws KettleException {
+
+    mIncomingKeyField = rep.getStepAttributeString( idStep, 0, INCOMING_KEY_FIELD );
+    mBatchSize = rep.getStepAttributeString( idStep, 0, BATCH_SIZE );
+    mLookupThreads = rep.getStepAttributeString( idStep, 0, LOOKUP_THREADS );
+    mCacheSize = rep.getStepAttributeString( idStep, 0, CACHE_SIZE );
+    mCacheMissingKeys = rep.getStepAttributeBoolean( idStep, 0, CACHE_MISSING_KEYS );
+    mSaltBuckets = rep.getStepAttributeString( idStep, 0, SALT_BUCKETS );
+    this.namedCluster =
+        namedClusterLoadSaveUtil.loadClusterConfig( namedClusterService, idStep, rep, metaStore, null, log );
+    try {
+      mMapping =
+          namedClusterServiceLocator.getService( this.namedCluster, HBaseService.class ).getMappingFactory()
+              .createMapping();
+    } catch ( ClusterInitializationException e ) {
+      throw new KettleXMLException( e );
+    }
+    if ( !mMapping.readRep( rep, idStep ) ) {
+      mMapping = null;
+    }
+  }
+
+  public void saveRep( Repository rep, IMetaStore metaStore, ObjectId idTransformation, ObjectId idStep )
+    throws KettleException {
+
+    if ( StringUtils.isNotEmpty( mIncomingKeyField ) ) {
+      rep.saveStepAttribute( idTransformation, idStep, 0, INCOMING_KEY_FIELD, mIncomingKeyField );
+    }
+    if ( StringUtils.isNotEmpty( mBatchSize ) ) {
+      rep.saveStepAttribute( idTransformation, idStep, 0, BATCH_SIZE, mBatchSize );
+    }
+    if ( StringUtils.isNotEmpty( mLookupThreads ) ) {
+      rep.saveStepAttribute( idTransformation, idStep, 0, LOOKUP_THREADS, mLookupThreads );
+    }
+    if ( StringUtils.isNotEmpty( mCacheSize ) ) {
+      rep.saveStepAttribute( idTransformation, idStep, 0, CACHE_SIZE, mCacheSize );
+    }
+    rep.saveStepAttribute( idTransformation, idStep, 0, CACHE_MISSING_KEYS, mCacheMissingKeys );
+    if ( StringUtils.isNotEmpty( mSaltBuckets ) ) {
+      rep.saveStepAttribute( idTransformation, idStep, 0, SALT_BUCKETS, mSaltBuckets );
+    }
+
+    namedClusterLoadSaveUtil
+      .saveRep( rep, metaStore, idTransformation, idStep, namedClusterService, namedCluster, log );
+
+    if ( mMapping != null ) {
+      mMapping.saveRep( rep, idTransformation, idStep );
+    }
+  }
+
+  public StepDialogInterface getDialog( Shell shell, StepMetaInterface meta, TransMeta transMeta, String name ) {
+    return new HBaseLookupDialog( shell, meta, transMeta, name, namedClusterService, runtimeTestActionService,
+      runtimeTester, namedClusterServiceLocator );
+  }
+}
@@ -38,5 +38,15 @@ public interface ConfigurationProducer {
    */
   HBaseConnection getHBaseConnection() throws ClusterInitializationException, IOException;
 
+  /**
+   * Identifies the cluster the connections of this producer talk to, so that mapping admins built on them share the
+   * {@link MappingCache} with the steps
+   * 
+   * @return the connection key, see {@link MappingCache#connectionKey}
+   * @throws ClusterInitializationException
+   *           if the HBase service can't be obtained
+   */
+  Object getConnectionKey() throws ClusterInitializationException;
+
   String getCurrentConfiguration();
 }
@@ -80,6 +80,11 @@ public class HBaseRowToKettleTuple {
 
   protected ByteConversionUtil mBytesUtil;
 
+  /**
+   * The number of buckets the row keys are salted into, 0 or 1 if they are not salted
+   */
+  protected int mSaltBuckets;
+
   public HBaseRowToKettleTuple( ByteConversionUtil bytesUtil ) {
     if ( bytesUtil == null ) {
       throw new NullPointerException();
@@ -87,6 +92,15 @@ public class HBaseRowToKettleTuple {
     mBytesUtil = bytesUtil;
   }
 
+  /**
+   * Remove the salt from the row keys before decoding them, see {@link KeySalter}
+   *
+   * @param saltBuckets the number of buckets the row keys are salted into, 0 or 1 if they are not salted
+   */
+  public void setSaltBuckets( int saltBuckets ) {
+    mSaltBuckets = saltBuckets;
+  }
+
   public void reset() {
     mDecodedTuples = null;
 
@@ -175,7 +189,7 @@ public class HBaseRowToKettleTuple {
     } catch ( Exception ex ) {
       throw new KettleException( ex );
     }
-    Object decodedKey = mapping.decodeKeyValue( rawKey );
+    Object decodedKey = mapping.decodeKeyValue( KeySalter.unsalt( rawKey, mSaltBuckets ) );
 
     NavigableMap<byte[], NavigableMap<byte[], NavigableMap<Long, byte[]>>> rowData = null;
     try {
@@ -0,0 +1,150 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.mapping;
+
+/**
+ * Salts row keys so that monotonically increasing keys (time stamps, sequence numbers) are spread over a fixed number
+ * of buckets instead of all going to the last region of a table. A salted key is the encoded key prefixed with one
+ * byte, the bucket, which is derived from a hash of the encoded key. The same key always goes to the same bucket, so
+ * writers and readers that agree on the number of buckets agree on the salted key.
+ * <p>
+ * Within a bucket the keys keep their order, so a key range is read by scanning the same range in every bucket. A
+ * table meant for salted keys should be pre-split at {@link #getSplitKeys(int)} so that each bucket starts out in its
+ * own region.
+ */
+public class KeySalter {
+
+  /** The largest number of buckets, the bucket is stored in one byte */
+  public static final int MAX_BUCKETS = 256;
+
+  private KeySalter() {
+  }
+
+  /**
+   * @param buckets the configured number of buckets
+   * @return true if keys are salted with this number of buckets, 0 and 1 mean no salting
+   */
+  public static boolean isSalted( int buckets ) {
+    return buckets > 1;
+  }
+
+  /**
+   * Check a configured number of buckets.
+   *
+   * @param buckets the number of buckets, 0 or 1 for no salting
+   * @throws IllegalArgumentException if the number is negative or larger than {@link #MAX_BUCKETS}
+   */
+  public static void checkBuckets( int buckets ) {
+    if ( buckets < 0 || buckets > MAX_BUCKETS ) {
+      throw new IllegalArgumentException( "The number of salt buckets must be between 0 and " + MAX_BUCKETS + ": "
+        + buckets );
+    }
+  }
+
+  /**
+   * Get the bucket of an encoded key.
+   *
+   * @param key     the encoded row key
+   * @param buckets the number of buckets, more than 1
+   * @return the bucket, from 0 to buckets - 1
+   */
+  public static int getBucket( byte[] key, int buckets ) {
+    int hash = 1;
+    for ( byte b : key ) {
+      hash = 31 * hash + ( b & 0xff );
+    }
+    // mix the bits so that keys differing only in their last bytes still spread over all the buckets
+    hash ^= hash >>> 16;
+    hash *= 0x85ebca6b;
+    hash ^= hash >>> 13;
+    hash *= 0xc2b2ae35;
+    hash ^= hash >>> 16;
+    return Math.floorMod( hash, buckets );
+  }
+
+  /**
+   * Salt an encoded key.
+   *
+   * @param key     the encoded row key
+   * @param buckets the number of buckets, 0 or 1 for no salting
+   * @return the key prefixed with its bucket, or the key itself if keys are not salted
+   */
+  public static byte[] salt( byte[] key, int buckets ) {
+    if ( !isSalted( buckets ) ) {
+      return key;
+    }
+    return prefix( getBucket( key, buckets ), key );
+  }
+
+  /**
+   * Remove the salt from a salted key.
+   *
+   * @param saltedKey the salted row key
+   * @param buckets   the number of buckets, 0 or 1 for no salting
+   * @return the encoded key without its bucket, or the key itself if keys are not salted
+   */
+  public static byte[] unsalt( byte[] saltedKey, int buckets ) {
+    if ( !isSalted( buckets ) || saltedKey == null || saltedKey.length == 0 ) {
+      return saltedKey;
+    }
+    byte[] key = new byte[ saltedKey.length - 1 ];
+    System.arraycopy( saltedKey, 1, key, 0, key.length );
+    return key;
+  }
+
+  /**
+   * Get the range to scan in one bucket for a range of encoded keys.
+   *
+   * @param bucket the bucket
+   * @param lower  the inclusive lower bound of the key range, null or empty for the start of the table
+   * @param upper  the exclusive upper bound of the key range, null or empty for the end of the table
+   * @return the {start, stop} salted keys, where an empty stop key means the end of the table
+   */
+  public static byte[][] getBucketRange( int bucket, byte[] lower, byte[] upper ) {
+    byte[] start = prefix( bucket, lower == null ? new byte[ 0 ] : lower );
+    byte[] stop;
+    if ( upper != null && upper.length > 0 ) {
+      stop = prefix( bucket, upper );
+    } else if ( bucket + 1 < MAX_BUCKETS ) {
+      stop = new byte[] { (byte) ( bucket + 1 ) };
+    } else {
+      stop = new byte[ 0 ];
+    }
+    return new byte[][] { start, stop };
+  }
+
+  /**
+   * Get the keys to pre-split a table at, so that every bucket starts out in its own region.
+   *
+   * @param buckets the number of buckets
+   * @return buckets - 1 split keys, none if keys are not salted
+   */
+  public static byte[][] getSplitKeys( int buckets ) {
+    if ( !isSalted( buckets ) ) {
+      return new byte[ 0 ][];
+    }
+    byte[][] splitKeys = new byte[ buckets - 1 ][];
+    for ( int i = 1; i < buckets; i++ ) {
+      splitKeys[ i - 1 ] = new byte[] { (byte) i };
+    }
+    return splitKeys;
+  }
+
+  private static byte[] prefix( int bucket, byte[] key ) {
+    byte[] salted = new byte[ key.length + 1 ];
+    salted[ 0 ] = (byte) bucket;
+    System.arraycopy( key, 0, salted, 1, key.length );
+    return salted;
+  }
+}
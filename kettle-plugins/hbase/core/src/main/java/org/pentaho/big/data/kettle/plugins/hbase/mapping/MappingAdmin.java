@@ -38,6 +38,7 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -61,6 +62,24 @@ public class MappingAdmin implements Closeable {
 
   private final HBaseConnection hBaseConnection;
 
+  /** Identifies the cluster in the mapping cache, null if the cache is not used */
+  private final Object connectionKey;
+
+  private final MappingCache mappingCache;
+
+  /**
+   * The mapping row of a mapping as read from the mapping table
+   */
+  static class MappingRow {
+    private final NavigableMap<byte[], byte[]> keyColumns;
+    private final NavigableMap<byte[], byte[]> mappedColumns;
+
+    MappingRow( NavigableMap<byte[], byte[]> keyColumns, NavigableMap<byte[], byte[]> mappedColumns ) {
+      this.keyColumns = keyColumns;
+      this.mappedColumns = mappedColumns;
+    }
+  }
+
   /** Name of the mapping table (might make this configurable at some stage) */
   protected String m_mappingTableName = "pentaho_mappings";
 
@@ -90,7 +109,31 @@ public class MappingAdmin implements Closeable {
 
 
   public MappingAdmin( HBaseConnection hBaseConnection ) {
+    this( hBaseConnection, null );
+  }
+
+  /**
+   * Constructor for a mapping admin that shares what it reads from the mapping tables with the other mapping admins
+   * of this process that use the same connection key.
+   *
+   * @param hBaseConnection
+   *          the connection to HBase
+   * @param connectionKey
+   *          identifies the cluster the connection talks to, see {@link MappingCache#connectionKey}; null to always
+   *          read from HBase
+   */
+  public MappingAdmin( HBaseConnection hBaseConnection, Object connectionKey ) {
+    this( hBaseConnection, connectionKey, MappingCache.getInstance() );
+  }
+
+  MappingAdmin( HBaseConnection hBaseConnection, Object connectionKey, MappingCache mappingCache ) {
     this.hBaseConnection = hBaseConnection;
+    this.connectionKey = connectionKey;
+    this.mappingCache = mappingCache;
+  }
+
+  Object getConnectionKey() {
+    return connectionKey;
   }
 
   /**
@@ -450,6 +493,7 @@ public class MappingAdmin implements Closeable {
     colFamNames.add( KEY_FAMILY_NAME );
 
     hBaseTable.create( colFamNames, null );
+    mappingCache.invalidate( getMappingTableName( tableName ) );
   }
 
   /**
@@ -496,25 +540,42 @@ public class MappingAdmin implements Closeable {
   }
 
   private void addMappedTables( Set<String> tableNames, String nameSpace ) throws Exception {
-    ByteConversionUtil byteConversionUtil = hBaseConnection.getByteConversionUtil();
-    try ( HBaseTable hBaseTable = hBaseConnection.getTable( nameSpace + ":" + m_mappingTableName ) ) {
-      if ( hBaseTable.exists() ) {
-        ResultScannerBuilder scannerBuilder = hBaseTable.createScannerBuilder( null, null );
-        scannerBuilder.setCaching( 10 );
-
-        try ( ResultScanner resultScanner = scannerBuilder.build() ) {
-          Result next;
-          while ( ( next = resultScanner.next() ) != null ) {
-            byte[] rawKey = next.getRow();
-
-            // extract the table name
-            String tableName =
-              nameSpace + ":" + HbaseUtil.parseQualifierFromTableName( byteConversionUtil.splitKey( rawKey )[ 0 ] );
-            tableNames.add( tableName );
+    for ( String qualifier : getMappingIndex( nameSpace + ":" + m_mappingTableName ).keySet() ) {
+      // extract the table name
+      tableNames.add( nameSpace + ":" + HbaseUtil.parseQualifierFromTableName( qualifier ) );
+    }
+  }
+
+  /**
+   * Read the names of all the mappings in a mapping table with a single scan.
+   *
+   * @param mappingTableName
+   *          the fully qualified name of the mapping table
+   * @return the mapping names keyed by the qualifier of the mapped table, in mapping table order; empty if the mapping
+   * table does not exist
+   * @throws Exception
+   *           if the mapping table can not be read
+   */
+  private Map<String, List<String>> getMappingIndex( String mappingTableName ) throws Exception {
+    return mappingCache.get( connectionKey, mappingTableName, null, null, () -> {
+      ByteConversionUtil byteConversionUtil = hBaseConnection.getByteConversionUtil();
+      Map<String, List<String>> index = new LinkedHashMap<>();
+      try ( HBaseTable hBaseTable = hBaseConnection.getTable( mappingTableName ) ) {
+        if ( hBaseTable.exists() ) {
+          ResultScannerBuilder scannerBuilder = hBaseTable.createScannerBuilder( null, null );
+          scannerBuilder.setCaching( 10 );
+
+          try ( ResultScanner resultScanner = scannerBuilder.build() ) {
+            Result next;
+            while ( ( next = resultScanner.next() ) != null ) {
+              String[] splitKey = byteConversionUtil.splitKey( next.getRow() );
+              index.computeIfAbsent( splitKey[ 0 ], qualifier -> new ArrayList<>() ).add( splitKey[ 1 ] );
+            }
           }
         }
       }
-    }
+      return Collections.unmodifiableMap( index );
+    } );
   }
 
   /**
@@ -529,30 +590,9 @@ public class MappingAdmin implements Closeable {
    */
   public List<String> getMappingNames( String tableName ) throws Exception {
     tableName = HbaseUtil.expandTableName( tableName );
-    ByteConversionUtil byteConversionUtil = hBaseConnection.getByteConversionUtil();
-    List<String> mappingsForTable = new ArrayList<String>();
-    try ( HBaseTable hBaseTable = hBaseConnection.getTable( getMappingTableName( tableName ) ) ) {
-      if ( hBaseTable.exists() ) {
-        ResultScannerBuilder scannerBuilder = hBaseTable.createScannerBuilder( null, null );
-        scannerBuilder.setCaching( 10 );
-
-        try ( ResultScanner resultScanner = scannerBuilder.build() ) {
-          Result next;
-          String qualifier = HbaseUtil.parseQualifierFromTableName( tableName );
-          while ( ( next = resultScanner.next() ) != null ) {
-            byte[] rowKey = next.getRow();
-            String[] splitKey = byteConversionUtil.splitKey( rowKey );
-            String tableN = splitKey[ 0 ];
-
-            if ( qualifier.equals( tableN ) ) {
-              // extract out the mapping name
-              mappingsForTable.add( splitKey[ 1 ] );
-            }
-          }
-        }
-      }
-      return mappingsForTable;
-    }
+    List<String> mappingsForTable = getMappingIndex( getMappingTableName( tableName ) )
+      .get( HbaseUtil.parseQualifierFromTableName( tableName ) );
+    return mappingsForTable == null ? new ArrayList<String>() : new ArrayList<>( mappingsForTable );
   }
 
   /**
@@ -593,6 +633,8 @@ public class MappingAdmin implements Closeable {
           .execute();
         return true;
       }
+    } finally {
+      mappingCache.invalidate( getMappingTableName( tableName ) );
     }
   }
 
@@ -713,6 +755,8 @@ public class MappingAdmin implements Closeable {
       // add the row
       hBasePut.execute();
       writeOperationManager.flushCommits();
+    } finally {
+      mappingCache.invalidate( getMappingTableName( tableName ) );
     }
   }
 
@@ -761,156 +805,166 @@ public class MappingAdmin implements Closeable {
     ByteConversionUtil byteConversionUtil = hBaseConnection.getByteConversionUtil();
     MappingFactory mappingFactory = hBaseConnection.getMappingFactory();
     HBaseValueMetaInterfaceFactory valueMetaInterfaceFactory = hBaseConnection.getHBaseValueMetaInterfaceFactory();
-    try ( HBaseTable hBaseTable = hBaseConnection.getTable( getMappingTableName( tableName ) ) ) {
-      if ( !hBaseTable.exists() ) {
+    byte[] compoundKey =
+      byteConversionUtil.compoundKey( HbaseUtil.parseQualifierFromTableName( tableName ), mappingName );
 
-        // create the mapping table
-        createMappingTable( tableName );
+    // the row is cached rather than the mapping, as callers are free to modify the mapping they get
+    MappingRow mappingRow = mappingCache.get( connectionKey, getMappingTableName( tableName ),
+      HbaseUtil.parseQualifierFromTableName( tableName ), mappingName,
+      () -> readMappingRow( tableName, mappingName, compoundKey ) );
 
-        throw new IOException( "Mapping \"" + tableName + "," + mappingName + "\" does not exist!" );
-      }
+    NavigableMap<byte[], byte[]> colsInKeyFamily = mappingRow.keyColumns;
 
-      byte[] compoundKey =
-        byteConversionUtil.compoundKey( HbaseUtil.parseQualifierFromTableName( tableName ), mappingName );
-      ResultScannerBuilder scannerBuilder = hBaseTable.createScannerBuilder( compoundKey, compoundKey );
-      scannerBuilder.setCaching( 10 );
+    Set<byte[]> keyCols = colsInKeyFamily.keySet();
+    // should only be one key defined!!
+    if ( keyCols.size() != 1 ) {
+      throw new IOException( "Mapping \"" + tableName + "," + mappingName + "\" has more than one key defined!" );
+    }
 
-      ResultScanner resultScanner = scannerBuilder.build();
-      Result result = resultScanner.next();
-      if ( result == null ) {
-        throw new IOException( "Mapping \"" + tableName + "," + mappingName + "\" does not exist!" );
+    byte[] keyNameB = keyCols.iterator().next();
+    String decodedKeyName = byteConversionUtil.toString( keyNameB );
+    byte[] keyTypeB = colsInKeyFamily.get( keyNameB );
+    String decodedKeyType = byteConversionUtil.toString( keyTypeB );
+    Mapping.KeyType keyType = null;
+
+    for ( Mapping.KeyType t : Mapping.KeyType.values() ) {
+      if ( decodedKeyType.equalsIgnoreCase( t.toString() ) ) {
+        keyType = t;
+        break;
       }
+    }
 
-      NavigableMap<byte[], byte[]> colsInKeyFamily = result.getFamilyMap( KEY_FAMILY_NAME );
+    if ( keyType == null ) {
+      throw new IOException( "Unrecognized type for the key column in \"" + compoundKey + "\"" );
+    }
 
-      Set<byte[]> keyCols = colsInKeyFamily.keySet();
-      // should only be one key defined!!
-      if ( keyCols.size() != 1 ) {
-        throw new IOException( "Mapping \"" + tableName + "," + mappingName + "\" has more than one key defined!" );
-      }
+    String tupleFamilies = "";
+    boolean isTupleMapping = false;
+    if ( decodedKeyName.indexOf( ',' ) > 0 ) {
 
-      byte[] keyNameB = keyCols.iterator().next();
-      String decodedKeyName = byteConversionUtil.toString( keyNameB );
-      byte[] keyTypeB = colsInKeyFamily.get( keyNameB );
-      String decodedKeyType = byteConversionUtil.toString( keyTypeB );
-      Mapping.KeyType keyType = null;
+      isTupleMapping = true;
 
-      for ( Mapping.KeyType t : Mapping.KeyType.values() ) {
-        if ( decodedKeyType.equalsIgnoreCase( t.toString() ) ) {
-          keyType = t;
-          break;
-        }
+      if ( decodedKeyName.indexOf( ',' ) != decodedKeyName.length() - 1 ) {
+        tupleFamilies = decodedKeyName.substring( decodedKeyName.indexOf( ',' ) + 1, decodedKeyName.length() );
       }
+      decodedKeyName = decodedKeyName.substring( 0, decodedKeyName.indexOf( ',' ) );
+    }
 
-      if ( keyType == null ) {
-        throw new IOException( "Unrecognized type for the key column in \"" + compoundKey + "\"" );
-      }
+    Mapping resultMapping = mappingFactory.createMapping( tableName, mappingName, decodedKeyName, keyType );
+    resultMapping.setTupleMapping( isTupleMapping );
+    if ( !Const.isEmpty( tupleFamilies ) ) {
+      resultMapping.setTupleFamilies( tupleFamilies );
+    }
 
-      String tupleFamilies = "";
-      boolean isTupleMapping = false;
-      if ( decodedKeyName.indexOf( ',' ) > 0 ) {
+    Map<String, HBaseValueMetaInterface> resultCols = new TreeMap<String, HBaseValueMetaInterface>();
 
-        isTupleMapping = true;
+    // now process the mapping
+    NavigableMap<byte[], byte[]> colsInMapping = mappingRow.mappedColumns;
 
-        if ( decodedKeyName.indexOf( ',' ) != decodedKeyName.length() - 1 ) {
-          tupleFamilies = decodedKeyName.substring( decodedKeyName.indexOf( ',' ) + 1, decodedKeyName.length() );
+    Set<byte[]> colNames = colsInMapping.keySet();
+
+    for ( byte[] b : colNames ) {
+      String decodedName = byteConversionUtil.toString( b );
+      byte[] c = colsInMapping.get( b );
+      if ( c == null ) {
+        throw new IOException( "No type declaration for column \"" + decodedName + "\"" );
+      }
+
+      String decodedType = byteConversionUtil.toString( c );
+
+      HBaseValueMetaInterface newMeta = null;
+      if ( decodedType.equalsIgnoreCase( "Float" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_NUMBER, -1, -1 );
+
+        // While passing through Kettle this will be represented
+        // as a double
+        newMeta.setIsLongOrDouble( false );
+      } else if ( decodedType.equalsIgnoreCase( "Double" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_NUMBER, -1, -1 );
+      } else if ( decodedType.equalsIgnoreCase( "String" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_STRING, -1, -1 );
+      } else if ( decodedType.toLowerCase().startsWith( "date" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_DATE, -1, -1 );
+      } else if ( decodedType.equalsIgnoreCase( "Boolean" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_BOOLEAN, -1, -1 );
+      } else if ( decodedType.equalsIgnoreCase( "Integer" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_INTEGER, -1, -1 );
+
+        // Integer in the mapping is really an integer (not a long
+        // as Kettle uses internally)
+        newMeta.setIsLongOrDouble( false );
+      } else if ( decodedType.equalsIgnoreCase( "Long" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_INTEGER, -1, -1 );
+      } else if ( decodedType.equalsIgnoreCase( "BigNumber" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_BIGNUMBER, -1, -1 );
+      } else if ( decodedType.equalsIgnoreCase( "Serializable" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_SERIALIZABLE, -1, -1 );
+      } else if ( decodedType.equalsIgnoreCase( "Binary" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_BINARY, -1, -1 );
+      } else if ( decodedType.startsWith( "{" ) && decodedType.endsWith( "}" ) ) {
+        newMeta = valueMetaInterfaceFactory
+          .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_STRING, -1, -1 );
+
+        Object[] labels = null;
+        try {
+          labels = byteConversionUtil.stringIndexListToObjects( decodedType );
+        } catch ( IllegalArgumentException ex ) {
+          throw new IOException( "Indexed/nominal type must have at least one " + "label declared" );
         }
-        decodedKeyName = decodedKeyName.substring( 0, decodedKeyName.indexOf( ',' ) );
+        newMeta.setIndex( labels );
+        newMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_INDEXED );
+      } else {
+        throw new IOException( "Unknown column type : \"" + decodedType + "\"" );
       }
 
-      Mapping resultMapping = mappingFactory.createMapping( tableName, mappingName, decodedKeyName, keyType );
-      resultMapping.setTupleMapping( isTupleMapping );
-      if ( !Const.isEmpty( tupleFamilies ) ) {
-        resultMapping.setTupleFamilies( tupleFamilies );
+      newMeta.setTableName( tableName );
+      newMeta.setMappingName( mappingName );
+      // check that this one doesn't have the same name as the key!
+      String alias = newMeta.getAlias();
+      if ( !Mapping.TupleMapping.KEY.toString().equalsIgnoreCase( alias ) ) {
+        if ( resultMapping.getKeyName().equals( alias ) ) {
+          throw new IOException( "Error in mapping. Column \"" + newMeta.getAlias()
+            + "\" has the same name as the table key (" + resultMapping.getKeyName() + ")" );
+        } else {
+          resultCols.put( newMeta.getAlias(), newMeta );
+        }
       }
+    }
 
-      Map<String, HBaseValueMetaInterface> resultCols = new TreeMap<String, HBaseValueMetaInterface>();
+    resultMapping.setMappedColumns( resultCols );
+    return resultMapping;
+  }
 
-      // now process the mapping
-      NavigableMap<byte[], byte[]> colsInMapping = result.getFamilyMap( COLUMNS_FAMILY_NAME );
+  private MappingRow readMappingRow( String tableName, String mappingName, byte[] compoundKey ) throws Exception {
+    try ( HBaseTable hBaseTable = hBaseConnection.getTable( getMappingTableName( tableName ) ) ) {
+      if ( !hBaseTable.exists() ) {
 
-      Set<byte[]> colNames = colsInMapping.keySet();
+        // create the mapping table
+        createMappingTable( tableName );
 
-      for ( byte[] b : colNames ) {
-        String decodedName = byteConversionUtil.toString( b );
-        byte[] c = colsInMapping.get( b );
-        if ( c == null ) {
-          throw new IOException( "No type declaration for column \"" + decodedName + "\"" );
-        }
+        throw new IOException( "Mapping \"" + tableName + "," + mappingName + "\" does not exist!" );
+      }
 
-        String decodedType = byteConversionUtil.toString( c );
-
-        HBaseValueMetaInterface newMeta = null;
-        if ( decodedType.equalsIgnoreCase( "Float" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_NUMBER, -1, -1 );
-
-          // While passing through Kettle this will be represented
-          // as a double
-          newMeta.setIsLongOrDouble( false );
-        } else if ( decodedType.equalsIgnoreCase( "Double" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_NUMBER, -1, -1 );
-        } else if ( decodedType.equalsIgnoreCase( "String" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_STRING, -1, -1 );
-        } else if ( decodedType.toLowerCase().startsWith( "date" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_DATE, -1, -1 );
-        } else if ( decodedType.equalsIgnoreCase( "Boolean" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_BOOLEAN, -1, -1 );
-        } else if ( decodedType.equalsIgnoreCase( "Integer" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_INTEGER, -1, -1 );
-
-          // Integer in the mapping is really an integer (not a long
-          // as Kettle uses internally)
-          newMeta.setIsLongOrDouble( false );
-        } else if ( decodedType.equalsIgnoreCase( "Long" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_INTEGER, -1, -1 );
-        } else if ( decodedType.equalsIgnoreCase( "BigNumber" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_BIGNUMBER, -1, -1 );
-        } else if ( decodedType.equalsIgnoreCase( "Serializable" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_SERIALIZABLE, -1, -1 );
-        } else if ( decodedType.equalsIgnoreCase( "Binary" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_BINARY, -1, -1 );
-        } else if ( decodedType.startsWith( "{" ) && decodedType.endsWith( "}" ) ) {
-          newMeta = valueMetaInterfaceFactory
-            .createHBaseValueMetaInterface( decodedName, ValueMetaInterface.TYPE_STRING, -1, -1 );
-
-          Object[] labels = null;
-          try {
-            labels = byteConversionUtil.stringIndexListToObjects( decodedType );
-          } catch ( IllegalArgumentException ex ) {
-            throw new IOException( "Indexed/nominal type must have at least one " + "label declared" );
-          }
-          newMeta.setIndex( labels );
-          newMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_INDEXED );
-        } else {
-          throw new IOException( "Unknown column type : \"" + decodedType + "\"" );
-        }
+      ResultScannerBuilder scannerBuilder = hBaseTable.createScannerBuilder( compoundKey, compoundKey );
+      scannerBuilder.setCaching( 10 );
 
-        newMeta.setTableName( tableName );
-        newMeta.setMappingName( mappingName );
-        // check that this one doesn't have the same name as the key!
-        String alias = newMeta.getAlias();
-        if ( !Mapping.TupleMapping.KEY.toString().equalsIgnoreCase( alias ) ) {
-          if ( resultMapping.getKeyName().equals( alias ) ) {
-            throw new IOException( "Error in mapping. Column \"" + newMeta.getAlias()
-              + "\" has the same name as the table key (" + resultMapping.getKeyName() + ")" );
-          } else {
-            resultCols.put( newMeta.getAlias(), newMeta );
-          }
+      try ( ResultScanner resultScanner = scannerBuilder.build() ) {
+        Result result = resultScanner.next();
+        if ( result == null ) {
+          throw new IOException( "Mapping \"" + tableName + "," + mappingName + "\" does not exist!" );
         }
+        return new MappingRow( result.getFamilyMap( KEY_FAMILY_NAME ), result.getFamilyMap( COLUMNS_FAMILY_NAME ) );
       }
-
-      resultMapping.setMappedColumns( resultCols );
-      return resultMapping;
     }
   }
 
@@ -0,0 +1,177 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.mapping;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.hadoop.shim.api.hbase.HBaseService;
+
+/**
+ * Process wide cache of what {@link MappingAdmin} reads from the mapping tables, so that steps initializing in parallel
+ * and dialogs reloading their mappings do not each go to HBase. Entries are kept per connection key, mapping table,
+ * mapped table and mapping name; they expire a fixed time after they were read and are dropped as soon as a mapping
+ * is written or deleted through any MappingAdmin of this process.
+ */
+public class MappingCache {
+
+  public static final long DEFAULT_TTL_MILLIS = 30000;
+  static final int MAX_ENTRIES = 1000;
+
+  private static final MappingCache INSTANCE = new MappingCache( MAX_ENTRIES, DEFAULT_TTL_MILLIS,
+    System::currentTimeMillis );
+
+  @FunctionalInterface
+  interface Loader<V> {
+    V load() throws Exception;
+  }
+
+  private static class Key {
+    private final Object connectionKey;
+    private final String mappingTableName;
+    private final String tableName;
+    private final String mappingName;
+
+    private Key( Object connectionKey, String mappingTableName, String tableName, String mappingName ) {
+      this.connectionKey = connectionKey;
+      this.mappingTableName = mappingTableName;
+      this.tableName = tableName;
+      this.mappingName = mappingName;
+    }
+
+    @Override
+    public boolean equals( Object o ) {
+      if ( this == o ) {
+        return true;
+      }
+      if ( !( o instanceof Key ) ) {
+        return false;
+      }
+      Key key = (Key) o;
+      return connectionKey.equals( key.connectionKey ) && mappingTableName.equals( key.mappingTableName )
+        && Objects.equals( tableName, key.tableName ) && Objects.equals( mappingName, key.mappingName );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash( connectionKey, mappingTableName, tableName, mappingName );
+    }
+  }
+
+  private static class Entry {
+    private final Object value;
+    private final long expires;
+
+    private Entry( Object value, long expires ) {
+      this.value = value;
+      this.expires = expires;
+    }
+  }
+
+  private final int maxEntries;
+  private final long ttlMillis;
+  private final LongSupplier clock;
+  // access ordered, so the first entry is the least recently used one
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>( 16, 0.75f, true );
+  // bumped on every invalidation, so that a load that raced with a write is not cached
+  private long generation;
+
+  MappingCache( int maxEntries, long ttlMillis, LongSupplier clock ) {
+    this.maxEntries = maxEntries;
+    this.ttlMillis = ttlMillis;
+    this.clock = clock;
+  }
+
+  public static MappingCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Identifies the cluster a connection talks to, for use as the connection key of a {@link MappingAdmin}.
+   *
+   * @param hBaseService  the HBase service of the named cluster
+   * @param siteConfig    the (variable substituted) hbase-site.xml location, may be null or empty
+   * @param defaultConfig the (variable substituted) hbase-default.xml location, may be null or empty
+   * @return the connection key, the same for a null and an empty location
+   */
+  public static Object connectionKey( HBaseService hBaseService, String siteConfig, String defaultConfig ) {
+    return Arrays.asList( hBaseService, Const.isEmpty( siteConfig ) ? null : siteConfig,
+      Const.isEmpty( defaultConfig ) ? null : defaultConfig );
+  }
+
+  /**
+   * Returns the cached value or loads and caches it when it is missing or expired. Nothing is cached when the connection
+   * key is null or the loader fails.
+   *
+   * @param connectionKey    the connection key, null to bypass the cache
+   * @param mappingTableName the fully qualified name of the mapping table the value is read from
+   * @param tableName        the mapped table the value is about, null for values about the whole mapping table
+   * @param mappingName      the mapping the value is about, null for values about all mappings of the table
+   * @param loader           reads the value from HBase
+   * @return the value
+   * @throws Exception if the value has to be loaded and the loader fails
+   */
+  @SuppressWarnings( "unchecked" )
+  <V> V get( Object connectionKey, String mappingTableName, String tableName, String mappingName, Loader<V> loader )
+    throws Exception {
+    if ( connectionKey == null ) {
+      return loader.load();
+    }
+    Key key = new Key( connectionKey, mappingTableName, tableName, mappingName );
+    long now = clock.getAsLong();
+    long loadGeneration;
+    synchronized ( this ) {
+      Entry entry = entries.get( key );
+      if ( entry != null && entry.expires > now ) {
+        return (V) entry.value;
+      }
+      loadGeneration = generation;
+    }
+    V value = loader.load();
+    synchronized ( this ) {
+      if ( loadGeneration == generation ) {
+        entries.put( key, new Entry( value, now + ttlMillis ) );
+        if ( entries.size() > maxEntries ) {
+          Iterator<Key> leastRecentlyUsed = entries.keySet().iterator();
+          leastRecentlyUsed.next();
+          leastRecentlyUsed.remove();
+        }
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Drop everything read from a mapping table, whatever connection it was read through.
+   *
+   * @param mappingTableName the fully qualified name of the mapping table
+   */
+  public synchronized void invalidate( String mappingTableName ) {
+    generation++;
+    entries.keySet().removeIf( key -> key.mappingTableName.equals( mappingTableName ) );
+  }
+
+  public synchronized void clear() {
+    generation++;
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+}
@@ -675,6 +675,30 @@ public class MappingEditor extends Composite implements ConfigurationProducer {
     return m_admin == null;
   }
 
+  /**
+   * Build the HBase shell command that creates a table pre-split at the boundaries of the salt buckets.
+   */
+  static String getPreSplitCreateCommand( String tableName, Set<String> families, String compression,
+                                          String bloomFilter, int saltBuckets ) {
+    StringBuilder command = new StringBuilder( "create '" ).append( tableName ).append( "'" );
+    for ( String family : families ) {
+      command.append( ", {NAME => '" ).append( family ).append( "'" );
+      if ( compression != null ) {
+        command.append( ", COMPRESSION => '" ).append( compression ).append( "'" );
+      }
+      if ( bloomFilter != null ) {
+        command.append( ", BLOOMFILTER => '" ).append( bloomFilter ).append( "'" );
+      }
+      command.append( "}" );
+    }
+    command.append( ", {SPLITS => [" );
+    byte[][] splitKeys = KeySalter.getSplitKeys( saltBuckets );
+    for ( int i = 0; i < splitKeys.length; i++ ) {
+      command.append( i == 0 ? "" : ", " ).append( String.format( "\"\\x%02X\"", splitKeys[ i ][ 0 ] & 0xff ) );
+    }
+    return command.append( "]}" ).toString();
+  }
+
   private void showConnectionErrorDialog( Exception ex ) {
     new ErrorDialog( m_shell, Messages.getString( "MappingDialog.Error.Title.UnableToConnect" ), Messages.getString(
       "MappingDialog.Error.Message.UnableToConnect" ) + "\n\n", ex );
@@ -1075,14 +1099,29 @@ public class MappingEditor extends Composite implements ConfigurationProducer {
           String compression = null;
           // String bloomFilter = "NONE";
           String bloomFilter = null;
+          // and the number of salt buckets to pre-split the table for: table@compression@bloomFilter@buckets
+          int saltBuckets = 0;
           String[] opts = m_existingTableNamesCombo.getText().trim().split( "@" );
           if ( opts.length > 1 ) {
-            compression = opts[ 1 ];
-            if ( opts.length == 3 ) {
-              bloomFilter = opts[ 2 ];
+            compression = Utils.isEmpty( opts[ 1 ] ) ? null : opts[ 1 ];
+            if ( opts.length >= 3 ) {
+              bloomFilter = Utils.isEmpty( opts[ 2 ] ) ? null : opts[ 2 ];
+            }
+            if ( opts.length == 4 ) {
+              saltBuckets = Const.toInt( opts[ 3 ], 0 );
             }
           }
 
+          if ( KeySalter.isSalted( saltBuckets ) ) {
+            // the shim creates tables with a single region, so a pre-split table has to be created in the HBase shell
+            KeySalter.checkBuckets( saltBuckets );
+            MessageDialog.openInformation( m_shell, Messages.getString( "MappingDialog.Info.Title.PreSplitTable" ),
+              Messages.getString( "MappingDialog.Info.Message.PreSplitTable", tableName,
+                String.valueOf( saltBuckets ) ) + "\n\n" + getPreSplitCreateCommand( tableName, families, compression,
+                bloomFilter, saltBuckets ) );
+            return;
+          }
+
           Properties creationProps = new Properties();
           if ( compression != null ) {
             creationProps.setProperty( HBaseConnection.COL_DESCRIPTOR_COMPRESSION_KEY, compression );
@@ -1277,6 +1316,10 @@ public class MappingEditor extends Composite implements ConfigurationProducer {
     return getHBaseService().getHBaseConnection( m_transMeta, null, null, null );
   }
 
+  public Object getConnectionKey() throws ClusterInitializationException {
+    return MappingCache.connectionKey( getHBaseService(), null, null );
+  }
+
   public String getCurrentConfiguration() {
     String host = "";
     String port = "";
@@ -57,7 +57,7 @@ public class MappingUtils {
     try {
       hbConnection = cProducer.getHBaseConnection();
       hbConnection.checkHBaseAvailable();
-      return new MappingAdmin( hbConnection );
+      return new MappingAdmin( hbConnection, cProducer.getConnectionKey() );
     } catch ( ClusterInitializationException | IOException e ) {
       throw new HBaseConnectionException( Messages.getString( "MappingDialog.Error.Message.UnableToConnect" ), e );
     }
@@ -66,7 +66,7 @@ public class MappingUtils {
   public static MappingAdmin getMappingAdmin( HBaseService hBaseService, VariableSpace variableSpace, String siteConfig,
       String defaultConfig ) throws IOException {
     HBaseConnection hBaseConnection = hBaseService.getHBaseConnection( variableSpace, siteConfig, defaultConfig, null );
-    return new MappingAdmin( hBaseConnection );
+    return new MappingAdmin( hBaseConnection, MappingCache.connectionKey( hBaseService, siteConfig, defaultConfig ) );
   }
 
   public static Mapping getMapping( MappingDefinition mappingDefinition, HBaseService hBaseService )
@@ -0,0 +1,226 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTable;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTableWriteOperationManager;
+
+/**
+ * Collects row deletes for HBase Output and submits them together. A full batch is spread over one table handle per
+ * thread so that several delete RPCs are in flight at once, and a key that occurs more than once in a batch is only
+ * deleted once. The outcome of every delete is reported back per row, in the order the rows were added.
+ */
+public class HBaseDeleteBatcher implements Closeable {
+
+  public static final int DEFAULT_THREADS = 4;
+
+  /** Submit the batch early once the keys collected reach this many bytes */
+  static final long MAX_BATCH_BYTES = 4L * 1024 * 1024;
+
+  /**
+   * A row waiting to be deleted and, once its batch has been submitted, the outcome of the delete.
+   */
+  public static class PendingDelete {
+    private final byte[] key;
+    private final Object[] row;
+    private PendingDelete sameKey;
+    private Exception failure;
+
+    PendingDelete( byte[] key, Object[] row ) {
+      this.key = key;
+      this.row = row;
+    }
+
+    public byte[] getKey() {
+      return key;
+    }
+
+    public Object[] getRow() {
+      return row;
+    }
+
+    /**
+     * @return the exception the delete failed with or null if the row was deleted
+     */
+    public Exception getFailure() {
+      return failure;
+    }
+  }
+
+  private final List<HBaseTable> tables;
+  private final List<HBaseTableWriteOperationManager> writeOperationManagers = new ArrayList<>();
+  private final ExecutorService executor;
+  private final int batchSize;
+
+  private List<PendingDelete> pending = new ArrayList<>();
+  private long pendingBytes;
+  private long deletesExecuted;
+  private long batchesExecuted;
+
+  /**
+   * @param tables    one handle on the target table per thread, closed along with this batcher
+   * @param batchSize the number of deletes to collect before submitting them
+   * @throws Exception if a write operation manager can not be created for one of the tables
+   */
+  public HBaseDeleteBatcher( List<HBaseTable> tables, int batchSize ) throws Exception {
+    if ( tables.isEmpty() ) {
+      throw new IllegalArgumentException( "At least one table handle is required" );
+    }
+    this.tables = tables;
+    this.batchSize = Math.max( 1, batchSize );
+    for ( HBaseTable table : tables ) {
+      writeOperationManagers.add( table.createWriteOperationManager( null ) );
+    }
+    executor = tables.size() > 1 ? Executors.newFixedThreadPool( tables.size(), runnable -> {
+      Thread thread = new Thread( runnable, "HBaseDeleteBatcher" );
+      thread.setDaemon( true );
+      return thread;
+    } ) : null;
+  }
+
+  /**
+   * Add a row to the current batch, submitting the batch if it is full.
+   *
+   * @param key the encoded key of the row to delete
+   * @param row the incoming row
+   * @return the rows of the submitted batch, or an empty list if the batch is not full yet
+   * @throws KettleException if the batch could not be submitted
+   */
+  public List<PendingDelete> add( byte[] key, Object[] row ) throws KettleException {
+    pending.add( new PendingDelete( key, row ) );
+    pendingBytes += key.length;
+    if ( pending.size() >= batchSize || pendingBytes >= MAX_BATCH_BYTES ) {
+      return flush();
+    }
+    return Collections.emptyList();
+  }
+
+  /**
+   * Submit whatever is in the current batch.
+   *
+   * @return the rows of the submitted batch in the order they were added
+   * @throws KettleException if the batch could not be submitted
+   */
+  public List<PendingDelete> flush() throws KettleException {
+    if ( pending.isEmpty() ) {
+      return Collections.emptyList();
+    }
+    List<PendingDelete> batch = pending;
+    pending = new ArrayList<>();
+    pendingBytes = 0;
+
+    Map<ByteBuffer, PendingDelete> byKey = new HashMap<>();
+    List<PendingDelete> distinct = new ArrayList<>( batch.size() );
+    for ( PendingDelete delete : batch ) {
+      PendingDelete first = byKey.putIfAbsent( ByteBuffer.wrap( delete.key ), delete );
+      if ( first == null ) {
+        distinct.add( delete );
+      } else {
+        delete.sameKey = first;
+      }
+    }
+
+    execute( distinct );
+    for ( PendingDelete delete : batch ) {
+      if ( delete.sameKey != null ) {
+        delete.failure = delete.sameKey.failure;
+      }
+    }
+    deletesExecuted += distinct.size();
+    batchesExecuted++;
+    return batch;
+  }
+
+  public long getDeletesExecuted() {
+    return deletesExecuted;
+  }
+
+  public long getBatchesExecuted() {
+    return batchesExecuted;
+  }
+
+  private void execute( List<PendingDelete> deletes ) throws KettleException {
+    int workers = Math.min( writeOperationManagers.size(), deletes.size() );
+    if ( workers <= 1 ) {
+      execute( writeOperationManagers.get( 0 ), deletes );
+      return;
+    }
+
+    List<Future<?>> futures = new ArrayList<>( workers );
+    int chunkSize = ( deletes.size() + workers - 1 ) / workers;
+    for ( int i = 0; i < workers; i++ ) {
+      List<PendingDelete> chunk = deletes.subList( i * chunkSize, Math.min( deletes.size(), ( i + 1 ) * chunkSize ) );
+      HBaseTableWriteOperationManager writeOperationManager = writeOperationManagers.get( i );
+      futures.add( executor.submit( () -> execute( writeOperationManager, chunk ) ) );
+    }
+    try {
+      for ( Future<?> future : futures ) {
+        future.get();
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( e );
+    } catch ( ExecutionException e ) {
+      throw new KettleException( e.getCause() );
+    }
+  }
+
+  private static void execute( HBaseTableWriteOperationManager writeOperationManager, List<PendingDelete> deletes ) {
+    for ( PendingDelete delete : deletes ) {
+      try {
+        writeOperationManager.createDelete( delete.key ).execute();
+      } catch ( Exception ex ) {
+        delete.failure = ex;
+      }
+    }
+  }
+
+  /**
+   * Release the threads and table handles. Deletes that have not been submitted yet are dropped.
+   */
+  @Override
+  public void close() {
+    if ( executor != null ) {
+      executor.shutdownNow();
+    }
+    for ( HBaseTableWriteOperationManager writeOperationManager : writeOperationManagers ) {
+      try {
+        writeOperationManager.close();
+      } catch ( IOException e ) {
+        // Ignore
+      }
+    }
+    for ( HBaseTable table : tables ) {
+      try {
+        table.close();
+      } catch ( IOException e ) {
+        // Ignore
+      }
+    }
+  }
+}
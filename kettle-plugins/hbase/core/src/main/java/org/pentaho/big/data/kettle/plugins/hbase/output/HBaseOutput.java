@@ -15,11 +15,14 @@ package org.pentaho.big.data.kettle.plugins.hbase.output;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.KeySalter;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingAdmin;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingCache;
 import org.pentaho.big.data.kettle.plugins.hbase.output.KettleRowToHBaseTuple.FieldException;
 import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
 import org.pentaho.hadoop.shim.api.hbase.HBaseConnection;
@@ -30,6 +33,7 @@ import org.pentaho.hadoop.shim.api.hbase.table.HBaseDelete;
 import org.pentaho.hadoop.shim.api.hbase.table.HBasePut;
 import org.pentaho.hadoop.shim.api.hbase.table.HBaseTable;
 import org.pentaho.hadoop.shim.api.hbase.table.HBaseTableWriteOperationManager;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
@@ -57,6 +61,8 @@ public class HBaseOutput extends BaseStep implements StepInterface {
   private final NamedClusterServiceLocator namedClusterServiceLocator;
   private HBaseService hBaseService;
   private HBaseTableWriteOperationManager targetTableWriteOperationManager;
+  private HBaseDeleteBatcher deleteBatcher;
+  private HBaseWritePipeline writePipeline;
 
   public HBaseOutput( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
       Trans trans, NamedClusterServiceLocator namedClusterServiceLocator ) {
@@ -92,6 +98,9 @@ public class HBaseOutput extends BaseStep implements StepInterface {
   /** Object used when a tuple is supplied as the incoming fields */
   protected KettleRowToHBaseTuple tupleRowConverter;
 
+  /** The number of buckets row keys are salted into, 0 or 1 if keys are not salted */
+  protected int m_saltBuckets;
+
   @Override
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
 
@@ -103,6 +112,17 @@ public class HBaseOutput extends BaseStep implements StepInterface {
       // clean up/close connections etc.
       // target table will be null if we haven't seen any input
       if ( targetTable != null ) {
+        closeWritePipeline();
+        if ( deleteBatcher != null ) {
+          try {
+            putDeletedRows( deleteBatcher.flush() );
+            logBasic( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.DeleteBatchStats",
+              deleteBatcher.getDeletesExecuted(), deleteBatcher.getBatchesExecuted() ) );
+          } finally {
+            deleteBatcher.close();
+            deleteBatcher = null;
+          }
+        }
         if ( targetTableWriteOperationManager != null ) {
           try {
             if ( !targetTableWriteOperationManager.isAutoFlush() ) {
@@ -166,7 +186,8 @@ public class HBaseOutput extends BaseStep implements StepInterface {
             "HBaseOutput.Error.UnableToObtainConnection", ex.getMessage() ), ex );
       }
       try {
-        m_mappingAdmin = new MappingAdmin( m_hbAdmin );
+        m_mappingAdmin = new MappingAdmin( m_hbAdmin, MappingCache.connectionKey( hBaseService,
+          environmentSubstitute( m_meta.getCoreConfigURL() ), environmentSubstitute( m_meta.getDefaultConfigURL() ) ) );
       } catch ( Exception ex ) {
         throw new KettleException( BaseMessages.getString( HBaseOutputMeta.PKG,
             "HBaseOutput.Error.UnableToObtainConnection", ex.getMessage() ), ex );
@@ -212,6 +233,16 @@ public class HBaseOutput extends BaseStep implements StepInterface {
       }
       m_columnsMappedByAlias = m_tableMapping.getMappedColumns();
 
+      m_saltBuckets = Const.toInt( environmentSubstitute( m_meta.getSaltBuckets() ), 0 );
+      try {
+        KeySalter.checkBuckets( m_saltBuckets );
+      } catch ( IllegalArgumentException ex ) {
+        throw new KettleException( ex.getMessage(), ex );
+      }
+      if ( KeySalter.isSalted( m_saltBuckets ) ) {
+        logBasic( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.SaltingKeys", m_saltBuckets ) );
+      }
+
       if ( !m_meta.m_deleteRowKey && m_tableMapping.isTupleMapping() ) {
         /*
          * We are not executing a delete and the mapping is a tuple mapping
@@ -219,6 +250,7 @@ public class HBaseOutput extends BaseStep implements StepInterface {
          */
         try {
           tupleRowConverter = new KettleRowToHBaseTuple( getInputRowMeta(), m_tableMapping, m_columnsMappedByAlias );
+          tupleRowConverter.setSaltBuckets( m_saltBuckets );
         } catch ( Exception e ) {
           throw new KettleException( e );
         }
@@ -257,13 +289,17 @@ public class HBaseOutput extends BaseStep implements StepInterface {
                   .getMappingName() ) );
         }
 
+        // resolve the incoming fields against the mapping once rather than for every row
+        m_data.setColumnPlan( HBaseOutputData.compileColumnPlan( inMeta, m_incomingKeyIndex,
+            m_columnsMappedByAlias ) );
+
       }
 
+      // set a write buffer size (and disable auto flush)
+      Long writeBufferSize = null;
       try {
         logBasic( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.ConnectingToTargetTable" ) );
 
-        // set a write buffer size (and disable auto flush)
-        Long writeBufferSize = null;
         if ( !Utils.isEmpty( m_meta.getWriteBufferSize() ) ) {
           writeBufferSize = Long.parseLong( environmentSubstitute( m_meta.getWriteBufferSize() ) );
 
@@ -279,6 +315,19 @@ public class HBaseOutput extends BaseStep implements StepInterface {
             "HBaseOutput.Error.ProblemConnectingToTargetTable", e.getMessage() ), e );
       }
 
+      if ( m_meta.getDeleteRowKey() ) {
+        int deleteBatchSize = Const.toInt( environmentSubstitute( m_meta.getDeleteBatchSize() ), 1 );
+        if ( deleteBatchSize > 1 ) {
+          deleteBatcher = createDeleteBatcher( targetName, deleteBatchSize );
+        }
+      } else if ( m_meta.getAsyncWrite() ) {
+        if ( tupleRowConverter != null ) {
+          logBasic( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.WritePipelineNotForTupleMapping" ) );
+        } else {
+          writePipeline = createWritePipeline( targetName, writeBufferSize );
+        }
+      }
+
       // output (downstream) is the same as input
       m_data.setOutputRowMeta( getInputRowMeta() );
     }
@@ -286,122 +335,286 @@ public class HBaseOutput extends BaseStep implements StepInterface {
 
     if ( m_meta.getDeleteRowKey() ) {
 
+      byte[] encodedKeyBytes;
       try {
 
         if ( m_incomingKeyValueMeta.isNull( r[m_incomingKeyIndex] ) ) {
           throw new KettleException( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.IncomingRowHasNullKeyValue" ) );
         }
 
-        byte[] encodedKeyBytes = m_bytesUtil.encodeKeyValue( r[m_incomingKeyIndex], m_incomingKeyValueMeta, m_tableMapping.getKeyType() );
-        HBaseDelete hBaseDelete = targetTableWriteOperationManager.createDelete( encodedKeyBytes );
-        hBaseDelete.execute();
+        encodedKeyBytes = KeySalter.salt( m_bytesUtil.encodeKeyValue( r[m_incomingKeyIndex], m_incomingKeyValueMeta,
+            m_tableMapping.getKeyType() ), m_saltBuckets );
+        if ( deleteBatcher == null ) {
+          HBaseDelete hBaseDelete = targetTableWriteOperationManager.createDelete( encodedKeyBytes );
+          hBaseDelete.execute();
+        }
 
+      } catch ( Exception ex ) {
+        handleDeleteError( r, ex );
+        return true;
+      }
+
+      if ( deleteBatcher != null ) {
+        // rows are passed on once the batch they are in has been submitted
+        putDeletedRows( deleteBatcher.add( encodedKeyBytes, r ) );
+        return true;
+      }
+
+    } else if ( !writeRow( r ) ) {
+      return true;
+    }
+
+    // pass on the data to any downstream steps
+    putRow( m_data.getOutputRowMeta(), r );
+
+    if ( log.isRowLevel() ) {
+      log.logRowlevel( toString(), "Read row #" + getLinesRead() + " : " + r );
+    }
+
+    if ( checkFeedback( getLinesRead() ) ) {
+      logBasic( "Linenr " + getLinesRead() );
+    }
+
+    return true;
+  }
+
+  /**
+   * Write a row through the write pipeline or as a put of its own.
+   *
+   * @return true if the row was written and is to be passed on now, false if it was sent to the error stream or
+   * handed to the write pipeline, which passes it on once it has been flushed
+   */
+  private boolean writeRow( Object[] r ) throws KettleException {
+    if ( writePipeline != null ) {
+      return submitMutation( r );
+    }
+
+    // Put the data
+    HBasePut hBasePut;
+
+    if ( tupleRowConverter != null ) {
+
+      try {
+
+        hBasePut =
+            tupleRowConverter.createTuplePut( targetTableWriteOperationManager, m_bytesUtil, r, !m_meta
+                .getDisableWriteToWAL() );
       } catch ( Exception ex ) {
 
         if ( getStepMeta().isDoingErrorHandling() ) {
           String errorDescriptions = "";
-          if ( !Utils.isEmpty( ex.getMessage() ) ) {
+          String errorFields = "Unknown";
+          if ( ex instanceof FieldException ) {
+            errorFields =  ( (FieldException) ex ).getFieldString();
+            errorDescriptions = BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.MissingFieldData", errorFields );
+          } else if ( !Utils.isEmpty( ex.getMessage() ) ) {
             errorDescriptions = ex.getMessage();
           } else {
-            errorDescriptions = BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.ErrorCreatingDelete" );
+            errorDescriptions = BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.ErrorCreatingPut" );
           }
-          putError( getInputRowMeta(), r, 1, errorDescriptions, m_tableMapping.getKeyName(), "HBaseOutput004" );
+          putError( getInputRowMeta(), r, 1, errorDescriptions, errorFields, "HBaseOutput003" );
 
-          return true;
+          return false;
         } else {
           throw new KettleException( ex );
         }
+
       }
 
     } else {
-      // Put the data
-      HBasePut hBasePut;
-
-      if ( tupleRowConverter != null ) {
-
-        try {
-
-          hBasePut =
-              tupleRowConverter.createTuplePut( targetTableWriteOperationManager, m_bytesUtil, r, !m_meta
-                  .getDisableWriteToWAL() );
-        } catch ( Exception ex ) {
 
+      try {
+        // key must not be null
+        hBasePut =
+            HBaseOutputData.initializeNewPut( getInputRowMeta(), m_incomingKeyIndex, r, m_tableMapping, m_bytesUtil,
+                targetTableWriteOperationManager, !m_meta.getDisableWriteToWAL(), m_saltBuckets );
+        if ( hBasePut == null ) {
+          String errorDescriptions =
+              BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.IncomingRowHasNullKeyValue" );
           if ( getStepMeta().isDoingErrorHandling() ) {
-            String errorDescriptions = "";
-            String errorFields = "Unknown";
-            if ( ex instanceof FieldException ) {
-              errorFields =  ( (FieldException) ex ).getFieldString();
-              errorDescriptions = BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.MissingFieldData", errorFields );
-            } else if ( !Utils.isEmpty( ex.getMessage() ) ) {
-              errorDescriptions = ex.getMessage();
-            } else {
-              errorDescriptions = BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.ErrorCreatingPut" );
-            }
-            putError( getInputRowMeta(), r, 1, errorDescriptions, errorFields, "HBaseOutput003" );
+            String errorFields = m_tableMapping.getKeyName();
+            putError( getInputRowMeta(), r, 1, errorDescriptions, errorFields, "HBaseOutput001" );
 
-            return true;
+            return false;
           } else {
-            throw new KettleException( ex );
+            throw new KettleException( errorDescriptions );
           }
-
         }
+      } catch ( Exception ex ) {
+        throw new KettleException( BaseMessages.getString( HBaseOutputMeta.PKG,
+            "HBaseOutput.Error.UnableToSetTargetTable" ), ex );
+      }
 
+      // now encode the rest of the fields. Nulls do not get inserted of course
+      HBaseOutputData.addColumnsToPut( r, m_data.getColumnPlan(), hBasePut );
+    }
+
+    try {
+      hBasePut.execute();
+    } catch ( Exception e ) {
+      String errorDescriptions =
+          BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.ProblemInsertingRowIntoHBase", e
+              .getMessage() );
+      if ( getStepMeta().isDoingErrorHandling() ) {
+        String errorFields = "Unknown";
+        putError( getInputRowMeta(), r, 1, errorDescriptions, errorFields, "HBaseOutput002" );
       } else {
+        throw new KettleException( errorDescriptions, e );
+      }
+    }
+    return true;
+  }
+
+  private HBaseDeleteBatcher createDeleteBatcher( String targetName, int deleteBatchSize ) throws KettleException {
+    int threads = Math.max( 1, Const.toInt( environmentSubstitute( m_meta.getDeleteThreads() ),
+      HBaseDeleteBatcher.DEFAULT_THREADS ) );
+    logBasic( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.BatchingDeletes", deleteBatchSize, threads ) );
 
+    // a table handle per thread, the connection itself is shared
+    List<HBaseTable> tables = new ArrayList<>( threads );
+    try {
+      for ( int i = 0; i < threads; i++ ) {
+        tables.add( m_hbAdmin.getTable( targetName ) );
+      }
+      return new HBaseDeleteBatcher( tables, deleteBatchSize );
+    } catch ( Exception e ) {
+      for ( HBaseTable table : tables ) {
         try {
-          // key must not be null
-          hBasePut =
-              HBaseOutputData.initializeNewPut( getInputRowMeta(), m_incomingKeyIndex, r, m_tableMapping, m_bytesUtil,
-                  targetTableWriteOperationManager, !m_meta.getDisableWriteToWAL() );
-          if ( hBasePut == null ) {
-            String errorDescriptions =
-                BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.IncomingRowHasNullKeyValue" );
-            if ( getStepMeta().isDoingErrorHandling() ) {
-              String errorFields = m_tableMapping.getKeyName();
-              putError( getInputRowMeta(), r, 1, errorDescriptions, errorFields, "HBaseOutput001" );
-
-              return true;
-            } else {
-              throw new KettleException( errorDescriptions );
-            }
-          }
-        } catch ( Exception ex ) {
-          throw new KettleException( BaseMessages.getString( HBaseOutputMeta.PKG,
-              "HBaseOutput.Error.UnableToSetTargetTable" ), ex );
+          table.close();
+        } catch ( IOException ex ) {
+          // Ignore
         }
-
-        // now encode the rest of the fields. Nulls do not get inserted of course
-        HBaseOutputData.addColumnsToPut( getInputRowMeta(), r, m_incomingKeyIndex, m_columnsMappedByAlias, hBasePut,
-            m_bytesUtil );
       }
+      throw new KettleException( BaseMessages.getString( HBaseOutputMeta.PKG,
+          "HBaseOutput.Error.ProblemConnectingToTargetTable", e.getMessage() ), e );
+    }
+  }
 
-      try {
-        hBasePut.execute();
-      } catch ( Exception e ) {
-        String errorDescriptions =
-            BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.ProblemInsertingRowIntoHBase", e
-                .getMessage() );
-        if ( getStepMeta().isDoingErrorHandling() ) {
-          String errorFields = "Unknown";
-          putError( getInputRowMeta(), r, 1, errorDescriptions, errorFields, "HBaseOutput002" );
-        } else {
-          throw new KettleException( errorDescriptions, e );
+  private HBaseWritePipeline createWritePipeline( String targetName, Long writeBufferSize ) throws KettleException {
+    int threads = Math.max( 1, Const.toInt( environmentSubstitute( m_meta.getAsyncFlushThreads() ),
+      HBaseWritePipeline.DEFAULT_FLUSH_THREADS ) );
+    long maxBufferedBytes = Const.toLong( environmentSubstitute( m_meta.getAsyncMaxBufferedBytes() ),
+      HBaseWritePipeline.DEFAULT_MAX_BUFFERED_BYTES );
+    long flushInterval = Const.toLong( environmentSubstitute( m_meta.getAsyncFlushInterval() ),
+      HBaseWritePipeline.DEFAULT_FLUSH_INTERVAL_MILLIS );
+    logBasic( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.UsingWritePipeline", threads,
+      maxBufferedBytes ) );
+
+    // a table handle per flush thread, the connection itself is shared
+    List<HBaseTable> tables = new ArrayList<>( threads );
+    try {
+      for ( int i = 0; i < threads; i++ ) {
+        tables.add( m_hbAdmin.getTable( targetName ) );
+      }
+      return new HBaseWritePipeline( tables, writeBufferSize, maxBufferedBytes, flushInterval );
+    } catch ( Exception e ) {
+      for ( HBaseTable table : tables ) {
+        try {
+          table.close();
+        } catch ( IOException ex ) {
+          // Ignore
         }
       }
+      throw new KettleException( BaseMessages.getString( HBaseOutputMeta.PKG,
+          "HBaseOutput.Error.ProblemConnectingToTargetTable", e.getMessage() ), e );
     }
+  }
 
-    // pass on the data to any downstream steps
-    putRow( m_data.getOutputRowMeta(), r );
+  /**
+   * Encode the row and hand it to the write pipeline. The row is passed on once it has been flushed, or sent to the
+   * error stream if the flush fails, so a row never ends up in both.
+   *
+   * @return always false, the row is not to be passed on now
+   */
+  private boolean submitMutation( Object[] r ) throws KettleException {
+    HBaseWritePipeline.Mutation mutation;
+    try {
+      mutation = HBaseOutputData.initializeNewMutation( getInputRowMeta(), m_incomingKeyIndex, r, m_tableMapping,
+          m_bytesUtil, !m_meta.getDisableWriteToWAL(), m_saltBuckets );
+    } catch ( Exception ex ) {
+      throw new KettleException( BaseMessages.getString( HBaseOutputMeta.PKG,
+          "HBaseOutput.Error.UnableToSetTargetTable" ), ex );
+    }
+    if ( mutation == null ) {
+      String errorDescriptions =
+          BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.IncomingRowHasNullKeyValue" );
+      if ( getStepMeta().isDoingErrorHandling() ) {
+        putError( getInputRowMeta(), r, 1, errorDescriptions, m_tableMapping.getKeyName(), "HBaseOutput001" );
+        return false;
+      }
+      throw new KettleException( errorDescriptions );
+    }
 
-    if ( log.isRowLevel() ) {
-      log.logRowlevel( toString(), "Read row #" + getLinesRead() + " : " + r );
+    HBaseOutputData.addColumnsToMutation( r, m_data.getColumnPlan(), mutation );
+    try {
+      writePipeline.submit( mutation );
+    } catch ( KettleException e ) {
+      if ( isStopped() ) {
+        // setStopped closed the pipeline, the row is neither written nor passed on
+        return false;
+      }
+      throw e;
     }
+    putPipelineResults( writePipeline );
+    return false;
+  }
 
-    if ( checkFeedback( getLinesRead() ) ) {
-      logBasic( "Linenr " + getLinesRead() );
+  /**
+   * Write out everything still in the write pipeline and route any failures to the error handling.
+   */
+  private void closeWritePipeline() throws KettleException {
+    if ( writePipeline == null ) {
+      return;
     }
+    HBaseWritePipeline pipeline = writePipeline;
+    writePipeline = null;
+    pipeline.close();
+    logBasic( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.WritePipelineStats",
+      pipeline.getPutsBuffered(), pipeline.getFlushes(), Arrays.toString( pipeline.getFlushLatencyHistogram() ) ) );
+    putPipelineResults( pipeline );
+  }
 
-    return true;
+  /**
+   * Pass on the rows the write pipeline has flushed and route the ones it failed to write to the error handling.
+   */
+  private void putPipelineResults( HBaseWritePipeline pipeline ) throws KettleException {
+    for ( Object[] r : pipeline.drainWritten() ) {
+      putRow( m_data.getOutputRowMeta(), r );
+    }
+    for ( HBaseWritePipeline.Failure failure : pipeline.drainFailures() ) {
+      String errorDescriptions =
+          BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.ProblemInsertingRowIntoHBase", failure
+              .getException().getMessage() );
+      if ( getStepMeta().isDoingErrorHandling() ) {
+        putError( getInputRowMeta(), failure.getRow(), 1, errorDescriptions, "Unknown", "HBaseOutput002" );
+      } else {
+        throw new KettleException( errorDescriptions, failure.getException() );
+      }
+    }
+  }
+
+  private void putDeletedRows( List<HBaseDeleteBatcher.PendingDelete> deletes ) throws KettleException {
+    for ( HBaseDeleteBatcher.PendingDelete delete : deletes ) {
+      if ( delete.getFailure() != null ) {
+        handleDeleteError( delete.getRow(), delete.getFailure() );
+      } else {
+        putRow( m_data.getOutputRowMeta(), delete.getRow() );
+      }
+    }
+  }
+
+  private void handleDeleteError( Object[] r, Exception ex ) throws KettleException {
+    if ( getStepMeta().isDoingErrorHandling() ) {
+      String errorDescriptions = "";
+      if ( !Utils.isEmpty( ex.getMessage() ) ) {
+        errorDescriptions = ex.getMessage();
+      } else {
+        errorDescriptions = BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.ErrorCreatingDelete" );
+      }
+      putError( getInputRowMeta(), r, 1, errorDescriptions, m_tableMapping.getKeyName(), "HBaseOutput004" );
+    } else {
+      throw new KettleException( ex );
+    }
   }
 
   @Override
@@ -423,6 +636,24 @@ public class HBaseOutput extends BaseStep implements StepInterface {
     return false;
   }
 
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    // only set when processRow did not get to the end of the input, write out what was accepted so far
+    if ( writePipeline != null ) {
+      writePipeline.close();
+      for ( HBaseWritePipeline.Failure failure : writePipeline.drainFailures() ) {
+        logError( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.Error.ProblemInsertingRowIntoHBase",
+          failure.getException().getMessage() ), failure.getException() );
+      }
+      writePipeline = null;
+    }
+    if ( deleteBatcher != null ) {
+      deleteBatcher.close();
+      deleteBatcher = null;
+    }
+    super.dispose( smi, sdi );
+  }
+
   @Override
   public void setStopped( boolean stopped ) {
     if ( isStopped() && stopped == true ) {
@@ -431,6 +662,13 @@ public class HBaseOutput extends BaseStep implements StepInterface {
     super.setStopped( stopped );
 
     if ( stopped ) {
+      if ( deleteBatcher != null ) {
+        deleteBatcher.close();
+      }
+      if ( writePipeline != null ) {
+        logBasic( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutput.FlushingWriteBuffer" ) );
+        writePipeline.close();
+      }
       if ( targetTable != null ) {
         try {
           if ( !targetTableWriteOperationManager.isAutoFlush() ) {
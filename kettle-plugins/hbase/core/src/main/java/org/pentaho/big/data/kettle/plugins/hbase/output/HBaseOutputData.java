@@ -13,6 +13,7 @@
 
 package org.pentaho.big.data.kettle.plugins.hbase.output;
 
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.KeySalter;
 import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
 import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
 import org.pentaho.hadoop.shim.api.hbase.meta.HBaseValueMetaInterface;
@@ -28,6 +29,8 @@ import org.pentaho.di.trans.step.StepDataInterface;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -42,6 +45,56 @@ public class HBaseOutputData extends BaseStepData implements StepDataInterface {
   /** The output data format */
   protected RowMetaInterface m_outputRowMeta;
 
+  /** The incoming fields that are written to columns, resolved against the mapping once */
+  protected MappedColumn[] m_columnPlan;
+
+  /**
+   * An incoming field that is written to a column of the target table, with the mapping lookup and the binary column
+   * name check already done
+   */
+  public static class MappedColumn {
+    private final int fieldIndex;
+    private final ValueMetaInterface fieldMeta;
+    private final HBaseValueMetaInterface columnMeta;
+    private final String columnFamily;
+    private final String columnName;
+    private final boolean binaryColName;
+
+    MappedColumn( int fieldIndex, ValueMetaInterface fieldMeta, HBaseValueMetaInterface columnMeta ) {
+      this.fieldIndex = fieldIndex;
+      this.fieldMeta = fieldMeta;
+      this.columnMeta = columnMeta;
+      this.columnFamily = columnMeta.getColumnFamily();
+      String name = columnMeta.getColumnName();
+      // assume hex encoded column name
+      this.binaryColName = name.startsWith( "@@@binary@@@" );
+      this.columnName = binaryColName ? name.replace( "@@@binary@@@", "" ) : name;
+    }
+
+    public int getFieldIndex() {
+      return fieldIndex;
+    }
+
+    public String getColumnFamily() {
+      return columnFamily;
+    }
+
+    public String getColumnName() {
+      return columnName;
+    }
+
+    public boolean isBinaryColName() {
+      return binaryColName;
+    }
+  }
+
+  /**
+   * Receives the encoded column values of a row, either a put operation or a mutation for the write pipeline
+   */
+  interface ColumnSink {
+    void addColumn( String columnFamily, String columnName, boolean binaryColName, byte[] encoded ) throws Exception;
+  }
+
   public RowMetaInterface getOutputRowMeta() {
     return m_outputRowMeta;
   }
@@ -50,6 +103,40 @@ public class HBaseOutputData extends BaseStepData implements StepDataInterface {
     m_outputRowMeta = rmi;
   }
 
+  public MappedColumn[] getColumnPlan() {
+    return m_columnPlan;
+  }
+
+  public void setColumnPlan( MappedColumn[] columnPlan ) {
+    m_columnPlan = columnPlan;
+  }
+
+  /**
+   * Resolves the incoming fields against the table mapping once, so that writing a row does not need any lookups by
+   * field name
+   *
+   * @param inRowMeta
+   *          the incoming kettle row meta data
+   * @param keyIndex
+   *          the index of the key in the incoming row structure
+   * @param columnsMappedByAlias
+   *          the columns in the table mapping
+   * @return the incoming fields that are written to columns, in incoming field order. Fields that are not in the
+   *         mapping are left out
+   */
+  public static MappedColumn[] compileColumnPlan( RowMetaInterface inRowMeta, int keyIndex,
+      Map<String, HBaseValueMetaInterface> columnsMappedByAlias ) {
+    List<MappedColumn> plan = new ArrayList<>( inRowMeta.size() );
+    for ( int i = 0; i < inRowMeta.size(); i++ ) {
+      ValueMetaInterface current = inRowMeta.getValueMeta( i );
+      HBaseValueMetaInterface hbaseColMeta = columnsMappedByAlias.get( current.getName() );
+      if ( i != keyIndex && hbaseColMeta != null ) {
+        plan.add( new MappedColumn( i, current, hbaseColMeta ) );
+      }
+    }
+    return plan.toArray( new MappedColumn[ 0 ] );
+  }
+
   /**
    * Sets up a new target table put operation using the connection shim
    *
@@ -74,19 +161,114 @@ public class HBaseOutputData extends BaseStepData implements StepDataInterface {
   public static HBasePut initializeNewPut( RowMetaInterface inRowMeta, int keyIndex, Object[] kettleRow,
       Mapping tableMapping, ByteConversionUtil bu, HBaseTableWriteOperationManager hBaseTableWriteOperationManager,
       boolean writeToWAL ) throws Exception {
+    return initializeNewPut( inRowMeta, keyIndex, kettleRow, tableMapping, bu, hBaseTableWriteOperationManager,
+        writeToWAL, 0 );
+  }
+
+  /**
+   * Sets up a new target table put operation using the connection shim, salting the key
+   *
+   * @param saltBuckets
+   *          the number of buckets to salt the key into, 0 or 1 for no salting
+   * @see #initializeNewPut(RowMetaInterface, int, Object[], Mapping, ByteConversionUtil,
+   *      HBaseTableWriteOperationManager, boolean)
+   */
+  public static HBasePut initializeNewPut( RowMetaInterface inRowMeta, int keyIndex, Object[] kettleRow,
+      Mapping tableMapping, ByteConversionUtil bu, HBaseTableWriteOperationManager hBaseTableWriteOperationManager,
+      boolean writeToWAL, int saltBuckets ) throws Exception {
     ValueMetaInterface keyvm = inRowMeta.getValueMeta( keyIndex );
 
     if ( keyvm.isNull( kettleRow[keyIndex] ) ) {
       return null;
     }
 
-    byte[] encodedKey = bu.encodeKeyValue( kettleRow[keyIndex], keyvm, tableMapping.getKeyType() );
+    byte[] encodedKey = KeySalter.salt( bu.encodeKeyValue( kettleRow[keyIndex], keyvm, tableMapping.getKeyType() ),
+        saltBuckets );
 
     HBasePut hBaseTablePut = hBaseTableWriteOperationManager.createPut( encodedKey );
     hBaseTablePut.setWriteToWAL( writeToWAL );
     return hBaseTablePut;
   }
 
+  /**
+   * Sets up a new mutation for the asynchronous write pipeline
+   *
+   * @param inRowMeta
+   *          the incoming kettle row meta data
+   * @param keyIndex
+   *          the index of the key in the incoming row structure
+   * @param kettleRow
+   *          the current incoming kettle row
+   * @param tableMapping
+   *          the HBase table mapping to use
+   * @param bu
+   *          the byte util shim to use for conversion to and from byte arrays
+   * @param writeToWAL
+   *          true if the write ahead log should be written to
+   * @return null if the key is null (missing) for the current incoming kettle row
+   * @throws Exception
+   *           if a problem occurs when encoding the key
+   */
+  public static HBaseWritePipeline.Mutation initializeNewMutation( RowMetaInterface inRowMeta, int keyIndex,
+      Object[] kettleRow, Mapping tableMapping, ByteConversionUtil bu, boolean writeToWAL ) throws Exception {
+    return initializeNewMutation( inRowMeta, keyIndex, kettleRow, tableMapping, bu, writeToWAL, 0 );
+  }
+
+  /**
+   * Sets up a new mutation for the asynchronous write pipeline, salting the key
+   *
+   * @param saltBuckets
+   *          the number of buckets to salt the key into, 0 or 1 for no salting
+   * @see #initializeNewMutation(RowMetaInterface, int, Object[], Mapping, ByteConversionUtil, boolean)
+   */
+  public static HBaseWritePipeline.Mutation initializeNewMutation( RowMetaInterface inRowMeta, int keyIndex,
+      Object[] kettleRow, Mapping tableMapping, ByteConversionUtil bu, boolean writeToWAL, int saltBuckets )
+      throws Exception {
+    ValueMetaInterface keyvm = inRowMeta.getValueMeta( keyIndex );
+
+    if ( keyvm.isNull( kettleRow[keyIndex] ) ) {
+      return null;
+    }
+
+    byte[] encodedKey = KeySalter.salt( bu.encodeKeyValue( kettleRow[keyIndex], keyvm, tableMapping.getKeyType() ),
+        saltBuckets );
+    return new HBaseWritePipeline.Mutation( encodedKey, kettleRow, writeToWAL );
+  }
+
+  /**
+   * Adds the non-null column values of the current row to a mutation for the asynchronous write pipeline
+   *
+   * @param kettleRow
+   *          the current incoming kettle row
+   * @param columnPlan
+   *          the incoming fields to write, see {@link #compileColumnPlan}
+   * @param mutation
+   *          the mutation to add the columns to
+   * @throws KettleException
+   *           if a problem occurs when encoding a column
+   */
+  public static void addColumnsToMutation( Object[] kettleRow, MappedColumn[] columnPlan,
+      HBaseWritePipeline.Mutation mutation ) throws KettleException {
+    addColumns( kettleRow, columnPlan, mutation::addColumn );
+  }
+
+  /**
+   * Adds the non-null column values of the current row to the target table put operation
+   *
+   * @param kettleRow
+   *          the current incoming kettle row
+   * @param columnPlan
+   *          the incoming fields to write, see {@link #compileColumnPlan}
+   * @param hBasePut
+   *          the put operation
+   * @throws KettleException
+   *           if a problem occurs when adding a column to the put operation
+   */
+  public static void addColumnsToPut( Object[] kettleRow, MappedColumn[] columnPlan, HBasePut hBasePut )
+    throws KettleException {
+    addColumns( kettleRow, columnPlan, hBasePut::addColumn );
+  }
+
   /**
    * Adds those incoming kettle field values that are defined in the table mapping for the current row to the target
    * table put operation
@@ -109,24 +291,19 @@ public class HBaseOutputData extends BaseStepData implements StepDataInterface {
   public static void addColumnsToPut( RowMetaInterface inRowMeta, Object[] kettleRow, int keyIndex,
       Map<String, HBaseValueMetaInterface> columnsMappedByAlias, HBasePut hBasePut, ByteConversionUtil bu )
     throws KettleException {
+    addColumnsToPut( kettleRow, compileColumnPlan( inRowMeta, keyIndex, columnsMappedByAlias ), hBasePut );
+  }
 
-    for ( int i = 0; i < inRowMeta.size(); i++ ) {
-      ValueMetaInterface current = inRowMeta.getValueMeta( i );
-      if ( i != keyIndex && !current.isNull( kettleRow[i] ) ) {
-        HBaseValueMetaInterface hbaseColMeta = columnsMappedByAlias.get( current.getName() );
-        String columnFamily = hbaseColMeta.getColumnFamily();
-        String columnName = hbaseColMeta.getColumnName();
-
-        boolean binaryColName = false;
-        if ( columnName.startsWith( "@@@binary@@@" ) ) {
-          // assume hex encoded column name
-          columnName = columnName.replace( "@@@binary@@@", "" );
-          binaryColName = true;
-        }
-        byte[] encoded = hbaseColMeta.encodeColumnValue( kettleRow[i], current );
+  private static void addColumns( Object[] kettleRow, MappedColumn[] columnPlan, ColumnSink sink )
+    throws KettleException {
+
+    for ( MappedColumn column : columnPlan ) {
+      Object value = kettleRow[column.fieldIndex];
+      if ( !column.fieldMeta.isNull( value ) ) {
+        byte[] encoded = column.columnMeta.encodeColumnValue( value, column.fieldMeta );
 
         try {
-          hBasePut.addColumn( columnFamily, columnName, binaryColName, encoded );
+          sink.addColumn( column.columnFamily, column.columnName, column.binaryColName, encoded );
         } catch ( Exception ex ) {
           throw new KettleException( BaseMessages.getString( HBaseOutputMeta.PKG,
               "HBaseOutput.Error.UnableToAddColumnToTargetTablePut" ), ex );
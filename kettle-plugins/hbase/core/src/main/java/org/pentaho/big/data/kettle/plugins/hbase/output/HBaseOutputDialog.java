@@ -49,6 +49,7 @@ import org.pentaho.big.data.kettle.plugins.hbase.ServiceStatus;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.ConfigurationProducer;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.FieldProducer;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingAdmin;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingCache;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingEditor;
 import org.pentaho.big.data.plugins.common.ui.NamedClusterWidgetImpl;
 import org.pentaho.hadoop.shim.api.hbase.HBaseConnection;
@@ -126,6 +127,9 @@ public class HBaseOutputDialog extends BaseStepDialog implements StepDialogInter
   /** Store the mapping information in the step's meta data */
   private Button m_storeMappingInStepMetaData;
 
+  // Salt buckets line
+  private TextVar m_saltBucketsText;
+
   // Disable write to WAL check box
   private Button m_disableWriteToWALBut;
 
@@ -474,6 +478,28 @@ public class HBaseOutputDialog extends BaseStepDialog implements StepDialogInter
     fd.top = new FormAttachment( m_mappingNamesCombo, margin );
     m_storeMappingInStepMetaData.setLayoutData( fd );
 
+    // salt buckets, which every step reading or writing the table has to use as well
+    Label saltBucketsLab = new Label( wConfigComp, SWT.RIGHT );
+    saltBucketsLab.setText( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutputDialog.SaltBuckets.Label" ) );
+    saltBucketsLab
+      .setToolTipText( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutputDialog.SaltBuckets.TipText" ) );
+    props.setLook( saltBucketsLab );
+    fd = new FormData();
+    fd.left = new FormAttachment( 0, 0 );
+    fd.top = new FormAttachment( m_storeMappingInStepMetaData, margin );
+    fd.right = new FormAttachment( middle, -margin );
+    saltBucketsLab.setLayoutData( fd );
+
+    m_saltBucketsText = new TextVar( transMeta, wConfigComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    m_saltBucketsText
+      .setToolTipText( BaseMessages.getString( HBaseOutputMeta.PKG, "HBaseOutputDialog.SaltBuckets.TipText" ) );
+    m_saltBucketsText.addModifyListener( lsMod );
+    props.setLook( m_saltBucketsText );
+    fd = new FormData();
+    fd.left = new FormAttachment( middle, 0 );
+    fd.top = new FormAttachment( m_storeMappingInStepMetaData, margin );
+    fd.right = new FormAttachment( 100, 0 );
+    m_saltBucketsText.setLayoutData( fd );
 
     //delete rows by key option
     Label deleteRows = new Label( wConfigComp, SWT.RIGHT );
@@ -483,7 +509,7 @@ public class HBaseOutputDialog extends BaseStepDialog implements StepDialogInter
 
     fd = new FormData();
     fd.left = new FormAttachment( 0, 0 );
-    fd.top = new FormAttachment( m_storeMappingInStepMetaData, margin );
+    fd.top = new FormAttachment( m_saltBucketsText, margin );
     fd.right = new FormAttachment( middle, -margin );
     deleteRows.setLayoutData( fd );
 
@@ -492,7 +518,7 @@ public class HBaseOutputDialog extends BaseStepDialog implements StepDialogInter
     fd = new FormData();
     fd.right = new FormAttachment( 100, 0 );
     fd.left = new FormAttachment( middle, 0 );
-    fd.top = new FormAttachment( m_storeMappingInStepMetaData, margin );
+    fd.top = new FormAttachment( m_saltBucketsText, margin );
     m_deleteRowKeyBut.setLayoutData( fd );
 
     m_deleteRowKeyBut.addSelectionListener( new SelectionAdapter() {
@@ -722,7 +748,7 @@ public class HBaseOutputDialog extends BaseStepDialog implements StepDialogInter
         HBaseConnection connection = null;
         try {
           connection = getHBaseConnection();
-          MappingAdmin admin = new MappingAdmin( connection );
+          MappingAdmin admin = new MappingAdmin( connection, getConnectionKey() );
           Mapping current = null;
 
           current =
@@ -781,6 +807,7 @@ public class HBaseOutputDialog extends BaseStepDialog implements StepDialogInter
     meta.setDefaulConfigURL( m_defaultConfigText.getText() );
     meta.setTargetTableName( m_mappedTableNamesCombo.getText() );
     meta.setTargetMappingName( m_mappingNamesCombo.getText() );
+    meta.setSaltBuckets( m_saltBucketsText.getText() );
 
     meta.setDeleteRowKey( m_deleteRowKeyBut.getSelection() );
 
@@ -809,6 +836,10 @@ public class HBaseOutputDialog extends BaseStepDialog implements StepDialogInter
       m_mappingNamesCombo.setText( m_currentMeta.getTargetMappingName() );
     }
 
+    if ( !Utils.isEmpty( m_currentMeta.getSaltBuckets() ) ) {
+      m_saltBucketsText.setText( m_currentMeta.getSaltBuckets() );
+    }
+
     m_deleteRowKeyBut.setSelection( m_currentMeta.getDeleteRowKey() );
 
     m_disableWriteToWALBut.setSelection( m_currentMeta.getDisableWriteToWAL() );
@@ -832,6 +863,11 @@ public class HBaseOutputDialog extends BaseStepDialog implements StepDialogInter
     return namedClusterServiceLocator.getService( nc, HBaseService.class );
   }
 
+  @Override public Object getConnectionKey() throws ClusterInitializationException {
+    return MappingCache.connectionKey( getHBaseService(), transMeta.environmentSubstitute( m_coreConfigText.getText() ),
+      transMeta.environmentSubstitute( m_defaultConfigText.getText() ) );
+  }
+
   @Override public HBaseConnection getHBaseConnection() throws IOException, ClusterInitializationException {
     /*
      * URL coreConf = null; URL defaultConf = null;
@@ -868,7 +904,7 @@ public class HBaseOutputDialog extends BaseStepDialog implements StepDialogInter
     try {
       shell.setCursor( busy );
       connection = getHBaseConnection();
-      MappingAdmin admin = new MappingAdmin( connection );
+      MappingAdmin admin = new MappingAdmin( connection, getConnectionKey() );
       Set<String> tableNames = admin.getMappedTables( parseNamespaceFromTableName( null ) );
 
       m_mappedTableNamesCombo.removeAll();
@@ -904,7 +940,7 @@ public class HBaseOutputDialog extends BaseStepDialog implements StepDialogInter
       HBaseConnection connection = null;
       try {
         connection = getHBaseConnection();
-        MappingAdmin admin = new MappingAdmin( connection );
+        MappingAdmin admin = new MappingAdmin( connection, getConnectionKey() );
 
         String mappedTableName =
           MappingAdmin.getTableNameFromVariable( m_currentMeta, m_mappedTableNamesCombo.getText().trim() );
@@ -122,6 +122,51 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
   @Injection( name = "WRITE_BUFFER_SIZE" )
   protected String m_writeBufferSize;
 
+  /**
+   * The number of deletes to collect before submitting them together (empty or 1 - each delete is executed as the row
+   * arrives)
+   */
+  @Injection( name = "DELETE_BATCH_SIZE" )
+  protected String m_deleteBatchSize;
+
+  /**
+   * The number of threads a batch of deletes is spread over (empty - HBaseDeleteBatcher.DEFAULT_THREADS)
+   */
+  @Injection( name = "DELETE_THREADS" )
+  protected String m_deleteThreads;
+
+  /**
+   * if true then puts are handed to a pool of flush threads instead of being executed by the step thread
+   */
+  @Injection( name = "ASYNC_WRITE" )
+  protected boolean m_asyncWrite;
+
+  /**
+   * The number of bytes that may wait to be flushed before the step blocks (empty -
+   * HBaseWritePipeline.DEFAULT_MAX_BUFFERED_BYTES)
+   */
+  @Injection( name = "ASYNC_MAX_BUFFERED_BYTES" )
+  protected String m_asyncMaxBufferedBytes;
+
+  /**
+   * The number of flush threads (empty - HBaseWritePipeline.DEFAULT_FLUSH_THREADS)
+   */
+  @Injection( name = "ASYNC_FLUSH_THREADS" )
+  protected String m_asyncFlushThreads;
+
+  /**
+   * Flush buffered puts after this many milliseconds without new data (empty -
+   * HBaseWritePipeline.DEFAULT_FLUSH_INTERVAL_MILLIS)
+   */
+  @Injection( name = "ASYNC_FLUSH_INTERVAL" )
+  protected String m_asyncFlushInterval;
+
+  /**
+   * The number of buckets row keys are salted into (empty, 0 or 1 - keys are not salted)
+   */
+  @Injection( name = "SALT_BUCKETS" )
+  protected String m_saltBuckets;
+
   /**
    * The mapping to use if we are not loading one dynamically at runtime from HBase itself
    */
@@ -268,6 +313,62 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
     return m_writeBufferSize;
   }
 
+  public void setDeleteBatchSize( String size ) {
+    m_deleteBatchSize = size;
+  }
+
+  public String getDeleteBatchSize() {
+    return m_deleteBatchSize;
+  }
+
+  public void setDeleteThreads( String threads ) {
+    m_deleteThreads = threads;
+  }
+
+  public String getDeleteThreads() {
+    return m_deleteThreads;
+  }
+
+  public void setAsyncWrite( boolean async ) {
+    m_asyncWrite = async;
+  }
+
+  public boolean getAsyncWrite() {
+    return m_asyncWrite;
+  }
+
+  public void setAsyncMaxBufferedBytes( String bytes ) {
+    m_asyncMaxBufferedBytes = bytes;
+  }
+
+  public String getAsyncMaxBufferedBytes() {
+    return m_asyncMaxBufferedBytes;
+  }
+
+  public void setAsyncFlushThreads( String threads ) {
+    m_asyncFlushThreads = threads;
+  }
+
+  public String getAsyncFlushThreads() {
+    return m_asyncFlushThreads;
+  }
+
+  public void setAsyncFlushInterval( String millis ) {
+    m_asyncFlushInterval = millis;
+  }
+
+  public String getAsyncFlushInterval() {
+    return m_asyncFlushInterval;
+  }
+
+  public void setSaltBuckets( String buckets ) {
+    m_saltBuckets = buckets;
+  }
+
+  public String getSaltBuckets() {
+    return m_saltBuckets;
+  }
+
   void applyInjection( VariableSpace space ) throws KettleException {
     if ( namedCluster == null ) {
       throw new KettleException( "Named cluster was not initialized!" );
@@ -365,6 +466,25 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
     if ( !Utils.isEmpty( m_writeBufferSize ) ) {
       retval.append( "\n    " ).append( XMLHandler.addTagValue( "write_buffer_size", m_writeBufferSize ) );
     }
+    if ( !Utils.isEmpty( m_deleteBatchSize ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( "delete_batch_size", m_deleteBatchSize ) );
+    }
+    if ( !Utils.isEmpty( m_deleteThreads ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( "delete_threads", m_deleteThreads ) );
+    }
+    retval.append( "\n    " ).append( XMLHandler.addTagValue( "async_write", m_asyncWrite ) );
+    if ( !Utils.isEmpty( m_asyncMaxBufferedBytes ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( "async_max_buffered_bytes", m_asyncMaxBufferedBytes ) );
+    }
+    if ( !Utils.isEmpty( m_asyncFlushThreads ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( "async_flush_threads", m_asyncFlushThreads ) );
+    }
+    if ( !Utils.isEmpty( m_asyncFlushInterval ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( "async_flush_interval", m_asyncFlushInterval ) );
+    }
+    if ( !Utils.isEmpty( m_saltBuckets ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( "salt_buckets", m_saltBuckets ) );
+    }
     retval.append( "\n    " ).append( XMLHandler.addTagValue( "disable_wal", m_disableWriteToWAL ) );
 
 
@@ -404,6 +524,13 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
       m_deleteRowKey = deleteKeys.equalsIgnoreCase( "Y" );
     }
     m_writeBufferSize = XMLHandler.getTagValue( stepnode, "write_buffer_size" );
+    m_deleteBatchSize = XMLHandler.getTagValue( stepnode, "delete_batch_size" );
+    m_deleteThreads = XMLHandler.getTagValue( stepnode, "delete_threads" );
+    m_asyncWrite = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "async_write" ) );
+    m_asyncMaxBufferedBytes = XMLHandler.getTagValue( stepnode, "async_max_buffered_bytes" );
+    m_asyncFlushThreads = XMLHandler.getTagValue( stepnode, "async_flush_threads" );
+    m_asyncFlushInterval = XMLHandler.getTagValue( stepnode, "async_flush_interval" );
+    m_saltBuckets = XMLHandler.getTagValue( stepnode, "salt_buckets" );
     String disableWAL = XMLHandler.getTagValue( stepnode, "disable_wal" );
     m_disableWriteToWAL = disableWAL.equalsIgnoreCase( "Y" );
 
@@ -447,6 +574,13 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
     m_targetMappingName = rep.getStepAttributeString( id_step, 0, "target_mapping_name" );
     m_deleteRowKey = rep.getStepAttributeBoolean( id_step, 0, "delete_rows_by_key" );
     m_writeBufferSize = rep.getStepAttributeString( id_step, 0, "write_buffer_size" );
+    m_deleteBatchSize = rep.getStepAttributeString( id_step, 0, "delete_batch_size" );
+    m_deleteThreads = rep.getStepAttributeString( id_step, 0, "delete_threads" );
+    m_asyncWrite = rep.getStepAttributeBoolean( id_step, 0, "async_write" );
+    m_asyncMaxBufferedBytes = rep.getStepAttributeString( id_step, 0, "async_max_buffered_bytes" );
+    m_asyncFlushThreads = rep.getStepAttributeString( id_step, 0, "async_flush_threads" );
+    m_asyncFlushInterval = rep.getStepAttributeString( id_step, 0, "async_flush_interval" );
+    m_saltBuckets = rep.getStepAttributeString( id_step, 0, "salt_buckets" );
     m_disableWriteToWAL = rep.getStepAttributeBoolean( id_step, 0, "disable_wal" );
 
     Mapping tempMapping = null;
@@ -491,6 +625,25 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
     if ( !Utils.isEmpty( m_writeBufferSize ) ) {
       rep.saveStepAttribute( id_transformation, id_step, 0, "write_buffer_size", m_writeBufferSize );
     }
+    if ( !Utils.isEmpty( m_deleteBatchSize ) ) {
+      rep.saveStepAttribute( id_transformation, id_step, 0, "delete_batch_size", m_deleteBatchSize );
+    }
+    if ( !Utils.isEmpty( m_deleteThreads ) ) {
+      rep.saveStepAttribute( id_transformation, id_step, 0, "delete_threads", m_deleteThreads );
+    }
+    rep.saveStepAttribute( id_transformation, id_step, 0, "async_write", m_asyncWrite );
+    if ( !Utils.isEmpty( m_asyncMaxBufferedBytes ) ) {
+      rep.saveStepAttribute( id_transformation, id_step, 0, "async_max_buffered_bytes", m_asyncMaxBufferedBytes );
+    }
+    if ( !Utils.isEmpty( m_asyncFlushThreads ) ) {
+      rep.saveStepAttribute( id_transformation, id_step, 0, "async_flush_threads", m_asyncFlushThreads );
+    }
+    if ( !Utils.isEmpty( m_asyncFlushInterval ) ) {
+      rep.saveStepAttribute( id_transformation, id_step, 0, "async_flush_interval", m_asyncFlushInterval );
+    }
+    if ( !Utils.isEmpty( m_saltBuckets ) ) {
+      rep.saveStepAttribute( id_transformation, id_step, 0, "salt_buckets", m_saltBuckets );
+    }
     rep.saveStepAttribute( id_transformation, id_step, 0, "disable_wal", m_disableWriteToWAL );
 
     if ( m_mapping != null ) {
@@ -506,6 +659,13 @@ public class HBaseOutputMeta extends BaseStepMeta implements StepMetaInterface {
     m_deleteRowKey = false;
     m_disableWriteToWAL = false;
     m_writeBufferSize = null;
+    m_deleteBatchSize = null;
+    m_deleteThreads = null;
+    m_asyncWrite = false;
+    m_asyncMaxBufferedBytes = null;
+    m_asyncFlushThreads = null;
+    m_asyncFlushInterval = null;
+    m_saltBuckets = null;
     namedCluster = namedClusterService.getClusterTemplate();
   }
 
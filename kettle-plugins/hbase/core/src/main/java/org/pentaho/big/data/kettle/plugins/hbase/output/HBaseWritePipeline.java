@@ -0,0 +1,381 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.output;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.hadoop.shim.api.hbase.table.HBasePut;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTable;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTableWriteOperationManager;
+
+/**
+ * Asynchronous write path for HBase Output. The step thread hands over fully encoded mutations and carries on; a pool
+ * of flush threads, each with its own table handle on the shared connection, turns them into puts, and flushes their
+ * write buffers when enough bytes are pending or the flush interval passes without new data. The step thread blocks
+ * once more than the configured number of bytes is waiting to be flushed.
+ * <p>
+ * Every flush thread has its own queue, and a mutation goes to the queue picked by the hash of its key. All the
+ * mutations of one key are therefore written by the same thread in the order they were submitted, so a later put of a
+ * key always wins over an earlier one.
+ * <p>
+ * Mutations that were flushed are handed back through {@link #drainWritten()} and mutations that failed through
+ * {@link #drainFailures()}, so the step thread only passes on rows that are in HBase and routes the others to the
+ * step's error handling. {@link #close()} writes out everything that has been submitted before returning.
+ */
+public class HBaseWritePipeline {
+
+  public static final long DEFAULT_MAX_BUFFERED_BYTES = 8L * 1024 * 1024;
+  public static final int DEFAULT_FLUSH_THREADS = 2;
+  public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+
+  /** Flush latency histogram buckets: < 1ms, < 2ms, < 4ms, ... and everything above */
+  static final int LATENCY_BUCKETS = 16;
+
+  private static final Mutation END_OF_MUTATIONS = new Mutation( null, null, true );
+  private static final Mutation FLUSH_NOW = new Mutation( null, null, true );
+
+  /**
+   * A column value to write.
+   */
+  public static class Column {
+    private final String family;
+    private final String qualifier;
+    private final boolean binaryQualifier;
+    private final byte[] value;
+
+    public Column( String family, String qualifier, boolean binaryQualifier, byte[] value ) {
+      this.family = family;
+      this.qualifier = qualifier;
+      this.binaryQualifier = binaryQualifier;
+      this.value = value;
+    }
+  }
+
+  /**
+   * An encoded row to put, together with the incoming row it came from.
+   */
+  public static class Mutation {
+    private final byte[] key;
+    private final Object[] row;
+    private final boolean writeToWAL;
+    private final List<Column> columns = new ArrayList<>();
+    private long size;
+
+    public Mutation( byte[] key, Object[] row, boolean writeToWAL ) {
+      this.key = key;
+      this.row = row;
+      this.writeToWAL = writeToWAL;
+      this.size = key == null ? 0 : key.length;
+    }
+
+    public void addColumn( String family, String qualifier, boolean binaryQualifier, byte[] value ) {
+      columns.add( new Column( family, qualifier, binaryQualifier, value ) );
+      size += family.length() + qualifier.length() + ( value == null ? 0 : value.length );
+    }
+
+    public Object[] getRow() {
+      return row;
+    }
+
+    long getSize() {
+      return size;
+    }
+  }
+
+  /**
+   * A mutation that could not be written.
+   */
+  public static class Failure {
+    private final Mutation mutation;
+    private final Exception exception;
+
+    Failure( Mutation mutation, Exception exception ) {
+      this.mutation = mutation;
+      this.exception = exception;
+    }
+
+    public Object[] getRow() {
+      return mutation.getRow();
+    }
+
+    public Exception getException() {
+      return exception;
+    }
+  }
+
+  private final List<HBaseTable> tables;
+  private final List<HBaseTableWriteOperationManager> writeOperationManagers = new ArrayList<>();
+  private final List<Thread> flushThreads = new ArrayList<>();
+  private final List<BlockingQueue<Mutation>> queues = new ArrayList<>();
+  private final ConcurrentLinkedQueue<Mutation> written = new ConcurrentLinkedQueue<>();
+  private final ConcurrentLinkedQueue<Failure> failures = new ConcurrentLinkedQueue<>();
+  private final long maxBufferedBytes;
+  private final long flushIntervalMillis;
+
+  private final Object bufferLock = new Object();
+  private long bufferedBytes;
+  private boolean flushRequested;
+  // guarded by bufferLock, so that nothing is queued behind the end of the mutations
+  private boolean closed;
+
+  private final AtomicLong putsBuffered = new AtomicLong();
+  private final AtomicLong flushes = new AtomicLong();
+  private final AtomicLongArray flushLatency = new AtomicLongArray( LATENCY_BUCKETS );
+
+  /**
+   * @param tables              one handle on the target table per flush thread, closed along with this pipeline
+   * @param writeBufferSize     the write buffer size for each handle, null for the HBase default
+   * @param maxBufferedBytes    the number of bytes that may wait to be flushed before {@link #submit} blocks
+   * @param flushIntervalMillis flush after this long without new data
+   * @throws Exception if a write operation manager can not be created for one of the tables
+   */
+  public HBaseWritePipeline( List<HBaseTable> tables, Long writeBufferSize, long maxBufferedBytes,
+                             long flushIntervalMillis ) throws Exception {
+    if ( tables.isEmpty() ) {
+      throw new IllegalArgumentException( "At least one table handle is required" );
+    }
+    this.tables = tables;
+    this.maxBufferedBytes = Math.max( 1, maxBufferedBytes );
+    this.flushIntervalMillis = Math.max( 1, flushIntervalMillis );
+    for ( HBaseTable table : tables ) {
+      writeOperationManagers.add( table.createWriteOperationManager( writeBufferSize ) );
+    }
+    for ( HBaseTableWriteOperationManager writeOperationManager : writeOperationManagers ) {
+      BlockingQueue<Mutation> queue = new LinkedBlockingQueue<>();
+      queues.add( queue );
+      Thread thread = new Thread( () -> flushLoop( writeOperationManager, queue ), "HBaseWritePipeline" );
+      thread.setDaemon( true );
+      flushThreads.add( thread );
+      thread.start();
+    }
+  }
+
+  /**
+   * Queue a mutation, blocking while too many bytes are waiting to be flushed.
+   *
+   * @param mutation the mutation
+   * @throws KettleException if the pipeline has been closed or the step thread is interrupted
+   */
+  public void submit( Mutation mutation ) throws KettleException {
+    synchronized ( bufferLock ) {
+      try {
+        while ( !closed && bufferedBytes > 0 && bufferedBytes + mutation.getSize() > maxBufferedBytes ) {
+          if ( !flushRequested ) {
+            // do not wait for the flush interval when the flush threads are holding the bytes we are waiting for
+            flushRequested = true;
+            for ( BlockingQueue<Mutation> queue : queues ) {
+              queue.add( FLUSH_NOW );
+            }
+          }
+          bufferLock.wait();
+        }
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        throw new KettleException( e );
+      }
+      if ( closed ) {
+        throw new KettleException( "The HBase write pipeline has been closed" );
+      }
+      bufferedBytes += mutation.getSize();
+      getQueue( mutation.key ).add( mutation );
+    }
+    putsBuffered.incrementAndGet();
+  }
+
+  private BlockingQueue<Mutation> getQueue( byte[] key ) {
+    return queues.get( ( Arrays.hashCode( key ) & Integer.MAX_VALUE ) % queues.size() );
+  }
+
+  /**
+   * @return the rows of the mutations that were flushed since the last call, in the order they were flushed
+   */
+  public List<Object[]> drainWritten() {
+    List<Object[]> drained = new ArrayList<>();
+    Mutation mutation;
+    while ( ( mutation = written.poll() ) != null ) {
+      drained.add( mutation.getRow() );
+    }
+    return drained;
+  }
+
+  /**
+   * @return the mutations that failed since the last call, in no particular order
+   */
+  public List<Failure> drainFailures() {
+    List<Failure> drained = new ArrayList<>();
+    Failure failure;
+    while ( ( failure = failures.poll() ) != null ) {
+      drained.add( failure );
+    }
+    return drained;
+  }
+
+  /**
+   * Write out everything that has been submitted and release the threads and table handles. Failures from the final
+   * flush are available from {@link #drainFailures()} afterwards.
+   */
+  public void close() {
+    synchronized ( bufferLock ) {
+      if ( closed ) {
+        return;
+      }
+      closed = true;
+      for ( BlockingQueue<Mutation> queue : queues ) {
+        queue.add( END_OF_MUTATIONS );
+      }
+      // a submit waiting for room gives up
+      bufferLock.notifyAll();
+    }
+    boolean interrupted = false;
+    for ( Thread thread : flushThreads ) {
+      while ( thread.isAlive() ) {
+        try {
+          thread.join();
+        } catch ( InterruptedException e ) {
+          interrupted = true;
+        }
+      }
+    }
+    for ( HBaseTableWriteOperationManager writeOperationManager : writeOperationManagers ) {
+      try {
+        writeOperationManager.close();
+      } catch ( IOException e ) {
+        // Ignore
+      }
+    }
+    for ( HBaseTable table : tables ) {
+      try {
+        table.close();
+      } catch ( IOException e ) {
+        // Ignore
+      }
+    }
+    if ( interrupted ) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public long getPutsBuffered() {
+    return putsBuffered.get();
+  }
+
+  public long getFlushes() {
+    return flushes.get();
+  }
+
+  /**
+   * @return the number of flushes per latency bucket, bucket i counting flushes that took less than 2^i milliseconds
+   * (the last bucket counts everything slower)
+   */
+  public long[] getFlushLatencyHistogram() {
+    long[] histogram = new long[ LATENCY_BUCKETS ];
+    for ( int i = 0; i < LATENCY_BUCKETS; i++ ) {
+      histogram[ i ] = flushLatency.get( i );
+    }
+    return histogram;
+  }
+
+  private void flushLoop( HBaseTableWriteOperationManager writeOperationManager, BlockingQueue<Mutation> queue ) {
+    List<Mutation> unflushed = new ArrayList<>();
+    long unflushedBytes = 0;
+    long flushThreshold = Math.max( 1, maxBufferedBytes / ( 2L * writeOperationManagers.size() ) );
+    while ( true ) {
+      Mutation mutation;
+      try {
+        mutation = queue.poll( flushIntervalMillis, TimeUnit.MILLISECONDS );
+      } catch ( InterruptedException e ) {
+        // only close() ends the loop, so that nothing submitted is lost
+        continue;
+      }
+      if ( mutation == null || mutation == END_OF_MUTATIONS || mutation == FLUSH_NOW ) {
+        flush( writeOperationManager, unflushed, unflushedBytes );
+        unflushed.clear();
+        unflushedBytes = 0;
+        if ( mutation == END_OF_MUTATIONS ) {
+          return;
+        }
+        continue;
+      }
+
+      try {
+        HBasePut put = writeOperationManager.createPut( mutation.key );
+        put.setWriteToWAL( mutation.writeToWAL );
+        for ( Column column : mutation.columns ) {
+          put.addColumn( column.family, column.qualifier, column.binaryQualifier, column.value );
+        }
+        put.execute();
+        unflushed.add( mutation );
+        unflushedBytes += mutation.getSize();
+      } catch ( Exception ex ) {
+        failures.add( new Failure( mutation, ex ) );
+        release( mutation.getSize() );
+      }
+      if ( unflushedBytes >= flushThreshold ) {
+        flush( writeOperationManager, unflushed, unflushedBytes );
+        unflushed.clear();
+        unflushedBytes = 0;
+      }
+    }
+  }
+
+  private void flush( HBaseTableWriteOperationManager writeOperationManager, List<Mutation> unflushed,
+                      long unflushedBytes ) {
+    if ( unflushed.isEmpty() ) {
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      if ( !writeOperationManager.isAutoFlush() ) {
+        writeOperationManager.flushCommits();
+      }
+      written.addAll( unflushed );
+    } catch ( Exception ex ) {
+      // the write buffer does not tell which of its puts failed, so report all of them
+      for ( Mutation mutation : unflushed ) {
+        failures.add( new Failure( mutation, ex ) );
+      }
+    } finally {
+      recordFlush( System.nanoTime() - start );
+      release( unflushedBytes );
+    }
+  }
+
+  private void recordFlush( long nanos ) {
+    long millis = TimeUnit.NANOSECONDS.toMillis( nanos );
+    int bucket = 0;
+    while ( bucket < LATENCY_BUCKETS - 1 && millis >= ( 1L << bucket ) ) {
+      bucket++;
+    }
+    flushLatency.incrementAndGet( bucket );
+    flushes.incrementAndGet();
+  }
+
+  private void release( long bytes ) {
+    synchronized ( bufferLock ) {
+      bufferedBytes -= bytes;
+      flushRequested = false;
+      bufferLock.notifyAll();
+    }
+  }
+}
@@ -15,6 +15,7 @@ package org.pentaho.big.data.kettle.plugins.hbase.output;
 
 import java.util.Map;
 
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.KeySalter;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.MappingUtils;
 import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
 import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
@@ -47,6 +48,8 @@ public class KettleRowToHBaseTuple {
   private ValueMetaInterface visibilityInMeta;
   private HBaseValueMetaInterface visibilityMeta;
 
+  private int saltBuckets;
+
   /**
    * Creates a conversion class that converts an incoming row object with values for the various Tuple fields <KEY,
    * Family, Column, Value> into an HBasePut
@@ -106,6 +109,16 @@ public class KettleRowToHBaseTuple {
 
   }
 
+  /**
+   * Salt the keys of the puts into a number of buckets, see {@link KeySalter}
+   *
+   * @param saltBuckets
+   *          the number of buckets, 0 or 1 for no salting
+   */
+  public void setSaltBuckets( int saltBuckets ) {
+    this.saltBuckets = saltBuckets;
+  }
+
   /**
    * Creates an HBasePut representing the tuple by extracting data from a row
    *
@@ -136,7 +149,7 @@ public class KettleRowToHBaseTuple {
       throw new FieldException( Mapping.TupleMapping.VALUE );
     }
 
-    byte[] encodedKey = bu.encodeKeyValue( row[keyIndex], keyInMeta, keyType );
+    byte[] encodedKey = KeySalter.salt( bu.encodeKeyValue( row[keyIndex], keyInMeta, keyType ), saltBuckets );
 
     HBasePut put = hBaseTableWriteOperationManager.createPut( encodedKey );
 
@@ -0,0 +1,95 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.rowdecoder;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Reads the row key and cell values of the HBase Result objects handed to the row decoder. The Result class comes
+ * from the Hadoop/HBase classpath rather than this plugin's, so its methods are resolved once per Result class into
+ * method handles instead of being looked up by reflection for every row and cell.
+ */
+class HBaseResultAccessor {
+
+  private static final MethodType GET_ROW_TYPE = MethodType.methodType( byte[].class, Object.class );
+  private static final MethodType GET_VALUE_TYPE =
+    MethodType.methodType( byte[].class, Object.class, byte[].class, byte[].class );
+
+  private static final ClassValue<HBaseResultAccessor> ACCESSORS = new ClassValue<HBaseResultAccessor>() {
+    @Override
+    protected HBaseResultAccessor computeValue( Class<?> resultClass ) {
+      return new HBaseResultAccessor( resultClass );
+    }
+  };
+
+  private final MethodHandle getRow;
+  private final MethodHandle getValue;
+  private final RuntimeException resolveFailure;
+
+  private HBaseResultAccessor( Class<?> resultClass ) {
+    MethodHandle row = null;
+    MethodHandle value = null;
+    RuntimeException failure = null;
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      row = lookup.unreflect( resultClass.getMethod( "getRow" ) ).asType( GET_ROW_TYPE );
+      value = lookup.unreflect( resultClass.getMethod( "getValue", byte[].class, byte[].class ) )
+        .asType( GET_VALUE_TYPE );
+    } catch ( ReflectiveOperationException | RuntimeException e ) {
+      failure = new IllegalArgumentException( resultClass.getName() + " is not an HBase Result", e );
+    }
+    getRow = row;
+    getValue = value;
+    resolveFailure = failure;
+  }
+
+  /**
+   * @param result an HBase Result
+   * @return the accessor for the class of the result
+   */
+  static HBaseResultAccessor forResult( Object result ) {
+    return ACCESSORS.get( result.getClass() );
+  }
+
+  byte[] getRow( Object result ) throws Exception {
+    checkResolved();
+    try {
+      return (byte[]) getRow.invokeExact( result );
+    } catch ( Exception | Error e ) {
+      throw e;
+    } catch ( Throwable t ) {
+      throw new UndeclaredThrowableException( t );
+    }
+  }
+
+  byte[] getValue( Object result, byte[] family, byte[] qualifier ) throws Exception {
+    checkResolved();
+    try {
+      return (byte[]) getValue.invokeExact( result, family, qualifier );
+    } catch ( Exception | Error e ) {
+      throw e;
+    } catch ( Throwable t ) {
+      throw new UndeclaredThrowableException( t );
+    }
+  }
+
+  private void checkResolved() {
+    if ( resolveFailure != null ) {
+      throw resolveFailure;
+    }
+  }
+}
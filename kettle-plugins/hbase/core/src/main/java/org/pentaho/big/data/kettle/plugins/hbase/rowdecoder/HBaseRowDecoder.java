@@ -19,10 +19,12 @@ import java.util.List;
 import org.apache.commons.lang.StringUtils;
 import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
 import org.pentaho.big.data.kettle.plugins.hbase.mapping.HBaseRowToKettleTuple;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.KeySalter;
 import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
 import org.pentaho.hadoop.shim.api.hbase.HBaseService;
 import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
 import org.pentaho.hadoop.shim.api.hbase.meta.HBaseValueMetaInterface;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -70,6 +72,12 @@ public class HBaseRowDecoder extends BaseStep implements StepInterface {
    */
   protected HBaseValueMetaInterface[] mOutputColumns;
 
+  /**
+   * Column family and qualifier of each output column, encoded once for all rows
+   */
+  protected byte[][] mColumnFamilies;
+  protected byte[][] mColumnQualifiers;
+
   /**
    * Index of incoming key value
    */
@@ -90,6 +98,11 @@ public class HBaseRowDecoder extends BaseStep implements StepInterface {
    */
   protected ByteConversionUtil mBytesUtil;
 
+  /**
+   * The number of buckets the row keys are salted into, 0 or 1 if they are not salted
+   */
+  protected int mSaltBuckets;
+
   @Override
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
 
@@ -124,8 +137,16 @@ public class HBaseRowDecoder extends BaseStep implements StepInterface {
           BaseMessages.getString( hBaseRowDecoderMetaClass, "HBaseRowDecoder.Error.NoMappingInfo" ) );
       }
 
+      mSaltBuckets = Const.toInt( environmentSubstitute( hBaseRowDecoderMeta.getSaltBuckets() ), 0 );
+      try {
+        KeySalter.checkBuckets( mSaltBuckets );
+      } catch ( IllegalArgumentException ex ) {
+        throw new KettleException( ex.getMessage(), ex );
+      }
+
       if ( mTableMapping.isTupleMapping() ) {
         mTupleHandler = new HBaseRowToKettleTuple( mBytesUtil );
+        mTupleHandler.setSaltBuckets( mSaltBuckets );
       }
 
       mOutputColumns = new HBaseValueMetaInterface[ mTableMapping.getMappedColumns().keySet().size() ];
@@ -133,6 +154,12 @@ public class HBaseRowDecoder extends BaseStep implements StepInterface {
       for ( String alias : mTableMapping.getMappedColumns().keySet() ) {
         mOutputColumns[ k++ ] = mTableMapping.getMappedColumns().get( alias );
       }
+      mColumnFamilies = new byte[ mOutputColumns.length ][];
+      mColumnQualifiers = new byte[ mOutputColumns.length ][];
+      for ( int i = 0; i < mOutputColumns.length; i++ ) {
+        mColumnFamilies[ i ] = mOutputColumns[ i ].getColumnFamily().getBytes();
+        mColumnQualifiers[ i ] = mOutputColumns[ i ].getColumnName().getBytes();
+      }
 
       hBaseRowDecoderData.setOutputRowMeta( getInputRowMeta().clone() );
       hBaseRowDecoderMeta.getFields( getTransMeta().getBowl(), hBaseRowDecoderData.getOutputRowMeta(), getStepname(),
@@ -192,26 +219,24 @@ public class HBaseRowDecoder extends BaseStep implements StepInterface {
       } else {
         Object[] outputRowData = RowDataUtil.allocateRowData( mOutputColumns.length + 1 ); // + 1 for key
 
+        HBaseResultAccessor resultAccessor;
         byte[] rowKey = null;
         try {
-          rowKey = (byte[]) hRow.getClass().getMethod( "getRow" ).invoke( hRow );
+          resultAccessor = HBaseResultAccessor.forResult( hRow );
+          rowKey = resultAccessor.getRow( hRow );
         } catch ( Exception ex ) {
           throw new KettleException(
             BaseMessages.getString( hBaseRowDecoderMetaClass, "HBaseRowDecoder.Error.UnableToGetRowKey" ), ex );
         }
-        Object decodedKey = mTableMapping.decodeKeyValue( rowKey );
+        Object decodedKey = mTableMapping.decodeKeyValue( KeySalter.unsalt( rowKey, mSaltBuckets ) );
         outputRowData[ 0 ] = decodedKey;
 
         for ( int i = 0; i < mOutputColumns.length; i++ ) {
           HBaseValueMetaInterface current = mOutputColumns[ i ];
 
-          byte[] colFamilyName = current.getColumnFamily().getBytes();
-          byte[] qualifier = current.getColumnName().getBytes();
-
           byte[] kv = null;
           try {
-            kv = (byte[]) hRow.getClass().getMethod( "getValue", byte[].class, byte[].class )
-              .invoke( hRow, colFamilyName, qualifier );
+            kv = resultAccessor.getValue( hRow, mColumnFamilies[ i ], mColumnQualifiers[ i ] );
           } catch ( Exception ex ) {
             throw new KettleException(
               BaseMessages.getString( hBaseRowDecoderMetaClass, "HBaseRowDecoder.Error.UnableToGetColumnValue" ),
@@ -52,6 +52,7 @@ import org.pentaho.di.trans.step.BaseStepMeta;
 import org.pentaho.di.trans.step.StepDialogInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.ui.core.gui.GUIResource;
+import org.pentaho.di.ui.core.widget.TextVar;
 import org.pentaho.di.ui.trans.step.BaseStepDialog;
 import org.pentaho.runtime.test.RuntimeTester;
 import org.pentaho.runtime.test.action.RuntimeTestActionService;
@@ -81,6 +82,7 @@ public class HBaseRowDecoderDialog extends BaseStepDialog implements StepDialogI
 
   private CCombo m_incomingKeyCombo;
   private CCombo m_incomingResultCombo;
+  private TextVar m_saltBucketsText;
 
   // mapping editor composite
   private MappingEditor m_mappingEditor;
@@ -225,6 +227,27 @@ public class HBaseRowDecoderDialog extends BaseStepDialog implements StepDialogI
       }
     } );
 
+    // salt buckets line
+    Label saltBucketsLab = new Label( wConfigComp, SWT.RIGHT );
+    saltBucketsLab.setText( BaseMessages.getString( PKG, "HBaseRowDecoderDialog.SaltBuckets.Label" ) );
+    saltBucketsLab.setToolTipText( BaseMessages.getString( PKG, "HBaseRowDecoderDialog.SaltBuckets.TipText" ) );
+    props.setLook( saltBucketsLab );
+    fd = new FormData();
+    fd.left = new FormAttachment( 0, 0 );
+    fd.top = new FormAttachment( m_incomingResultCombo, margin );
+    fd.right = new FormAttachment( middle, -margin );
+    saltBucketsLab.setLayoutData( fd );
+
+    m_saltBucketsText = new TextVar( transMeta, wConfigComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    m_saltBucketsText.setToolTipText( BaseMessages.getString( PKG, "HBaseRowDecoderDialog.SaltBuckets.TipText" ) );
+    props.setLook( m_saltBucketsText );
+    m_saltBucketsText.addModifyListener( lsMod );
+    fd = new FormData();
+    fd.left = new FormAttachment( middle, 0 );
+    fd.top = new FormAttachment( m_incomingResultCombo, margin );
+    fd.right = new FormAttachment( 100, 0 );
+    m_saltBucketsText.setLayoutData( fd );
+
     populateFieldsCombo();
 
     wConfigComp.layout();
@@ -328,6 +351,7 @@ public class HBaseRowDecoderDialog extends BaseStepDialog implements StepDialogI
 
     m_currentMeta.setIncomingKeyField( m_incomingKeyCombo.getText() );
     m_currentMeta.setIncomingResultField( m_incomingResultCombo.getText() );
+    m_currentMeta.setSaltBuckets( m_saltBucketsText.getText() );
     List<String> problems = new ArrayList<String>();
     Mapping mapping = m_mappingEditor.getMapping( false, problems, false );
     if ( problems.size() > 0 ) {
@@ -373,6 +397,10 @@ public class HBaseRowDecoderDialog extends BaseStepDialog implements StepDialogI
       m_incomingResultCombo.setText( m_currentMeta.getIncomingResultField() );
     }
 
+    if ( !Const.isEmpty( m_currentMeta.getSaltBuckets() ) ) {
+      m_saltBucketsText.setText( m_currentMeta.getSaltBuckets() );
+    }
+
     m_mappingEditor.setSelectedNamedCluster( m_currentMeta.getNamedCluster().getName() );
     if ( m_currentMeta.getMapping() != null ) {
       m_mappingEditor.setMapping( m_currentMeta.getMapping() );
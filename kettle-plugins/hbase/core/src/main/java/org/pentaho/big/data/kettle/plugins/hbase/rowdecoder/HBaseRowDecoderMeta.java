@@ -89,6 +89,7 @@ public class HBaseRowDecoderMeta extends BaseStepMeta implements StepMetaInterfa
 
   public static final String INCOMING_KEY_FIELD = "incoming_key_field";
   public static final String INCOMING_RESULT_FIELD = "incoming_result_field";
+  public static final String SALT_BUCKETS = "salt_buckets";
   protected NamedCluster namedCluster;
 
   /** The incoming field that contains the HBase row key */
@@ -99,6 +100,10 @@ public class HBaseRowDecoderMeta extends BaseStepMeta implements StepMetaInterfa
   @Injection( name = "HBASE_RESULT_FIELD" )
   protected String mIncomingResultField = "";
 
+  /** The number of buckets the row keys of the table are salted into (empty, 0 or 1 - keys are not salted) */
+  @Injection( name = "SALT_BUCKETS" )
+  protected String mSaltBuckets;
+
   /** The mapping to use */
   protected Mapping mMapping;
 
@@ -203,6 +208,25 @@ public class HBaseRowDecoderMeta extends BaseStepMeta implements StepMetaInterfa
     return mIncomingResultField;
   }
 
+  /**
+   * Set the number of buckets the row keys of the table are salted into
+   *
+   * @param buckets
+   *          the number of buckets, empty, 0 or 1 if keys are not salted
+   */
+  public void setSaltBuckets( String buckets ) {
+    mSaltBuckets = buckets;
+  }
+
+  /**
+   * Get the number of buckets the row keys of the table are salted into
+   *
+   * @return the number of buckets
+   */
+  public String getSaltBuckets() {
+    return mSaltBuckets;
+  }
+
   /**
    * Set the mapping to use for decoding the row
    *
@@ -233,6 +257,7 @@ public class HBaseRowDecoderMeta extends BaseStepMeta implements StepMetaInterfa
   public void setDefault() {
     mIncomingKeyField = "";
     mIncomingResultField = "";
+    mSaltBuckets = null;
     namedCluster = namedClusterService.getClusterTemplate();
   }
 
@@ -339,6 +364,9 @@ public class HBaseRowDecoderMeta extends BaseStepMeta implements StepMetaInterfa
     if ( StringUtils.isNotEmpty( mIncomingResultField ) ) {
       retval.append( "\n    " ).append( XMLHandler.addTagValue( INCOMING_RESULT_FIELD, mIncomingResultField ) );
     }
+    if ( StringUtils.isNotEmpty( mSaltBuckets ) ) {
+      retval.append( "\n    " ).append( XMLHandler.addTagValue( SALT_BUCKETS, mSaltBuckets ) );
+    }
 
     namedClusterLoadSaveUtil.getXml( retval, namedClusterService, namedCluster,
       MetaStoreConst.getDefaultMetastore(), log );
@@ -356,6 +384,7 @@ public class HBaseRowDecoderMeta extends BaseStepMeta implements StepMetaInterfa
 
     mIncomingKeyField = XMLHandler.getTagValue( stepnode, INCOMING_KEY_FIELD );
     mIncomingResultField = XMLHandler.getTagValue( stepnode, INCOMING_RESULT_FIELD );
+    mSaltBuckets = XMLHandler.getTagValue( stepnode, SALT_BUCKETS );
     this.namedCluster =
         namedClusterLoadSaveUtil.loadClusterConfig( namedClusterService, null, repository, metaStore, stepnode, log );
     try {
@@ -374,6 +403,7 @@ public class HBaseRowDecoderMeta extends BaseStepMeta implements StepMetaInterfa
 
     mIncomingKeyField = rep.getStepAttributeString( idStep, 0, INCOMING_KEY_FIELD );
     mIncomingResultField = rep.getStepAttributeString( idStep, 0, INCOMING_RESULT_FIELD );
+    mSaltBuckets = rep.getStepAttributeString( idStep, 0, SALT_BUCKETS );
     this.namedCluster =
         namedClusterLoadSaveUtil.loadClusterConfig( namedClusterService, idStep, rep, metaStore, null, log );
     try {
@@ -394,6 +424,9 @@ public class HBaseRowDecoderMeta extends BaseStepMeta implements StepMetaInterfa
     if ( StringUtils.isNotEmpty( mIncomingResultField ) ) {
       rep.saveStepAttribute( idTransformation, idStep, 0, INCOMING_RESULT_FIELD, mIncomingResultField );
     }
+    if ( StringUtils.isNotEmpty( mSaltBuckets ) ) {
+      rep.saveStepAttribute( idTransformation, idStep, 0, SALT_BUCKETS, mSaltBuckets );
+    }
 
     namedClusterLoadSaveUtil.saveRep( rep, metaStore, idTransformation, idStep, namedClusterService, namedCluster, log );
 
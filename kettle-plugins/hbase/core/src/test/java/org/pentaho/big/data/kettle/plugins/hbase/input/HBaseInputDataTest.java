@@ -0,0 +1,167 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.input;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
+import org.pentaho.hadoop.shim.api.hbase.Result;
+import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
+import org.pentaho.hadoop.shim.api.hbase.meta.HBaseValueMetaInterface;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith( MockitoJUnitRunner.Silent.class )
+public class HBaseInputDataTest {
+
+  @Mock
+  private Result result;
+  @Mock
+  private Mapping tableMapping;
+  @Mock
+  private HBaseValueMetaInterface keyColumn;
+  @Mock
+  private HBaseValueMetaInterface nameColumn;
+  @Mock
+  private HBaseValueMetaInterface binaryColumn;
+
+  private RowMetaInterface outputRowMeta;
+  private Map<String, HBaseValueMetaInterface> columnsMappedByAlias;
+
+  @Before
+  public void setUp() throws Exception {
+    outputRowMeta = new RowMeta();
+    outputRowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    outputRowMeta.addValueMeta( new ValueMetaString( "binary" ) );
+    outputRowMeta.addValueMeta( new ValueMetaString( "name" ) );
+
+    when( keyColumn.isKey() ).thenReturn( true );
+    when( keyColumn.getAlias() ).thenReturn( "key" );
+    when( nameColumn.getAlias() ).thenReturn( "name" );
+    when( nameColumn.getColumnFamily() ).thenReturn( "f1" );
+    when( nameColumn.getColumnName() ).thenReturn( "name" );
+    when( binaryColumn.getAlias() ).thenReturn( "binary" );
+    when( binaryColumn.getColumnFamily() ).thenReturn( "f2" );
+    when( binaryColumn.getColumnName() ).thenReturn( "@@@binary@@@0a0b" );
+
+    columnsMappedByAlias = new LinkedHashMap<>();
+    columnsMappedByAlias.put( "key", keyColumn );
+    columnsMappedByAlias.put( "name", nameColumn );
+    columnsMappedByAlias.put( "binary", binaryColumn );
+    when( tableMapping.getKeyName() ).thenReturn( "key" );
+    when( tableMapping.numMappedColumns() ).thenReturn( 2 );
+
+    when( result.getRow() ).thenReturn( "k".getBytes() );
+    when( tableMapping.decodeKeyValue( "k".getBytes() ) ).thenReturn( "k" );
+    when( result.getValue( "f1", "name", false ) ).thenReturn( "n".getBytes() );
+    when( nameColumn.decodeColumnValue( "n".getBytes() ) ).thenReturn( "n" );
+    when( result.getValue( "f2", "0a0b", true ) ).thenReturn( "b".getBytes() );
+    when( binaryColumn.decodeColumnValue( "b".getBytes() ) ).thenReturn( "b" );
+  }
+
+  @Test
+  public void testCompileProjectionOfAllColumns() throws Exception {
+    HBaseInputData.ProjectedColumn[] projection =
+      HBaseInputData.compileProjection( null, columnsMappedByAlias, tableMapping, outputRowMeta );
+
+    assertEquals( 3, projection.length );
+    assertTrue( projection[ 0 ].isKey() );
+    assertEquals( 0, projection[ 0 ].getOutputIndex() );
+    assertFalse( projection[ 1 ].isKey() );
+    assertEquals( 2, projection[ 1 ].getOutputIndex() );
+    assertEquals( "f1", projection[ 1 ].getColumnFamily() );
+    assertEquals( "name", projection[ 1 ].getColumnName() );
+    assertFalse( projection[ 1 ].isBinaryColName() );
+    assertEquals( 1, projection[ 2 ].getOutputIndex() );
+    assertEquals( "0a0b", projection[ 2 ].getColumnName() );
+    assertTrue( projection[ 2 ].isBinaryColName() );
+  }
+
+  @Test
+  public void testGetOutputRowOfAllColumns() throws Exception {
+    Object[] row = HBaseInputData.getOutputRow( result, null, columnsMappedByAlias, tableMapping, outputRowMeta );
+
+    assertEquals( "k", row[ 0 ] );
+    assertEquals( "b", row[ 1 ] );
+    assertEquals( "n", row[ 2 ] );
+  }
+
+  @Test
+  public void testGetOutputRowOfUserSelectedColumns() throws Exception {
+    HBaseInputData.ProjectedColumn[] projection = HBaseInputData.compileProjection(
+      Arrays.asList( nameColumn, keyColumn ), columnsMappedByAlias, tableMapping, outputRowMeta );
+    int size = HBaseInputData.getOutputRowSize( Arrays.asList( nameColumn, keyColumn ), tableMapping );
+
+    for ( int i = 0; i < 3; i++ ) {
+      Object[] row = HBaseInputData.getOutputRow( result, projection, tableMapping, size );
+      assertEquals( "k", row[ 0 ] );
+      assertEquals( "n", row[ 2 ] );
+    }
+    verify( result, times( 3 ) ).getValue( "f1", "name", false );
+    verify( nameColumn, times( 1 ) ).getColumnName();
+  }
+
+  @Test( expected = KettleException.class )
+  public void testColumnMissingFromOutput() throws Exception {
+    when( nameColumn.getAlias() ).thenReturn( "missing" );
+    HBaseInputData.compileProjection( Collections.singletonList( nameColumn ), columnsMappedByAlias, tableMapping,
+      outputRowMeta );
+  }
+
+  @Test
+  public void testEncodeKeyBound() throws Exception {
+    ByteConversionUtil bytesUtil = mock( ByteConversionUtil.class );
+    when( bytesUtil.encodeKeyValue( any(), any( Mapping.KeyType.class ) ) ).thenReturn( new byte[] { 1 } );
+
+    assertNull( HBaseInputData.encodeKeyBound( bytesUtil, Mapping.KeyType.STRING, "", null, true ) );
+    // string keys are taken as they are, even with an @ in them
+    HBaseInputData.encodeKeyBound( bytesUtil, Mapping.KeyType.STRING, "a@b", null, true );
+    verify( bytesUtil ).encodeKeyValue( "a@b", Mapping.KeyType.STRING );
+
+    HBaseInputData.encodeKeyBound( bytesUtil, Mapping.KeyType.LONG, "1,000@#,##0", null, true );
+    verify( bytesUtil ).encodeKeyValue( 1000L, Mapping.KeyType.LONG );
+    HBaseInputData.encodeKeyBound( bytesUtil, Mapping.KeyType.LONG, "2,000", "#,##0", false );
+    verify( bytesUtil ).encodeKeyValue( 2000L, Mapping.KeyType.LONG );
+    HBaseInputData.encodeKeyBound( bytesUtil, Mapping.KeyType.DATE, "2024-07-20@yyyy-MM-dd", null, true );
+    verify( bytesUtil ).encodeKeyValue( new SimpleDateFormat( "yyyy-MM-dd" ).parse( "2024-07-20" ),
+      Mapping.KeyType.DATE );
+  }
+
+  @Test( expected = KettleException.class )
+  public void testEncodeKeyBoundFailsOnUnparsableValue() throws Exception {
+    HBaseInputData.encodeKeyBound( mock( ByteConversionUtil.class ), Mapping.KeyType.DATE, "soon@yyyy-MM-dd", null,
+      true );
+  }
+}
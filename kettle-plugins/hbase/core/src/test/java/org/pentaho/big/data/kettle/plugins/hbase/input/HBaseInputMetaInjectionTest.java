@@ -79,6 +79,26 @@ public class HBaseInputMetaInjectionTest extends BaseMetadataInjectionTest<HBase
         return meta.getMatchAnyFilter();
       }
     } );
+    check( "SPLIT_KEY_RANGE_ACROSS_COPIES", new BooleanGetter() {
+      public boolean get() {
+        return meta.getSplitKeyRangeAcrossCopies();
+      }
+    } );
+    check( "PREFETCH_SCAN", new BooleanGetter() {
+      public boolean get() {
+        return meta.getPrefetchScan();
+      }
+    } );
+    check( "PREFETCH_QUEUE_DEPTH", new StringGetter() {
+      public String get() {
+        return meta.getPrefetchQueueDepth();
+      }
+    } );
+    check( "SALT_BUCKETS", new StringGetter() {
+      public String get() {
+        return meta.getSaltBuckets();
+      }
+    } );
 
     check( "OUTPUT_FIELD_KEY", new BooleanGetter() {
       public boolean get() {
@@ -0,0 +1,142 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.input;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HBaseScanPrefetcherTest {
+
+  /**
+   * Fake scanner returning the numbers up to a limit, counting the calls.
+   */
+  private static class CountingSource implements HBaseScanPrefetcher.Source<Integer> {
+    private final int results;
+    private final AtomicInteger calls = new AtomicInteger();
+
+    CountingSource( int results ) {
+      this.results = results;
+    }
+
+    @Override
+    public Integer next() throws Exception {
+      int call = calls.getAndIncrement();
+      return call < results ? call : null;
+    }
+  }
+
+  @Test
+  public void testResultsAreReturnedInOrder() throws Exception {
+    try ( HBaseScanPrefetcher<Integer> prefetcher =
+            new HBaseScanPrefetcher<>( new CountingSource( 100 ), 7, "test" ) ) {
+      for ( int i = 0; i < 100; i++ ) {
+        assertEquals( Integer.valueOf( i ), prefetcher.next() );
+      }
+      assertNull( prefetcher.next() );
+      assertNull( prefetcher.next() );
+      assertEquals( 100, prefetcher.getResultsRead() );
+    }
+  }
+
+  @Test
+  public void testScannerIsReadWhileTheStepDecodes() throws Exception {
+    int depth = 4;
+    // counted down by the scanner for every result after the first one
+    CountDownLatch readAhead = new CountDownLatch( depth );
+    AtomicInteger calls = new AtomicInteger();
+    try ( HBaseScanPrefetcher<Integer> prefetcher = new HBaseScanPrefetcher<>( () -> {
+      int call = calls.getAndIncrement();
+      if ( call > 0 ) {
+        readAhead.countDown();
+      }
+      return call;
+    }, depth, "test" ) ) {
+      assertEquals( Integer.valueOf( 0 ), prefetcher.next() );
+
+      // the step thread is busy decoding the first result, the next ones are read in the meantime
+      assertTrue( readAhead.await( 5, TimeUnit.SECONDS ) );
+      for ( int i = 1; i <= depth; i++ ) {
+        assertEquals( Integer.valueOf( i ), prefetcher.next() );
+      }
+    }
+  }
+
+  @Test
+  public void testFailureIsRethrownAfterTheResultsReadBeforeIt() throws Exception {
+    IOException failure = new IOException( "scanner timeout" );
+    AtomicInteger calls = new AtomicInteger();
+    try ( HBaseScanPrefetcher<Integer> prefetcher = new HBaseScanPrefetcher<>( () -> {
+      if ( calls.get() == 2 ) {
+        throw failure;
+      }
+      return calls.getAndIncrement();
+    }, 10, "test" ) ) {
+      assertEquals( Integer.valueOf( 0 ), prefetcher.next() );
+      assertEquals( Integer.valueOf( 1 ), prefetcher.next() );
+      try {
+        prefetcher.next();
+        fail();
+      } catch ( IOException e ) {
+        assertSame( failure, e );
+      }
+    }
+  }
+
+  @Test
+  public void testCloseStopsAReaderWaitingForRoom() throws Exception {
+    CountingSource source = new CountingSource( Integer.MAX_VALUE );
+    HBaseScanPrefetcher<Integer> prefetcher = new HBaseScanPrefetcher<>( source, 2, "test" );
+    assertEquals( Integer.valueOf( 0 ), prefetcher.next() );
+    Thread.sleep( 50 );
+
+    prefetcher.close();
+    int calls = source.calls.get();
+    Thread.sleep( 50 );
+    assertEquals( calls, source.calls.get() );
+    assertNull( prefetcher.next() );
+  }
+
+  @Test
+  public void testCloseWakesUpAWaitingStepThread() throws Exception {
+    CountDownLatch release = new CountDownLatch( 1 );
+    HBaseScanPrefetcher<Integer> prefetcher = new HBaseScanPrefetcher<>( () -> {
+      release.await();
+      return 1;
+    }, 2, "test" );
+    CountDownLatch done = new CountDownLatch( 1 );
+    Thread stepThread = new Thread( () -> {
+      try {
+        assertNull( prefetcher.next() );
+        done.countDown();
+      } catch ( Exception e ) {
+        // the latch is not counted down
+      }
+    } );
+    stepThread.start();
+    Thread.sleep( 50 );
+
+    prefetcher.close();
+    assertTrue( done.await( 5, TimeUnit.SECONDS ) );
+  }
+}
@@ -0,0 +1,117 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.input;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class KeyRangeSplitterTest {
+
+  @Test
+  public void testSinglePartKeepsBounds() {
+    byte[] lower = bytes( "a" );
+    byte[] upper = bytes( "z" );
+    byte[][] range = KeyRangeSplitter.getRange( lower, upper, 0, 1 );
+    assertArrayEquals( lower, range[ 0 ] );
+    assertArrayEquals( upper, range[ 1 ] );
+  }
+
+  @Test
+  public void testUnboundedSplitIsContiguousAndIncreasing() {
+    byte[][] boundaries = KeyRangeSplitter.split( null, null, 4 );
+    assertEquals( 5, boundaries.length );
+    assertEquals( 0, boundaries[ 0 ].length );
+    assertEquals( 0, boundaries[ 4 ].length );
+    for ( int i = 1; i < 3; i++ ) {
+      assertTrue( KeyRangeSplitter.compare( boundaries[ i ], boundaries[ i + 1 ] ) < 0 );
+    }
+  }
+
+  @Test
+  public void testEveryKeyFallsInExactlyOnePart() {
+    byte[] lower = bytes( "b" );
+    byte[] upper = bytes( "y" );
+    int parts = 7;
+    for ( char first = 'b'; first < 'y'; first++ ) {
+      for ( char second = 'a'; second <= 'z'; second++ ) {
+        byte[] key = bytes( "" + first + second );
+        int matches = 0;
+        for ( int part = 0; part < parts; part++ ) {
+          byte[][] range = KeyRangeSplitter.getRange( lower, upper, part, parts );
+          if ( range != null && contains( range, key ) ) {
+            matches++;
+          }
+        }
+        assertEquals( 1, matches );
+      }
+    }
+  }
+
+  @Test
+  public void testPartsAreBalancedAsCopiesScale() {
+    int rows = 10000;
+    byte[] lower = intKey( 0 );
+    byte[] upper = intKey( rows );
+    for ( int parts = 1; parts <= 16; parts *= 2 ) {
+      int total = 0;
+      for ( int part = 0; part < parts; part++ ) {
+        byte[][] range = KeyRangeSplitter.getRange( lower, upper, part, parts );
+        assertNotNull( range );
+        int count = 0;
+        for ( int row = 0; row < rows; row++ ) {
+          if ( contains( range, intKey( row ) ) ) {
+            count++;
+          }
+        }
+        assertTrue( Math.abs( count - rows / parts ) <= 1 );
+        total += count;
+      }
+      assertEquals( rows, total );
+    }
+  }
+
+  @Test
+  public void testEmptyRangeHasNoParts() {
+    byte[] key = bytes( "m" );
+    for ( int part = 0; part < 3; part++ ) {
+      assertNull( KeyRangeSplitter.getRange( key, key, part, 3 ) );
+    }
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testPartOutOfRange() {
+    KeyRangeSplitter.getRange( null, null, 2, 2 );
+  }
+
+  private static boolean contains( byte[][] range, byte[] key ) {
+    return KeyRangeSplitter.compare( key, range[ 0 ] ) >= 0
+      && ( range[ 1 ].length == 0 || KeyRangeSplitter.compare( key, range[ 1 ] ) < 0 );
+  }
+
+  private static byte[] bytes( String value ) {
+    return value.getBytes( StandardCharsets.UTF_8 );
+  }
+
+  private static byte[] intKey( int value ) {
+    return ByteBuffer.allocate( 4 ).putInt( value ).array();
+  }
+}
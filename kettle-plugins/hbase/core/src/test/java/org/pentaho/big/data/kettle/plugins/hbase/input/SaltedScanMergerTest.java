@@ -0,0 +1,118 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.input;
+
+import org.junit.Test;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.KeySalter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SaltedScanMergerTest {
+
+  private static byte[] key( long i ) {
+    return ByteBuffer.allocate( 8 ).putLong( i ).array();
+  }
+
+  /**
+   * Salt the keys and group them by bucket, each bucket sorted like a scan over it would return them.
+   */
+  private static List<HBaseScanPrefetcher.Source<byte[]>> buckets( int buckets, long keys ) {
+    List<TreeSet<byte[]>> sorted = new ArrayList<>();
+    for ( int i = 0; i < buckets; i++ ) {
+      // all the keys of a bucket have the same salt byte, so comparing the rest orders them like HBase does
+      sorted.add( new TreeSet<>( SaltedScanMerger::compareUnsalted ) );
+    }
+    for ( long i = 0; i < keys; i++ ) {
+      byte[] salted = KeySalter.salt( key( i ), buckets );
+      sorted.get( salted[ 0 ] ).add( salted );
+    }
+    List<HBaseScanPrefetcher.Source<byte[]>> sources = new ArrayList<>();
+    for ( TreeSet<byte[]> bucket : sorted ) {
+      Iterator<byte[]> results = bucket.iterator();
+      sources.add( () -> results.hasNext() ? results.next() : null );
+    }
+    return sources;
+  }
+
+  @Test
+  public void testBucketsAreMergedInKeyOrder() throws Exception {
+    try ( SaltedScanMerger<byte[]> merger = new SaltedScanMerger<>( buckets( 8, 1000 ), result -> result, 16,
+      "test" ) ) {
+      for ( long i = 0; i < 1000; i++ ) {
+        byte[] result = merger.next();
+        assertArrayEquals( key( i ), KeySalter.unsalt( result, 8 ) );
+      }
+      assertNull( merger.next() );
+      assertNull( merger.next() );
+      assertEquals( 1000, merger.getResultsRead() );
+    }
+  }
+
+  @Test
+  public void testEmptyBucketsAreSkipped() throws Exception {
+    List<HBaseScanPrefetcher.Source<byte[]>> sources = buckets( 16, 3 );
+    try ( SaltedScanMerger<byte[]> merger = new SaltedScanMerger<>( sources, result -> result, 16, "test" ) ) {
+      for ( long i = 0; i < 3; i++ ) {
+        assertArrayEquals( key( i ), KeySalter.unsalt( merger.next(), 16 ) );
+      }
+      assertNull( merger.next() );
+    }
+  }
+
+  @Test
+  public void testReadAheadIsSharedOutOverTheBuckets() {
+    try ( SaltedScanMerger<byte[]> merger = new SaltedScanMerger<>( buckets( 8, 10 ), result -> result, 100,
+      "test" ) ) {
+      assertEquals( 12, merger.getBucketQueueDepth() );
+    }
+    try ( SaltedScanMerger<byte[]> merger = new SaltedScanMerger<>( buckets( 8, 10 ), result -> result, 4,
+      "test" ) ) {
+      assertEquals( 1, merger.getBucketQueueDepth() );
+    }
+  }
+
+  @Test
+  public void testUnsaltedKeysAreCompared() {
+    assertTrue( SaltedScanMerger.compareUnsalted( new byte[] { 5, 1 }, new byte[] { 0, 2 } ) < 0 );
+    assertTrue( SaltedScanMerger.compareUnsalted( new byte[] { 0, (byte) 0xff }, new byte[] { 5, 1 } ) > 0 );
+    assertTrue( SaltedScanMerger.compareUnsalted( new byte[] { 1, 1 }, new byte[] { 0, 1, 0 } ) < 0 );
+  }
+
+  @Test
+  public void testFailureOfABucketIsRethrown() throws Exception {
+    List<HBaseScanPrefetcher.Source<byte[]>> sources = buckets( 4, 100 );
+    sources.set( 2, () -> {
+      throw new IOException( "region server went away" );
+    } );
+    try ( SaltedScanMerger<byte[]> merger = new SaltedScanMerger<>( sources, result -> result, 16, "test" ) ) {
+      while ( merger.next() != null ) {
+        // read until the failure
+      }
+      fail( "expected the failure of bucket 2" );
+    } catch ( IOException e ) {
+      assertEquals( "region server went away", e.getMessage() );
+    }
+  }
+}
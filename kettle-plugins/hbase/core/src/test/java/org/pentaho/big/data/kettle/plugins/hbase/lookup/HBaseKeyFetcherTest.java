@@ -0,0 +1,206 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.lookup;
+
+import org.junit.Test;
+import org.pentaho.hadoop.shim.api.hbase.Result;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTable;
+import org.pentaho.hadoop.shim.api.hbase.table.ResultScanner;
+import org.pentaho.hadoop.shim.api.hbase.table.ResultScannerBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HBaseKeyFetcherTest {
+
+  private static final List<HBaseKeyFetcher.Column> COLUMNS =
+    Collections.singletonList( new HBaseKeyFetcher.Column( "cf", "col", false ) );
+
+  private final AtomicInteger scans = new AtomicInteger();
+  private final AtomicInteger readsInFlight = new AtomicInteger();
+  private final AtomicInteger maxReadsInFlight = new AtomicInteger();
+  /** If set, every read waits for this many reads to be in flight at the same time */
+  private volatile CountDownLatch readsToOverlap;
+
+  /**
+   * Fake table holding the given keys, counting the reads that are in flight at the same time.
+   */
+  private HBaseTable table( Set<String> existingKeys ) throws Exception {
+    HBaseTable table = mock( HBaseTable.class );
+    when( table.createScannerBuilder( any(), any() ) ).thenAnswer( invocation -> {
+      byte[] key = invocation.getArgument( 0 );
+      ResultScannerBuilder builder = mock( ResultScannerBuilder.class );
+      ResultScanner scanner = mock( ResultScanner.class );
+      when( builder.build() ).thenReturn( scanner );
+      when( scanner.next() ).thenAnswer( next -> {
+        scans.incrementAndGet();
+        maxReadsInFlight.accumulateAndGet( readsInFlight.incrementAndGet(), Math::max );
+        try {
+          CountDownLatch overlap = readsToOverlap;
+          if ( overlap != null ) {
+            overlap.countDown();
+            overlap.await( 5, TimeUnit.SECONDS );
+          }
+        } finally {
+          readsInFlight.decrementAndGet();
+        }
+        if ( !existingKeys.contains( new String( key ) ) ) {
+          return null;
+        }
+        Result result = mock( Result.class );
+        when( result.getRow() ).thenReturn( key );
+        return result;
+      } );
+      return builder;
+    } );
+    return table;
+  }
+
+  private List<HBaseTable> tables( int count, Set<String> existingKeys ) throws Exception {
+    List<HBaseTable> tables = new ArrayList<>();
+    for ( int i = 0; i < count; i++ ) {
+      tables.add( table( existingKeys ) );
+    }
+    return tables;
+  }
+
+  private static List<byte[]> keys( int count ) {
+    List<byte[]> keys = new ArrayList<>();
+    for ( int i = 0; i < count; i++ ) {
+      keys.add( String.format( "key%03d", i ).getBytes() );
+    }
+    return keys;
+  }
+
+  @Test
+  public void testExistingKeysAreReturned() throws Exception {
+    Set<String> existing = new TreeSet<>();
+    for ( int i = 0; i < 50; i += 2 ) {
+      existing.add( String.format( "key%03d", i ) );
+    }
+    HBaseKeyFetcher fetcher = new HBaseKeyFetcher( tables( 3, existing ), COLUMNS );
+    try {
+      List<byte[]> keys = keys( 50 );
+      Map<ByteBuffer, Result> results = fetcher.fetch( keys );
+
+      assertEquals( existing.size(), results.size() );
+      for ( byte[] key : keys ) {
+        Result result = results.get( ByteBuffer.wrap( key ) );
+        assertEquals( existing.contains( new String( key ) ), result != null );
+        if ( result != null ) {
+          assertArrayEquals( key, result.getRow() );
+        }
+      }
+      // exactly one read per key
+      assertEquals( 50, scans.get() );
+      assertEquals( 50, fetcher.getReads() );
+    } finally {
+      fetcher.close();
+    }
+  }
+
+  @Test
+  public void testReadsOfABatchOverlap() throws Exception {
+    Set<String> existing = new TreeSet<>();
+    for ( byte[] key : keys( 40 ) ) {
+      existing.add( new String( key ) );
+    }
+    // the first read of every table handle only returns once all four are in flight
+    readsToOverlap = new CountDownLatch( 4 );
+
+    HBaseKeyFetcher fetcher = new HBaseKeyFetcher( tables( 4, existing ), COLUMNS );
+    try {
+      assertEquals( 40, fetcher.fetch( keys( 40 ) ).size() );
+    } finally {
+      fetcher.close();
+    }
+    assertEquals( 4, maxReadsInFlight.get() );
+    assertEquals( 40, scans.get() );
+  }
+
+  @Test
+  public void testOneTableHandleReadsOneKeyAtATime() throws Exception {
+    Set<String> existing = new TreeSet<>();
+    for ( byte[] key : keys( 10 ) ) {
+      existing.add( new String( key ) );
+    }
+
+    HBaseKeyFetcher fetcher = new HBaseKeyFetcher( tables( 1, existing ), COLUMNS );
+    try {
+      assertEquals( 10, fetcher.fetch( keys( 10 ) ).size() );
+    } finally {
+      fetcher.close();
+    }
+    assertEquals( 1, maxReadsInFlight.get() );
+  }
+
+  @Test
+  public void testColumnsAreAddedToEveryScan() throws Exception {
+    HBaseTable table = mock( HBaseTable.class );
+    ResultScannerBuilder builder = mock( ResultScannerBuilder.class );
+    ResultScanner scanner = mock( ResultScanner.class );
+    when( table.createScannerBuilder( any(), any() ) ).thenReturn( builder );
+    when( builder.build() ).thenReturn( scanner );
+
+    HBaseKeyFetcher fetcher = new HBaseKeyFetcher( Collections.singletonList( table ),
+      Collections.singletonList( new HBaseKeyFetcher.Column( "cf", "0a0b", true ) ) );
+    assertTrue( fetcher.fetch( Collections.singletonList( "key".getBytes() ) ).isEmpty() );
+
+    verify( table ).createScannerBuilder( "key".getBytes(), "key".getBytes() );
+    verify( builder ).addColumnToScan( "cf", "0a0b", true );
+    verify( scanner ).close();
+    fetcher.close();
+    verify( table ).close();
+  }
+
+  @Test
+  public void testReadFailureIsRethrown() throws Exception {
+    List<HBaseTable> tables = tables( 2, Collections.emptySet() );
+    when( tables.get( 1 ).createScannerBuilder( any(), any() ) )
+      .thenThrow( new IllegalStateException( "region offline" ) );
+    HBaseKeyFetcher fetcher = new HBaseKeyFetcher( tables, COLUMNS );
+    try {
+      fetcher.fetch( keys( 10 ) );
+      fail( "expected the read failure" );
+    } catch ( IllegalStateException e ) {
+      assertEquals( "region offline", e.getMessage() );
+    } finally {
+      fetcher.close();
+    }
+  }
+
+  @Test
+  public void testKeysCompareAsUnsignedBytes() {
+    assertTrue( HBaseKeyFetcher.compare( new byte[] { 1 }, new byte[] { (byte) 0xff } ) < 0 );
+    assertTrue( HBaseKeyFetcher.compare( new byte[] { 1 }, new byte[] { 1, 0 } ) < 0 );
+    assertEquals( 0, HBaseKeyFetcher.compare( new byte[] { 1, 2 }, new byte[] { 1, 2 } ) );
+  }
+}
@@ -0,0 +1,76 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.lookup;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class HBaseLookupCacheTest {
+
+  private static ByteBuffer key( String key ) {
+    return ByteBuffer.wrap( key.getBytes() );
+  }
+
+  @Test
+  public void testCachedValuesAreReturned() {
+    HBaseLookupCache cache = new HBaseLookupCache( 10, false );
+    assertNull( cache.get( key( "a" ) ) );
+    cache.put( key( "a" ), new Object[] { "1", 1L } );
+
+    assertArrayEquals( new Object[] { "1", 1L }, cache.get( key( "a" ) ) );
+    assertEquals( 1, cache.getHits() );
+    assertEquals( 1, cache.getMisses() );
+    assertEquals( 50.0, cache.getHitRate(), 0.001 );
+  }
+
+  @Test
+  public void testLeastRecentlyUsedKeyIsEvicted() {
+    HBaseLookupCache cache = new HBaseLookupCache( 2, false );
+    cache.put( key( "a" ), new Object[] { "a" } );
+    cache.put( key( "b" ), new Object[] { "b" } );
+    // touching a makes b the least recently used key
+    cache.get( key( "a" ) );
+    cache.put( key( "c" ), new Object[] { "c" } );
+
+    assertEquals( 2, cache.size() );
+    assertNull( cache.get( key( "b" ) ) );
+    assertArrayEquals( new Object[] { "a" }, cache.get( key( "a" ) ) );
+    assertArrayEquals( new Object[] { "c" }, cache.get( key( "c" ) ) );
+  }
+
+  @Test
+  public void testMissingKeysAreOnlyCachedWhenEnabled() {
+    HBaseLookupCache cache = new HBaseLookupCache( 10, false );
+    cache.put( key( "missing" ), null );
+    assertNull( cache.get( key( "missing" ) ) );
+    assertEquals( 0, cache.size() );
+
+    cache = new HBaseLookupCache( 10, true );
+    cache.put( key( "missing" ), null );
+    assertSame( HBaseLookupCache.NOT_FOUND, cache.get( key( "missing" ) ) );
+    assertEquals( 1, cache.getNegativeHits() );
+    assertEquals( 100.0, cache.getHitRate(), 0.001 );
+  }
+
+  @Test
+  public void testHitRateWithoutLookups() {
+    assertEquals( 0.0, new HBaseLookupCache( 10, true ).getHitRate(), 0.001 );
+  }
+}
@@ -0,0 +1,114 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.lookup;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.pentaho.hadoop.shim.api.cluster.NamedClusterService;
+import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
+import org.pentaho.di.core.injection.BaseMetadataInjectionTest;
+import org.pentaho.runtime.test.RuntimeTester;
+import org.pentaho.runtime.test.action.RuntimeTestActionService;
+
+public class HBaseLookupMetaInjectionTest extends BaseMetadataInjectionTest<HBaseLookupMeta> {
+
+  @Before
+  public void setup() {
+    NamedClusterService namedClusterService = Mockito.mock( NamedClusterService.class );
+    NamedClusterServiceLocator namedClusterServiceLocator = Mockito.mock( NamedClusterServiceLocator.class );
+    RuntimeTestActionService runtimeTestActionService = Mockito.mock( RuntimeTestActionService.class );
+    RuntimeTester runtimeTester = Mockito.mock( RuntimeTester.class );
+
+    setup( new HBaseLookupMeta( namedClusterServiceLocator, namedClusterService, runtimeTestActionService,
+        runtimeTester ) );
+  }
+
+  @Test
+  public void test() throws Exception {
+    check( "KEY_FIELD", new StringGetter() {
+      public String get() {
+        return meta.getIncomingKeyField();
+      }
+    } );
+    check( "BATCH_SIZE", new StringGetter() {
+      public String get() {
+        return meta.getBatchSize();
+      }
+    } );
+    check( "LOOKUP_THREADS", new StringGetter() {
+      public String get() {
+        return meta.getLookupThreads();
+      }
+    } );
+    check( "CACHE_SIZE", new StringGetter() {
+      public String get() {
+        return meta.getCacheSize();
+      }
+    } );
+    check( "CACHE_MISSING_KEYS", new BooleanGetter() {
+      public boolean get() {
+        return meta.getCacheMissingKeys();
+      }
+    } );
+    check( "SALT_BUCKETS", new StringGetter() {
+      public String get() {
+        return meta.getSaltBuckets();
+      }
+    } );
+
+    check( "TABLE_NAME", new StringGetter() {
+      public String get() {
+        return meta.getMappingDefinition().getTableName();
+      }
+    } );
+    check( "MAPPING_NAME", new StringGetter() {
+      public String get() {
+        return meta.getMappingDefinition().getMappingName();
+      }
+    } );
+
+    check( "MAPPING_ALIAS", new StringGetter() {
+      public String get() {
+        return meta.getMappingDefinition().getMappingColumns().get( 0 ).getAlias();
+      }
+    } );
+    check( "MAPPING_KEY", new BooleanGetter() {
+      public boolean get() {
+        return meta.getMappingDefinition().getMappingColumns().get( 0 ).isKey();
+      }
+    } );
+    check( "MAPPING_COLUMN_FAMILY", new StringGetter() {
+      public String get() {
+        return meta.getMappingDefinition().getMappingColumns().get( 0 ).getColumnFamily();
+      }
+    } );
+    check( "MAPPING_COLUMN_NAME", new StringGetter() {
+      public String get() {
+        return meta.getMappingDefinition().getMappingColumns().get( 0 ).getColumnName();
+      }
+    } );
+    check( "MAPPING_TYPE", new StringGetter() {
+      public String get() {
+        return meta.getMappingDefinition().getMappingColumns().get( 0 ).getType();
+      }
+    } );
+    check( "MAPPING_INDEXED_VALUES", new StringGetter() {
+      public String get() {
+        return meta.getMappingDefinition().getMappingColumns().get( 0 ).getIndexedValues();
+      }
+    } );
+  }
+
+}
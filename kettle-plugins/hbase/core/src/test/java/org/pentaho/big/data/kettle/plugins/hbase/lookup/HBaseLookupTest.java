@@ -0,0 +1,264 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.lookup;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pentaho.big.data.kettle.plugins.hbase.mapping.KeySalter;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.logging.LoggingObjectInterface;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.trans.step.RowAdapter;
+import org.pentaho.di.trans.steps.mock.StepMockHelper;
+import org.pentaho.hadoop.shim.api.cluster.NamedClusterServiceLocator;
+import org.pentaho.hadoop.shim.api.hbase.ByteConversionUtil;
+import org.pentaho.hadoop.shim.api.hbase.HBaseConnection;
+import org.pentaho.hadoop.shim.api.hbase.HBaseService;
+import org.pentaho.hadoop.shim.api.hbase.Result;
+import org.pentaho.hadoop.shim.api.hbase.mapping.Mapping;
+import org.pentaho.hadoop.shim.api.hbase.meta.HBaseValueMetaInterface;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTable;
+import org.pentaho.hadoop.shim.api.hbase.table.ResultScanner;
+import org.pentaho.hadoop.shim.api.hbase.table.ResultScannerBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HBaseLookupTest {
+
+  private StepMockHelper<HBaseLookupMeta, HBaseLookupData> stepMockHelper;
+  private HBaseLookupMeta meta;
+  private HBaseLookupData data;
+  private HBaseLookup lookup;
+  private RowMetaInterface inputRowMeta;
+
+  /** The values of the table, by encoded key */
+  private Map<ByteBuffer, String> tableValues;
+  /** The keys read from the table, in the order they were read */
+  private List<String> keysRead;
+  private List<Object[]> output;
+
+  @Before
+  public void setup() throws Exception {
+    stepMockHelper = new StepMockHelper<>( "hbaseLookup", HBaseLookupMeta.class, HBaseLookupData.class );
+    when( stepMockHelper.logChannelInterfaceFactory.create( any(), any( LoggingObjectInterface.class ) ) )
+      .thenReturn( stepMockHelper.logChannelInterface );
+    when( stepMockHelper.trans.isRunning() ).thenReturn( true );
+
+    tableValues = new HashMap<>();
+    keysRead = Collections.synchronizedList( new ArrayList<>() );
+    output = new ArrayList<>();
+
+    inputRowMeta = new RowMeta();
+    inputRowMeta.addValueMeta( new ValueMetaString( "id" ) );
+    inputRowMeta.addValueMeta( new ValueMetaString( "key" ) );
+
+    HBaseValueMetaInterface column = mock( HBaseValueMetaInterface.class );
+    when( column.getColumnFamily() ).thenReturn( "cf" );
+    when( column.getColumnName() ).thenReturn( "col" );
+    when( column.decodeColumnValue( any() ) ).thenAnswer(
+      invocation -> invocation.getArgument( 0 ) == null ? null : new String( (byte[]) invocation.getArgument( 0 ) ) );
+    Map<String, HBaseValueMetaInterface> mappedColumns = new HashMap<>();
+    mappedColumns.put( "value", column );
+    Mapping mapping = mock( Mapping.class );
+    when( mapping.getTableName() ).thenReturn( "table" );
+    when( mapping.getMappedColumns() ).thenReturn( mappedColumns );
+
+    meta = stepMockHelper.processRowsStepMetaInterface;
+    when( meta.getMapping() ).thenReturn( mapping );
+    when( meta.getIncomingKeyField() ).thenReturn( "key" );
+    when( meta.getLookupThreads() ).thenReturn( "1" );
+    doAnswer( invocation -> {
+      ( (RowMetaInterface) invocation.getArgument( 1 ) ).addValueMeta( new ValueMetaString( "value" ) );
+      return null;
+    } ).when( meta ).getFields( any(), any( RowMetaInterface.class ), any(), any(), any(), any() );
+
+    ByteConversionUtil bytesUtil = mock( ByteConversionUtil.class );
+    when( bytesUtil.encodeKeyValue( any(), any(), any() ) ).thenAnswer(
+      invocation -> ( (String) invocation.getArgument( 0 ) ).getBytes() );
+    HBaseConnection connection = mock( HBaseConnection.class );
+    when( connection.getTable( "table" ) ).thenAnswer( invocation -> table() );
+    HBaseService hBaseService = mock( HBaseService.class );
+    when( hBaseService.getByteConversionUtil() ).thenReturn( bytesUtil );
+    when( hBaseService.getHBaseConnection( any(), any(), any(), any() ) ).thenReturn( connection );
+    NamedClusterServiceLocator namedClusterServiceLocator = mock( NamedClusterServiceLocator.class );
+    when( namedClusterServiceLocator.getService( any(), eq( HBaseService.class ) ) ).thenReturn( hBaseService );
+
+    data = new HBaseLookupData();
+    lookup = new HBaseLookup( stepMockHelper.stepMeta, data, 0, stepMockHelper.transMeta, stepMockHelper.trans,
+      namedClusterServiceLocator );
+    lookup.init( meta, data );
+    lookup.addRowListener( new RowAdapter() {
+      @Override
+      public void rowWrittenEvent( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
+        output.add( row );
+      }
+    } );
+  }
+
+  @After
+  public void teardown() {
+    stepMockHelper.cleanUp();
+  }
+
+  /**
+   * Fake table handle holding {@link #tableValues}, reading a key with a single row scan like the real one.
+   */
+  private HBaseTable table() throws Exception {
+    HBaseTable table = mock( HBaseTable.class );
+    when( table.exists() ).thenReturn( true );
+    when( table.createScannerBuilder( any(), any() ) ).thenAnswer( invocation -> {
+      byte[] key = invocation.getArgument( 0 );
+      ResultScannerBuilder builder = mock( ResultScannerBuilder.class );
+      ResultScanner scanner = mock( ResultScanner.class );
+      when( builder.build() ).thenReturn( scanner );
+      when( scanner.next() ).thenAnswer( next -> {
+        keysRead.add( new String( key ) );
+        String value = tableValues.get( ByteBuffer.wrap( key ) );
+        if ( value == null ) {
+          return null;
+        }
+        Result result = mock( Result.class );
+        when( result.getRow() ).thenReturn( key );
+        when( result.getValue( anyString(), anyString(), anyBoolean() ) ).thenReturn( value.getBytes() );
+        return result;
+      } );
+      return builder;
+    } );
+    return table;
+  }
+
+  private void put( String key, String value ) {
+    tableValues.put( ByteBuffer.wrap( key.getBytes() ), value );
+  }
+
+  private void run( Object[]... rows ) throws Exception {
+    RowSet inputRowSet = stepMockHelper.getMockInputRowSet( rows );
+    when( inputRowSet.getRowMeta() ).thenReturn( inputRowMeta );
+    lookup.addRowSetToInputRowSets( inputRowSet );
+    while ( lookup.processRow( meta, data ) ) {
+      // keep going until the end of the input
+    }
+  }
+
+  private void assertOutput( Object[]... expected ) {
+    assertEquals( expected.length, output.size() );
+    for ( int i = 0; i < expected.length; i++ ) {
+      Object[] row = output.get( i );
+      assertArrayEquals( expected[ i ], new Object[] { row[ 0 ], row[ 1 ], row[ 2 ] } );
+    }
+  }
+
+  @Test
+  public void testRowsArePassedOnInOrderAcrossBatches() throws Exception {
+    when( meta.getBatchSize() ).thenReturn( "2" );
+    put( "a", "A" );
+    put( "b", "B" );
+    put( "c", "C" );
+
+    run( new Object[] { "1", "c" }, new Object[] { "2", "a" }, new Object[] { "3", "b" }, new Object[] { "4", "a" },
+      new Object[] { "5", "c" } );
+
+    assertOutput( new Object[] { "1", "c", "C" }, new Object[] { "2", "a", "A" }, new Object[] { "3", "b", "B" },
+      new Object[] { "4", "a", "A" }, new Object[] { "5", "c", "C" } );
+  }
+
+  @Test
+  public void testNullAndMissingKeysGetNullValues() throws Exception {
+    when( meta.getBatchSize() ).thenReturn( "10" );
+    put( "a", "A" );
+
+    run( new Object[] { "1", null }, new Object[] { "2", "a" }, new Object[] { "3", "missing" } );
+
+    assertOutput( new Object[] { "1", null, null }, new Object[] { "2", "a", "A" },
+      new Object[] { "3", "missing", null } );
+    // a null key is not looked up at all
+    assertEquals( 2, keysRead.size() );
+  }
+
+  @Test
+  public void testKeyRepeatedInABatchIsReadOnce() throws Exception {
+    when( meta.getBatchSize() ).thenReturn( "10" );
+    put( "a", "A" );
+    put( "b", "B" );
+
+    run( new Object[] { "1", "a" }, new Object[] { "2", "b" }, new Object[] { "3", "a" },
+      new Object[] { "4", "missing" }, new Object[] { "5", "missing" } );
+
+    assertOutput( new Object[] { "1", "a", "A" }, new Object[] { "2", "b", "B" }, new Object[] { "3", "a", "A" },
+      new Object[] { "4", "missing", null }, new Object[] { "5", "missing", null } );
+    assertEquals( 3, keysRead.size() );
+  }
+
+  @Test
+  public void testCachedKeysAreNotReadAgain() throws Exception {
+    when( meta.getBatchSize() ).thenReturn( "1" );
+    when( meta.getCacheSize() ).thenReturn( "10" );
+    put( "a", "A" );
+
+    run( new Object[] { "1", "a" }, new Object[] { "2", "missing" }, new Object[] { "3", "a" },
+      new Object[] { "4", "missing" } );
+
+    assertOutput( new Object[] { "1", "a", "A" }, new Object[] { "2", "missing", null },
+      new Object[] { "3", "a", "A" }, new Object[] { "4", "missing", null } );
+    // missing keys are read again unless they are cached as well
+    assertEquals( 3, keysRead.size() );
+    assertEquals( 2, Collections.frequency( keysRead, "missing" ) );
+  }
+
+  @Test
+  public void testMissingKeysAreCachedWhenAsked() throws Exception {
+    when( meta.getBatchSize() ).thenReturn( "1" );
+    when( meta.getCacheSize() ).thenReturn( "10" );
+    when( meta.getCacheMissingKeys() ).thenReturn( true );
+    put( "a", "A" );
+
+    run( new Object[] { "1", "a" }, new Object[] { "2", "missing" }, new Object[] { "3", "a" },
+      new Object[] { "4", "missing" } );
+
+    assertOutput( new Object[] { "1", "a", "A" }, new Object[] { "2", "missing", null },
+      new Object[] { "3", "a", "A" }, new Object[] { "4", "missing", null } );
+    assertEquals( 2, keysRead.size() );
+  }
+
+  @Test
+  public void testSaltedKeysAreLookedUp() throws Exception {
+    when( meta.getBatchSize() ).thenReturn( "10" );
+    when( meta.getSaltBuckets() ).thenReturn( "8" );
+    tableValues.put( ByteBuffer.wrap( KeySalter.salt( "a".getBytes(), 8 ) ), "A" );
+
+    run( new Object[] { "1", "a" } );
+
+    assertOutput( new Object[] { "1", "a", "A" } );
+    assertEquals( Collections.singletonList( new String( KeySalter.salt( "a".getBytes(), 8 ) ) ), keysRead );
+  }
+}
@@ -0,0 +1,119 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.mapping;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class KeySalterTest {
+
+  @Test
+  public void testBucketsAreStable() {
+    // salted keys are persisted, so the bucket of a key must never change
+    assertEquals( 11, KeySalter.getBucket( "row-0001".getBytes(), 16 ) );
+    assertEquals( 10, KeySalter.getBucket( "row-0002".getBytes(), 16 ) );
+    assertEquals( 2, KeySalter.getBucket( "row-0003".getBytes(), 16 ) );
+    assertEquals( 219, KeySalter.getBucket( "row-0001".getBytes(), 256 ) );
+    assertEquals( 7, KeySalter.getBucket( new byte[ 0 ], 16 ) );
+  }
+
+  @Test
+  public void testSaltingIsDeterministic() {
+    for ( long i = 0; i < 1000; i++ ) {
+      byte[] key = ByteBuffer.allocate( 8 ).putLong( i ).array();
+      byte[] salted = KeySalter.salt( key, 8 );
+      assertArrayEquals( salted, KeySalter.salt( key.clone(), 8 ) );
+      assertEquals( KeySalter.getBucket( key, 8 ), salted[ 0 ] );
+      assertArrayEquals( key, KeySalter.unsalt( salted, 8 ) );
+    }
+  }
+
+  @Test
+  public void testIncreasingKeysAreSpreadOverAllBuckets() {
+    int buckets = 16;
+    int[] counts = new int[ buckets ];
+    for ( long i = 0; i < 16000; i++ ) {
+      counts[ KeySalter.getBucket( ByteBuffer.allocate( 8 ).putLong( i ).array(), buckets ) ]++;
+    }
+    for ( int count : counts ) {
+      assertTrue( "bucket count " + count, count > 800 && count < 1200 );
+    }
+  }
+
+  @Test
+  public void testNoSaltingForZeroOrOneBucket() {
+    byte[] key = "key".getBytes();
+    assertSame( key, KeySalter.salt( key, 0 ) );
+    assertSame( key, KeySalter.salt( key, 1 ) );
+    assertSame( key, KeySalter.unsalt( key, 1 ) );
+    assertEquals( 0, KeySalter.getSplitKeys( 1 ).length );
+  }
+
+  @Test
+  public void testBucketRange() {
+    byte[][] range = KeySalter.getBucketRange( 3, "a".getBytes(), "m".getBytes() );
+    assertArrayEquals( new byte[] { 3, 'a' }, range[ 0 ] );
+    assertArrayEquals( new byte[] { 3, 'm' }, range[ 1 ] );
+
+    // unbounded ranges cover the whole bucket
+    range = KeySalter.getBucketRange( 3, null, new byte[ 0 ] );
+    assertArrayEquals( new byte[] { 3 }, range[ 0 ] );
+    assertArrayEquals( new byte[] { 4 }, range[ 1 ] );
+
+    range = KeySalter.getBucketRange( 255, null, null );
+    assertArrayEquals( new byte[] { (byte) 255 }, range[ 0 ] );
+    assertEquals( 0, range[ 1 ].length );
+  }
+
+  @Test
+  public void testSplitKeysSeparateTheBuckets() {
+    byte[][] splitKeys = KeySalter.getSplitKeys( 4 );
+    assertEquals( 3, splitKeys.length );
+    assertArrayEquals( new byte[] { 1 }, splitKeys[ 0 ] );
+    assertArrayEquals( new byte[] { 3 }, splitKeys[ 2 ] );
+
+    Set<Integer> regions = new HashSet<>();
+    for ( int i = 0; i < 100; i++ ) {
+      byte[] salted = KeySalter.salt( ( "key" + i ).getBytes(), 4 );
+      int region = 0;
+      while ( region < splitKeys.length && ( salted[ 0 ] & 0xff ) >= ( splitKeys[ region ][ 0 ] & 0xff ) ) {
+        region++;
+      }
+      assertEquals( salted[ 0 ], region );
+      regions.add( region );
+    }
+    assertEquals( 4, regions.size() );
+  }
+
+  @Test
+  public void testBucketCountIsChecked() {
+    KeySalter.checkBuckets( 0 );
+    KeySalter.checkBuckets( KeySalter.MAX_BUCKETS );
+    try {
+      KeySalter.checkBuckets( KeySalter.MAX_BUCKETS + 1 );
+      fail( "expected the bucket count to be rejected" );
+    } catch ( IllegalArgumentException e ) {
+      // expected
+    }
+  }
+}
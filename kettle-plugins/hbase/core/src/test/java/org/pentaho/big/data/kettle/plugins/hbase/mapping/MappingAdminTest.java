@@ -276,6 +276,55 @@ public class MappingAdminTest {
     assertTrue( !desc.isEmpty() );
   }
 
+  @Test
+  public void getMappingReadsHBaseOncePerConnectionKey() throws Exception {
+    setupMappingStructure();
+    MappingCache cache = new MappingCache( 10, MappingCache.DEFAULT_TTL_MILLIS, () -> 0L );
+
+    new MappingAdmin( mockHbaseConnection, "cluster", cache ).getMapping( "populated:table1", "map1" );
+    Mapping mapping =
+      new MappingAdmin( mockHbaseConnection, "cluster", cache ).getMapping( "populated:table1", "map1" );
+
+    assertEquals( "key", mapping.getKeyName() );
+    assertTrue( mapping.getMappedColumns().containsKey( "aliascol1" ) );
+    verify( mockPopulatedMappingTable, times( 1 ) ).createScannerBuilder( any(), any() );
+  }
+
+  @Test
+  public void mappingNamesAndMappedTablesShareOneScan() throws Exception {
+    setupMappingStructure();
+    MappingAdmin cachingAdmin =
+      new MappingAdmin( mockHbaseConnection, "cluster", new MappingCache( 10, MappingCache.DEFAULT_TTL_MILLIS,
+        () -> 0L ) );
+
+    assertEquals( Arrays.asList( "map1", "map2" ), cachingAdmin.getMappingNames( "populated:table1" ) );
+    assertEquals( Arrays.asList( "map1" ), cachingAdmin.getMappingNames( "populated:table2" ) );
+    assertEquals( 2, cachingAdmin.getMappedTables( "populated" ).size() );
+    verify( mockPopulatedMappingTable, times( 1 ) ).createScannerBuilder( any(), any() );
+  }
+
+  @Test
+  public void deleteMappingInvalidatesCachedMappingNames() throws Exception {
+    setupMappingStructure();
+    MappingAdmin cachingAdmin =
+      new MappingAdmin( mockHbaseConnection, "cluster", new MappingCache( 10, MappingCache.DEFAULT_TTL_MILLIS,
+        () -> 0L ) );
+
+    assertEquals( 2, cachingAdmin.getMappingNames( "populated:table1" ).size() );
+    cachingAdmin.deleteMapping( "populated:table1", "map1" );
+    // the scanner has nothing more to return
+    assertTrue( cachingAdmin.getMappingNames( "populated:table1" ).isEmpty() );
+    verify( mockPopulatedMappingTable, times( 2 ) ).createScannerBuilder( any(), any() );
+  }
+
+  @Test
+  public void mappingAdminWithoutConnectionKeyAlwaysReadsHBase() throws Exception {
+    setupMappingStructure();
+    mappingAdmin.getMappingNames( "populated:table1" );
+    mappingAdmin.getMappingNames( "populated:table1" );
+    verify( mockPopulatedMappingTable, times( 2 ) ).createScannerBuilder( any(), any() );
+  }
+
   @Test
   public void close() throws Exception {
     mappingAdmin.close();
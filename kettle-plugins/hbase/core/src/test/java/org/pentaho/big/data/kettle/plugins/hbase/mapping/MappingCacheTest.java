@@ -0,0 +1,117 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.mapping;
+
+import org.junit.Test;
+import org.pentaho.hadoop.shim.api.hbase.HBaseService;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class MappingCacheTest {
+
+  private final AtomicLong now = new AtomicLong();
+  private final AtomicInteger loads = new AtomicInteger();
+  private final MappingCache cache = new MappingCache( 2, 1000, now::get );
+
+  private String load( Object connectionKey, String mappingTable, String table, String mapping ) throws Exception {
+    return cache.get( connectionKey, mappingTable, table, mapping, () -> "value" + loads.incrementAndGet() );
+  }
+
+  @Test
+  public void testValuesAreCachedUntilTheyExpire() throws Exception {
+    assertEquals( "value1", load( "cluster", "ns:pentaho_mappings", "t", "m" ) );
+    now.set( 999 );
+    assertEquals( "value1", load( "cluster", "ns:pentaho_mappings", "t", "m" ) );
+    now.set( 1000 );
+    assertEquals( "value2", load( "cluster", "ns:pentaho_mappings", "t", "m" ) );
+  }
+
+  @Test
+  public void testKeysAreDistinct() throws Exception {
+    assertEquals( "value1", load( "cluster", "ns:pentaho_mappings", "t", "m" ) );
+    assertEquals( "value2", load( "other", "ns:pentaho_mappings", "t", "m" ) );
+    assertEquals( "value3", load( "cluster", "ns:pentaho_mappings", null, null ) );
+    assertEquals( 3, loads.get() );
+  }
+
+  @Test
+  public void testNullConnectionKeyBypassesTheCache() throws Exception {
+    load( null, "ns:pentaho_mappings", "t", "m" );
+    load( null, "ns:pentaho_mappings", "t", "m" );
+    assertEquals( 2, loads.get() );
+    assertEquals( 0, cache.size() );
+  }
+
+  @Test
+  public void testEmptyConfigLocationsGiveTheSameConnectionKey() {
+    HBaseService hBaseService = mock( HBaseService.class );
+    assertEquals( MappingCache.connectionKey( hBaseService, null, null ),
+      MappingCache.connectionKey( hBaseService, "", "" ) );
+    assertNotEquals( MappingCache.connectionKey( hBaseService, null, null ),
+      MappingCache.connectionKey( hBaseService, "site.xml", null ) );
+  }
+
+  @Test
+  public void testInvalidateDropsEverythingReadFromTheMappingTable() throws Exception {
+    load( "cluster", "ns:pentaho_mappings", "t", "m" );
+    load( "other", "ns:pentaho_mappings", null, null );
+    load( "cluster", "other:pentaho_mappings", "t", "m" );
+
+    cache.invalidate( "ns:pentaho_mappings" );
+
+    assertEquals( 1, cache.size() );
+    assertEquals( "value4", load( "cluster", "ns:pentaho_mappings", "t", "m" ) );
+  }
+
+  @Test
+  public void testLoadRacingWithInvalidationIsNotCached() throws Exception {
+    cache.get( "cluster", "ns:pentaho_mappings", "t", "m", () -> {
+      cache.invalidate( "ns:pentaho_mappings" );
+      return "stale";
+    } );
+    assertEquals( 0, cache.size() );
+  }
+
+  @Test
+  public void testFailuresAreNotCached() throws Exception {
+    try {
+      cache.get( "cluster", "ns:pentaho_mappings", "t", "m", () -> {
+        throw new IOException( "does not exist" );
+      } );
+      fail();
+    } catch ( IOException e ) {
+      // expected
+    }
+    assertEquals( 0, cache.size() );
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntryIsDropped() throws Exception {
+    load( "cluster", "ns:pentaho_mappings", "t", "a" );
+    load( "cluster", "ns:pentaho_mappings", "t", "b" );
+    load( "cluster", "ns:pentaho_mappings", "t", "a" );
+    load( "cluster", "ns:pentaho_mappings", "t", "c" );
+
+    assertEquals( 2, cache.size() );
+    assertEquals( "value1", load( "cluster", "ns:pentaho_mappings", "t", "a" ) );
+    assertEquals( "value4", load( "cluster", "ns:pentaho_mappings", "t", "b" ) );
+  }
+}
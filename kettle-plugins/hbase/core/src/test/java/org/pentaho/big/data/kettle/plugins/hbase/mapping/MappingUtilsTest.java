@@ -84,10 +84,13 @@ public class MappingUtilsTest {
   @Test
   public void testGetMappingAdmin_NoException() {
     try {
+      Object connectionKey = new Object();
       when( cProducerMock.getHBaseConnection() ).thenReturn( hbConnectionMock );
+      when( cProducerMock.getConnectionKey() ).thenReturn( connectionKey );
       MappingAdmin mappingAdmin = MappingUtils.getMappingAdmin( cProducerMock );
       assertNotNull( mappingAdmin );
       assertSame( hbConnectionMock, mappingAdmin.getConnection() );
+      assertSame( connectionKey, mappingAdmin.getConnectionKey() );
       verify( hbConnectionMock ).checkHBaseAvailable();
     } catch ( Exception e ) {
       fail( "No exception expected but it occurs!" );
@@ -0,0 +1,139 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.output;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseDelete;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTable;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTableWriteOperationManager;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith( MockitoJUnitRunner.class )
+public class HBaseDeleteBatcherTest {
+
+  @Mock
+  private HBaseTable table;
+  @Mock
+  private HBaseTableWriteOperationManager writeOperationManager;
+  @Mock
+  private HBaseDelete delete;
+
+  @Before
+  public void setUp() throws Exception {
+    when( table.createWriteOperationManager( isNull() ) ).thenReturn( writeOperationManager );
+    when( writeOperationManager.createDelete( any() ) ).thenReturn( delete );
+  }
+
+  @Test
+  public void testBatchIsSubmittedWhenFull() throws Exception {
+    HBaseDeleteBatcher batcher = new HBaseDeleteBatcher( Collections.singletonList( table ), 3 );
+    Object[] first = new Object[] { "a" };
+    Object[] second = new Object[] { "b" };
+    Object[] third = new Object[] { "c" };
+
+    assertTrue( batcher.add( "a".getBytes(), first ).isEmpty() );
+    assertTrue( batcher.add( "b".getBytes(), second ).isEmpty() );
+    verify( writeOperationManager, times( 0 ) ).createDelete( any() );
+
+    List<HBaseDeleteBatcher.PendingDelete> deleted = batcher.add( "c".getBytes(), third );
+    assertEquals( 3, deleted.size() );
+    assertSame( first, deleted.get( 0 ).getRow() );
+    assertSame( second, deleted.get( 1 ).getRow() );
+    assertSame( third, deleted.get( 2 ).getRow() );
+    verify( delete, times( 3 ) ).execute();
+    assertEquals( 3, batcher.getDeletesExecuted() );
+    assertEquals( 1, batcher.getBatchesExecuted() );
+
+    assertTrue( batcher.flush().isEmpty() );
+    batcher.close();
+  }
+
+  @Test
+  public void testFailuresAreReportedPerRow() throws Exception {
+    HBaseDelete failingDelete = mock( HBaseDelete.class );
+    IOException failure = new IOException( "region moved" );
+    doThrow( failure ).when( failingDelete ).execute();
+    when( writeOperationManager.createDelete( "b".getBytes() ) ).thenReturn( failingDelete );
+
+    HBaseDeleteBatcher batcher = new HBaseDeleteBatcher( Collections.singletonList( table ), 10 );
+    batcher.add( "a".getBytes(), new Object[] { "a" } );
+    batcher.add( "b".getBytes(), new Object[] { "b" } );
+    batcher.add( "c".getBytes(), new Object[] { "c" } );
+    List<HBaseDeleteBatcher.PendingDelete> deleted = batcher.flush();
+
+    assertNull( deleted.get( 0 ).getFailure() );
+    assertSame( failure, deleted.get( 1 ).getFailure() );
+    assertNull( deleted.get( 2 ).getFailure() );
+    batcher.close();
+  }
+
+  @Test
+  public void testDuplicateKeysAreDeletedOnce() throws Exception {
+    HBaseDeleteBatcher batcher = new HBaseDeleteBatcher( Collections.singletonList( table ), 10 );
+    batcher.add( "a".getBytes(), new Object[] { "a" } );
+    batcher.add( "a".getBytes(), new Object[] { "a" } );
+    List<HBaseDeleteBatcher.PendingDelete> deleted = batcher.flush();
+
+    assertEquals( 2, deleted.size() );
+    verify( delete, times( 1 ) ).execute();
+    assertEquals( 1, batcher.getDeletesExecuted() );
+    batcher.close();
+  }
+
+  @Test
+  public void testBatchIsSpreadOverTables() throws Exception {
+    HBaseTable otherTable = mock( HBaseTable.class );
+    HBaseTableWriteOperationManager otherWriteOperationManager = mock( HBaseTableWriteOperationManager.class );
+    when( otherTable.createWriteOperationManager( isNull() ) ).thenReturn( otherWriteOperationManager );
+    when( otherWriteOperationManager.createDelete( any() ) ).thenReturn( delete );
+
+    HBaseDeleteBatcher batcher = new HBaseDeleteBatcher( Arrays.asList( table, otherTable ), 4 );
+    for ( String key : new String[] { "a", "b", "c" } ) {
+      batcher.add( key.getBytes(), new Object[] { key } );
+    }
+    List<HBaseDeleteBatcher.PendingDelete> deleted = batcher.add( "d".getBytes(), new Object[] { "d" } );
+
+    assertEquals( 4, deleted.size() );
+    verify( delete, times( 4 ) ).execute();
+    verify( writeOperationManager, times( 2 ) ).createDelete( any() );
+    verify( otherWriteOperationManager, times( 2 ) ).createDelete( any() );
+
+    batcher.close();
+    verify( writeOperationManager ).close();
+    verify( otherWriteOperationManager ).close();
+    verify( table ).close();
+    verify( otherTable, atLeastOnce() ).close();
+  }
+}
@@ -0,0 +1,98 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.output;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.hadoop.shim.api.hbase.meta.HBaseValueMetaInterface;
+import org.pentaho.hadoop.shim.api.hbase.table.HBasePut;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith( MockitoJUnitRunner.class )
+public class HBaseOutputDataTest {
+
+  @Mock
+  private HBaseValueMetaInterface nameColumn;
+  @Mock
+  private HBaseValueMetaInterface binaryColumn;
+  @Mock
+  private HBasePut put;
+
+  private RowMetaInterface inRowMeta;
+  private Map<String, HBaseValueMetaInterface> columnsMappedByAlias;
+
+  @Before
+  public void setUp() {
+    inRowMeta = new RowMeta();
+    inRowMeta.addValueMeta( new ValueMetaString( "key" ) );
+    inRowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    inRowMeta.addValueMeta( new ValueMetaString( "unmapped" ) );
+    inRowMeta.addValueMeta( new ValueMetaString( "binary" ) );
+
+    when( nameColumn.getColumnFamily() ).thenReturn( "f1" );
+    when( nameColumn.getColumnName() ).thenReturn( "name" );
+    when( binaryColumn.getColumnFamily() ).thenReturn( "f2" );
+    when( binaryColumn.getColumnName() ).thenReturn( "@@@binary@@@0a0b" );
+
+    columnsMappedByAlias = new HashMap<>();
+    columnsMappedByAlias.put( "name", nameColumn );
+    columnsMappedByAlias.put( "binary", binaryColumn );
+  }
+
+  @Test
+  public void testCompileColumnPlan() {
+    HBaseOutputData.MappedColumn[] plan = HBaseOutputData.compileColumnPlan( inRowMeta, 0, columnsMappedByAlias );
+
+    assertEquals( 2, plan.length );
+    assertEquals( 1, plan[ 0 ].getFieldIndex() );
+    assertEquals( "f1", plan[ 0 ].getColumnFamily() );
+    assertEquals( "name", plan[ 0 ].getColumnName() );
+    assertFalse( plan[ 0 ].isBinaryColName() );
+    assertEquals( 3, plan[ 1 ].getFieldIndex() );
+    assertEquals( "f2", plan[ 1 ].getColumnFamily() );
+    assertEquals( "0a0b", plan[ 1 ].getColumnName() );
+    assertTrue( plan[ 1 ].isBinaryColName() );
+  }
+
+  @Test
+  public void testAddColumnsToPutSkipsNulls() throws Exception {
+    HBaseOutputData.MappedColumn[] plan = HBaseOutputData.compileColumnPlan( inRowMeta, 0, columnsMappedByAlias );
+    byte[] encoded = "bob".getBytes();
+    when( nameColumn.encodeColumnValue( eq( "bob" ), any() ) ).thenReturn( encoded );
+
+    HBaseOutputData.addColumnsToPut( new Object[] { "k1", "bob", "ignored", null }, plan, put );
+
+    verify( put ).addColumn( "f1", "name", false, encoded );
+    verify( put, never() ).addColumn( eq( "f2" ), anyString(), anyBoolean(), any() );
+  }
+}
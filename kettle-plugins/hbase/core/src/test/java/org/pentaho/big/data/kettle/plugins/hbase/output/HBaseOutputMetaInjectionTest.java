@@ -76,6 +76,41 @@ public class HBaseOutputMetaInjectionTest extends BaseMetadataInjectionTest<HBas
         return meta.getWriteBufferSize();
       }
     } );
+    check( "DELETE_BATCH_SIZE", new StringGetter() {
+      public String get() {
+        return meta.getDeleteBatchSize();
+      }
+    } );
+    check( "DELETE_THREADS", new StringGetter() {
+      public String get() {
+        return meta.getDeleteThreads();
+      }
+    } );
+    check( "ASYNC_WRITE", new BooleanGetter() {
+      public boolean get() {
+        return meta.getAsyncWrite();
+      }
+    } );
+    check( "ASYNC_MAX_BUFFERED_BYTES", new StringGetter() {
+      public String get() {
+        return meta.getAsyncMaxBufferedBytes();
+      }
+    } );
+    check( "ASYNC_FLUSH_THREADS", new StringGetter() {
+      public String get() {
+        return meta.getAsyncFlushThreads();
+      }
+    } );
+    check( "ASYNC_FLUSH_INTERVAL", new StringGetter() {
+      public String get() {
+        return meta.getAsyncFlushInterval();
+      }
+    } );
+    check( "SALT_BUCKETS", new StringGetter() {
+      public String get() {
+        return meta.getSaltBuckets();
+      }
+    } );
 
     check( "TABLE_NAME", new StringGetter() {
       public String get() {
@@ -0,0 +1,230 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.output;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.hadoop.shim.api.hbase.table.HBasePut;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTable;
+import org.pentaho.hadoop.shim.api.hbase.table.HBaseTableWriteOperationManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith( MockitoJUnitRunner.Silent.class )
+public class HBaseWritePipelineTest {
+
+  @Mock
+  private HBaseTable table;
+  @Mock
+  private HBaseTableWriteOperationManager writeOperationManager;
+  @Mock
+  private HBasePut put;
+
+  @Before
+  public void setUp() throws Exception {
+    when( table.createWriteOperationManager( isNull() ) ).thenReturn( writeOperationManager );
+    when( writeOperationManager.createPut( any() ) ).thenReturn( put );
+  }
+
+  @Test
+  public void testNothingIsLostOnClose() throws Exception {
+    HBaseWritePipeline pipeline = new HBaseWritePipeline( Collections.singletonList( table ), null, 64, 60000 );
+    for ( int i = 0; i < 100; i++ ) {
+      pipeline.submit( mutation( "key" + i ) );
+    }
+    pipeline.close();
+
+    verify( put, times( 100 ) ).execute();
+    verify( put, times( 100 ) ).addColumn( eq( "family" ), eq( "column" ), eq( false ), any() );
+    verify( writeOperationManager, atLeastOnce() ).flushCommits();
+    verify( writeOperationManager ).close();
+    verify( table ).close();
+    assertEquals( 100, pipeline.getPutsBuffered() );
+    assertTrue( pipeline.getFlushes() > 1 );
+    assertEquals( pipeline.getFlushes(), Arrays.stream( pipeline.getFlushLatencyHistogram() ).sum() );
+    assertTrue( pipeline.drainFailures().isEmpty() );
+  }
+
+  @Test
+  public void testBufferedPutsAreFlushedAfterInterval() throws Exception {
+    HBaseWritePipeline pipeline = new HBaseWritePipeline( Collections.singletonList( table ), null,
+      HBaseWritePipeline.DEFAULT_MAX_BUFFERED_BYTES, 10 );
+    pipeline.submit( mutation( "key" ) );
+
+    verify( writeOperationManager, timeout( 5000 ) ).flushCommits();
+    pipeline.close();
+  }
+
+  @Test
+  public void testFailedPutIsReported() throws Exception {
+    HBasePut failingPut = mock( HBasePut.class );
+    IOException failure = new IOException( "region too busy" );
+    doThrow( failure ).when( failingPut ).execute();
+    when( writeOperationManager.createPut( "bad".getBytes() ) ).thenReturn( failingPut );
+
+    HBaseWritePipeline pipeline = new HBaseWritePipeline( Collections.singletonList( table ), null,
+      HBaseWritePipeline.DEFAULT_MAX_BUFFERED_BYTES, 60000 );
+    pipeline.submit( mutation( "good" ) );
+    HBaseWritePipeline.Mutation bad = mutation( "bad" );
+    pipeline.submit( bad );
+    pipeline.close();
+
+    List<HBaseWritePipeline.Failure> failures = pipeline.drainFailures();
+    assertEquals( 1, failures.size() );
+    assertSame( bad.getRow(), failures.get( 0 ).getRow() );
+    assertSame( failure, failures.get( 0 ).getException() );
+  }
+
+  @Test
+  public void testFailedFlushReportsBufferedPuts() throws Exception {
+    IOException failure = new IOException( "connection lost" );
+    doThrow( failure ).when( writeOperationManager ).flushCommits();
+
+    HBaseWritePipeline pipeline = new HBaseWritePipeline( Collections.singletonList( table ), null,
+      HBaseWritePipeline.DEFAULT_MAX_BUFFERED_BYTES, 60000 );
+    pipeline.submit( mutation( "a" ) );
+    pipeline.submit( mutation( "b" ) );
+    pipeline.close();
+
+    assertEquals( 2, pipeline.drainFailures().size() );
+  }
+
+  @Test
+  public void testPutsAreSpreadOverTables() throws Exception {
+    HBaseTable otherTable = mock( HBaseTable.class );
+    HBaseTableWriteOperationManager otherWriteOperationManager = mock( HBaseTableWriteOperationManager.class );
+    when( otherTable.createWriteOperationManager( isNull() ) ).thenReturn( otherWriteOperationManager );
+    when( otherWriteOperationManager.createPut( any() ) ).thenReturn( put );
+
+    HBaseWritePipeline pipeline = new HBaseWritePipeline( Arrays.asList( table, otherTable ), null,
+      HBaseWritePipeline.DEFAULT_MAX_BUFFERED_BYTES, 60000 );
+    for ( int i = 0; i < 1000; i++ ) {
+      pipeline.submit( mutation( "key" + i ) );
+    }
+    pipeline.close();
+
+    verify( put, times( 1000 ) ).execute();
+    verify( otherWriteOperationManager ).close();
+    verify( otherTable ).close();
+  }
+
+  @Test
+  public void testLastPutOfAKeyWins() throws Exception {
+    HBaseTable otherTable = mock( HBaseTable.class );
+    HBaseTableWriteOperationManager otherWriteOperationManager = mock( HBaseTableWriteOperationManager.class );
+    when( otherTable.createWriteOperationManager( isNull() ) ).thenReturn( otherWriteOperationManager );
+    Map<String, String> stored = new HashMap<>();
+    recordExecutedPuts( writeOperationManager, stored );
+    recordExecutedPuts( otherWriteOperationManager, stored );
+
+    HBaseWritePipeline pipeline = new HBaseWritePipeline( Arrays.asList( table, otherTable ), null, 64, 60000 );
+    for ( int version = 0; version < 20; version++ ) {
+      for ( int i = 0; i < 50; i++ ) {
+        pipeline.submit( mutation( "key" + i, "version" + version ) );
+      }
+    }
+    pipeline.close();
+
+    assertEquals( 50, stored.size() );
+    for ( String value : stored.values() ) {
+      assertEquals( "version19", value );
+    }
+  }
+
+  @Test
+  public void testOnlyFlushedRowsAreHandedBack() throws Exception {
+    HBasePut failingPut = mock( HBasePut.class );
+    doThrow( new IOException( "region too busy" ) ).when( failingPut ).execute();
+    when( writeOperationManager.createPut( "bad".getBytes() ) ).thenReturn( failingPut );
+
+    HBaseWritePipeline pipeline = new HBaseWritePipeline( Collections.singletonList( table ), null,
+      HBaseWritePipeline.DEFAULT_MAX_BUFFERED_BYTES, 60000 );
+    HBaseWritePipeline.Mutation good = mutation( "good" );
+    pipeline.submit( good );
+    pipeline.submit( mutation( "bad" ) );
+    pipeline.close();
+
+    List<Object[]> written = pipeline.drainWritten();
+    assertEquals( 1, written.size() );
+    assertSame( good.getRow(), written.get( 0 ) );
+    assertEquals( 1, pipeline.drainFailures().size() );
+    assertTrue( pipeline.drainWritten().isEmpty() );
+  }
+
+  @Test( expected = KettleException.class )
+  public void testSubmitAfterCloseFails() throws Exception {
+    HBaseWritePipeline pipeline = new HBaseWritePipeline( Collections.singletonList( table ), null,
+      HBaseWritePipeline.DEFAULT_MAX_BUFFERED_BYTES, 60000 );
+    pipeline.close();
+    pipeline.submit( mutation( "key" ) );
+  }
+
+  /**
+   * Make the puts of a write operation manager store their value under their key when they are executed.
+   */
+  private static void recordExecutedPuts( HBaseTableWriteOperationManager manager, Map<String, String> stored )
+    throws Exception {
+    when( manager.createPut( any() ) ).thenAnswer( createPut -> {
+      String key = new String( (byte[]) createPut.getArgument( 0 ) );
+      List<String> values = new ArrayList<>();
+      HBasePut recordingPut = mock( HBasePut.class );
+      doAnswer( addColumn -> values.add( new String( (byte[]) addColumn.getArgument( 3 ) ) ) )
+        .when( recordingPut ).addColumn( any(), any(), anyBoolean(), any() );
+      doAnswer( execute -> {
+        synchronized ( stored ) {
+          stored.put( key, values.get( 0 ) );
+        }
+        return null;
+      } ).when( recordingPut ).execute();
+      return recordingPut;
+    } );
+  }
+
+  private static HBaseWritePipeline.Mutation mutation( String key ) {
+    return mutation( key, key );
+  }
+
+  private static HBaseWritePipeline.Mutation mutation( String key, String value ) {
+    HBaseWritePipeline.Mutation mutation = new HBaseWritePipeline.Mutation( key.getBytes(), new Object[] { key },
+      true );
+    mutation.addColumn( "family", "column", false, value.getBytes() );
+    return mutation;
+  }
+}
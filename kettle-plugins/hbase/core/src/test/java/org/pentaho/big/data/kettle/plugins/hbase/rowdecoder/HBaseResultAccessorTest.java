@@ -0,0 +1,85 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.big.data.kettle.plugins.hbase.rowdecoder;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class HBaseResultAccessorTest {
+
+  public static class Result {
+    private final byte[] row;
+
+    public Result( byte[] row ) {
+      this.row = row;
+    }
+
+    public byte[] getRow() {
+      return row;
+    }
+
+    public byte[] getValue( byte[] family, byte[] qualifier ) throws IOException {
+      if ( Arrays.equals( "broken".getBytes(), family ) ) {
+        throw new IOException( "broken family" );
+      }
+      return Arrays.equals( "f".getBytes(), family ) ? qualifier : null;
+    }
+  }
+
+  private static class PrivateResult extends Result {
+    PrivateResult( byte[] row ) {
+      super( row );
+    }
+  }
+
+  @Test
+  public void testReadsRowAndValues() throws Exception {
+    Result result = new Result( "key".getBytes() );
+    HBaseResultAccessor accessor = HBaseResultAccessor.forResult( result );
+
+    assertArrayEquals( "key".getBytes(), accessor.getRow( result ) );
+    assertArrayEquals( "q".getBytes(), accessor.getValue( result, "f".getBytes(), "q".getBytes() ) );
+    assertNull( accessor.getValue( result, "other".getBytes(), "q".getBytes() ) );
+  }
+
+  @Test
+  public void testAccessorIsCachedPerClass() {
+    assertSame( HBaseResultAccessor.forResult( new Result( null ) ),
+      HBaseResultAccessor.forResult( new Result( null ) ) );
+  }
+
+  @Test
+  public void testNonPublicResultSubclass() throws Exception {
+    Result result = new PrivateResult( "key".getBytes() );
+    assertArrayEquals( "key".getBytes(), HBaseResultAccessor.forResult( result ).getRow( result ) );
+  }
+
+  @Test( expected = IOException.class )
+  public void testExceptionsArePassedOn() throws Exception {
+    Result result = new Result( "key".getBytes() );
+    HBaseResultAccessor.forResult( result ).getValue( result, "broken".getBytes(), "q".getBytes() );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testNotAResult() throws Exception {
+    Object notAResult = "key";
+    HBaseResultAccessor.forResult( notAResult ).getRow( notAResult );
+  }
+}
@@ -50,6 +50,11 @@ public class HBaseRowDecoderMetaInjectionTest extends BaseMetadataInjectionTest<
         return meta.getIncomingResultField();
       }
     } );
+    check( "SALT_BUCKETS", new StringGetter() {
+      public String get() {
+        return meta.getSaltBuckets();
+      }
+    } );
 
     check( "TABLE_NAME", new StringGetter() {
       public String get() {